@@ -20,6 +20,7 @@
 package com.webank.weid.http;
 
 import com.webank.weid.config.FiscoConfig;
+import com.webank.weid.http.service.impl.EvidenceServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
@@ -38,6 +39,7 @@ public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class);
         FiscoConfig.topic = "weid-http-service";
+        EvidenceServiceRegistry.prewarm();
         logger.info("#### Start finished");
     }
 }
@@ -127,6 +127,36 @@ public enum HttpReturnCode {
      */
     SIGN_TYPE_ILLEGAL(201019, "SignType value illegal. "),
 
+    /**
+     * No asynchronous transaction with this hash, or its result has expired.
+     */
+    TRANSACTION_NOT_FOUND(201020, "Transaction not found or expired. "),
+
+    /**
+     * Batch is empty or larger than allowed.
+     */
+    BATCH_SIZE_ILLEGAL(201022, "Batch size is empty or exceeds the limit. "),
+
+    /**
+     * Transaction is on chain with a non-zero receipt status.
+     */
+    TRANSACTION_EXECUTE_FAILED(201023, "Transaction execution failed on chain. "),
+
+    /**
+     * The same signed transaction was already sent.
+     */
+    TRANSACTION_DUPLICATED(201024, "Duplicate transaction, it was already sent. "),
+
+    /**
+     * The weId of a public key was not found before the deadline of the request.
+     */
+    WEID_LOOKUP_TIMEOUT(201025, "Looking up the weId timed out. "),
+
+    /**
+     * A coalesced evidence write did not finish in time; it may still reach the chain.
+     */
+    EVIDENCE_WRITE_TIMEOUT(201026, "Waiting for the evidence batch timed out. "),
+
     /**
      * getWeIdListByPubKeyList interface error
      */
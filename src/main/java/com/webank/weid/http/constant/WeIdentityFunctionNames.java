@@ -46,6 +46,7 @@ public final class WeIdentityFunctionNames {
     public static final String FUNCNAME_QUERY_CPT = "queryCpt";
     public static final String FUNCNAME_CREATE_CREDENTIALPOJO = "createCredentialPojo";
     public static final String FUNCNAME_VERIFY_CREDENTIALPOJO = "verifyCredentialPojo";
+    public static final String FUNCNAME_VERIFY_CREDENTIALPOJO_BATCH = "verifyCredentialPojoBatch";
 
     public static final String FUNCNAME_CREATE_WEID_WITH_PUBKEY = "createWeIdWithPubKey";
     public static final String FUNCNAME_CREATE_WEID_WITH_PUBKEY_AND_RETURN_DOC = "createWeIdWithPubKey2";
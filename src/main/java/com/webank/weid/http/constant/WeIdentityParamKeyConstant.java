@@ -43,6 +43,7 @@ public final class WeIdentityParamKeyConstant {
     public static final String LOOP_BACK = "loopback";
     public static final String BODY = "body";
     public static final String LIST = "list";
+    public static final String CALLBACK_URL = "callbackUrl";
 
     public static final String DEFAULT_API_VERSION = "1.0.0";
     public static final String DEFAULT_PRIVATE_KEY_FILE_NAME = "ecdsa_key";
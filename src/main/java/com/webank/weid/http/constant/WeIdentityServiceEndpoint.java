@@ -33,14 +33,29 @@ public final class WeIdentityServiceEndpoint {
     public static final String API_ROOT = "weid/api";
     public static final String PAYMENT_ROOT = "payment";
     public static final String ENCODE_TRANSACTION = "encode";
+    public static final String ENCODE_TRANSACTION_BATCH = "encode/batch";
+    public static final String ENCODING_KIT = "encode/kit";
     public static final String SEND_TRANSACTION = "transact";
+    public static final String SEND_TRANSACTION_ASYNC = "transact/async";
+    public static final String SEND_TRANSACTION_BATCH = "transact/batch";
+    public static final String TRANSACTION_STATUS = "transact/status";
     public static final String INVOKE_FUNCTION = "invoke";
+    public static final String STREAM_INVOKE_FUNCTION = "stream/invoke";
+    public static final String METRICS = "metrics";
     public static final String WALLET_AGENT_BAC004_FUNCTION = "bac004/api/invoke";
     public static final String WALLET_AGENT_BAC005_FUNCTION = "bac005/api/invoke";
     public static final String WALLET_AGENT_BAC004_FUNCTION_ENCODE = "bac004/api/encode";
     public static final String WALLET_AGENT_BAC004_FUNCTION_TRANSACT = "bac004/api/transact";
     public static final String WALLET_AGENT_BAC005_FUNCTION_ENCODE = "bac005/api/encode";
     public static final String WALLET_AGENT_BAC005_FUNCTION_TRANSACT = "bac005/api/transact";
+    public static final String WALLET_AGENT_BAC004_FUNCTION_TRANSACT_ASYNC =
+        "bac004/api/transact/async";
+    public static final String WALLET_AGENT_BAC005_FUNCTION_TRANSACT_ASYNC =
+        "bac005/api/transact/async";
+    public static final String WALLET_AGENT_BAC004_FUNCTION_TRANSACT_BATCH =
+        "bac004/api/transact/batch";
+    public static final String WALLET_AGENT_BAC005_FUNCTION_TRANSACT_BATCH =
+        "bac005/api/transact/batch";
     
     /**
      * EP Service endpoint.
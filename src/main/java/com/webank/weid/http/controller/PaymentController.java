@@ -89,6 +89,22 @@ public class PaymentController {
         return walletAgentBAC004Service.sendTransaction(sendTransactionJsonArgs);
     }
 
+    @RequestMapping(value = WeIdentityServiceEndpoint.WALLET_AGENT_BAC004_FUNCTION_TRANSACT_ASYNC,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> transactWalletAgentBac004Async(
+        @RequestBody String sendTransactionJsonArgs
+    ) {
+        return walletAgentBAC004Service.sendTransactionAsync(sendTransactionJsonArgs);
+    }
+
+    @RequestMapping(value = WeIdentityServiceEndpoint.WALLET_AGENT_BAC004_FUNCTION_TRANSACT_BATCH,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> transactWalletAgentBac004Batch(
+        @RequestBody String sendTransactionJsonArgs
+    ) {
+        return walletAgentBAC004Service.sendTransactionBatch(sendTransactionJsonArgs);
+    }
+
     @RequestMapping(value = WeIdentityServiceEndpoint.WALLET_AGENT_BAC005_FUNCTION_ENCODE, method = RequestMethod.POST)
     public HttpResponseData<Object> encodeWalletAgentBac005(
         @RequestBody String encodeTransactionJsonArgs
@@ -103,4 +119,20 @@ public class PaymentController {
     ) {
         return walletAgentBAC005Service.sendTransaction(sendTransactionJsonArgs);
     }
+
+    @RequestMapping(value = WeIdentityServiceEndpoint.WALLET_AGENT_BAC005_FUNCTION_TRANSACT_ASYNC,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> transactWalletAgentBac005Async(
+        @RequestBody String sendTransactionJsonArgs
+    ) {
+        return walletAgentBAC005Service.sendTransactionAsync(sendTransactionJsonArgs);
+    }
+
+    @RequestMapping(value = WeIdentityServiceEndpoint.WALLET_AGENT_BAC005_FUNCTION_TRANSACT_BATCH,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> transactWalletAgentBac005Batch(
+        @RequestBody String sendTransactionJsonArgs
+    ) {
+        return walletAgentBAC005Service.sendTransactionBatch(sendTransactionJsonArgs);
+    }
 }
@@ -20,19 +20,23 @@
 package com.webank.weid.http.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.constant.WeIdentityServiceEndpoint;
 import com.webank.weid.http.protocol.request.EndpointRequest;
 import com.webank.weid.http.protocol.response.EndpointInfo;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.service.AsyncTransactionService;
 import com.webank.weid.http.service.AuthService;
 import com.webank.weid.http.service.EndpointService;
 import com.webank.weid.http.service.TransactionService;
+import com.webank.weid.http.util.JsonUtil;
 import com.webank.weid.protocol.base.CredentialPojo;
 import com.webank.weid.util.DataToolUtils;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +65,9 @@ public class TransactionController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
     private Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
     /**
@@ -78,6 +85,34 @@ public class TransactionController {
         return transactionService.encodeTransaction(encodeTransactionJsonArgs);
     }
 
+    /**
+     * Create a batch of Encoded Transactions for createWeId, registerAuthorityIssuer or
+     * registerCpt in one call.
+     *
+     * @param encodeTransactionJsonArgs the json format args. It should contain functionName,
+     * v, an empty transactionArg, and a functionArg whose list holds one entry per transaction,
+     * each with the functionArg and transactionArg of a single encode call.
+     * @return the list of encode results, in order, each with its own errorCode.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.ENCODE_TRANSACTION_BATCH,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> encodeTransactionBatch(
+        @RequestBody String encodeTransactionJsonArgs) {
+        return transactionService.encodeTransactionBatch(encodeTransactionJsonArgs);
+    }
+
+    /**
+     * Get an encoding kit, to encode createWeId, registerAuthorityIssuer and registerCpt
+     * transactions locally instead of calling encode for each of them.
+     *
+     * @return the kit (function layouts, contract addresses, chain and group IDs, and a
+     * blockLimit lease) with the admin key's signature over it.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.ENCODING_KIT, method = RequestMethod.GET)
+    public HttpResponseData<Object> getEncodingKit() {
+        return transactionService.getEncodingKit();
+    }
+
     /**
      * Send a signed Transaction to Chain.
      *
@@ -91,6 +126,58 @@ public class TransactionController {
         return transactionService.sendTransaction(sendTransactionJsonArgs);
     }
 
+    /**
+     * Send a signed Transaction to Chain in async mode, without waiting for it to be on chain.
+     *
+     * @param sendTransactionJsonArgs the same json format args as in sendTransaction, with an
+     * optional callbackUrl in transactionArg to post the final status to.
+     * @return the transaction hash and its PENDING status.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.SEND_TRANSACTION_ASYNC,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> sendTransactionAsync(
+        @RequestBody String sendTransactionJsonArgs) {
+        return transactionService.sendTransactionAsync(sendTransactionJsonArgs);
+    }
+
+    /**
+     * Send a batch of signed Transactions to Chain, many of them in flight at once.
+     *
+     * @param sendTransactionJsonArgs the json format args. It should contain functionName, v,
+     * an empty transactionArg, and a functionArg whose list holds one entry per transaction,
+     * each with the transactionArg of a single transact call.
+     * @return the receipt or error of each transaction, in order.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.SEND_TRANSACTION_BATCH,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> sendTransactionBatch(
+        @RequestBody String sendTransactionJsonArgs) {
+        return transactionService.sendTransactionBatch(sendTransactionJsonArgs);
+    }
+
+    /**
+     * Get the status of a Transaction sent in async mode, including the ones sent through the
+     * payment endpoints.
+     *
+     * @param transactionHash the transaction hash returned by the async send
+     * @return the status, with the decoded result once finished.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.TRANSACTION_STATUS
+        + "/{transactionHash}", method = RequestMethod.GET)
+    public HttpResponseData<Object> getTransactionStatus(@PathVariable String transactionHash) {
+        return asyncTransactionService.getStatus(transactionHash);
+    }
+
+    /**
+     * Get the runtime metrics of the service.
+     *
+     * @return the metrics of each registered source, by name.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.METRICS, method = RequestMethod.GET)
+    public HttpResponseData<Object> getMetrics() {
+        return transactionService.getMetrics();
+    }
+
     /**
      * Invoke an SDK function.
      *
@@ -104,6 +191,25 @@ public class TransactionController {
         return transactionService.invokeFunction(invokeFunctionJsonArgs);
     }
 
+    /**
+     * Invoke a batch SDK function, with the request body read as a stream. Meant for large
+     * lists such as delegateCreateEvidenceB.
+     *
+     * @param request the http request, with a body in the same format as invokeFunction, except
+     * that functionName, v and transactionArg must come before functionArg
+     * @return the json string from SDK response.
+     */
+    @RequestMapping(value = WeIdentityServiceEndpoint.STREAM_INVOKE_FUNCTION,
+        method = RequestMethod.POST)
+    public HttpResponseData<Object> invokeFunctionStream(HttpServletRequest request) {
+        try (InputStream inputStream = request.getInputStream()) {
+            return transactionService.invokeFunctionStream(inputStream);
+        } catch (IOException e) {
+            logger.error("[invokeFunctionStream]: failed to read the request body", e);
+            return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL);
+        }
+    }
+
     /**
      * Get all registered Endpoints from endpoint services.
      *
@@ -126,8 +232,7 @@ public class TransactionController {
         EndpointRequest endpointRequest = new EndpointRequest();
         endpointRequest.setRequestName(endpoint);
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(requestBody);
+            JsonNode jsonNode = JsonUtil.readTree(requestBody);
             if (jsonNode == null) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
@@ -162,8 +267,7 @@ public class TransactionController {
         + "/" + WeIdentityServiceEndpoint.AUTHO_FETCH_DATA, method = RequestMethod.POST)
     public HttpResponseData<String> authFetchData(@RequestBody String requestBody) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(requestBody);
+            JsonNode jsonNode = JsonUtil.readTree(requestBody);
             if (jsonNode == null) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
@@ -197,8 +301,7 @@ public class TransactionController {
         + "/" + WeIdentityServiceEndpoint.AUTHO_REQUEST_NONCE, method = RequestMethod.POST)
     public HttpResponseData<String> authRequestToken(@RequestBody String requestBody) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(requestBody);
+            JsonNode jsonNode = JsonUtil.readTree(requestBody);
             if (jsonNode == null) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
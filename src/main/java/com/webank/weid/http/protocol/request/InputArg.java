@@ -19,10 +19,17 @@
 
 package com.webank.weid.http.protocol.request;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.webank.weid.http.util.JsonUtil;
+import java.io.IOException;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
- * The common input argument for all Service API.
+ * The common input argument for all Service API. The function and transaction arguments are kept
+ * as the parsed JsonNode trees of the request body, so that they are tokenized only once per
+ * request; the String forms are derived lazily (and cached) for legacy callers.
  *
  * @author chaoxinhu
  **/
@@ -48,4 +55,78 @@ public class InputArg {
      * Required: the API version.
      */
     String v;
+
+    /**
+     * The parsed tree of functionArg.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    transient JsonNode functionArgNode;
+
+    /**
+     * The parsed tree of transactionArg.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    transient JsonNode transactionArgNode;
+
+    public String getFunctionArg() {
+        if (functionArg == null && functionArgNode != null) {
+            functionArg = functionArgNode.toString();
+        }
+        return functionArg;
+    }
+
+    public void setFunctionArg(String functionArg) {
+        this.functionArg = functionArg;
+        this.functionArgNode = null;
+    }
+
+    public String getTransactionArg() {
+        if (transactionArg == null && transactionArgNode != null) {
+            transactionArg = transactionArgNode.toString();
+        }
+        return transactionArg;
+    }
+
+    public void setTransactionArg(String transactionArg) {
+        this.transactionArg = transactionArg;
+        this.transactionArgNode = null;
+    }
+
+    /**
+     * Get the parsed functionArg tree, parsing the String form only if no tree is present.
+     *
+     * @return the functionArg JsonNode
+     * @throws IOException the functionArg is not a valid Json
+     */
+    public JsonNode getFunctionArgNode() throws IOException {
+        if (functionArgNode == null && functionArg != null) {
+            functionArgNode = JsonUtil.readTree(functionArg);
+        }
+        return functionArgNode;
+    }
+
+    public void setFunctionArgNode(JsonNode functionArgNode) {
+        this.functionArgNode = functionArgNode;
+        this.functionArg = null;
+    }
+
+    /**
+     * Get the parsed transactionArg tree, parsing the String form only if no tree is present.
+     *
+     * @return the transactionArg JsonNode
+     * @throws IOException the transactionArg is not a valid Json
+     */
+    public JsonNode getTransactionArgNode() throws IOException {
+        if (transactionArgNode == null && transactionArg != null) {
+            transactionArgNode = JsonUtil.readTree(transactionArg);
+        }
+        return transactionArgNode;
+    }
+
+    public void setTransactionArgNode(JsonNode transactionArgNode) {
+        this.transactionArgNode = transactionArgNode;
+        this.transactionArg = null;
+    }
 }
@@ -15,4 +15,5 @@ public class TransactionArg {
     Object loopback;
     String blockLimit;
     int signType;
+    String callbackUrl;
 }
@@ -0,0 +1,52 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.protocol.response;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * What a client needs to encode the client-signed transactions by itself, for as long as the
+ * blockLimit lease holds.
+ */
+@Data
+public class EncodingKit {
+
+    private String chainId;
+    private String groupId;
+
+    /**
+     * 0 for ECDSA, 1 for SM2/SM3, which decides the signature fields of the transaction.
+     */
+    private Integer encryptType;
+
+    /**
+     * The blockLimit to put into the transactions.
+     */
+    private String blockLimit;
+
+    /**
+     * When the kit was issued, and when a new one should be fetched, in milliseconds.
+     */
+    private Long issuedAt;
+    private Long expiresAt;
+
+    private List<FunctionTemplate> functions;
+}
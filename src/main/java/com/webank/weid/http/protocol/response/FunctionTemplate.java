@@ -0,0 +1,55 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.protocol.response;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * The ABI layout of a client-signed contract function, enough to encode its call data locally.
+ */
+@Data
+public class FunctionTemplate {
+
+    /**
+     * The function name used in the encode and transact requests.
+     */
+    private String functionName;
+
+    /**
+     * The contract method signature, such as createWeId(address,bytes,bytes,int256).
+     */
+    private String signature;
+
+    /**
+     * The method selector in hex, which starts the call data.
+     */
+    private String selector;
+
+    /**
+     * The parameters in order, each as its type and what the server encode puts into it.
+     */
+    private List<String> inputs;
+
+    /**
+     * The contract the transaction is sent to.
+     */
+    private String contractAddress;
+}
@@ -0,0 +1,42 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.protocol.response;
+
+import lombok.Data;
+
+/**
+ * An encoding kit signed by the server's admin key. The signature is over the kit serialized
+ * as compact json with sorted keys.
+ */
+@Data
+public class SignedEncodingKit {
+
+    private EncodingKit kit;
+
+    /**
+     * The signature in Base64.
+     */
+    private String signature;
+
+    /**
+     * The WeID of the admin key, to verify the signature with.
+     */
+    private String signer;
+}
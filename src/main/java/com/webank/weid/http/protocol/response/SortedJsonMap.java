@@ -0,0 +1,145 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.http.protocol.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.webank.weid.http.util.JsonUtil;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A response body with its top level keys in order. It holds the value as the tree Jackson built
+ * from it, and is written out from that tree straight into the response, instead of going through
+ * a json String and a TreeMap first. The output is the same as the old sorted map one.
+ *
+ * <p>It is still a Map for the callers of the services: the first Map access turns it into a
+ * TreeMap, which is then the one written out.
+ */
+@JsonSerialize(using = SortedJsonMap.Serializer.class)
+public final class SortedJsonMap extends AbstractMap<String, Object> {
+
+    private ObjectNode tree;
+
+    private Map<String, Object> map;
+
+    private SortedJsonMap(ObjectNode tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Wrap a value, serialized with the sorted (field based) mapper.
+     *
+     * @param value the value
+     * @return the sorted body, or null if the value is null or not a json object
+     */
+    public static SortedJsonMap of(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return of(JsonUtil.valueToTree(value));
+    }
+
+    /**
+     * Wrap an already built tree; its nested content is written as-is.
+     *
+     * @param node the tree
+     * @return the sorted body, or null if the node is not a json object
+     */
+    public static SortedJsonMap of(JsonNode node) {
+        return node instanceof ObjectNode ? new SortedJsonMap((ObjectNode) node) : null;
+    }
+
+    /**
+     * Add a top level entry.
+     *
+     * @param key the key
+     * @param value the value
+     * @return this body
+     */
+    public SortedJsonMap with(String key, Object value) {
+        if (map != null) {
+            map.put(key, value);
+        } else {
+            tree.set(key, JsonUtil.valueToTree(value));
+        }
+        return this;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return view().entrySet();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return view().put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> view() {
+        if (map == null) {
+            map = new TreeMap<>(JsonUtil.treeToValue(tree, HashMap.class));
+            tree = null;
+        }
+        return map;
+    }
+
+    static final class Serializer extends StdSerializer<SortedJsonMap> {
+
+        Serializer() {
+            super(SortedJsonMap.class);
+        }
+
+        @Override
+        public void serialize(
+            SortedJsonMap value,
+            JsonGenerator gen,
+            SerializerProvider provider
+        ) throws IOException {
+            if (value.map != null) {
+                provider.defaultSerializeValue(value.map, gen);
+                return;
+            }
+            ObjectNode tree = value.tree;
+            String[] fieldNames = new String[tree.size()];
+            Iterator<String> it = tree.fieldNames();
+            for (int i = 0; it.hasNext(); i++) {
+                fieldNames[i] = it.next();
+            }
+            Arrays.sort(fieldNames);
+            gen.writeStartObject();
+            for (String fieldName : fieldNames) {
+                gen.writeFieldName(fieldName);
+                tree.get(fieldName).serialize(gen, provider);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
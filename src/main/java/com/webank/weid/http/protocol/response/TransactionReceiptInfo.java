@@ -0,0 +1,35 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.protocol.response;
+
+import java.math.BigInteger;
+import lombok.Data;
+
+/**
+ * Where a transaction landed on chain, and its receipt status.
+ */
+@Data
+public class TransactionReceiptInfo {
+
+    private String transactionHash;
+    private BigInteger blockNumber;
+    private BigInteger transactionIndex;
+    private String status;
+}
@@ -0,0 +1,53 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service;
+
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the state of the transactions sent in async mode, and notifies their callback urls.
+ */
+public interface AsyncTransactionService {
+
+    /**
+     * Track a transaction already sent to the chain.
+     *
+     * @param transactionHash the transaction hash
+     * @param loopBack the loopback of the request
+     * @param callbackUrl the url the final status is posted to, can be null
+     * @param result the future result, decoded from the receipt
+     * @return the pending status
+     */
+    HttpResponseData<Object> track(
+        String transactionHash,
+        Object loopBack,
+        String callbackUrl,
+        CompletableFuture<HttpResponseData<Object>> result
+    );
+
+    /**
+     * Get the state of a transaction sent in async mode.
+     *
+     * @param transactionHash the transaction hash
+     * @return the status, or TRANSACTION_NOT_FOUND
+     */
+    HttpResponseData<Object> getStatus(String transactionHash);
+}
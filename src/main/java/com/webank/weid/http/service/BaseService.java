@@ -19,10 +19,19 @@
 
 package com.webank.weid.http.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.exception.DataTypeCastException;
+import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
+import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.request.TransactionArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.util.JsonUtil;
 import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.http.util.WeIdExistenceChecker;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import com.webank.weid.rpc.WeIdService;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -85,7 +94,35 @@ public abstract class BaseService extends com.webank.weid.service.BaseService {
     }
 
     protected HttpResponseData<Object> checkWeIdExist(WeIdService weIdService, String weId) {
-        com.webank.weid.protocol.response.ResponseData<Boolean> weIdExist = weIdService.isWeIdExist(weId);
+        com.webank.weid.protocol.response.ResponseData<Boolean> weIdExist =
+            WeIdExistenceChecker.getInstance().isWeIdExist(weId, weIdService::isWeIdExist);
+        return toWeIdExistResponse(weId, weIdExist);
+    }
+
+    /**
+     * Check that all of a list of WeIDs exist, looking them up in parallel.
+     *
+     * @param weIdService the WeID service to look them up with
+     * @param weIds the WeIDs
+     * @return null if all of them exist, or the error of the first one which does not
+     */
+    protected HttpResponseData<Object> checkWeIdExist(WeIdService weIdService, List<String> weIds) {
+        Map<String, com.webank.weid.protocol.response.ResponseData<Boolean>> weIdExist =
+            WeIdExistenceChecker.getInstance().isWeIdExist(weIds, weIdService::isWeIdExist);
+        for (Map.Entry<String, com.webank.weid.protocol.response.ResponseData<Boolean>> entry
+            : weIdExist.entrySet()) {
+            HttpResponseData<Object> response = toWeIdExistResponse(entry.getKey(), entry.getValue());
+            if (response != null) {
+                return response;
+            }
+        }
+        return null;
+    }
+
+    private static HttpResponseData<Object> toWeIdExistResponse(
+        String weId,
+        com.webank.weid.protocol.response.ResponseData<Boolean> weIdExist
+    ) {
         if (!weIdExist.getResult()) {
             return new HttpResponseData<>(
                     weIdExist.getResult(),
@@ -100,4 +137,27 @@ public abstract class BaseService extends com.webank.weid.service.BaseService {
         TransactionArg transactionArg = DataToolUtils.deserialize(transactionArgStr, TransactionArg.class);
         return transactionArg.getLoopback();
     }
+
+    /**
+     * Extract the loopback from the already parsed transactionArg of an input.
+     *
+     * @param inputArg the input arg
+     * @return the loopback object, or null if absent
+     */
+    protected static Object getLoopBack(InputArg inputArg) {
+        JsonNode txnArgNode;
+        try {
+            txnArgNode = inputArg.getTransactionArgNode();
+        } catch (IOException e) {
+            throw new DataTypeCastException(e);
+        }
+        if (txnArgNode == null) {
+            return null;
+        }
+        JsonNode loopBackNode = txnArgNode.get(WeIdentityParamKeyConstant.LOOP_BACK);
+        if (loopBackNode == null || loopBackNode.isNull()) {
+            return null;
+        }
+        return JsonUtil.treeToValue(loopBackNode, Object.class);
+    }
 }
@@ -65,4 +65,12 @@ public interface InvokerCredentialService {
      * @return boolean
      */
     HttpResponseData<Boolean> verifyCredentialPojoInvoke(InputArg verifyCredentialPojoFuncArgs);
+
+    /**
+     * Verify a list of Credential Pojos, reading the document of each issuer once.
+     *
+     * @param verifyCredentialPojoBatchFuncArgs the credential list args
+     * @return the result of each credential
+     */
+    HttpResponseData<Object> verifyCredentialPojoBatchInvoke(InputArg verifyCredentialPojoBatchFuncArgs);
 }
@@ -1,7 +1,9 @@
 package com.webank.weid.http.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.util.Iterator;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,6 +15,17 @@ public interface InvokerEvidenceService {
 
     HttpResponseData<Object> delegateCreateEvidenceBatch(InputArg args);
 
+    /**
+     * Create evidences in chunks from lazily read entries, as from a streamed request body.
+     * Each chunk is a separate batch transaction, so a failure can leave the earlier chunks
+     * on chain.
+     *
+     * @param args the input argument, its functionArg carries no list
+     * @param entries the evidence entries
+     * @return the per-entry results; on failure, the results of the chunks already sent
+     */
+    HttpResponseData<Object> delegateCreateEvidenceBatch(InputArg args, Iterator<JsonNode> entries);
+
     HttpResponseData<Object> getEvidenceByCustomKey(InputArg args);
 
     HttpResponseData<Object> getEvidenceByHash(InputArg args);
@@ -23,5 +23,24 @@ public interface RawTransaction {
      * @return the json string from SDK response.
      */
     HttpResponseData<Object> sendTransaction(String sendTransactionJsonArgs);
-}
 
+    /**
+     * Send Transaction to Blockchain without waiting for it to be on chain. The result can be
+     * polled by the returned transaction hash, or is posted to the callbackUrl in transactionArgs,
+     * which must start with one of transaction.callback.allowed.prefixes.
+     *
+     * @param sendTransactionJsonArgs the same json format args as in sendTransaction.
+     * @return the transaction hash and status.
+     */
+    HttpResponseData<Object> sendTransactionAsync(String sendTransactionJsonArgs);
+
+    /**
+     * Send a batch of signed Transactions to Blockchain, many of them in flight at once, and
+     * wait until all of them are on chain or failed.
+     *
+     * @param sendTransactionJsonArgs functionName and apiVersion as in sendTransaction, and a
+     * functionArg whose list holds one {functionArg, transactionArg} entry per transaction.
+     * @return the result or error of each entry, in order.
+     */
+    HttpResponseData<Object> sendTransactionBatch(String sendTransactionJsonArgs);
+}
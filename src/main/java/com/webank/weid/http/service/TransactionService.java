@@ -19,6 +19,8 @@
 
 package com.webank.weid.http.service;
 
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.io.InputStream;
 import org.springframework.stereotype.Service;
 
 /**
@@ -29,4 +31,40 @@ import org.springframework.stereotype.Service;
 @Service
 public interface TransactionService extends InvokeService, RawTransaction {
 
+    /**
+     * Invoke a batch SDK function, reading the request body as a stream. The list entries are
+     * processed in chunks as they are read, so the body is never held in memory as a whole.
+     *
+     * @param inputStream the request body, in the same format as invokeFunction; functionName,
+     * v and transactionArg must come before functionArg, and list must be the last key of it
+     * @return the json string from SDK response.
+     */
+    HttpResponseData<Object> invokeFunctionStream(InputStream inputStream);
+
+    /**
+     * Create Encoded Transactions for a list of client-signed function calls, sharing one
+     * blockLimit and chain snapshot. Each entry gets its own result or error, in order.
+     *
+     * @param encodeTransactionJsonArgs the json format args: functionName and apiVersion, and
+     * a functionArg whose list holds one {functionArg, transactionArg} entry per transaction
+     * @return the list of encodeTransaction responses.
+     */
+    HttpResponseData<Object> encodeTransactionBatch(String encodeTransactionJsonArgs);
+
+    /**
+     * Get a signed encoding kit: the ABI layouts and target contracts of the client-signed
+     * functions, the chain and group IDs, and a blockLimit lease, so that clients can encode
+     * their transactions locally and only call transact.
+     *
+     * @return the encoding kit, signed by the admin key.
+     */
+    HttpResponseData<Object> getEncodingKit();
+
+    /**
+     * Get the runtime metrics: the calls of each function, and the hits and misses of the
+     * replay guard.
+     *
+     * @return the metrics of each registered source, by name.
+     */
+    HttpResponseData<Object> getMetrics();
 }
@@ -0,0 +1,114 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service.dispatch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A registered function: its canonical name, the argument type its input is bound to, whether
+ * it reads or writes, and the executor doing the work. Every execution is counted here, so the
+ * per-function metrics come from one place.
+ *
+ * @param <A> the dispatch input type
+ * @param <R> the result type
+ */
+public final class FunctionHandler<A, R> {
+
+    private final String functionName;
+
+    private final Class<?> argType;
+
+    private final FunctionType functionType;
+
+    private final Function<A, R> executor;
+
+    private final LongAdder invocationCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    FunctionHandler(
+        String functionName,
+        Class<?> argType,
+        FunctionType functionType,
+        Function<A, R> executor
+    ) {
+        this.functionName = functionName;
+        this.argType = argType;
+        this.functionType = functionType;
+        this.executor = executor;
+    }
+
+    /**
+     * Run the executor on the input.
+     *
+     * @param arg the dispatch input
+     * @return the executor result
+     */
+    public R execute(A arg) {
+        long start = System.nanoTime();
+        try {
+            return executor.apply(arg);
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            throw e;
+        } finally {
+            invocationCount.increment();
+            totalNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    public Class<?> getArgType() {
+        return argType;
+    }
+
+    public FunctionType getFunctionType() {
+        return functionType;
+    }
+
+    public boolean isWrite() {
+        return functionType == FunctionType.WRITE;
+    }
+
+    /**
+     * Get a snapshot of the execution metrics of this function.
+     *
+     * @return invocations, failures and average latency in milliseconds
+     */
+    public Map<String, Object> getMetrics() {
+        long invocations = invocationCount.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("type", functionType.name());
+        metrics.put("invocations", invocations);
+        metrics.put("failures", failureCount.sum());
+        metrics.put("avgMillis", invocations == 0 ? 0D
+            : totalNanos.sum() / (double) invocations / TimeUnit.MILLISECONDS.toNanos(1));
+        return metrics;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service.dispatch;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Maps normalized (case insensitive) function names to their handlers. Handlers are registered
+ * once when the owning service is constructed, after which the table is only read, so lookups
+ * are a single hash probe without any locking.
+ *
+ * @param <A> the dispatch input type
+ * @param <R> the result type
+ */
+public final class FunctionRegistry<A, R> {
+
+    private final Map<String, FunctionHandler<A, R>> handlers = new HashMap<>();
+
+    /**
+     * Register a function.
+     *
+     * @param functionName the canonical function name, from WeIdentityFunctionNames or
+     *     WalletAgentFunctionNames
+     * @param argType the type the function argument is bound to
+     * @param functionType read or write
+     * @param executor the executor
+     * @return this registry, for chaining
+     */
+    public FunctionRegistry<A, R> register(
+        String functionName,
+        Class<?> argType,
+        FunctionType functionType,
+        Function<A, R> executor
+    ) {
+        String key = normalize(functionName);
+        if (handlers.containsKey(key)) {
+            throw new IllegalStateException("Duplicated function registration: " + functionName);
+        }
+        handlers.put(key, new FunctionHandler<>(functionName, argType, functionType, executor));
+        return this;
+    }
+
+    /**
+     * Look up a function by name, case insensitive.
+     *
+     * @param functionName the function name from the request
+     * @return the handler, or null if no such function is registered
+     */
+    public FunctionHandler<A, R> get(String functionName) {
+        if (StringUtils.isEmpty(functionName)) {
+            return null;
+        }
+        return handlers.get(normalize(functionName));
+    }
+
+    public Collection<FunctionHandler<A, R>> getHandlers() {
+        return Collections.unmodifiableCollection(handlers.values());
+    }
+
+    /**
+     * Get the execution metrics of all registered functions, keyed by canonical name.
+     *
+     * @return the metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (FunctionHandler<A, R> handler : handlers.values()) {
+            metrics.put(handler.getFunctionName(), handler.getMetrics());
+        }
+        return metrics;
+    }
+
+    private static String normalize(String functionName) {
+        return functionName.toLowerCase(Locale.ROOT);
+    }
+}
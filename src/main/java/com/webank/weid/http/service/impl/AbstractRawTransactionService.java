@@ -1,10 +1,13 @@
 package com.webank.weid.http.service.impl;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.webank.weid.exception.DataTypeCastException;
 import com.webank.weid.exception.WeIdBaseException;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import com.webank.payment.constant.ErrorCode;
 import com.webank.payment.protocol.response.ResponseData;
@@ -16,19 +19,34 @@ import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.request.ReqInput;
 import com.webank.weid.http.protocol.request.TransactionArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.service.AsyncTransactionService;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.RawTransaction;
+import com.webank.weid.http.util.ChainMetadataUtil;
 import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.http.util.RawTransactionPipeline;
+import com.webank.weid.http.util.ReplayGuard;
 import com.webank.weid.http.util.TransactionEncoderUtil;
 import com.webank.weid.http.util.TransactionEncoderUtilV2;
-import com.webank.weid.util.DataToolUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public abstract class AbstractRawTransactionService extends BaseService implements RawTransaction {
     
+    private static final int SEND_BATCH_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.send.batch.max.size", "1000"));
+
     private Logger logger = LoggerFactory.getLogger(AbstractRawTransactionService.class);
     
     private RawTransactionService rawTransactionService;
 
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
     private RawTransactionService getRawTransactionService() {
         if (rawTransactionService == null) {
             rawTransactionService = new RawTransactionServiceImpl();
@@ -40,14 +58,30 @@ public abstract class AbstractRawTransactionService extends BaseService implemen
         ReqInput<F> reqInput = new ReqInput<F>();
         reqInput.setV(inputArg.getV());
         reqInput.setFunctionName(inputArg.getFunctionName());
-        if (functionClass != String.class) {
-            reqInput.setFunctionArg(
-                DataToolUtils.deserialize(inputArg.getFunctionArg(), functionClass)); 
+        try {
+            // bind from the already parsed trees, the request body is not tokenized again
+            if (functionClass != String.class) {
+                reqInput.setFunctionArg(
+                    JsonUtil.treeToValue(inputArg.getFunctionArgNode(), functionClass));
+            }
+            reqInput.setTransactionArg(
+                JsonUtil.treeToValue(inputArg.getTransactionArgNode(), TransactionArg.class));
+        } catch (IOException e) {
+            throw new DataTypeCastException(e);
         }
-        reqInput.setTransactionArg(
-            DataToolUtils.deserialize(inputArg.getTransactionArg(), TransactionArg.class));
         return reqInput;
     }
+
+    /**
+     * Bind a function taking a typed request to the raw input argument, so it can be put into a
+     * FunctionRegistry keyed by InputArg.
+     */
+    protected <F, R> Function<InputArg, R> bind(
+        Class<F> functionClass,
+        Function<ReqInput<F>, R> function
+    ) {
+        return inputArg -> function.apply(toReqInput(inputArg, functionClass));
+    }
     
     @Override
     public HttpResponseData<Object> encodeTransaction(String encodeTransactionJsonArgs) {
@@ -60,9 +94,8 @@ public abstract class AbstractRawTransactionService extends BaseService implemen
                 logger.error("Failed to build input argument: {}", encodeTransactionJsonArgs);
                 return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
             }
-            loopBack = getLoopBack(inputArg.getTransactionArg());
+            loopBack = getLoopBack(inputArg);
             ReqInput<String> req = toReqInput(inputArg, String.class);
-            req.setFunctionArg(inputArg.getFunctionArg());
             TransactionArg transactionArg = req.getTransactionArg();
             if (transactionArg == null || StringUtils.isBlank(transactionArg.getNonce())) {
                 logger.error("Null input within TransactionArg: {}", transactionArg);
@@ -82,8 +115,8 @@ public abstract class AbstractRawTransactionService extends BaseService implemen
                 .createClientEncodeResult(
                     functionRes.getRespBody(), 
                     nonce,
-                    doGetTo(req), 
-                    fiscoConfig.getGroupId()
+                    doGetTo(inputArg), 
+                    ChainMetadataUtil.get().getGroupId()
                 );
             return new HttpResponseData<>(
                 JsonUtil.convertJsonToSortedMap(functionEncode),
@@ -117,50 +150,24 @@ public abstract class AbstractRawTransactionService extends BaseService implemen
                 return new HttpResponseData<>(StringUtils.EMPTY, resp.getErrorCode(),
                     resp.getErrorMessage());
             }
-            loopBack = getLoopBack(inputArg.getTransactionArg());
+            loopBack = getLoopBack(inputArg);
             ReqInput<String> req = toReqInput(inputArg, String.class);
-            req.setFunctionArg(inputArg.getFunctionArg());
-            TransactionArg transactionArg = req.getTransactionArg();
-            String nonce = transactionArg.getNonce();
-            String blockLimit = transactionArg.getBlockLimit();
-            String data = transactionArg.getData();
-            String signedMessage = transactionArg.getSignedMessage();
-            String to = transactionArg.getToAddress();
-            if (nonce == null || StringUtils.isEmpty(nonce)) {
-                logger.error("Null input within: {}", transactionArg);
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.NONCE_ILLEGAL);
+            HttpResponseData<String> txnHexRes =
+                buildTxnHex(inputArg, req.getTransactionArg(), loopBack);
+            if (txnHexRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, txnHexRes.getErrorCode(),
+                    txnHexRes.getErrorMessage());
+            }
+            String txnHex = txnHexRes.getRespBody();
+            ResponseData<TransactionReceipt> sendTransaction;
+            try {
+                sendTransaction = getRawTransactionService().sendTransaction(txnHex);
+            } catch (RuntimeException e) {
+                ReplayGuard.releaseTransaction(txnHex);
+                throw e;
             }
-            if (blockLimit == null || StringUtils.isEmpty(blockLimit)) {
-                logger.error("Null input within: {}", transactionArg);
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
-            }
-            if (data == null || StringUtils.isEmpty(data)) {
-                logger.error("Null input within: {}", transactionArg);
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.DATA_ILLEGAL);
-            }
-            if (signedMessage == null || StringUtils.isEmpty(signedMessage)) {
-                logger.error("Null input within: {}", transactionArg);
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGNED_MSG_ILLEGAL);
-            }
-            if (transactionArg.getSignType() == 0) {
-                logger.error("Null input within: {}", transactionArg);
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGN_TYPE_ILLEGAL);
-            }
-            //如果为空则说明向系统获取
-            if (StringUtils.isEmpty(to)) {
-                to = doGetTo(req);
-            }
-            String txnHex = TransactionEncoderUtilV2.createTxnHex(
-                signedMessage, 
-                nonce, 
-                to, 
-                data,
-                blockLimit,
-                SignType.getSignTypeByCode(transactionArg.getSignType())
-            );
-            ResponseData<TransactionReceipt> sendTransaction = 
-                getRawTransactionService().sendTransaction(txnHex);
             if (sendTransaction.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                ReplayGuard.releaseTransaction(txnHex);
                 return new HttpResponseData<>(
                     null,
                     loopBack,
@@ -185,8 +192,225 @@ public abstract class AbstractRawTransactionService extends BaseService implemen
                 HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(errorMsg));
         }
     }
+
+    /**
+     * Send Transaction to Blockchain in async mode: the transaction is submitted to the node
+     * and its receipt is decoded by doSendTransaction once the receipt tracker sees it on chain.
+     *
+     * @param sendTransactionJsonArgs the same json format args as in sendTransaction, with an
+     * optional callbackUrl in transactionArgs.
+     * @return the transaction hash and status.
+     */
+    @Override
+    public HttpResponseData<Object> sendTransactionAsync(String sendTransactionJsonArgs) {
+        Object loopBack = null;
+        try {
+            HttpResponseData<InputArg> resp = TransactionEncoderUtil
+                .buildInputArg(sendTransactionJsonArgs);
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument: {}", sendTransactionJsonArgs);
+                return new HttpResponseData<>(StringUtils.EMPTY, resp.getErrorCode(),
+                    resp.getErrorMessage());
+            }
+            loopBack = getLoopBack(inputArg);
+            ReqInput<String> req = toReqInput(inputArg, String.class);
+            TransactionArg transactionArg = req.getTransactionArg();
+            String callbackUrl = transactionArg == null ? null : transactionArg.getCallbackUrl();
+            if (!AsyncTransactionServiceImpl.isValidCallbackUrl(callbackUrl)) {
+                logger.error("Illegal callback url: {}", callbackUrl);
+                return new HttpResponseData<>(null, loopBack, HttpReturnCode.INPUT_ILLEGAL);
+            }
+            HttpResponseData<String> txnHexRes = buildTxnHex(inputArg, transactionArg, loopBack);
+            if (txnHexRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, txnHexRes.getErrorCode(),
+                    txnHexRes.getErrorMessage());
+            }
+            String txnHex = txnHexRes.getRespBody();
+            String transactionHash;
+            try {
+                transactionHash = TransactionEncoderUtilV2.sendRawTransaction(txnHex);
+            } catch (IOException | RuntimeException e) {
+                ReplayGuard.releaseTransaction(txnHex);
+                throw e;
+            }
+            Object requestLoopBack = loopBack;
+            return asyncTransactionService.track(
+                transactionHash,
+                loopBack,
+                callbackUrl,
+                TransactionEncoderUtilV2.getTransactionReceiptAsync(transactionHash)
+                    .thenApply(receipt -> {
+                        HttpResponseData<Object> responseData = doSendTransaction(inputArg, receipt);
+                        responseData.setLoopback(requestLoopBack);
+                        return responseData;
+                    }));
+        } catch (WeIdBaseException e) {
+            logger.error("[sendTransactionAsync]: sendTransaction failed, input argument {}",
+                sendTransactionJsonArgs,
+                e);
+            return new HttpResponseData<>(null, loopBack, e.getErrorCode().getCode(), e.getMessage());
+        } catch (Exception e) {
+            logger.error("[sendTransactionAsync]: unknown error with input argument {}",
+                sendTransactionJsonArgs,
+                e);
+            String errorMsg = StringUtils.isBlank(e.getMessage()) ? "" : e.getMessage();
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(errorMsg));
+        }
+    }
+
+    /**
+     * Send a batch of signed Transactions to Blockchain through the shared transaction
+     * pipeline; the receipt of each entry is decoded by doSendTransaction, as in
+     * sendTransaction.
+     *
+     * @param sendTransactionJsonArgs functionName and apiVersion as in sendTransaction, and a
+     * functionArg whose list holds one {functionArg, transactionArg} entry per transaction.
+     * @return the result or error of each entry, in order.
+     */
+    @Override
+    public HttpResponseData<Object> sendTransactionBatch(String sendTransactionJsonArgs) {
+        Object loopBack = null;
+        try {
+            HttpResponseData<InputArg> resp = TransactionEncoderUtil
+                .buildInputArg(sendTransactionJsonArgs);
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument: {}", sendTransactionJsonArgs);
+                return new HttpResponseData<>(StringUtils.EMPTY, resp.getErrorCode(),
+                    resp.getErrorMessage());
+            }
+            loopBack = getLoopBack(inputArg);
+            HttpResponseData<List<InputArg>> entriesRes =
+                TransactionEncoderUtil.splitBatchInputArg(inputArg, SEND_BATCH_MAX_SIZE);
+            if (entriesRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, entriesRes.getErrorCode(),
+                    entriesRes.getErrorMessage());
+            }
+            List<CompletableFuture<HttpResponseData<Object>>> futures = new ArrayList<>();
+            for (InputArg entry : entriesRes.getRespBody()) {
+                futures.add(sendEntry(entry));
+            }
+            List<HttpResponseData<Object>> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<HttpResponseData<Object>> future : futures) {
+                results.add(future.join());
+            }
+            return new HttpResponseData<>(results, loopBack, HttpReturnCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[sendTransactionBatch]: unknown error with input argument {}",
+                sendTransactionJsonArgs,
+                e);
+            String errorMsg = StringUtils.isBlank(e.getMessage()) ? "" : e.getMessage();
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(errorMsg));
+        }
+    }
+
+    private CompletableFuture<HttpResponseData<Object>> sendEntry(InputArg entry) {
+        try {
+            if (entry.getFunctionArgNode() == null) {
+                entry.setFunctionArgNode(JsonNodeFactory.instance.objectNode());
+            }
+            if (entry.getTransactionArgNode() == null) {
+                return CompletableFuture.completedFuture(
+                    new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL));
+            }
+            ReqInput<String> req = toReqInput(entry, String.class);
+            HttpResponseData<String> txnHexRes =
+                buildTxnHex(entry, req.getTransactionArg(), null);
+            if (txnHexRes.getRespBody() == null) {
+                return CompletableFuture.completedFuture(new HttpResponseData<>(null,
+                    txnHexRes.getErrorCode(), txnHexRes.getErrorMessage()));
+            }
+            String txnHex = txnHexRes.getRespBody();
+            return RawTransactionPipeline.getInstance().submit(txnHex)
+                .handle((receipt, error) -> {
+                    if (error != null) {
+                        ReplayGuard.releaseTransaction(txnHex);
+                        return RawTransactionPipeline.toErrorResponse(error);
+                    }
+                    try {
+                        return doSendTransaction(entry, receipt);
+                    } catch (WeIdBaseException e) {
+                        return new HttpResponseData<>(null, e.getErrorCode().getCode(),
+                            e.getMessage());
+                    } catch (Exception e) {
+                        return RawTransactionPipeline.toErrorResponse(e);
+                    }
+                });
+        } catch (WeIdBaseException e) {
+            logger.error("[sendTransactionBatch]: failed to send entry of {}",
+                entry.getFunctionName(), e);
+            return CompletableFuture.completedFuture(
+                new HttpResponseData<>(null, e.getErrorCode().getCode(), e.getMessage()));
+        } catch (Exception e) {
+            logger.error("[sendTransactionBatch]: failed to send entry of {}",
+                entry.getFunctionName(), e);
+            return CompletableFuture.completedFuture(RawTransactionPipeline.toErrorResponse(e));
+        }
+    }
+
+    /**
+     * Check the transaction args and rebuild the signed transaction hex from them, claiming it
+     * on the replay guard; a transaction which then fails to send must be released.
+     *
+     * @return the transaction hex, or a null body with the error code
+     */
+    private HttpResponseData<String> buildTxnHex(
+        InputArg inputArg,
+        TransactionArg transactionArg,
+        Object loopBack
+    ) {
+        if (transactionArg == null) {
+            logger.error("Null input within TransactionArg.");
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.TXNARG_ILLEGAL);
+        }
+        String nonce = transactionArg.getNonce();
+        String blockLimit = transactionArg.getBlockLimit();
+        String data = transactionArg.getData();
+        String signedMessage = transactionArg.getSignedMessage();
+        String to = transactionArg.getToAddress();
+        if (nonce == null || StringUtils.isEmpty(nonce)) {
+            logger.error("Null input within: {}", transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.NONCE_ILLEGAL);
+        }
+        if (blockLimit == null || StringUtils.isEmpty(blockLimit)) {
+            logger.error("Null input within: {}", transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
+        }
+        if (data == null || StringUtils.isEmpty(data)) {
+            logger.error("Null input within: {}", transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.DATA_ILLEGAL);
+        }
+        if (signedMessage == null || StringUtils.isEmpty(signedMessage)) {
+            logger.error("Null input within: {}", transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGNED_MSG_ILLEGAL);
+        }
+        if (transactionArg.getSignType() == 0) {
+            logger.error("Null input within: {}", transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGN_TYPE_ILLEGAL);
+        }
+        //如果为空则说明向系统获取
+        if (StringUtils.isEmpty(to)) {
+            to = doGetTo(inputArg);
+        }
+        String txnHex = TransactionEncoderUtilV2.createTxnHex(
+            signedMessage, 
+            nonce, 
+            to, 
+            data,
+            blockLimit,
+            SignType.getSignTypeByCode(transactionArg.getSignType())
+        );
+        if (!ReplayGuard.acquireTransaction(txnHex)) {
+            logger.error("Duplicate transaction with nonce {}: {}", nonce, transactionArg);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.TRANSACTION_DUPLICATED);
+        }
+        return new HttpResponseData<>(txnHex, loopBack, HttpReturnCode.SUCCESS);
+    }
     
     protected abstract HttpResponseData<String> doEncodeTransaction(InputArg inputArg);
     protected abstract HttpResponseData<Object> doSendTransaction(InputArg inputArg, TransactionReceipt receipt);
-    protected abstract String doGetTo(ReqInput<String> req);
+    protected abstract String doGetTo(InputArg inputArg);
 }
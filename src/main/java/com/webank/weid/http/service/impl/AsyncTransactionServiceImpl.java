@@ -0,0 +1,254 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service.impl;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.TransactionStatus;
+import com.webank.weid.http.service.AsyncTransactionService;
+import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.JsonUtil.WriterProfile;
+import com.webank.weid.http.util.PropertiesUtil;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AsyncTransactionServiceImpl implements AsyncTransactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTransactionServiceImpl.class);
+
+    /**
+     * How long a finished status can still be polled.
+     */
+    private static final long RETENTION_MILLIS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("transaction.async.retention.seconds", "600"))) * 1000L;
+
+    private static final int CALLBACK_TIMEOUT_MILLIS = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.callback.timeout.millis", "3000")));
+
+    /**
+     * Callbacks waiting for a thread; more are dropped and logged.
+     */
+    private static final int CALLBACK_QUEUE_SIZE = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.callback.queue.size", "1000")));
+
+    /**
+     * The url prefixes a callback may be posted to; callbacks are refused when none is set.
+     */
+    private static final List<String> CALLBACK_ALLOWED_PREFIXES = parsePrefixes(
+        PropertiesUtil.getProperty("transaction.callback.allowed.prefixes", ""));
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ExecutorService callbackExecutor = new ThreadPoolExecutor(
+        2, 2, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(CALLBACK_QUEUE_SIZE), daemon("transact-callback"));
+
+    private final ScheduledExecutorService cleaner =
+        Executors.newSingleThreadScheduledExecutor(daemon("transact-status-cleaner"));
+
+    public AsyncTransactionServiceImpl() {
+        cleaner.scheduleWithFixedDelay(this::evictExpired, 60L, 60L, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public HttpResponseData<Object> track(
+        String transactionHash,
+        Object loopBack,
+        String callbackUrl,
+        CompletableFuture<HttpResponseData<Object>> result
+    ) {
+        if (!isValidCallbackUrl(callbackUrl)) {
+            logger.error("[track] illegal callback url: {}", callbackUrl);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.INPUT_ILLEGAL);
+        }
+        Entry entry = new Entry(transactionHash, loopBack, callbackUrl);
+        entries.put(transactionHash, entry);
+        result.whenComplete((response, e) -> finish(entry, response, e));
+        return new HttpResponseData<>(entry.status, loopBack, HttpReturnCode.SUCCESS);
+    }
+
+    @Override
+    public HttpResponseData<Object> getStatus(String transactionHash) {
+        Entry entry = StringUtils.isBlank(transactionHash) ? null : entries.get(transactionHash);
+        if (entry == null) {
+            return new HttpResponseData<>(null, HttpReturnCode.TRANSACTION_NOT_FOUND);
+        }
+        return new HttpResponseData<>(entry.status, entry.loopBack, HttpReturnCode.SUCCESS);
+    }
+
+    private void finish(Entry entry, HttpResponseData<Object> response, Throwable e) {
+        TransactionStatus status = new TransactionStatus();
+        status.setTransactionHash(entry.status.getTransactionHash());
+        if (e != null) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null
+                ? e.getCause() : e;
+            logger.error("[finish] transaction {} failed.", status.getTransactionHash(), cause);
+            status.setStatus(TransactionStatus.FAILED);
+            status.setErrorCode(HttpReturnCode.UNKNOWN_ERROR.getCode());
+            status.setErrorMessage(HttpReturnCode.UNKNOWN_ERROR.getCodeDesc()
+                .concat(StringUtils.defaultString(cause.getMessage())));
+        } else {
+            boolean success = response.getErrorCode() != null
+                && response.getErrorCode() == HttpReturnCode.SUCCESS.getCode();
+            status.setStatus(success ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+            status.setResult(response.getRespBody());
+            status.setErrorCode(response.getErrorCode());
+            status.setErrorMessage(response.getErrorMessage());
+        }
+        entry.status = status;
+        entry.finishedAt = System.currentTimeMillis();
+        if (entry.callbackUrl != null) {
+            try {
+                callbackExecutor.execute(() -> postCallback(entry));
+            } catch (RejectedExecutionException ex) {
+                logger.error("[finish] callback queue full, dropped the callback for {}.",
+                    status.getTransactionHash());
+            }
+        }
+    }
+
+    private void postCallback(Entry entry) {
+        HttpURLConnection connection = null;
+        try {
+            byte[] body = JsonUtil.writer(WriterProfile.DEFAULT).writeValueAsBytes(
+                new HttpResponseData<>(entry.status, entry.loopBack, HttpReturnCode.SUCCESS));
+            connection = (HttpURLConnection) new URL(entry.callbackUrl).openConnection();
+            connection.setConnectTimeout(CALLBACK_TIMEOUT_MILLIS);
+            connection.setReadTimeout(CALLBACK_TIMEOUT_MILLIS);
+            // a redirect could lead outside the allowed prefixes
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body);
+            }
+            int code = connection.getResponseCode();
+            if (code / 100 != 2) {
+                logger.error("[postCallback] {} answered {} for transaction {}",
+                    entry.callbackUrl, code, entry.status.getTransactionHash());
+            }
+        } catch (Exception e) {
+            logger.error("[postCallback] failed to notify {} for transaction {}",
+                entry.callbackUrl, entry.status.getTransactionHash(), e);
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private void evictExpired() {
+        long expiry = System.currentTimeMillis() - RETENTION_MILLIS;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.finishedAt > 0 && entry.finishedAt < expiry) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * A callback url is optional, and must be an http(s) one under a configured prefix when
+     * given.
+     */
+    static boolean isValidCallbackUrl(String callbackUrl) {
+        return isValidCallbackUrl(callbackUrl, CALLBACK_ALLOWED_PREFIXES);
+    }
+
+    static boolean isValidCallbackUrl(String callbackUrl, List<String> allowedPrefixes) {
+        if (StringUtils.isBlank(callbackUrl)) {
+            return true;
+        }
+        if (!StringUtils.startsWithIgnoreCase(callbackUrl, "http://")
+            && !StringUtils.startsWithIgnoreCase(callbackUrl, "https://")) {
+            return false;
+        }
+        for (String prefix : allowedPrefixes) {
+            if (!StringUtils.startsWithIgnoreCase(callbackUrl, prefix)) {
+                continue;
+            }
+            // the prefix must end on a boundary, so that http://host does not allow
+            // http://host.other.com, http://host:8080 or http://host@other.com
+            if (prefix.endsWith("/") || callbackUrl.length() == prefix.length()
+                || "/?#".indexOf(callbackUrl.charAt(prefix.length())) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static List<String> parsePrefixes(String prefixes) {
+        List<String> result = new ArrayList<>();
+        for (String prefix : StringUtils.split(StringUtils.defaultString(prefixes), ',')) {
+            if (StringUtils.isNotBlank(prefix)) {
+                result.add(prefix.trim());
+            }
+        }
+        return result;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Entry {
+
+        private final Object loopBack;
+        private final String callbackUrl;
+        private volatile TransactionStatus status;
+        private volatile long finishedAt;
+
+        private Entry(String transactionHash, Object loopBack, String callbackUrl) {
+            this.loopBack = loopBack;
+            this.callbackUrl = StringUtils.isBlank(callbackUrl) ? null : callbackUrl;
+            TransactionStatus pending = new TransactionStatus();
+            pending.setTransactionHash(transactionHash);
+            pending.setStatus(TransactionStatus.PENDING);
+            this.status = pending;
+        }
+    }
+}
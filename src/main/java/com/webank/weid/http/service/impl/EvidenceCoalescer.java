@@ -0,0 +1,160 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service.impl;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces concurrent single evidence writes into batch transactions. Entries are collected
+ * per group until the window since the first one elapses or the batch is full, then written
+ * in one call, and each caller gets the result of its own entry.
+ */
+final class EvidenceCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceCoalescer.class);
+
+    /**
+     * An evidence waiting to be written.
+     */
+    static final class Entry {
+
+        final String hash;
+        final String signature;
+        final String log;
+        final Long timestamp;
+        private final CompletableFuture<HttpResponseData<Object>> result =
+            new CompletableFuture<>();
+
+        Entry(String hash, String signature, String log, Long timestamp) {
+            this.hash = hash;
+            this.signature = signature;
+            this.log = log;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Writes a batch of one group, with one result per entry, in order.
+     */
+    interface BatchWriter {
+
+        HttpResponseData<List<Boolean>> write(Integer groupId, List<Entry> batch);
+    }
+
+    private final BatchWriter writer;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Map<Integer, List<Entry>> pending = new HashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService flusher;
+
+    EvidenceCoalescer(BatchWriter writer, long windowMillis, int maxBatchSize, int flushThreads) {
+        this.writer = writer;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemon("evidence-coalesce-timer"));
+        this.flusher = Executors.newFixedThreadPool(flushThreads, daemon("evidence-coalesce"));
+    }
+
+    /**
+     * Queue an evidence of a group for the next batch.
+     *
+     * @param groupId the group id
+     * @param entry the evidence
+     * @return the future result of this evidence
+     */
+    CompletableFuture<HttpResponseData<Object>> submit(Integer groupId, Entry entry) {
+        List<Entry> full = null;
+        synchronized (this) {
+            List<Entry> entries = pending.computeIfAbsent(groupId, key -> new ArrayList<>());
+            entries.add(entry);
+            if (entries.size() >= maxBatchSize) {
+                full = pending.remove(groupId);
+            } else if (entries.size() == 1) {
+                timer.schedule(() -> flush(groupId, entries), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            List<Entry> batch = full;
+            flusher.execute(() -> write(groupId, batch));
+        }
+        return entry.result;
+    }
+
+    private void flush(Integer groupId, List<Entry> entries) {
+        synchronized (this) {
+            // already sent because it filled up before the window elapsed
+            if (pending.get(groupId) != entries) {
+                return;
+            }
+            pending.remove(groupId);
+        }
+        flusher.execute(() -> write(groupId, entries));
+    }
+
+    private void write(Integer groupId, List<Entry> batch) {
+        HttpResponseData<List<Boolean>> response;
+        try {
+            response = writer.write(groupId, batch);
+        } catch (Exception e) {
+            logger.error("[write] failed to write {} evidences of group {}.",
+                batch.size(), groupId, e);
+            response = new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc() + e.getMessage());
+        }
+        List<Boolean> results = response.getRespBody();
+        boolean complete = results != null && results.size() == batch.size();
+        boolean batchFailed = response.getErrorCode() == null
+            || response.getErrorCode() != HttpReturnCode.SUCCESS.getCode();
+        for (int i = 0; i < batch.size(); i++) {
+            if (complete && Boolean.TRUE.equals(results.get(i))) {
+                batch.get(i).result.complete(new HttpResponseData<>(true, HttpReturnCode.SUCCESS));
+            } else if (batchFailed) {
+                batch.get(i).result.complete(new HttpResponseData<>(false,
+                    response.getErrorCode(), response.getErrorMessage()));
+            } else {
+                // the batch went through but this evidence did not, which must not read as success
+                batch.get(i).result.complete(
+                    new HttpResponseData<>(false, HttpReturnCode.TRANSACTION_EXECUTE_FAILED));
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
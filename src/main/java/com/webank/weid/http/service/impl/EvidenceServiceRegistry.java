@@ -0,0 +1,176 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.service.impl;
+
+import com.webank.weid.constant.ProcessingMode;
+import com.webank.weid.http.util.ChainMetadataUtil;
+import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.rpc.EvidenceService;
+import com.webank.weid.service.impl.EvidenceServiceImpl;
+import com.webank.weid.service.impl.engine.EngineFactory;
+import com.webank.weid.service.impl.engine.EvidenceServiceEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the evidence services and engines of each group. Each one loads its contracts when
+ * it is built, so it is built once per group and shared: concurrent first requests for a
+ * group wait for the same instance instead of building their own. The groups listed in
+ * evidence.prewarm.groups are built at startup, so that their first request does not wait.
+ */
+public final class EvidenceServiceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceServiceRegistry.class);
+
+    private static final boolean PREWARM_ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("evidence.prewarm.enabled", "true"));
+
+    /**
+     * Comma separated group IDs to build at startup; blank for the master group only.
+     */
+    private static final String PREWARM_GROUPS =
+        PropertiesUtil.getProperty("evidence.prewarm.groups", StringUtils.EMPTY);
+
+    private static final Map<Integer, EvidenceService> SERVICES = new ConcurrentHashMap<>();
+    private static final Map<Integer, EvidenceServiceEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private EvidenceServiceRegistry() {
+    }
+
+    /**
+     * Get the master group ID, which the SDK services work on by default.
+     *
+     * @return the master group ID
+     */
+    public static Integer getMasterGroupId() {
+        return Integer.valueOf(ChainMetadataUtil.get().getGroupId());
+    }
+
+    /**
+     * Get the evidence service of a group, building it on first use.
+     *
+     * @param groupId the group ID
+     * @return the evidence service, or null if the group ID is illegal
+     */
+    public static EvidenceService getEvidenceService(Integer groupId) {
+        if (groupId == null || groupId == 0) {
+            logger.error("Group Id illegal: {}", groupId);
+            return null;
+        }
+        EvidenceService evidenceService = SERVICES.get(groupId);
+        if (evidenceService != null) {
+            return evidenceService;
+        }
+        return SERVICES.computeIfAbsent(groupId, EvidenceServiceRegistry::createEvidenceService);
+    }
+
+    /**
+     * Get the evidence service engine of a group, building it on first use.
+     *
+     * @param groupId the group ID
+     * @return the evidence service engine, or null if the group ID is illegal
+     */
+    public static EvidenceServiceEngine getEvidenceServiceEngine(Integer groupId) {
+        if (groupId == null || groupId == 0) {
+            logger.error("Group Id illegal: {}", groupId);
+            return null;
+        }
+        EvidenceServiceEngine evidenceServiceEngine = ENGINES.get(groupId);
+        if (evidenceServiceEngine != null) {
+            return evidenceServiceEngine;
+        }
+        return ENGINES.computeIfAbsent(groupId, id -> {
+            logger.info("Loading evidence service engine of group {}.", id);
+            return EngineFactory.createEvidenceServiceEngine(id);
+        });
+    }
+
+    /**
+     * Build the services and engines of the configured groups in the background; a request
+     * coming in meanwhile waits for the instance being built rather than building another.
+     */
+    public static void prewarm() {
+        if (!PREWARM_ENABLED) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            List<Integer> groupIds;
+            try {
+                groupIds = parseGroupIds(PREWARM_GROUPS, getMasterGroupId());
+            } catch (Exception e) {
+                logger.error("[prewarm] failed to load the master group ID.", e);
+                return;
+            }
+            for (Integer groupId : groupIds) {
+                long startTime = System.currentTimeMillis();
+                try {
+                    getEvidenceService(groupId);
+                    getEvidenceServiceEngine(groupId);
+                    logger.info("[prewarm] evidence service of group {} ready in {} ms.",
+                        groupId, System.currentTimeMillis() - startTime);
+                } catch (Exception e) {
+                    logger.error("[prewarm] failed to load evidence service of group {}.",
+                        groupId, e);
+                }
+            }
+        }, "evidence-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Parse the group IDs to prewarm, skipping the illegal ones.
+     *
+     * @param groupIds comma separated group IDs
+     * @param masterGroupId the group used when none is listed
+     * @return the distinct group IDs, in order
+     */
+    static List<Integer> parseGroupIds(String groupIds, Integer masterGroupId) {
+        List<Integer> result = new ArrayList<>();
+        for (String groupId : StringUtils.split(StringUtils.defaultString(groupIds), ',')) {
+            try {
+                Integer id = Integer.valueOf(groupId.trim());
+                if (id > 0 && !result.contains(id)) {
+                    result.add(id);
+                }
+            } catch (NumberFormatException e) {
+                logger.error("[prewarm] illegal group ID: {}", groupId);
+            }
+        }
+        if (result.isEmpty() && StringUtils.isBlank(groupIds)) {
+            result.add(masterGroupId);
+        }
+        return result;
+    }
+
+    private static EvidenceService createEvidenceService(Integer groupId) {
+        if (groupId.equals(getMasterGroupId())) {
+            logger.info("Loading master group evidence service: {}", groupId);
+            return new EvidenceServiceImpl();
+        }
+        logger.info("Loading evidence service of subgroup {}.", groupId);
+        return new EvidenceServiceImpl(ProcessingMode.IMMEDIATE, groupId);
+    }
+}
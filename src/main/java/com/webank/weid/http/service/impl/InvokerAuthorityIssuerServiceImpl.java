@@ -20,7 +20,6 @@
 package com.webank.weid.http.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.weid.util.DataToolUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -36,9 +35,10 @@ import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SortedJsonMap;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerAuthorityIssuerService;
-import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.AuthorityIssuerIndex;
 import com.webank.weid.http.util.KeyUtil;
 import com.webank.weid.protocol.base.AuthorityIssuer;
 import com.webank.weid.protocol.base.WeIdAuthentication;
@@ -70,10 +70,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     public HttpResponseData<Object> registerAuthorityIssuerInvoke(
         InputArg registerArgs) {
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(registerArgs.getFunctionArg());
+            JsonNode functionArgNode = registerArgs.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
             JsonNode nameNode = functionArgNode.get(ParamKeyConstant.AUTHORITY_ISSUER_NAME);
-            JsonNode txnArgNode = new ObjectMapper().readTree(registerArgs.getTransactionArg());
+            JsonNode txnArgNode = registerArgs.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())
                 || nameNode == null || StringUtils.isEmpty(nameNode.textValue())
@@ -106,6 +106,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
             registerAuthorityIssuerArgs.setAuthorityIssuer(authorityIssuer);
             ResponseData<Boolean> response = authorityIssuerService
                 .registerAuthorityIssuer(registerAuthorityIssuerArgs);
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            if (index != null && Boolean.TRUE.equals(response.getResult())) {
+                index.onRegistered(nameNode.textValue(), weIdNode.textValue());
+            }
 
             return new HttpResponseData<>(
                 response.getResult(),
@@ -166,16 +170,18 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     public HttpResponseData<Object> queryAuthorityIssuerInfoInvoke(
         InputArg queryArgs) {
         try {
-            JsonNode weIdNode = new ObjectMapper()
-                .readTree(queryArgs.getFunctionArg())
+            JsonNode weIdNode = queryArgs.getFunctionArgNode()
                 .get(ParamKeyConstant.WEID);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
-            ResponseData response = authorityIssuerService
-                .queryAuthorityIssuerInfo(weIdNode.textValue());
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            ResponseData<AuthorityIssuer> response = index == null
+                ? authorityIssuerService.queryAuthorityIssuerInfo(weIdNode.textValue())
+                : index.queryAuthorityIssuerInfo(weIdNode.textValue(),
+                    authorityIssuerService::queryAuthorityIssuerInfo);
             return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(JsonUtil.objToJsonStr(response.getResult())),
+                SortedJsonMap.of(response.getResult()),
                 response.getErrorCode(),
                 response.getErrorMessage());
         } catch (LoadContractException e) {
@@ -195,12 +201,14 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     @Override
     public HttpResponseData<Object> getWeIdByNameInvoke(InputArg arg) {
         try {
-            JsonNode nameNode = new ObjectMapper()
-                .readTree(arg.getFunctionArg()).get(WeIdentityParamKeyConstant.ORG_ID);
+            JsonNode nameNode = arg.getFunctionArgNode().get(WeIdentityParamKeyConstant.ORG_ID);
             if (nameNode == null || StringUtils.isEmpty(nameNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
-            ResponseData<String> addressResp = authorityIssuerService.getWeIdByOrgId(nameNode.textValue());
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            ResponseData<String> addressResp = index == null
+                ? authorityIssuerService.getWeIdByOrgId(nameNode.textValue())
+                : index.getWeIdByName(nameNode.textValue(), authorityIssuerService::getWeIdByOrgId);
             if (StringUtils.isEmpty(addressResp.getResult())) {
                 return new HttpResponseData<>(StringUtils.EMPTY, addressResp.getErrorCode(),
                     addressResp.getErrorMessage());
@@ -224,10 +232,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     @Override
     public HttpResponseData<Object> addWeIdToWhitelist(InputArg args) {
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
             JsonNode whiteListNameNode = functionArgNode.get(WeIdentityParamKeyConstant.WHITELIST_NAME);
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())
                 || whiteListNameNode == null || StringUtils.isEmpty(whiteListNameNode.textValue())
@@ -242,6 +250,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
             String issuer = DataToolUtils.convertPrivateKeyToDefaultWeId(weIdPrivKey);
             WeIdAuthentication callerAuth = new WeIdAuthentication(issuer, weIdPrivKey);
             ResponseData<Boolean> response = authorityIssuerService.addIssuerIntoIssuerType(callerAuth, whiteListNameNode.textValue(), weIdNode.textValue());
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            if (index != null && Boolean.TRUE.equals(response.getResult())) {
+                index.onAddedToWhitelist(whiteListNameNode.textValue(), weIdNode.textValue());
+            }
             return new HttpResponseData<>(response.getResult(), response.getErrorCode(),response.getErrorMessage());
         } catch (LoadContractException e) {
             return new HttpResponseData<>(null, HttpReturnCode.CONTRACT_ERROR.getCode(), HttpReturnCode.CONTRACT_ERROR.getCodeDesc());
@@ -260,14 +272,18 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     @Override
     public HttpResponseData<Object> isWeIdInWhitelist(InputArg args) {
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
             JsonNode whiteListNameNode = functionArgNode.get(WeIdentityParamKeyConstant.WHITELIST_NAME);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())
                 || whiteListNameNode == null || StringUtils.isEmpty(whiteListNameNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
-            ResponseData<Boolean> response = authorityIssuerService.isSpecificTypeIssuer(whiteListNameNode.textValue(), weIdNode.textValue());
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            ResponseData<Boolean> response = index == null
+                ? authorityIssuerService.isSpecificTypeIssuer(whiteListNameNode.textValue(), weIdNode.textValue())
+                : index.isSpecificTypeIssuer(whiteListNameNode.textValue(), weIdNode.textValue(),
+                    authorityIssuerService::isSpecificTypeIssuer);
             return new HttpResponseData<>(response.getResult(), response.getErrorCode(),response.getErrorMessage());
         } catch (LoadContractException e) {
             return new HttpResponseData<>(null, HttpReturnCode.CONTRACT_ERROR.getCode(), HttpReturnCode.CONTRACT_ERROR.getCodeDesc());
@@ -286,9 +302,9 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     @Override
     public HttpResponseData<Object> recognizeAuthorityIssuer(InputArg args) {
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
@@ -299,6 +315,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
                 return new HttpResponseData<>(null, HttpReturnCode.INVOKER_ILLEGAL);
             }
             ResponseData<Boolean> response = authorityIssuerService.recognizeAuthorityIssuer(weIdNode.textValue(), new WeIdPrivateKey(weIdPrivKey));
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            if (index != null && Boolean.TRUE.equals(response.getResult())) {
+                index.onRecognitionChanged(weIdNode.textValue());
+            }
             return new HttpResponseData<>(response.getResult(), response.getErrorCode(),response.getErrorMessage());
         } catch (LoadContractException e) {
             return new HttpResponseData<>(null, HttpReturnCode.CONTRACT_ERROR.getCode(), HttpReturnCode.CONTRACT_ERROR.getCodeDesc());
@@ -317,9 +337,9 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
     @Override
     public HttpResponseData<Object> deRecognizeAuthorityIssuer(InputArg args) {
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
@@ -330,6 +350,10 @@ public class InvokerAuthorityIssuerServiceImpl extends BaseService implements
                 return new HttpResponseData<>(null, HttpReturnCode.INVOKER_ILLEGAL);
             }
             ResponseData<Boolean> response = authorityIssuerService.deRecognizeAuthorityIssuer(weIdNode.textValue(), new WeIdPrivateKey(weIdPrivKey));
+            AuthorityIssuerIndex index = AuthorityIssuerIndex.getInstance();
+            if (index != null && Boolean.TRUE.equals(response.getResult())) {
+                index.onRecognitionChanged(weIdNode.textValue());
+            }
             return new HttpResponseData<>(response.getResult(), response.getErrorCode(),response.getErrorMessage());
         } catch (LoadContractException e) {
             return new HttpResponseData<>(null, HttpReturnCode.CONTRACT_ERROR.getCode(), HttpReturnCode.CONTRACT_ERROR.getCodeDesc());
@@ -23,6 +23,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -186,17 +187,14 @@ public class InvokerBAC004AssetServiceImpl
         Authentication auth = super.getAuthentication(transactionArg.getInvokerWeId());
         List<SendAssetArgs> sendAssetArgList = new ArrayList<SendAssetArgs>();
         List<BAC004SendInfo> objectList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            objectList.stream().map(BAC004SendInfo::getRecipient).collect(Collectors.toList()));
         for (BAC004SendInfo input : objectList) {
             SendAssetArgs sendAssetArgs = new  SendAssetArgs();
             sendAssetArgs.setAmount(BigInteger.valueOf(input.getAmount()));
             sendAssetArgs.setRecipient(WeIdUtils.convertWeIdToAddress(input.getRecipient()));
             sendAssetArgs.setData(input.getRemark());
             sendAssetArgList.add(sendAssetArgs);
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, input.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) {
-                break;
-            };
         }
         if (Objects.nonNull(checkWeIdExistRsp)) {
             return checkWeIdExistRsp;
@@ -305,17 +303,14 @@ public class InvokerBAC004AssetServiceImpl
         // 获取用户身份信息
         List<SendAssetArgs> sendAssetArgList = new ArrayList<SendAssetArgs>();
         List<BAC004SendInfo> objectList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            objectList.stream().map(BAC004SendInfo::getRecipient).collect(Collectors.toList()));
         for (BAC004SendInfo input : objectList) {
             SendAssetArgs sendAssetArgs = new  SendAssetArgs();
             sendAssetArgs.setAmount(BigInteger.valueOf(input.getAmount()));
             sendAssetArgs.setRecipient(WeIdUtils.convertWeIdToAddress(input.getRecipient()));
             sendAssetArgs.setData(input.getRemark());
             sendAssetArgList.add(sendAssetArgs);
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, input.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) {
-                break;
-            };
         }
         if (Objects.nonNull(checkWeIdExistRsp)) {
             return new HttpResponseData<>(
@@ -43,6 +43,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Component
 public class InvokerBAC005AssetServiceImpl extends BaseService implements InvokerBAC005AssetService {
@@ -131,10 +132,9 @@ public class InvokerBAC005AssetServiceImpl extends BaseService implements Invoke
 
         List<BAC005AssetInfo> assetInfoList = new ArrayList<>();
         List<BAC005Info> bac005InfoList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            bac005InfoList.stream().map(BAC005Info::getRecipient).collect(Collectors.toList()));
         for (BAC005Info sendInfo : bac005InfoList) {
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, sendInfo.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) break;
             BAC005AssetInfo assetInfo = new BAC005AssetInfo();
             assetInfo.setAssetId(BigInteger.valueOf(sendInfo.getAssetId()));
             assetInfo.setAssetUri(sendInfo.getAssetUri());
@@ -259,12 +259,11 @@ public class InvokerBAC005AssetServiceImpl extends BaseService implements Invoke
         Authentication auth = super.getAuthentication(transactionArg.getInvokerWeId());
         List<SendAssetArgs> sendAssetArgList = new ArrayList<>();
         List<BAC005Info> objectList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            objectList.stream().map(BAC005Info::getRecipient).collect(Collectors.toList()));
         for (BAC005Info bac005Info : objectList) {
             SendAssetArgs sendAssetArgs = new SendAssetArgs();
             sendAssetArgs.setAmount(BigInteger.valueOf(bac005Info.getAssetId()));
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, bac005Info.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) break;
             sendAssetArgs.setRecipient(WeIdUtils.convertWeIdToAddress(bac005Info.getRecipient()));
             sendAssetArgs.setData(bac005Info.getRemark());
             sendAssetArgList.add(sendAssetArgs);
@@ -349,10 +348,9 @@ public class InvokerBAC005AssetServiceImpl extends BaseService implements Invoke
         BAC005BatchInfo functionArg = inputArg.getFunctionArg();
         List<BAC005AssetInfo> assetInfoList = new ArrayList<>();
         List<BAC005Info> bac005InfoList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            bac005InfoList.stream().map(BAC005Info::getRecipient).collect(Collectors.toList()));
         for (BAC005Info sendInfo : bac005InfoList) {
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, sendInfo.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) break;
             BAC005AssetInfo assetInfo = new BAC005AssetInfo();
             assetInfo.setAssetId(BigInteger.valueOf(sendInfo.getAssetId()));
             assetInfo.setAssetUri(sendInfo.getAssetUri());
@@ -401,12 +399,11 @@ public class InvokerBAC005AssetServiceImpl extends BaseService implements Invoke
         BAC005BatchInfo functionArg = inputArg.getFunctionArg();
         List<SendAssetArgs> sendAssetArgList = new ArrayList<>();
         List<BAC005Info> objectList = functionArg.getList();
-        HttpResponseData<Object> checkWeIdExistRsp = null;
+        HttpResponseData<Object> checkWeIdExistRsp = super.checkWeIdExist(this.weIdService,
+            objectList.stream().map(BAC005Info::getRecipient).collect(Collectors.toList()));
         for (BAC005Info bac005Info : objectList) {
             SendAssetArgs sendAssetArgs = new SendAssetArgs();
             sendAssetArgs.setAmount(BigInteger.valueOf(bac005Info.getAssetId()));
-            checkWeIdExistRsp = super.checkWeIdExist(this.weIdService, bac005Info.getRecipient());
-            if (Objects.nonNull(checkWeIdExistRsp)) break;
             sendAssetArgs.setRecipient(WeIdUtils.convertWeIdToAddress(bac005Info.getRecipient()));
             sendAssetArgs.setData(bac005Info.getRemark());
             sendAssetArgList.add(sendAssetArgs);
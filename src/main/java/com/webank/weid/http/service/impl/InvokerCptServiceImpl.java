@@ -20,7 +20,6 @@
 package com.webank.weid.http.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,10 +33,13 @@ import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SortedJsonMap;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerCptService;
+import com.webank.weid.http.util.CptCache;
 import com.webank.weid.http.util.JsonUtil;
 import com.webank.weid.http.util.KeyUtil;
+import com.webank.weid.protocol.base.Cpt;
 import com.webank.weid.protocol.base.WeIdAuthentication;
 import com.webank.weid.protocol.base.WeIdPrivateKey;
 import com.webank.weid.protocol.request.CptStringArgs;
@@ -64,12 +66,10 @@ public class InvokerCptServiceImpl extends BaseService implements InvokerCptServ
      */
     public HttpResponseData<Object> registerCptInvoke(InputArg registerArgs) {
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(registerArgs.getFunctionArg());
+            JsonNode functionArgNode = registerArgs.getFunctionArgNode();
             JsonNode weIdNode = functionArgNode.get(ParamKeyConstant.WEID);
             JsonNode cptJsonSchemaNode = functionArgNode.get(ParamKeyConstant.CPT_JSON_SCHEMA);
-            JsonNode txnArgNode = new ObjectMapper()
-                .readTree(registerArgs.getTransactionArg());
+            JsonNode txnArgNode = registerArgs.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())
                 || cptJsonSchemaNode == null || StringUtils.isEmpty(cptJsonSchemaNode.toString())
@@ -99,7 +99,7 @@ public class InvokerCptServiceImpl extends BaseService implements InvokerCptServ
                 return new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR);
             }
             return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(JsonUtil.objToJsonStr(response.getResult())),
+                SortedJsonMap.of(response.getResult()),
                 response.getErrorCode(),
                 response.getErrorMessage());
         } catch (LoadContractException e) {
@@ -164,8 +164,7 @@ public class InvokerCptServiceImpl extends BaseService implements InvokerCptServ
      */
     public HttpResponseData<Object> queryCptInvoke(InputArg queryArgs) {
         try {
-            JsonNode cptIdNode = new ObjectMapper()
-                .readTree(queryArgs.getFunctionArg())
+            JsonNode cptIdNode = queryArgs.getFunctionArgNode()
                 .get(ParamKeyConstant.CPT_ID);
             if (cptIdNode == null || StringUtils
                 .isEmpty(JsonUtil.removeDoubleQuotes(cptIdNode.toString()))) {
@@ -177,9 +176,12 @@ public class InvokerCptServiceImpl extends BaseService implements InvokerCptServ
             } catch (Exception e) {
                 return new HttpResponseData<>(null, HttpReturnCode.VALUE_FORMAT_ILLEGAL);
             }
-            ResponseData response;
+            ResponseData<Cpt> response;
             try {
-                response = cptService.queryCpt(cptId);
+                CptCache cptCache = CptCache.getInstance();
+                response = cptCache == null
+                    ? cptService.queryCpt(cptId)
+                    : cptCache.queryCpt(cptId, cptService::queryCpt);
             } catch (Exception e) {
                 logger.error(
                     "[queryCpt]: unknow error. cptId:{}.",
@@ -188,7 +190,7 @@ public class InvokerCptServiceImpl extends BaseService implements InvokerCptServ
                 return new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR);
             }
             return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(JsonUtil.objToJsonStr(response.getResult())),
+                SortedJsonMap.of(response.getResult()),
                 response.getErrorCode(),
                 response.getErrorMessage());
         } catch (LoadContractException e) {
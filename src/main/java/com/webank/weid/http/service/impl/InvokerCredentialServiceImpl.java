@@ -23,7 +23,6 @@ package com.webank.weid.http.service.impl;
 import static com.webank.weid.util.CredentialPojoUtils.getLiteCredentialThumbprintWithoutSig;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.weid.constant.CredentialConstant;
 import com.webank.weid.constant.CredentialType;
 import com.webank.weid.constant.ErrorCode;
@@ -34,10 +33,14 @@ import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SortedJsonMap;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerCredentialService;
+import com.webank.weid.http.util.CredentialBatchVerifier;
 import com.webank.weid.http.util.JsonUtil;
 import com.webank.weid.http.util.KeyUtil;
+import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.http.util.VerificationCache;
 import com.webank.weid.protocol.base.Credential;
 import com.webank.weid.protocol.base.CredentialPojo;
 import com.webank.weid.protocol.base.WeIdAuthentication;
@@ -47,8 +50,10 @@ import com.webank.weid.protocol.request.CreateCredentialPojoArgs;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.rpc.CredentialPojoService;
 import com.webank.weid.rpc.CredentialService;
+import com.webank.weid.rpc.WeIdService;
 import com.webank.weid.service.impl.CredentialPojoServiceImpl;
 import com.webank.weid.service.impl.CredentialServiceImpl;
+import com.webank.weid.service.impl.WeIdServiceImpl;
 import com.webank.weid.util.CredentialPojoUtils;
 import com.webank.weid.util.CredentialUtils;
 import com.webank.weid.util.DataToolUtils;
@@ -56,7 +61,9 @@ import com.webank.weid.util.DateUtils;
 import com.webank.weid.util.WeIdUtils;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.lang3.StringUtils;
@@ -71,10 +78,16 @@ import org.springframework.stereotype.Component;
 @Component
 public class InvokerCredentialServiceImpl extends BaseService implements InvokerCredentialService {
 
+    private static final int VERIFY_BATCH_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("credential.verify.batch.max.size", "1000"));
+
     private Logger logger = LoggerFactory.getLogger(InvokerCredentialServiceImpl.class);
 
     private CredentialService credentialService = new CredentialServiceImpl();
     private CredentialPojoService credentialPojoService = new CredentialPojoServiceImpl();
+    private WeIdService weIdService = new WeIdServiceImpl();
+    private CredentialBatchVerifier credentialBatchVerifier =
+        new CredentialBatchVerifier(weIdService::getWeIdDocument, credentialPojoService::verify);
 
     /**
      * Generate a credential for client to sign. The signature field is null, and both full claim and claimHash will be returned. The returned json
@@ -87,8 +100,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
     public HttpResponseData<Object> createCredentialInvoke(
         InputArg createCredentialFuncArgs) {
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(createCredentialFuncArgs.getFunctionArg());
+            JsonNode functionArgNode = createCredentialFuncArgs.getFunctionArgNode();
             JsonNode cptIdNode = functionArgNode.get(ParamKeyConstant.CPT_ID);
             JsonNode issuerNode = functionArgNode.get(ParamKeyConstant.ISSUER);
             JsonNode expirationDateNode = functionArgNode.get(ParamKeyConstant.EXPIRATION_DATE);
@@ -163,8 +175,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
                     errorCode.getCodeDesc());
             }
 
-            JsonNode txnArgNode = new ObjectMapper()
-                .readTree(createCredentialFuncArgs.getTransactionArg());
+            JsonNode txnArgNode = createCredentialFuncArgs.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
 
             // Decide the key holding mechanism
@@ -173,10 +184,9 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
                 // this is the client-storage privkey approach
                 String claimHash = CredentialUtils.getClaimHash(credential, null);
                 // Construct return value - a middle term
-                Map<String, Object> credMap = JsonUtil.objToMap(credential);
-                credMap.put(WeIdentityParamKeyConstant.CLAIM_HASH, claimHash);
                 return new HttpResponseData<>(
-                    JsonUtil.convertJsonToSortedMap(JsonUtil.mapToCompactJson(credMap)),
+                    SortedJsonMap.of(credential)
+                        .with(WeIdentityParamKeyConstant.CLAIM_HASH, claimHash),
                     HttpReturnCode.SUCCESS);
             } else {
                 // this is the server-hosting privkey approach
@@ -267,8 +277,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
         JsonNode expirationDateNode;
         JsonNode claimNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(createCredentialPojoFuncArgs.getFunctionArg());
+            JsonNode functionArgNode = createCredentialPojoFuncArgs.getFunctionArgNode();
             cptIdNode = functionArgNode.get(ParamKeyConstant.CPT_ID);
             issuerNode = functionArgNode.get(ParamKeyConstant.ISSUER);
             expirationDateNode = functionArgNode.get(ParamKeyConstant.EXPIRATION_DATE);
@@ -335,7 +344,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
 
         WeIdAuthentication weIdAuthentication;
         try {
-            JsonNode txnArgNode = new ObjectMapper().readTree(createCredentialPojoFuncArgs.getTransactionArg());
+            JsonNode txnArgNode = createCredentialPojoFuncArgs.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             String privateKey = KeyUtil
                 .getPrivateKeyByWeId(KeyUtil.SDK_PRIVKEY_PATH, keyIndexNode.textValue());
@@ -377,8 +386,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
         JsonNode claimNode;
         JsonNode typeNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(createCredentialPojoFuncArgs.getFunctionArg());
+            JsonNode functionArgNode = createCredentialPojoFuncArgs.getFunctionArgNode();
             cptIdNode = functionArgNode.get(ParamKeyConstant.CPT_ID);
             issuerNode = functionArgNode.get(ParamKeyConstant.ISSUER);
             expirationDateNode = functionArgNode.get(ParamKeyConstant.EXPIRATION_DATE);
@@ -452,7 +460,7 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
         WeIdAuthentication weIdAuthentication;
         String privateKey;
         try {
-            JsonNode txnArgNode = new ObjectMapper().readTree(createCredentialPojoFuncArgs.getTransactionArg());
+            JsonNode txnArgNode = createCredentialPojoFuncArgs.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             privateKey = KeyUtil
                 .getPrivateKeyByWeId(KeyUtil.SDK_PRIVKEY_PATH, keyIndexNode.textValue());
@@ -498,14 +506,13 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
         JsonNode dataNode;
         JsonNode keyIndexNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(encryptFuncArgs.getFunctionArg());
+            JsonNode functionArgNode = encryptFuncArgs.getFunctionArgNode();
             dataNode = functionArgNode.get(WeIdentityParamKeyConstant.TRANSACTION_DATA);
             if (dataNode == null || StringUtils.isEmpty(dataNode.textValue())) {
                 logger.error("Null or empty json node: data");
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
-            JsonNode txnArgNode = new ObjectMapper()
-                .readTree(encryptFuncArgs.getTransactionArg());
+            JsonNode txnArgNode = encryptFuncArgs.getTransactionArgNode();
             keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (keyIndexNode == null || StringUtils.isEmpty(keyIndexNode.textValue())) {
                 logger.error("Null or empty json node: keyIndex");
@@ -542,13 +549,12 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
         JsonNode dataNode;
         JsonNode keyIndexNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper().readTree(decryptFuncArgs.getFunctionArg());
+            JsonNode functionArgNode = decryptFuncArgs.getFunctionArgNode();
             dataNode = functionArgNode.get(WeIdentityParamKeyConstant.TRANSACTION_DATA);
             if (dataNode == null || StringUtils.isEmpty(dataNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
             }
-            JsonNode txnArgNode = new ObjectMapper()
-                .readTree(decryptFuncArgs.getTransactionArg());
+            JsonNode txnArgNode = decryptFuncArgs.getTransactionArgNode();
             keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (keyIndexNode == null || StringUtils.isEmpty(keyIndexNode.textValue())) {
                 logger.error("Null or empty json node: keyIndex");
@@ -605,7 +611,11 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
 //        }
 //        credential.putProofValue("signatureValue", unifiedSig);
         try {
-            ResponseData<Boolean> responseData = credentialPojoService.verify(credential.getIssuer(), credential);
+            VerificationCache verificationCache = VerificationCache.getInstance();
+            ResponseData<Boolean> responseData = verificationCache == null
+                ? credentialPojoService.verify(credential.getIssuer(), credential)
+                : verificationCache.verify(credential,
+                    pojo -> credentialPojoService.verify(pojo.getIssuer(), pojo));
             return new HttpResponseData<>(responseData.getResult(),
                 responseData.getErrorCode(), responseData.getErrorMessage());
         } catch (LoadContractException e) {
@@ -620,4 +630,57 @@ public class InvokerCredentialServiceImpl extends BaseService implements Invoker
                 HttpReturnCode.WEID_SDK_ERROR.getCodeDesc().concat(e.getMessage()));
         }
     }
+
+    @Override
+    public HttpResponseData<Object> verifyCredentialPojoBatchInvoke(InputArg verifyCredentialPojoBatchFuncArgs) {
+        JsonNode listNode;
+        try {
+            JsonNode functionArgNode = verifyCredentialPojoBatchFuncArgs.getFunctionArgNode();
+            if (functionArgNode == null) {
+                logger.error("Null or empty json node: functionArg");
+                return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
+            }
+            listNode = functionArgNode.get(WeIdentityParamKeyConstant.LIST);
+            if (listNode == null || !listNode.isArray()) {
+                logger.error("[verifyCredentialPojoBatch] input does not an Array.");
+                return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
+            }
+        } catch (Exception e) {
+            logger.error("[verifyCredentialPojoBatch]: input args error: {}",
+                verifyCredentialPojoBatchFuncArgs, e);
+            return new HttpResponseData<>(null, HttpReturnCode.VALUE_FORMAT_ILLEGAL);
+        }
+        if (listNode.size() > VERIFY_BATCH_MAX_SIZE) {
+            return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL.getCode(),
+                HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + ": more than "
+                    + VERIFY_BATCH_MAX_SIZE + " credentials");
+        }
+        List<CredentialPojo> credentials = new ArrayList<>(listNode.size());
+        for (JsonNode credentialNode : listNode) {
+            credentials.add(parseCredentialPojo(credentialNode.toString()));
+        }
+        try {
+            return new HttpResponseData<>(credentialBatchVerifier.verify(credentials),
+                HttpReturnCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[verifyCredentialPojoBatch]: SDK error. reqCredentialArgs:{}",
+                verifyCredentialPojoBatchFuncArgs,
+                e);
+            return new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR.getCode(),
+                HttpReturnCode.WEID_SDK_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private CredentialPojo parseCredentialPojo(String credentialJson) {
+        try {
+            return DataToolUtils.deserialize(credentialJson, CredentialPojo.class);
+        } catch (Exception e) {
+            try {
+                return CredentialPojo.fromJson(credentialJson);
+            } catch (Exception ex) {
+                logger.error("Input credential format illegal: {}", credentialJson);
+                return null;
+            }
+        }
+    }
 }
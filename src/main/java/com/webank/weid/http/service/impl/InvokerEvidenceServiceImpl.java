@@ -1,35 +1,35 @@
 package com.webank.weid.http.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.webank.weid.config.FiscoConfig;
 import com.webank.weid.constant.ErrorCode;
-import com.webank.weid.constant.ProcessingMode;
 import com.webank.weid.exception.InitWeb3jException;
 import com.webank.weid.exception.LoadContractException;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SortedJsonMap;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerEvidenceService;
+import com.webank.weid.http.util.ChainMetadataUtil;
 import com.webank.weid.http.util.JsonUtil;
 import com.webank.weid.http.util.KeyUtil;
 import com.webank.weid.http.util.PropertiesUtil;
 import com.webank.weid.protocol.base.EvidenceInfo;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.rpc.EvidenceService;
-import com.webank.weid.service.impl.EvidenceServiceImpl;
-import com.webank.weid.service.impl.engine.EngineFactory;
 import com.webank.weid.service.impl.engine.EvidenceServiceEngine;
 import com.webank.weid.util.DataToolUtils;
 import com.webank.weid.util.DateUtils;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.utils.Numeric;
@@ -44,75 +44,60 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
     private static Integer masterGroupId;
     static {
         try {
-            FiscoConfig fiscoConfig = new FiscoConfig();
-            fiscoConfig.load();
-            masterGroupId = Integer.valueOf(fiscoConfig.getGroupId());
+            masterGroupId = Integer.valueOf(ChainMetadataUtil.get().getGroupId());
         } catch (Exception e) {
             logger.error("Failed to load Fisco Config.");
         }
     }
-    // A map to store group ID and evidence service instances
-    Map<Integer, EvidenceService> evidenceServiceInstances = new ConcurrentHashMap<>();
-    Map<Integer, EvidenceServiceEngine> evidenceServiceEngineInstances = new ConcurrentHashMap<>();
+    /**
+     * The number of entries sent to the evidence engine per batch call of a streamed request.
+     */
+    private static final int BATCH_CHUNK_SIZE = Math.max(1,
+        Integer.parseInt(PropertiesUtil.getProperty("evidence.batch.chunk.size", "1000")));
+
+    /**
+     * Whether single delegated evidence writes are coalesced into batch transactions.
+     */
+    private static final boolean COALESCE_ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("evidence.coalesce.enabled", "false"));
+
+    /**
+     * How long a coalesced write waits for its batch to be written.
+     */
+    private static final long COALESCE_WAIT_TIMEOUT_MILLIS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("evidence.coalesce.wait.timeout.millis", "30000")));
+
+    private final EvidenceCoalescer coalescer = COALESCE_ENABLED
+        ? new EvidenceCoalescer(
+            this::writeEvidenceBatch,
+            Math.max(1L, Long.parseLong(
+                PropertiesUtil.getProperty("evidence.coalesce.window.millis", "20"))),
+            Math.max(1, Integer.parseInt(
+                PropertiesUtil.getProperty("evidence.coalesce.max.batch.size", "200"))),
+            Math.max(1, Integer.parseInt(
+                PropertiesUtil.getProperty("evidence.coalesce.flush.threads", "4"))))
+        : null;
 
     /**
-     * A lazy initialization to create evidence service impl instance.
+     * Get the evidence service of a group from the shared registry.
      *
      * @param groupId passing-in groupId
      * @return evidence service
      */
-    private EvidenceService lazyInitializeEvidenceServiceImpl(Integer groupId) throws Exception {
-        System.out.println("LAZY GID: " + groupId);
-        FiscoConfig fiscoConfig;
-        try {
-            fiscoConfig = new FiscoConfig();
-            fiscoConfig.load();
-        } catch (Exception e) {
-            logger.error("Failed to load Fisco Config.");
-            return null;
-        }
-        if (groupId == null || groupId == 0) {
-            logger.error("Group Id illegal: {}", groupId);
-            return null;
-        }
-        if (groupId.equals(Integer.valueOf(fiscoConfig.getGroupId()))) {
-            // this is master group
-            logger.info("Requesting master group id evidence service.., {}", groupId);
-            EvidenceService evidenceService = evidenceServiceInstances.get(groupId);
-            if (evidenceService == null) {
-                evidenceService = new EvidenceServiceImpl();
-                evidenceServiceInstances.put(groupId, evidenceService);
-            }
-            return evidenceService;
-        } else {
-            logger.info("Requesting evidence subgroup id instance.. {}", groupId);
-            EvidenceService evidenceService = evidenceServiceInstances.get(groupId);
-            if (evidenceService == null) {
-                evidenceService = new EvidenceServiceImpl(ProcessingMode.IMMEDIATE, groupId);
-                evidenceServiceInstances.put(groupId, evidenceService);
-            }
-            return evidenceService;
-        }
+    private EvidenceService lazyInitializeEvidenceServiceImpl(Integer groupId) {
+        return EvidenceServiceRegistry.getEvidenceService(groupId);
     }
 
-    private EvidenceService lazyInitializeEvidenceServiceImpl() throws Exception {
-        FiscoConfig fiscoConfig;
+    private EvidenceService lazyInitializeEvidenceServiceImpl() {
+        Integer masterGroupId;
         try {
-            fiscoConfig = new FiscoConfig();
-            fiscoConfig.load();
+            masterGroupId = EvidenceServiceRegistry.getMasterGroupId();
         } catch (Exception e) {
             logger.error("Failed to load Fisco Config.");
             return null;
         }
-        Integer masterGroupId = Integer.valueOf(fiscoConfig.getGroupId());
-        System.out.println("LAZY GID MASTER: " + masterGroupId);
-        logger.info("Requesting default (master) group id evidence service: {}", masterGroupId);
-        EvidenceService evidenceService = evidenceServiceInstances.get(masterGroupId);
-        if (evidenceService == null) {
-            evidenceService = new EvidenceServiceImpl();
-            evidenceServiceInstances.put(masterGroupId, evidenceService);
-        }
-        return evidenceService;
+        logger.debug("Requesting default (master) group id evidence service: {}", masterGroupId);
+        return EvidenceServiceRegistry.getEvidenceService(masterGroupId);
     }
 
     @Override
@@ -122,8 +107,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         JsonNode proofNode;
         JsonNode logNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             idNode = functionArgNode.get(WeIdentityParamKeyConstant.CREDENTIAL_ID);
             hashNode = functionArgNode.get(WeIdentityParamKeyConstant.HASH);
             proofNode = functionArgNode.get(WeIdentityParamKeyConstant.PROOF);
@@ -141,7 +125,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         JsonNode groupIdNode;
         EvidenceService evidenceService;
         try {
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             groupIdNode = txnArgNode.get(WeIdentityParamKeyConstant.GROUP_ID);
             if (groupIdNode == null || StringUtils.isEmpty(groupIdNode.toString())) {
                 logger.info("Cannot find groupId definition, using default.. {}", groupIdNode);
@@ -189,8 +173,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
     public HttpResponseData<Object> getEvidenceByHash(InputArg args) {
         JsonNode idNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             idNode = functionArgNode.get(WeIdentityParamKeyConstant.HASH_VALUE);
         } catch (Exception e) {
             logger.error("[getEvidenceByCustomKey]: input args error: {}", args, e);
@@ -199,7 +182,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         JsonNode groupIdNode;
         EvidenceService evidenceService;
         try {
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             groupIdNode = txnArgNode.get(WeIdentityParamKeyConstant.GROUP_ID);
             if (groupIdNode == null || StringUtils.isEmpty(groupIdNode.toString())) {
                 logger.info("Cannot find groupId definition, using default.. {}", groupIdNode);
@@ -226,15 +209,14 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         if (respData.getResult() == null) {
             return new HttpResponseData<>(null, respData.getErrorCode(), respData.getErrorMessage());
         }
-        return new HttpResponseData<>(JsonUtil.convertJsonToSortedMap(JsonUtil.objToJsonStr(respData.getResult())), HttpReturnCode.SUCCESS);
+        return new HttpResponseData<>(SortedJsonMap.of(respData.getResult()), HttpReturnCode.SUCCESS);
     }
 
     @Override
     public HttpResponseData<Object> getEvidenceByCustomKey(InputArg args) {
         JsonNode idNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             idNode = functionArgNode.get(WeIdentityParamKeyConstant.CREDENTIAL_ID);
         } catch (Exception e) {
             logger.error("[getEvidenceByCustomKey]: input args error: {}", args, e);
@@ -243,7 +225,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         JsonNode groupIdNode;
         EvidenceService evidenceService;
         try {
-            JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+            JsonNode txnArgNode = args.getTransactionArgNode();
             groupIdNode = txnArgNode.get(WeIdentityParamKeyConstant.GROUP_ID);
             if (groupIdNode == null || StringUtils.isEmpty(groupIdNode.toString())) {
                 logger.info("Cannot find groupId definition, using default.. {}", groupIdNode);
@@ -270,13 +252,13 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         if (respData.getResult() == null) {
             return new HttpResponseData<>(null, respData.getErrorCode(), respData.getErrorMessage());
         }
-        return new HttpResponseData<>(JsonUtil.convertJsonToSortedMap(JsonUtil.objToJsonStr(respData.getResult())), HttpReturnCode.SUCCESS);
+        return new HttpResponseData<>(SortedJsonMap.of(respData.getResult()), HttpReturnCode.SUCCESS);
     }
 
     private EvidenceService getEvidenceService(InputArg args) throws Exception {
         JsonNode groupIdNode;
         EvidenceService evidenceService;
-        JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+        JsonNode txnArgNode = args.getTransactionArgNode();
         groupIdNode = txnArgNode.get(WeIdentityParamKeyConstant.GROUP_ID);
         if (groupIdNode == null || StringUtils.isEmpty(groupIdNode.toString())) {
             logger.info("Cannot find groupId definition, using default.. {}", groupIdNode);
@@ -295,8 +277,7 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         JsonNode signNode;
         JsonNode logNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             hashNode = functionArgNode.get(WeIdentityParamKeyConstant.HASH);
             signNode = functionArgNode.get(WeIdentityParamKeyConstant.SIGN);
             logNode = functionArgNode.get(WeIdentityParamKeyConstant.LOG);
@@ -309,6 +290,13 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
             return new HttpResponseData<>(false, HttpReturnCode.VALUE_FORMAT_ILLEGAL);
         }
         String log = (logNode == null || StringUtils.isEmpty(logNode.textValue())) ? "" : logNode.textValue();
+        if (coalescer != null) {
+            return delegateCreateEvidenceCoalesced(args, new EvidenceCoalescer.Entry(
+                Numeric.prependHexPrefix(hashNode.textValue()),
+                signNode.textValue(),
+                log,
+                DateUtils.getNoMillisecondTimeStamp()));
+        }
         
         EvidenceService evidenceService;
         try {
@@ -349,9 +337,94 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         return new HttpResponseData<>(true, HttpReturnCode.SUCCESS);
     }
     
-    private EvidenceServiceEngine getEvidenceServiceEngine(InputArg args) throws Exception {
+    /**
+     * Send a delegated evidence through the coalescer, and wait for the batch it goes in, up to
+     * evidence.coalesce.wait.timeout.millis.
+     */
+    private HttpResponseData<Object> delegateCreateEvidenceCoalesced(
+        InputArg args,
+        EvidenceCoalescer.Entry entry
+    ) {
+        Integer groupId;
+        try {
+            groupId = getGroupId(args);
+        } catch (Exception e) {
+            logger.info("Cannot find groupId definition: {}", e);
+            groupId = null;
+        }
+        if (groupId == null || groupId == 0) {
+            return new HttpResponseData<>(false, HttpReturnCode.INPUT_ILLEGAL.getCode(),
+                HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + "(Group ID illegal)");
+        }
+        try {
+            return coalescer.submit(groupId, entry)
+                .get(COALESCE_WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new HttpResponseData<>(false, HttpReturnCode.UNKNOWN_ERROR);
+        } catch (ExecutionException e) {
+            logger.error("[delegateCreateEvidence]: coalesced write failed.", e.getCause());
+            return new HttpResponseData<>(false, HttpReturnCode.UNKNOWN_ERROR);
+        } catch (TimeoutException e) {
+            logger.error("[delegateCreateEvidence]: coalesced write of {} not done after {} ms.",
+                entry.hash, COALESCE_WAIT_TIMEOUT_MILLIS);
+            return new HttpResponseData<>(false, HttpReturnCode.EVIDENCE_WRITE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Write a batch of coalesced delegated evidences of a group in one transaction.
+     */
+    private HttpResponseData<List<Boolean>> writeEvidenceBatch(
+        Integer groupId,
+        List<EvidenceCoalescer.Entry> batch
+    ) {
+        String adminPrivKey = KeyUtil.getPrivateKeyByWeId(KeyUtil.SDK_PRIVKEY_PATH,
+            PropertiesUtil.getProperty("default.passphrase"));
+        if (StringUtils.isEmpty(adminPrivKey)) {
+            return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL.getCode(),
+                HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + "(Private key empty or failed to unload)");
+        }
+        String issuer = DataToolUtils.convertPrivateKeyToDefaultWeId(adminPrivKey);
+        EvidenceServiceEngine evidenceServiceEngine;
+        try {
+            evidenceServiceEngine = getEvidenceServiceEngine(groupId);
+        } catch (LoadContractException e) {
+            return new HttpResponseData<>(null, HttpReturnCode.CONTRACT_ERROR.getCode(), HttpReturnCode.CONTRACT_ERROR.getCodeDesc());
+        } catch (InitWeb3jException e) {
+            return new HttpResponseData<>(null, HttpReturnCode.WEB3J_ERROR.getCode(), HttpReturnCode.WEB3J_ERROR.getCodeDesc());
+        } catch (Exception e) {
+            logger.error("[writeEvidenceBatch]: failed to load the engine of group {}", groupId, e);
+            return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc() + "(Failed to initialize evidence service, please check logs for details");
+        }
+        List<String> hashValues = new ArrayList<>(batch.size());
+        List<String> signatures = new ArrayList<>(batch.size());
+        List<String> logs = new ArrayList<>(batch.size());
+        List<Long> timestamps = new ArrayList<>(batch.size());
+        List<String> signers = new ArrayList<>(batch.size());
+        for (EvidenceCoalescer.Entry entry : batch) {
+            hashValues.add(entry.hash);
+            signatures.add(entry.signature);
+            logs.add(entry.log);
+            timestamps.add(entry.timestamp);
+            signers.add(issuer);
+        }
+        ResponseData<List<Boolean>> response = evidenceServiceEngine.batchCreateEvidence(
+            hashValues,
+            signatures,
+            logs,
+            timestamps,
+            signers,
+            adminPrivKey
+        );
+        return new HttpResponseData<>(response.getResult(), response.getErrorCode(),
+            response.getErrorMessage());
+    }
+
+    private Integer getGroupId(InputArg args) throws Exception {
         JsonNode groupIdNode;
-        JsonNode txnArgNode = new ObjectMapper().readTree(args.getTransactionArg());
+        JsonNode txnArgNode = args.getTransactionArgNode();
         groupIdNode = txnArgNode.get(WeIdentityParamKeyConstant.GROUP_ID);
         Integer groupId;
         if (groupIdNode == null || StringUtils.isEmpty(groupIdNode.toString())) {
@@ -359,30 +432,28 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
             groupId = masterGroupId;
         } else {
             groupId = Integer.valueOf(JsonUtil.removeDoubleQuotes(groupIdNode.toString()));
-            if (groupId == masterGroupId) {
+            if (Objects.equals(groupId, masterGroupId)) {
                 logger.info("Requesting master group id evidence service.., {}", groupId);
             } else {
                 logger.info("Requesting evidence subgroup id instance.. {}", groupId);
             }
         }
-        if (groupId == null || groupId == 0) {
-            logger.error("Group Id illegal: {}", groupId);
-            return null;
-        }
-        EvidenceServiceEngine evidenceServiceEngine = evidenceServiceEngineInstances.get(groupId);
-        if (evidenceServiceEngine == null) {
-            evidenceServiceEngine = EngineFactory.createEvidenceServiceEngine(groupId);
-            evidenceServiceEngineInstances.put(groupId, evidenceServiceEngine);
-        }
-        return evidenceServiceEngine;
+        return groupId;
+    }
+
+    private EvidenceServiceEngine getEvidenceServiceEngine(InputArg args) throws Exception {
+        return getEvidenceServiceEngine(getGroupId(args));
+    }
+
+    private EvidenceServiceEngine getEvidenceServiceEngine(Integer groupId) {
+        return EvidenceServiceRegistry.getEvidenceServiceEngine(groupId);
     }
 
     @Override
     public HttpResponseData<Object> delegateCreateEvidenceBatch(InputArg args) {
         JsonNode listNode;
         try {
-            JsonNode functionArgNode = new ObjectMapper()
-                .readTree(args.getFunctionArg());
+            JsonNode functionArgNode = args.getFunctionArgNode();
             listNode = functionArgNode.get(WeIdentityParamKeyConstant.LIST);
             // 如果节点不是数组
             if (!listNode.isArray()) {
@@ -394,6 +465,31 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
             return new HttpResponseData<>(null, HttpReturnCode.VALUE_FORMAT_ILLEGAL);
         }
 
+        // check all entries first, so that an illegal one rejects the batch before it goes on
+        // chain
+        for (JsonNode jsonNode : listNode) {
+            if (!isValidEvidenceEntry(jsonNode)) {
+                logger.error("[delegateCreateEvidenceBatch] input params has null.");
+                return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
+            }
+        }
+        // the whole list goes in one all-or-nothing batch call
+        return delegateCreateEvidenceBatch(args, listNode.elements(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public HttpResponseData<Object> delegateCreateEvidenceBatch(
+        InputArg args,
+        Iterator<JsonNode> entries
+    ) {
+        return delegateCreateEvidenceBatch(args, entries, BATCH_CHUNK_SIZE);
+    }
+
+    private HttpResponseData<Object> delegateCreateEvidenceBatch(
+        InputArg args,
+        Iterator<JsonNode> entries,
+        int chunkSize
+    ) {
         String adminPrivKey = KeyUtil.getPrivateKeyByWeId(KeyUtil.SDK_PRIVKEY_PATH,
             PropertiesUtil.getProperty("default.passphrase"));
         if (StringUtils.isEmpty(adminPrivKey)) {
@@ -403,28 +499,6 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
         String issuer = DataToolUtils.convertPrivateKeyToDefaultWeId(adminPrivKey);
         Long timeStamp = DateUtils.getNoMillisecondTimeStamp();
 
-        List<String> hashValues = new ArrayList<>();
-        List<String> signatures = new ArrayList<>();
-        List<String> logs = new ArrayList<>();
-        List<Long> timestamps = new ArrayList<>();
-        List<String> signers = new ArrayList<>(); 
-        ArrayNode nodes = (ArrayNode)listNode;
-        for (JsonNode jsonNode : nodes) {
-            JsonNode hashNode = jsonNode.get(WeIdentityParamKeyConstant.HASH);
-            JsonNode signNode = jsonNode.get(WeIdentityParamKeyConstant.SIGN);
-            JsonNode logNode = jsonNode.get(WeIdentityParamKeyConstant.LOG);
-            if ( hashNode == null || signNode == null ) {
-                logger.error("[delegateCreateEvidenceBatch] input params has null.");
-                return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
-            }
-            String log = (logNode == null || StringUtils.isEmpty(logNode.textValue())) ? "" : logNode.textValue();
-            hashValues.add(Numeric.prependHexPrefix(hashNode.textValue()));
-            signatures.add(signNode.textValue());
-            logs.add(log);
-            timestamps.add(timeStamp);
-            signers.add(issuer);
-        }
-
         EvidenceServiceEngine createEvidenceServiceEngine;
         try {
             createEvidenceServiceEngine = getEvidenceServiceEngine(args);
@@ -441,18 +515,59 @@ public class InvokerEvidenceServiceImpl extends BaseService implements
             return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL.getCode(),
                 HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + "(Group ID illegal)");
         }
-        ResponseData<List<Boolean>> response = createEvidenceServiceEngine.batchCreateEvidence(
-            hashValues, 
-            signatures, 
-            logs, 
-            timestamps, 
-            signers, 
-            adminPrivKey
-        );
-        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
-            return new HttpResponseData<>(response.getResult(), response.getErrorCode(),
-                response.getErrorMessage());
-        }
-        return new HttpResponseData<>(response.getResult(), HttpReturnCode.SUCCESS);
+        // the entries go to the engine in chunks, so at most one chunk of them is held at a
+        // time; on failure, the results of the chunks already sent are returned
+        List<Boolean> results = new ArrayList<>();
+        do {
+            List<String> hashValues = new ArrayList<>();
+            List<String> signatures = new ArrayList<>();
+            List<String> logs = new ArrayList<>();
+            List<Long> timestamps = new ArrayList<>();
+            List<String> signers = new ArrayList<>();
+            try {
+                while (entries.hasNext() && hashValues.size() < chunkSize) {
+                    JsonNode jsonNode = entries.next();
+                    if (!isValidEvidenceEntry(jsonNode)) {
+                        logger.error("[delegateCreateEvidenceBatch] input params has null at {}.",
+                            results.size() + hashValues.size());
+                        return new HttpResponseData<>(results, HttpReturnCode.INPUT_NULL);
+                    }
+                    JsonNode logNode = jsonNode.get(WeIdentityParamKeyConstant.LOG);
+                    String log = (logNode == null || StringUtils.isEmpty(logNode.textValue()))
+                        ? "" : logNode.textValue();
+                    hashValues.add(Numeric.prependHexPrefix(
+                        jsonNode.get(WeIdentityParamKeyConstant.HASH).textValue()));
+                    signatures.add(jsonNode.get(WeIdentityParamKeyConstant.SIGN).textValue());
+                    logs.add(log);
+                    timestamps.add(timeStamp);
+                    signers.add(issuer);
+                }
+            } catch (UncheckedIOException e) {
+                logger.error("[delegateCreateEvidenceBatch]: illegal entry at {}",
+                    results.size() + hashValues.size(), e);
+                return new HttpResponseData<>(results, HttpReturnCode.VALUE_FORMAT_ILLEGAL);
+            }
+            ResponseData<List<Boolean>> response = createEvidenceServiceEngine.batchCreateEvidence(
+                hashValues,
+                signatures,
+                logs,
+                timestamps,
+                signers,
+                adminPrivKey
+            );
+            if (response.getResult() != null) {
+                results.addAll(response.getResult());
+            }
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new HttpResponseData<>(results.isEmpty() ? response.getResult() : results,
+                    response.getErrorCode(), response.getErrorMessage());
+            }
+        } while (entries.hasNext());
+        return new HttpResponseData<>(results, HttpReturnCode.SUCCESS);
+    }
+
+    private static boolean isValidEvidenceEntry(JsonNode jsonNode) {
+        return jsonNode.get(WeIdentityParamKeyConstant.HASH) != null
+            && jsonNode.get(WeIdentityParamKeyConstant.SIGN) != null;
     }
 }
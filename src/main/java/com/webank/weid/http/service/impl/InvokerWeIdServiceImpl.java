@@ -37,7 +37,7 @@ import java.util.HashMap;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
@@ -51,10 +51,16 @@ import com.webank.weid.constant.ParamKeyConstant;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.protocol.request.InputArg;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SortedJsonMap;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerWeIdService;
 import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.JsonUtil.WriterProfile;
 import com.webank.weid.http.util.KeyUtil;
+import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.http.util.WeIdDocumentCache;
+import com.webank.weid.http.util.WeIdExistenceChecker;
+import com.webank.weid.http.util.WeIdPubKeyResolver;
 import com.webank.weid.protocol.base.WeIdPrivateKey;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
@@ -66,6 +72,9 @@ import com.webank.weid.service.impl.WeIdServiceImpl;
 @Component
 public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdService {
 
+    private static final int PUBKEY_LIST_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("weid.pubkey.list.max.size", "50000"));
+
     private Logger logger = LoggerFactory.getLogger(InvokerWeIdServiceImpl.class);
 
     private WeIdService weIdService = new WeIdServiceImpl();
@@ -157,8 +166,7 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
     public HttpResponseData<Object> getWeIdDocumentJsonInvoke(
         InputArg getWeIdDocumentJsonArgs) {
         try {
-            JsonNode weIdNode = new ObjectMapper()
-                .readTree(getWeIdDocumentJsonArgs.getFunctionArg())
+            JsonNode weIdNode = getWeIdDocumentJsonArgs.getFunctionArgNode()
                 .get(ParamKeyConstant.WEID);
             if (weIdNode == null || StringUtils.isEmpty(weIdNode.textValue())) {
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
@@ -181,6 +189,18 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
      * @return the WeIdentity DID document json
      */
     private HttpResponseData<Object> getWeIdDocumentJsonInvoke(String weId) {
+        WeIdDocumentCache cache = WeIdDocumentCache.getInstance();
+        HttpResponseData<ObjectNode> response = cache == null
+            ? loadWeIdDocumentJson(weId)
+            : cache.get(weId, this::loadWeIdDocumentJson);
+        // the cached tree is shared, each response gets its own sorted view of it
+        return new HttpResponseData<>(
+            SortedJsonMap.of(response.getRespBody()),
+            response.getErrorCode(),
+            response.getErrorMessage());
+    }
+
+    private HttpResponseData<ObjectNode> loadWeIdDocumentJson(String weId) {
         try {
             ResponseData<WeIdDocument> response = weIdService.getWeIdDocument(weId);
             if (response.getResult() == null) {
@@ -202,17 +222,13 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
                 }
             }
             weIdDocument.setPublicKey(publicKeyProperties);
-            String weIdDocumentStr;
-            try {
-                weIdDocumentStr = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(weIdDocument);
-            } catch (Exception var7) {
-                logger.error("write object to String fail.", var7);
-                return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR);
-            }
-            weIdDocumentStr = (new StringBuffer()).append(weIdDocumentStr)
-                .insert(1, "\"@context\" : \"https://github.com/WeBankFinTech/WeIdentity/blob/master/context/v1\",").toString();
+            // the document with Jackson defaults, @context added; top level keys sorted on output
+            ObjectNode weIdDocumentNode =
+                (ObjectNode) JsonUtil.valueToTree(weIdDocument, WriterProfile.DEFAULT);
+            weIdDocumentNode.put(ParamKeyConstant.CONTEXT,
+                "https://github.com/WeBankFinTech/WeIdentity/blob/master/context/v1");
             return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(weIdDocumentStr),
+                weIdDocumentNode,
                 response.getErrorCode(),
                 response.getErrorMessage());
         } catch (LoadContractException e) {
@@ -286,11 +302,9 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
     @Override
     public HttpResponseData<Object> createWeIdWithPubKey(InputArg arg) {
         try {
-            JsonNode publicKeySecpNode = new ObjectMapper()
-                .readTree(arg.getFunctionArg())
+            JsonNode publicKeySecpNode = arg.getFunctionArgNode()
                 .get(WeIdentityParamKeyConstant.PUBKEY_SECP);
-            JsonNode txnArgNode = new ObjectMapper()
-                .readTree(arg.getTransactionArg());
+            JsonNode txnArgNode = arg.getTransactionArgNode();
             JsonNode keyIndexNode = txnArgNode.get(WeIdentityParamKeyConstant.KEY_INDEX);
             if (publicKeySecpNode == null || StringUtils.isEmpty(publicKeySecpNode.textValue())
                 || keyIndexNode == null || StringUtils.isEmpty(keyIndexNode.textValue())) {
@@ -334,8 +348,7 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
             JsonNode publicKeyRsaNode;
             String publicKeyRsa;
             try {
-                publicKeyRsaNode = new ObjectMapper()
-                    .readTree(arg.getFunctionArg())
+                publicKeyRsaNode = arg.getFunctionArgNode()
                     .get(WeIdentityParamKeyConstant.PUBKEY_RSA);
                 publicKeyRsa = publicKeyRsaNode.textValue();
                 if (!DataToolUtils.isValidBase64String(publicKeyRsa)) {
@@ -397,14 +410,20 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
         weIdListRsp.setWeIdList(new ArrayList<>());
         weIdListRsp.setErrorCodeList(new ArrayList<>());
 
-        JsonNode functionArgNode = new ObjectMapper().readTree(arg.getFunctionArg());
+        JsonNode functionArgNode = arg.getFunctionArgNode();
         JsonNode pubKeyNode = functionArgNode.get(WeIdentityParamKeyConstant.PUBKEY_LIST);
         if (!pubKeyNode.isArray()) {
             logger.error("input format illegal: not Array.");
             return new HttpResponseData<>(weIdListRsp, HttpReturnCode.INPUT_ILLEGAL.getCode(),
                 HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + ": not Array");
         }
-        List<WeIdPublicKey> pubKeyList = new ArrayList<>();
+        if (pubKeyNode.size() > PUBKEY_LIST_MAX_SIZE) {
+            logger.error("input format illegal: more than {} public keys.", PUBKEY_LIST_MAX_SIZE);
+            return new HttpResponseData<>(weIdListRsp, HttpReturnCode.INPUT_ILLEGAL.getCode(),
+                HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + ": more than "
+                    + PUBKEY_LIST_MAX_SIZE + " public keys");
+        }
+        List<String> pubKeyList = new ArrayList<>(pubKeyNode.size());
         for (JsonNode jsonNode : pubKeyNode) {
             if (StringUtils.isBlank(jsonNode.asText())) {
                 logger.error("public key is null.");
@@ -417,34 +436,19 @@ public class InvokerWeIdServiceImpl extends BaseService implements InvokerWeIdSe
                     HttpReturnCode.INPUT_ILLEGAL.getCodeDesc() + ": not Base64");
             }
             String publicKeySecp = Numeric.toBigInt(Base64.decodeBase64(jsonNode.asText())).toString(10);
-            WeIdPublicKey publicKey = new WeIdPublicKey();
-            publicKey.setPublicKey(publicKeySecp);
-            pubKeyList.add(publicKey);
+            pubKeyList.add(publicKeySecp);
         }
         if (pubKeyList.isEmpty()) {
             return new HttpResponseData<>(weIdListRsp, HttpReturnCode.INPUT_ILLEGAL);
         }
-        return this.getWeIdListAndErrorCodeList(pubKeyList, weIdListRsp);
+        return this.getWeIdListAndErrorCodeList(pubKeyList);
     }
 
-    private HttpResponseData<Object> getWeIdListAndErrorCodeList(List<WeIdPublicKey> pubKeyList, WeIdListRsp weIdListRsp) {
-        HttpResponseData<Object> responseData = new HttpResponseData<>();
-        pubKeyList.forEach(weIdPublicKey -> {
-            String weId = WeIdUtils.convertPublicKeyToWeId(weIdPublicKey.getPublicKey());
-            if (StringUtils.isBlank(weId)) {
-                weIdListRsp.getWeIdList().add(null);
-                weIdListRsp.getErrorCodeList().add(HttpReturnCode.CONVERT_PUBKEY_TO_WEID_ERROR.getCode());
-            } else {
-                if (weIdService.isWeIdExist(weId).getResult()) {
-                    weIdListRsp.getWeIdList().add(weId);
-                    weIdListRsp.getErrorCodeList().add(ErrorCode.SUCCESS.getCode());
-                } else {
-                    weIdListRsp.getWeIdList().add(null);
-                    weIdListRsp.getErrorCodeList().add(ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCode());
-                }
-            }
-        });
+    private HttpResponseData<Object> getWeIdListAndErrorCodeList(List<String> pubKeyList) {
+        WeIdListRsp weIdListRsp = WeIdPubKeyResolver.getInstance().resolve(pubKeyList,
+            weId -> WeIdExistenceChecker.getInstance().isWeIdExist(weId, weIdService::isWeIdExist));
 
+        HttpResponseData<Object> responseData = new HttpResponseData<>();
         responseData.setRespBody(weIdListRsp);
 
         if (weIdListRsp.getWeIdList().contains(null)) {
@@ -20,14 +20,19 @@
 package com.webank.weid.http.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.webank.weid.constant.ParamKeyConstant;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.SignType;
 import com.webank.weid.http.constant.WeIdentityFunctionNames;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
+import com.webank.weid.http.protocol.response.EncodingKit;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.protocol.response.SignedEncodingKit;
+import com.webank.weid.http.protocol.response.TransactionReceiptInfo;
+import com.webank.weid.http.service.AsyncTransactionService;
 import com.webank.weid.http.service.BaseService;
 import com.webank.weid.http.service.InvokerAuthorityIssuerService;
 import com.webank.weid.http.service.InvokerCptService;
@@ -35,15 +40,41 @@ import com.webank.weid.http.service.InvokerCredentialService;
 import com.webank.weid.http.service.InvokerEvidenceService;
 import com.webank.weid.http.service.InvokerWeIdService;
 import com.webank.weid.http.service.TransactionService;
+import com.webank.weid.http.service.dispatch.FunctionHandler;
+import com.webank.weid.http.service.dispatch.FunctionRegistry;
+import com.webank.weid.http.service.dispatch.FunctionType;
+import com.webank.weid.http.util.ChainMetadata;
+import com.webank.weid.http.util.ChainMetadataUtil;
+import com.webank.weid.http.util.ExecutorUtil;
 import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.JsonUtil.WriterProfile;
+import com.webank.weid.http.util.KeyUtil;
+import com.webank.weid.http.util.MetricsRegistry;
+import com.webank.weid.http.util.PropertiesUtil;
+import com.webank.weid.http.util.RawTransactionPipeline;
+import com.webank.weid.http.util.ReplayGuard;
+import com.webank.weid.http.util.StreamingBatchReader;
 import com.webank.weid.http.util.TransactionEncoderUtil;
 import com.webank.weid.http.util.TransactionEncoderUtilV2;
+import com.webank.weid.http.util.WeIdReceiptDecoder;
+import com.webank.weid.util.DataToolUtils;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.crypto.ECKeyPair;
+import org.fisco.bcos.web3j.crypto.EncryptType;
+import org.fisco.bcos.web3j.crypto.Sign;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -54,6 +85,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class TransactionServiceImpl extends BaseService implements TransactionService {
 
+    private static final int ENCODE_BATCH_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.encode.batch.max.size", "1000"));
+
+    private static final int SEND_BATCH_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.send.batch.max.size", "1000"));
+
+    private static final long ENCODING_KIT_LEASE_MILLIS = Long.parseLong(
+        PropertiesUtil.getProperty("encoding.kit.lease.seconds", "60")) * 1000L;
+
     private Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
     private InvokerAuthorityIssuerService invokerAuthorityIssuerService =
@@ -63,6 +103,152 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
     private InvokerCredentialService invokerCredentialService = new InvokerCredentialServiceImpl();
     private InvokerEvidenceService invokerEvidenceService = new InvokerEvidenceServiceImpl();
 
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
+    /**
+     * The server-side invoked functions, by name.
+     */
+    private final FunctionRegistry<InputArg, HttpResponseData<Object>> invokeRegistry =
+        buildInvokeRegistry();
+
+    /**
+     * The client-signed functions, by name: how to send the rebuilt transaction hex.
+     */
+    private final FunctionRegistry<String, HttpResponseData<String>> sendRegistry =
+        new FunctionRegistry<String, HttpResponseData<String>>()
+            .register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID, String.class,
+                FunctionType.WRITE,
+                txnHex -> invokerWeIdService.createWeIdWithTransactionHex(txnHex))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER, String.class,
+                FunctionType.WRITE, txnHex -> invokerAuthorityIssuerService
+                    .registerAuthorityIssuerWithTransactionHex(txnHex))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, String.class,
+                FunctionType.WRITE,
+                txnHex -> invokerCptService.registerCptWithTransactionHex(txnHex));
+
+    /**
+     * The client-signed functions, by name: how to decode the receipt of a transaction sent in
+     * async mode into the result the send above returns.
+     */
+    private final FunctionRegistry<TransactionReceipt, HttpResponseData<String>> decodeRegistry =
+        new FunctionRegistry<TransactionReceipt, HttpResponseData<String>>()
+            .register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID, TransactionReceipt.class,
+                FunctionType.WRITE, receipt -> WeIdReceiptDecoder.createWeId(
+                    receipt, ChainMetadataUtil.get().getWeIdAddress()))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER,
+                TransactionReceipt.class, FunctionType.WRITE,
+                receipt -> WeIdReceiptDecoder.registerAuthorityIssuer(
+                    receipt, ChainMetadataUtil.get().getIssuerAddress()))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, TransactionReceipt.class,
+                FunctionType.WRITE, receipt -> WeIdReceiptDecoder.registerCpt(
+                    receipt, ChainMetadataUtil.get().getCptAddress()));
+
+    /**
+     * The batch functions which can be invoked with a streamed request body.
+     */
+    private final FunctionRegistry<StreamingBatchReader, HttpResponseData<Object>> streamRegistry =
+        new FunctionRegistry<StreamingBatchReader, HttpResponseData<Object>>()
+            .register(
+                WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL_DELEGATE_BATCH,
+                JsonNode.class, FunctionType.WRITE,
+                reader -> invokerEvidenceService
+                    .delegateCreateEvidenceBatch(reader.getInputArg(), reader.items()));
+
+    public TransactionServiceImpl() {
+        MetricsRegistry.register("invoke", invokeRegistry::getMetrics);
+        MetricsRegistry.register("transact", sendRegistry::getMetrics);
+    }
+
+    private FunctionRegistry<InputArg, HttpResponseData<Object>> buildInvokeRegistry() {
+        FunctionRegistry<InputArg, HttpResponseData<Object>> registry = new FunctionRegistry<>();
+        // credentials
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_CREDENTIAL, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::createCredentialInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_CREDENTIALPOJO, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::createCredentialPojoInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_VERIFY_CREDENTIAL, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::verifyCredentialInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_VERIFY_CREDENTIALPOJO, JsonNode.class,
+            FunctionType.READ, inputArg -> {
+                HttpResponseData<Boolean> respData =
+                    invokerCredentialService.verifyCredentialPojoInvoke(inputArg);
+                return new HttpResponseData<>(respData.getRespBody(), respData.getErrorCode(),
+                    respData.getErrorMessage());
+            });
+        registry.register(WeIdentityFunctionNames.FUNCNAME_VERIFY_CREDENTIALPOJO_BATCH,
+            JsonNode.class, FunctionType.READ,
+            invokerCredentialService::verifyCredentialPojoBatchInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_ECCENCRYPT_CREDENTIAL, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::createCredentialPojoAndEncryptInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_ECCENCRYPT, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::eccEncrypt);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_ECCDECRYPT, JsonNode.class,
+            FunctionType.READ, invokerCredentialService::eccDecrypt);
+        // authority issuers
+        registry.register(WeIdentityFunctionNames.FUNCNAME_QUERY_AUTHORITY_ISSUER, JsonNode.class,
+            FunctionType.READ, invokerAuthorityIssuerService::queryAuthorityIssuerInfoInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER,
+            JsonNode.class, FunctionType.WRITE,
+            invokerAuthorityIssuerService::registerAuthorityIssuerInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_ADD_WEID_TO_WHITELIST, JsonNode.class,
+            FunctionType.WRITE, invokerAuthorityIssuerService::addWeIdToWhitelist);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_IS_WEID_IN_WHITELIST, JsonNode.class,
+            FunctionType.READ, invokerAuthorityIssuerService::isWeIdInWhitelist);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_RECOGNIZE_AUTHORITY_ISSUER,
+            JsonNode.class, FunctionType.WRITE,
+            invokerAuthorityIssuerService::recognizeAuthorityIssuer);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_DERECOGNIZE_AUTHORITY_ISSUER,
+            JsonNode.class, FunctionType.WRITE,
+            invokerAuthorityIssuerService::deRecognizeAuthorityIssuer);
+        // weIds
+        registry.register(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT, JsonNode.class,
+            FunctionType.READ, invokerWeIdService::getWeIdDocumentJsonInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT_JSON, JsonNode.class,
+            FunctionType.READ, invokerWeIdService::getWeIdDocumentJsonInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT_BY_ORG,
+            JsonNode.class, FunctionType.READ, this::getWeIdDocumentByOrgId);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_GETWEIDLIST_BYPUBKEYLIST,
+            JsonNode.class, FunctionType.READ, inputArg -> {
+                try {
+                    return invokerWeIdService.getWeIdListByPubKeyList(inputArg);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID, JsonNode.class,
+            FunctionType.WRITE, invokerWeIdService::createWeIdInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_AND_RETURN_DOC,
+            JsonNode.class, FunctionType.WRITE, invokerWeIdService::createWeIdInvoke2);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_WITH_PUBKEY,
+            JsonNode.class, FunctionType.WRITE, invokerWeIdService::createWeIdWithPubKey);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_WITH_PUBKEY_AND_RETURN_DOC,
+            JsonNode.class, FunctionType.WRITE, invokerWeIdService::createWeIdWithPubKey2);
+        // cpts
+        registry.register(WeIdentityFunctionNames.FUNCNAME_QUERY_CPT, JsonNode.class,
+            FunctionType.READ, invokerCptService::queryCptInvoke);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, JsonNode.class,
+            FunctionType.WRITE, invokerCptService::registerCptInvoke);
+        // evidences
+        registry.register(WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL,
+            JsonNode.class, FunctionType.WRITE,
+            invokerEvidenceService::createEvidenceWithExtraInfo);
+        registry.register(
+            WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL_DELEGATE,
+            JsonNode.class, FunctionType.WRITE, invokerEvidenceService::delegateCreateEvidence);
+        registry.register(
+            WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL_DELEGATE_BATCH,
+            JsonNode.class, FunctionType.WRITE,
+            invokerEvidenceService::delegateCreateEvidenceBatch);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_VERIFY_LITE_CREDENTIAL, JsonNode.class,
+            FunctionType.READ, invokerEvidenceService::getEvidenceByCustomKey);
+        registry.register(WeIdentityFunctionNames.FUNCNAME_GET_EVIDENCE_BY_HASH, JsonNode.class,
+            FunctionType.READ, invokerEvidenceService::getEvidenceByHash);
+        return registry;
+    }
+
     /**
      * Create an Encoded Transaction.
      *
@@ -84,43 +270,21 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
                 return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
             }
 
-            loopBack = getLoopBack(inputArg.getTransactionArg());
+            loopBack = getLoopBack(inputArg);
 
             String functionName = inputArg.getFunctionName();
-            String functionArg = inputArg.getFunctionArg();
-            HttpResponseData<String> httpResponseData;
+            JsonNode functionArg = inputArg.getFunctionArgNode();
             if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_CREDENTIALPOJO)) {
                 HttpResponseData<Object> credResp = TransactionEncoderUtilV2.encodeCredential(inputArg);
                 return new HttpResponseData<>(credResp.getRespBody(), loopBack, credResp.getErrorCode(),
                     credResp.getErrorMessage());
             }
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode txnArgNode = objectMapper.readTree(inputArg.getTransactionArg());
-            JsonNode nonceNode = txnArgNode.get(WeIdentityParamKeyConstant.NONCE);
-            if (nonceNode == null || StringUtils.isEmpty(nonceNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.NONCE_ILLEGAL);
-            }
-            SignType signType = null;
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCCALL_REGISTER_CPT)) {
-                JsonNode signTypeNode = txnArgNode.get(WeIdentityParamKeyConstant.SIGN_TYPE);
-                if (signTypeNode == null || StringUtils.isEmpty(signTypeNode.textValue())) {
-                    logger.error("Null input within: {}", txnArgNode.toString());
-                    return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGN_TYPE_ILLEGAL);
-                }
-                signType = SignType.getSignTypeByCode(Integer.parseInt(signTypeNode.textValue()));
-            }
-            
-            String nonce = JsonUtil.removeDoubleQuotes(nonceNode.toString());
-            // is FISCO-BCOS v2 blockchain
-            httpResponseData = TransactionEncoderUtilV2
-                .createEncoder(fiscoConfig, functionArg, nonce, functionName, signType);
-            return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(httpResponseData.getRespBody()),
-                loopBack,
-                httpResponseData.getErrorCode(),
-                httpResponseData.getErrorMessage());
+            HttpResponseData<Object> encodeResp = encode(functionName, functionArg,
+                inputArg.getTransactionArgNode(), ChainMetadataUtil.get(),
+                TransactionEncoderUtilV2.getBlocklimitV2());
+            encodeResp.setLoopback(loopBack);
+            return encodeResp;
         } catch (Exception e) {
             logger.error("[createEncodingFunction]: unknown error with input argment {}",
                 encodeTransactionJsonArgs,
@@ -130,6 +294,165 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
         }
     }
 
+    /**
+     * Create Encoded Transactions for a list of client-signed function calls. All of them share
+     * one chain snapshot and blockLimit, and are encoded on the compute pool; a failed entry
+     * gets its error in place without failing the others.
+     *
+     * @param encodeTransactionJsonArgs json format args, with functionName and apiVersion as in
+     * encodeTransaction, and a functionArg whose list holds one {functionArg, transactionArg}
+     * entry per transaction.
+     * @return the encodeTransaction response of each entry, in order.
+     */
+    @Override
+    public HttpResponseData<Object> encodeTransactionBatch(String encodeTransactionJsonArgs) {
+        Object loopBack = null;
+        try {
+            HttpResponseData<InputArg> resp = TransactionEncoderUtil
+                .buildInputArg(encodeTransactionJsonArgs);
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument: {}", encodeTransactionJsonArgs);
+                return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
+            }
+            loopBack = getLoopBack(inputArg);
+
+            String functionName = inputArg.getFunctionName();
+            if (!TransactionEncoderUtilV2.hasEncoder(functionName)) {
+                logger.error("[encodeTransactionBatch]: unsupported function: {}", functionName);
+                return new HttpResponseData<>(null, loopBack, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+            }
+            HttpResponseData<List<InputArg>> entriesRes =
+                TransactionEncoderUtil.splitBatchInputArg(inputArg, ENCODE_BATCH_MAX_SIZE);
+            if (entriesRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, entriesRes.getErrorCode(),
+                    entriesRes.getErrorMessage());
+            }
+            BigInteger blockLimit = TransactionEncoderUtilV2.getBlocklimitV2();
+            if (blockLimit == null) {
+                return new HttpResponseData<>(null, loopBack, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
+            }
+            ChainMetadata chainMetadata = ChainMetadataUtil.get();
+
+            List<HttpResponseData<Object>> results = ExecutorUtil.mapInParallel(
+                entriesRes.getRespBody(),
+                entry -> encodeEntry(entry, chainMetadata, blockLimit));
+            return new HttpResponseData<>(results, loopBack, HttpReturnCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[encodeTransactionBatch]: unknown error with input argment {}",
+                encodeTransactionJsonArgs,
+                e);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Get a signed encoding kit. The blockLimit is the one encode would use now, and the kit
+     * expires after encoding.kit.lease.seconds, well before the chain passes that blockLimit.
+     *
+     * @return the encoding kit, signed by the admin key.
+     */
+    @Override
+    public HttpResponseData<Object> getEncodingKit() {
+        try {
+            BigInteger blockLimit = TransactionEncoderUtilV2.getBlocklimitV2();
+            if (blockLimit == null) {
+                return new HttpResponseData<>(null, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
+            }
+            String adminPrivKey = KeyUtil.getPrivateKeyByWeId(KeyUtil.SDK_PRIVKEY_PATH,
+                PropertiesUtil.getProperty("default.passphrase"));
+            if (StringUtils.isEmpty(adminPrivKey)) {
+                return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL.getCode(),
+                    HttpReturnCode.INPUT_ILLEGAL.getCodeDesc()
+                        + "(Private key empty or failed to unload)");
+            }
+            ChainMetadata chainMetadata = ChainMetadataUtil.get();
+            EncodingKit kit = new EncodingKit();
+            kit.setChainId(chainMetadata.getChainId().toString());
+            kit.setGroupId(chainMetadata.getGroupId());
+            kit.setEncryptType(EncryptType.encryptType);
+            kit.setBlockLimit(blockLimit.toString());
+            kit.setIssuedAt(System.currentTimeMillis());
+            kit.setExpiresAt(kit.getIssuedAt() + ENCODING_KIT_LEASE_MILLIS);
+            kit.setFunctions(TransactionEncoderUtilV2.getFunctionTemplates(chainMetadata));
+
+            String kitJson = JsonUtil.writer(WriterProfile.SORTED).writeValueAsString(kit);
+            SignatureData signatureData = Sign.signMessage(
+                kitJson.getBytes(StandardCharsets.UTF_8),
+                ECKeyPair.create(new BigInteger(adminPrivKey)));
+            SignedEncodingKit signedKit = new SignedEncodingKit();
+            signedKit.setKit(kit);
+            signedKit.setSignature(new String(DataToolUtils.base64Encode(
+                TransactionEncoderUtilV2.simpleSignatureSerialization(signatureData)),
+                StandardCharsets.UTF_8));
+            signedKit.setSigner(DataToolUtils.convertPrivateKeyToDefaultWeId(adminPrivKey));
+            return new HttpResponseData<>(signedKit, HttpReturnCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[getEncodingKit]: failed to build the encoding kit", e);
+            return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private HttpResponseData<Object> encodeEntry(
+        InputArg entry,
+        ChainMetadata chainMetadata,
+        BigInteger blockLimit
+    ) {
+        try {
+            if (entry.getFunctionArgNode() == null) {
+                return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
+            }
+            if (entry.getTransactionArgNode() == null) {
+                return new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL);
+            }
+            return encode(entry.getFunctionName(), entry.getFunctionArgNode(),
+                entry.getTransactionArgNode(), chainMetadata, blockLimit);
+        } catch (Exception e) {
+            logger.error("[encodeTransactionBatch]: failed to encode entry of {}",
+                entry.getFunctionName(), e);
+            return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Encode one client-signed function call, reading the nonce (and signType for registerCpt)
+     * from its transactionArg.
+     */
+    private HttpResponseData<Object> encode(
+        String functionName,
+        JsonNode functionArg,
+        JsonNode txnArgNode,
+        ChainMetadata chainMetadata,
+        BigInteger blockLimit
+    ) {
+        JsonNode nonceNode = txnArgNode.get(WeIdentityParamKeyConstant.NONCE);
+        if (nonceNode == null || StringUtils.isEmpty(nonceNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, HttpReturnCode.NONCE_ILLEGAL);
+        }
+        SignType signType = null;
+        if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCCALL_REGISTER_CPT)) {
+            JsonNode signTypeNode = txnArgNode.get(WeIdentityParamKeyConstant.SIGN_TYPE);
+            if (signTypeNode == null || StringUtils.isEmpty(signTypeNode.textValue())) {
+                logger.error("Null input within: {}", txnArgNode.toString());
+                return new HttpResponseData<>(null, HttpReturnCode.SIGN_TYPE_ILLEGAL);
+            }
+            signType = SignType.getSignTypeByCode(Integer.parseInt(signTypeNode.textValue()));
+        }
+
+        String nonce = JsonUtil.removeDoubleQuotes(nonceNode.toString());
+        // is FISCO-BCOS v2 blockchain
+        HttpResponseData<String> httpResponseData = TransactionEncoderUtilV2
+            .createEncoder(functionArg, nonce, functionName, signType, chainMetadata, blockLimit);
+        return new HttpResponseData<>(
+            JsonUtil.convertJsonToSortedMap(httpResponseData.getRespBody()),
+            httpResponseData.getErrorCode(),
+            httpResponseData.getErrorMessage());
+    }
+
     /**
      * Send Transaction to Blockchain.
      *
@@ -150,74 +473,260 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
                     resp.getErrorMessage());
             }
 
-            loopBack = getLoopBack(inputArg.getTransactionArg());
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode txnArgNode = objectMapper.readTree(inputArg.getTransactionArg());
-            JsonNode nonceNode = txnArgNode.get(WeIdentityParamKeyConstant.NONCE);
-            JsonNode blockLimitNode = txnArgNode.get(WeIdentityParamKeyConstant.BLOCK_LIMIT);
-            JsonNode signTypeNode = txnArgNode.get(WeIdentityParamKeyConstant.SIGN_TYPE);
-            JsonNode dataNode = txnArgNode.get(WeIdentityParamKeyConstant.TRANSACTION_DATA);
-            JsonNode signedMessageNode = txnArgNode
-                .get(WeIdentityParamKeyConstant.SIGNED_MESSAGE);
-            if (nonceNode == null || StringUtils.isEmpty(nonceNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.NONCE_ILLEGAL);
+            loopBack = getLoopBack(inputArg);
+            HttpResponseData<String> txnHexRes = buildTxnHex(inputArg, loopBack);
+            if (txnHexRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, txnHexRes.getErrorCode(),
+                    txnHexRes.getErrorMessage());
             }
-            if (blockLimitNode == null || StringUtils.isEmpty(blockLimitNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
-            }
-            if (dataNode == null || StringUtils.isEmpty(dataNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.DATA_ILLEGAL);
+            return send(inputArg.getFunctionName(), txnHexRes.getRespBody(), loopBack);
+        } catch (Exception e) {
+            logger.error("[sendTransaction]: unknown error with input argument {}",
+                sendTransactionJsonArgs,
+                e);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(e.getMessage()));
+        }
+    }
+
+    /**
+     * Send Transaction to Blockchain in async mode: the transaction is submitted to the node
+     * and the receipt tracker completes its status once it is on chain, with the result
+     * decoded from the receipt as sendTransaction returns it.
+     *
+     * @param sendTransactionJsonArgs the same json format args as in sendTransaction, with an
+     * optional callbackUrl in transactionArgs.
+     * @return the transaction hash and status.
+     */
+    @Override
+    public HttpResponseData<Object> sendTransactionAsync(String sendTransactionJsonArgs) {
+        Object loopBack = null;
+        try {
+            HttpResponseData<InputArg> resp = TransactionEncoderUtil
+                .buildInputArg(sendTransactionJsonArgs);
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument: {}", sendTransactionJsonArgs);
+                return new HttpResponseData<>(StringUtils.EMPTY, resp.getErrorCode(),
+                    resp.getErrorMessage());
             }
-            if (signedMessageNode == null || StringUtils.isEmpty(signedMessageNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGNED_MSG_ILLEGAL);
+
+            loopBack = getLoopBack(inputArg);
+            JsonNode callbackUrlNode = inputArg.getTransactionArgNode()
+                .get(WeIdentityParamKeyConstant.CALLBACK_URL);
+            String callbackUrl = callbackUrlNode == null ? null : callbackUrlNode.textValue();
+            if (!AsyncTransactionServiceImpl.isValidCallbackUrl(callbackUrl)) {
+                logger.error("Illegal callback url: {}", callbackUrl);
+                return new HttpResponseData<>(null, loopBack, HttpReturnCode.INPUT_ILLEGAL);
+            }
+            HttpResponseData<String> txnHexRes = buildTxnHex(inputArg, loopBack);
+            if (txnHexRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, txnHexRes.getErrorCode(),
+                    txnHexRes.getErrorMessage());
+            }
+            String txnHex = txnHexRes.getRespBody();
+            String transactionHash;
+            try {
+                transactionHash = TransactionEncoderUtilV2.sendRawTransaction(txnHex);
+            } catch (IOException | RuntimeException e) {
+                ReplayGuard.releaseTransaction(txnHex);
+                throw e;
+            }
+            Object requestLoopBack = loopBack;
+            FunctionHandler<TransactionReceipt, HttpResponseData<String>> decoder =
+                decodeRegistry.get(inputArg.getFunctionName());
+            return asyncTransactionService.track(
+                transactionHash,
+                loopBack,
+                callbackUrl,
+                TransactionEncoderUtilV2.getTransactionReceiptAsync(transactionHash)
+                    .thenApply(receipt -> toSendResponse(decoder.execute(receipt),
+                        requestLoopBack)));
+        } catch (Exception e) {
+            logger.error("[sendTransactionAsync]: unknown error with input argument {}",
+                sendTransactionJsonArgs,
+                e);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(e.getMessage()));
+        }
+    }
+
+    /**
+     * Send a batch of signed Transactions to Blockchain. Each transaction hex is rebuilt as in
+     * sendTransaction and submitted through the shared transaction pipeline, so that many are
+     * in flight at once; the call returns when all of them are on chain or failed.
+     *
+     * @param sendTransactionJsonArgs json format args, with functionName and apiVersion as in
+     * sendTransaction, and a functionArg whose list holds one {transactionArg} entry per
+     * transaction.
+     * @return the receipt (block number, index and status) or the error of each entry, in order.
+     */
+    @Override
+    public HttpResponseData<Object> sendTransactionBatch(String sendTransactionJsonArgs) {
+        Object loopBack = null;
+        try {
+            HttpResponseData<InputArg> resp = TransactionEncoderUtil
+                .buildInputArg(sendTransactionJsonArgs);
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument: {}", sendTransactionJsonArgs);
+                return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
             }
-            if (signTypeNode == null || StringUtils.isEmpty(signTypeNode.textValue())) {
-                logger.error("Null input within: {}", txnArgNode.toString());
-                return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGN_TYPE_ILLEGAL);
+            loopBack = getLoopBack(inputArg);
+            if (sendRegistry.get(inputArg.getFunctionName()) == null) {
+                logger.error("Function name undefined: {}.", inputArg.getFunctionName());
+                return new HttpResponseData<>(null, loopBack, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
             }
-            String functionName = inputArg.getFunctionName();
-            String nonce = JsonUtil.removeDoubleQuotes(nonceNode.toString());
-            String blockLimit = JsonUtil.removeDoubleQuotes(blockLimitNode.toString());
-            String data = JsonUtil.removeDoubleQuotes(dataNode.toString());
-            String signedMessage = signedMessageNode.textValue();
-            SignType signType = SignType.getSignTypeByCode(Integer.parseInt(signTypeNode.textValue()));
-            HttpResponseData<String> httpResponseData =
-                new HttpResponseData<>(null, loopBack, HttpReturnCode.INPUT_NULL);
-            String txnHex;
-             // is FISCO-BCOS v2
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID)) {
-                txnHex = TransactionEncoderUtilV2
-                    .createTxnHex(signedMessage, nonce, fiscoConfig.getWeIdAddress(), data, blockLimit, signType);
-                httpResponseData = invokerWeIdService.createWeIdWithTransactionHex(txnHex);
+            HttpResponseData<List<InputArg>> entriesRes =
+                TransactionEncoderUtil.splitBatchInputArg(inputArg, SEND_BATCH_MAX_SIZE);
+            if (entriesRes.getRespBody() == null) {
+                return new HttpResponseData<>(null, loopBack, entriesRes.getErrorCode(),
+                    entriesRes.getErrorMessage());
             }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER)) {
-                txnHex = TransactionEncoderUtilV2
-                    .createTxnHex(signedMessage, nonce, fiscoConfig.getIssuerAddress(), data, blockLimit, signType);
-                httpResponseData = invokerAuthorityIssuerService
-                    .registerAuthorityIssuerWithTransactionHex(txnHex);
+            List<CompletableFuture<HttpResponseData<Object>>> futures = new ArrayList<>();
+            for (InputArg entry : entriesRes.getRespBody()) {
+                futures.add(sendEntry(entry));
             }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCCALL_REGISTER_CPT)) {
-                txnHex = TransactionEncoderUtilV2
-                    .createTxnHex(signedMessage, nonce, fiscoConfig.getCptAddress(), data, blockLimit, signType);
-                httpResponseData = invokerCptService.registerCptWithTransactionHex(txnHex);
+            List<HttpResponseData<Object>> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<HttpResponseData<Object>> future : futures) {
+                results.add(future.join());
             }
-            return new HttpResponseData<>(
-                JsonUtil.convertJsonToSortedMap(httpResponseData.getRespBody()),
-                loopBack,
-                httpResponseData.getErrorCode(),
-                httpResponseData.getErrorMessage());
+            return new HttpResponseData<>(results, loopBack, HttpReturnCode.SUCCESS);
         } catch (Exception e) {
-            logger.error("[sendTransaction]: unknown error with input argument {}",
+            logger.error("[sendTransactionBatch]: unknown error with input argument {}",
                 sendTransactionJsonArgs,
                 e);
             return new HttpResponseData<>(null, loopBack, HttpReturnCode.UNKNOWN_ERROR.getCode(),
-                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(e.getMessage()));
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private CompletableFuture<HttpResponseData<Object>> sendEntry(InputArg entry) {
+        try {
+            if (entry.getTransactionArgNode() == null) {
+                return CompletableFuture.completedFuture(
+                    new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL));
+            }
+            HttpResponseData<String> txnHexRes = buildTxnHex(entry, null);
+            if (txnHexRes.getRespBody() == null) {
+                return CompletableFuture.completedFuture(new HttpResponseData<>(null,
+                    txnHexRes.getErrorCode(), txnHexRes.getErrorMessage()));
+            }
+            String txnHex = txnHexRes.getRespBody();
+            return RawTransactionPipeline.getInstance().submit(txnHex)
+                .handle((receipt, error) -> {
+                    if (error == null) {
+                        return toReceiptResponse(receipt);
+                    }
+                    ReplayGuard.releaseTransaction(txnHex);
+                    return RawTransactionPipeline.toErrorResponse(error);
+                });
+        } catch (Exception e) {
+            logger.error("[sendTransactionBatch]: failed to send entry of {}",
+                entry.getFunctionName(), e);
+            return CompletableFuture.completedFuture(RawTransactionPipeline.toErrorResponse(e));
+        }
+    }
+
+    private static HttpResponseData<Object> toReceiptResponse(TransactionReceipt receipt) {
+        TransactionReceiptInfo receiptInfo = new TransactionReceiptInfo();
+        receiptInfo.setTransactionHash(receipt.getTransactionHash());
+        receiptInfo.setBlockNumber(receipt.getBlockNumber());
+        receiptInfo.setTransactionIndex(receipt.getTransactionIndex());
+        receiptInfo.setStatus(receipt.getStatus());
+        return new HttpResponseData<>(receiptInfo, receipt.isStatusOK()
+            ? HttpReturnCode.SUCCESS : HttpReturnCode.TRANSACTION_EXECUTE_FAILED);
+    }
+
+    /**
+     * Check the transaction args and rebuild the signed transaction hex from them, claiming it
+     * on the replay guard; a transaction which then fails to send must be released.
+     *
+     * @return the transaction hex, or a null body with the error code
+     */
+    private HttpResponseData<String> buildTxnHex(InputArg inputArg, Object loopBack)
+        throws Exception {
+        JsonNode txnArgNode = inputArg.getTransactionArgNode();
+        JsonNode nonceNode = txnArgNode.get(WeIdentityParamKeyConstant.NONCE);
+        JsonNode blockLimitNode = txnArgNode.get(WeIdentityParamKeyConstant.BLOCK_LIMIT);
+        JsonNode signTypeNode = txnArgNode.get(WeIdentityParamKeyConstant.SIGN_TYPE);
+        JsonNode dataNode = txnArgNode.get(WeIdentityParamKeyConstant.TRANSACTION_DATA);
+        JsonNode signedMessageNode = txnArgNode
+            .get(WeIdentityParamKeyConstant.SIGNED_MESSAGE);
+        if (nonceNode == null || StringUtils.isEmpty(nonceNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.NONCE_ILLEGAL);
+        }
+        if (blockLimitNode == null || StringUtils.isEmpty(blockLimitNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.BLOCK_LIMIT_ILLEGAL);
+        }
+        if (dataNode == null || StringUtils.isEmpty(dataNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.DATA_ILLEGAL);
+        }
+        if (signedMessageNode == null || StringUtils.isEmpty(signedMessageNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGNED_MSG_ILLEGAL);
+        }
+        if (signTypeNode == null || StringUtils.isEmpty(signTypeNode.textValue())) {
+            logger.error("Null input within: {}", txnArgNode.toString());
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.SIGN_TYPE_ILLEGAL);
+        }
+        String functionName = inputArg.getFunctionName();
+        String nonce = JsonUtil.removeDoubleQuotes(nonceNode.toString());
+        String blockLimit = JsonUtil.removeDoubleQuotes(blockLimitNode.toString());
+        String data = JsonUtil.removeDoubleQuotes(dataNode.toString());
+        String signedMessage = signedMessageNode.textValue();
+        SignType signType = SignType.getSignTypeByCode(Integer.parseInt(signTypeNode.textValue()));
+        if (sendRegistry.get(functionName) == null) {
+            logger.error("Function name undefined: {}.", functionName);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+        }
+        // is FISCO-BCOS v2
+        String txnHex = TransactionEncoderUtilV2.createTxnHex(signedMessage, nonce,
+            TransactionEncoderUtilV2.getContractAddress(functionName), data,
+            blockLimit, signType);
+        if (!ReplayGuard.acquireTransaction(txnHex)) {
+            logger.error("Duplicate transaction with nonce {}: {}", nonce, functionName);
+            return new HttpResponseData<>(null, loopBack, HttpReturnCode.TRANSACTION_DUPLICATED);
+        }
+        return new HttpResponseData<>(txnHex, loopBack, HttpReturnCode.SUCCESS);
+    }
+
+    private HttpResponseData<Object> send(String functionName, String txnHex, Object loopBack) {
+        HttpResponseData<String> httpResponseData;
+        try {
+            httpResponseData = sendRegistry.get(functionName).execute(txnHex);
+        } catch (RuntimeException e) {
+            ReplayGuard.releaseTransaction(txnHex);
+            throw e;
+        }
+        if (httpResponseData.getErrorCode().intValue() != HttpReturnCode.SUCCESS.getCode()) {
+            ReplayGuard.releaseTransaction(txnHex);
         }
+        return toSendResponse(httpResponseData, loopBack);
+    }
+
+    /**
+     * Turn the result of a sent transaction, as the SDK returns it, into the response body.
+     */
+    static HttpResponseData<Object> toSendResponse(
+        HttpResponseData<String> httpResponseData,
+        Object loopBack
+    ) {
+        return new HttpResponseData<>(
+            JsonUtil.convertJsonToSortedMap(httpResponseData.getRespBody()),
+            loopBack,
+            httpResponseData.getErrorCode(),
+            httpResponseData.getErrorMessage());
+    }
+
+    @Override
+    public HttpResponseData<Object> getMetrics() {
+        // the guard registers its metrics when it is first used
+        ReplayGuard.getInstance();
+        return new HttpResponseData<>(MetricsRegistry.snapshot(), HttpReturnCode.SUCCESS);
     }
 
 	/**
@@ -237,110 +746,46 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
             return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
         }
         HttpResponseData<Object> responseData = this.invoke(inputArg);
-        responseData.setLoopback(getLoopBack(inputArg.getTransactionArg()));
+        responseData.setLoopback(getLoopBack(inputArg));
         return responseData;
     }
 
+    @Override
+    public HttpResponseData<Object> invokeFunctionStream(InputStream inputStream) {
+        try (StreamingBatchReader reader = new StreamingBatchReader(inputStream)) {
+            HttpResponseData<InputArg> resp = reader.readHeader();
+            InputArg inputArg = resp.getRespBody();
+            if (inputArg == null) {
+                logger.error("Failed to build input argument from the request stream.");
+                return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
+            }
+            FunctionHandler<StreamingBatchReader, HttpResponseData<Object>> handler =
+                streamRegistry.get(inputArg.getFunctionName());
+            if (handler == null) {
+                logger.error("Function name undefined in stream mode: {}.",
+                    inputArg.getFunctionName());
+                return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+            }
+            HttpResponseData<Object> responseData = handler.execute(reader);
+            responseData.setLoopback(getLoopBack(inputArg));
+            return responseData;
+        } catch (Exception e) {
+            logger.error("[invokeFunctionStream]: unknown error", e);
+            return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc());
+        }
+    }
 
     private HttpResponseData<Object> invoke(InputArg inputArg) {
         String functionName = inputArg.getFunctionName();
-        try {
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_CREDENTIAL)) {
-                return invokerCredentialService.createCredentialInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_CREDENTIALPOJO)) {
-                return invokerCredentialService.createCredentialPojoInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_VERIFY_CREDENTIAL)) {
-                return invokerCredentialService.verifyCredentialInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_VERIFY_CREDENTIALPOJO)) {
-                HttpResponseData<Boolean> respData = invokerCredentialService.verifyCredentialPojoInvoke(inputArg);
-                return new HttpResponseData<>(respData.getRespBody(), respData.getErrorCode(), respData.getErrorMessage());
-            }
-            if (functionName
-                .equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_QUERY_AUTHORITY_ISSUER)) {
-                return invokerAuthorityIssuerService.queryAuthorityIssuerInfoInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT)
-                || functionName
-                .equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT_JSON)) {
-                return invokerWeIdService.getWeIdDocumentJsonInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_QUERY_CPT)) {
-                return invokerCptService.queryCptInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID)) {
-                return invokerWeIdService.createWeIdInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_GETWEIDLIST_BYPUBKEYLIST)) {
-                return invokerWeIdService.getWeIdListByPubKeyList(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_AND_RETURN_DOC)) {
-                return invokerWeIdService.createWeIdInvoke2(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT)) {
-                return invokerCptService.registerCptInvoke(inputArg);
-            }
-            if (functionName
-                .equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER)) {
-                return invokerAuthorityIssuerService.registerAuthorityIssuerInvoke(inputArg);
-            }
-            if (functionName
-                .equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_ADD_WEID_TO_WHITELIST)) {
-                return invokerAuthorityIssuerService.addWeIdToWhitelist(inputArg);
-            }
-            if (functionName
-                .equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_IS_WEID_IN_WHITELIST)) {
-                return invokerAuthorityIssuerService.isWeIdInWhitelist(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_RECOGNIZE_AUTHORITY_ISSUER)) {
-                return invokerAuthorityIssuerService.recognizeAuthorityIssuer(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_DERECOGNIZE_AUTHORITY_ISSUER)) {
-                return invokerAuthorityIssuerService.deRecognizeAuthorityIssuer(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_GET_WEID_DOCUMENT_BY_ORG)) {
-                String weId = (String) invokerAuthorityIssuerService.getWeIdByNameInvoke(inputArg).getRespBody();
-                // Construct new InputArg
-                Map<String, Object> funcArgMap = new LinkedHashMap<>();
-                funcArgMap.put(ParamKeyConstant.WEID, weId);
-                inputArg.setFunctionArg(JsonUtil.objToJsonStr(funcArgMap));
-                return invokerWeIdService.getWeIdDocumentJsonInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL)) {
-                // 1. call createevidencewithcustomkeyandlog
-                return invokerEvidenceService.createEvidenceWithExtraInfo(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL_DELEGATE)) {
-                return invokerEvidenceService.delegateCreateEvidence(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_EVIDENCE_FOR_LITE_CREDENTIAL_DELEGATE_BATCH)) {
-                return invokerEvidenceService.delegateCreateEvidenceBatch(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_WITH_PUBKEY)) {
-                return invokerWeIdService.createWeIdWithPubKey(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID_WITH_PUBKEY_AND_RETURN_DOC)) {
-                return invokerWeIdService.createWeIdWithPubKey2(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_VERIFY_LITE_CREDENTIAL)) {
-                return invokerEvidenceService.getEvidenceByCustomKey(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_ECCENCRYPT_CREDENTIAL)) {
-                return invokerCredentialService.createCredentialPojoAndEncryptInvoke(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_ECCENCRYPT)) {
-                return invokerCredentialService.eccEncrypt(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_ECCDECRYPT)) {
-                return invokerCredentialService.eccDecrypt(inputArg);
-            }
-            if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_GET_EVIDENCE_BY_HASH)) {
-                return invokerEvidenceService.getEvidenceByHash(inputArg);
-            }
+        FunctionHandler<InputArg, HttpResponseData<Object>> handler =
+            invokeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+        }
+        try {
+            return handler.execute(inputArg);
         } catch (Exception e) {
             logger.error("[invokeFunction]: unknown error with input argument {}",
                 inputArg,
@@ -349,4 +794,17 @@ public class TransactionServiceImpl extends BaseService implements TransactionSe
                 HttpReturnCode.UNKNOWN_ERROR.getCodeDesc());
         }
     }
+
+    private HttpResponseData<Object> getWeIdDocumentByOrgId(InputArg inputArg) {
+        HttpResponseData<Object> weIdResp = invokerAuthorityIssuerService.getWeIdByNameInvoke(inputArg);
+        String weId = (String) weIdResp.getRespBody();
+        if (StringUtils.isEmpty(weId)) {
+            return weIdResp;
+        }
+        // Construct new InputArg
+        ObjectNode funcArgNode = JsonNodeFactory.instance.objectNode();
+        funcArgNode.put(ParamKeyConstant.WEID, weId);
+        inputArg.setFunctionArgNode(funcArgNode);
+        return invokerWeIdService.getWeIdDocumentJsonInvoke(inputArg);
+    }
 }
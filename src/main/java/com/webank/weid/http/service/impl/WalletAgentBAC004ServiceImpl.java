@@ -2,6 +2,9 @@ package com.webank.weid.http.service.impl;
 
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.http.util.TransactionEncoderUtilV2;
+import com.webank.weid.http.service.dispatch.FunctionHandler;
+import com.webank.weid.http.service.dispatch.FunctionRegistry;
+import com.webank.weid.http.service.dispatch.FunctionType;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +15,6 @@ import com.webank.payment.protocol.base.BaseAsset;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WalletAgentFunctionNames;
 import com.webank.weid.http.protocol.request.InputArg;
-import com.webank.weid.http.protocol.request.ReqInput;
 import com.webank.weid.http.protocol.request.payment.AssetAddressList;
 import com.webank.weid.http.protocol.request.payment.BAC004BatchSendInfo;
 import com.webank.weid.http.protocol.request.payment.BAC004Info;
@@ -22,7 +24,6 @@ import com.webank.weid.http.protocol.request.payment.PageQuery;
 import com.webank.weid.http.protocol.response.HttpResponseData;
 import com.webank.weid.http.service.InvokerBAC004AssetService;
 import com.webank.weid.http.service.WalletAgentBAC004Service;
-import com.webank.weid.util.DataToolUtils;
 
 @Component
 public class WalletAgentBAC004ServiceImpl 
@@ -34,6 +35,69 @@ public class WalletAgentBAC004ServiceImpl
     @Autowired
     private InvokerBAC004AssetService bac004AssetService;
 
+    private final FunctionRegistry<InputArg, HttpResponseData<Object>> invokeRegistry =
+        new FunctionRegistry<InputArg, HttpResponseData<Object>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            BAC004Info.class, FunctionType.WRITE,
+            bind(BAC004Info.class, req -> bac004AssetService.construct(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            BAC004Info.class, FunctionType.WRITE,
+            bind(BAC004Info.class, req -> bac004AssetService.issue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDISSUE,
+            BAC004Info.class, FunctionType.WRITE,
+            bind(BAC004Info.class, req -> bac004AssetService.constructAndIssue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBALANCE,
+            BaseQuery.class, FunctionType.READ,
+            bind(BaseQuery.class, req -> bac004AssetService.getBalance(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBATCHBALANCE,
+            AssetAddressList.class, FunctionType.READ,
+            bind(AssetAddressList.class, req -> bac004AssetService.getBatchBalance(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBALANCEBYWEID,
+            PageQuery.class, FunctionType.READ,
+            bind(PageQuery.class, req -> bac004AssetService.getBalanceByWeId(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            BAC004SendInfo.class, FunctionType.WRITE,
+            bind(BAC004SendInfo.class, req -> bac004AssetService.send(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            BAC004BatchSendInfo.class, FunctionType.WRITE,
+            bind(BAC004BatchSendInfo.class, req -> bac004AssetService.batchSend(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFO,
+            AssetAddressList.class, FunctionType.READ,
+            bind(AssetAddressList.class, req -> bac004AssetService.getBaseInfo(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFOBYWEID,
+            PageQuery.class, FunctionType.READ,
+            bind(PageQuery.class, req -> bac004AssetService.getBaseInfoByWeId(req)));
+
+    private final FunctionRegistry<InputArg, HttpResponseData<String>> encodeRegistry =
+        new FunctionRegistry<InputArg, HttpResponseData<String>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            BAC004Info.class, FunctionType.WRITE,
+            bind(BAC004Info.class, req -> bac004AssetService.issueEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            BAC004Info.class, FunctionType.WRITE,
+            bind(BAC004Info.class, req -> bac004AssetService.constructEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            BAC004SendInfo.class, FunctionType.WRITE,
+            bind(BAC004SendInfo.class, req -> bac004AssetService.sendEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            BAC004BatchSendInfo.class, FunctionType.WRITE,
+            bind(BAC004BatchSendInfo.class, req -> bac004AssetService.batchSendEncoder(req)));
+
+    private final FunctionRegistry<TransactionReceipt, HttpResponseData<Object>> decodeRegistry =
+        new FunctionRegistry<TransactionReceipt, HttpResponseData<Object>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac004AssetService.issueDeCoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac004AssetService.constructDeCoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac004AssetService.sendDecoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac004AssetService.batchSendDecoder(receipt));
+
     @Override
     public HttpResponseData<Object> invokeFunction(String invokeFunctionJsonArgs) {
         logger.info("inputArg:{}", invokeFunctionJsonArgs);
@@ -46,37 +110,20 @@ public class WalletAgentBAC004ServiceImpl
             return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
         }
         HttpResponseData<Object> responseData = this.invoke(inputArg);
-        responseData.setLoopback(getLoopBack(inputArg.getTransactionArg()));
+        responseData.setLoopback(getLoopBack(inputArg));
         return responseData;
     }
 
     private HttpResponseData<Object> invoke(InputArg inputArg) {
         String functionName = inputArg.getFunctionName();
-        try {
-            switch(functionName) {
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-                return bac004AssetService.construct(toReqInput(inputArg, BAC004Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-                return bac004AssetService.issue(toReqInput(inputArg, BAC004Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDISSUE:
-                return bac004AssetService.constructAndIssue(toReqInput(inputArg, BAC004Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBALANCE:
-                return bac004AssetService.getBalance(toReqInput(inputArg, BaseQuery.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBATCHBALANCE:
-                return bac004AssetService.getBatchBalance(toReqInput(inputArg, AssetAddressList.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBALANCEBYWEID:
-                return bac004AssetService.getBalanceByWeId(toReqInput(inputArg, PageQuery.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-                return bac004AssetService.send(toReqInput(inputArg, BAC004SendInfo.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-                return bac004AssetService.batchSend(toReqInput(inputArg, BAC004BatchSendInfo.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFO:
-                return bac004AssetService.getBaseInfo(toReqInput(inputArg, AssetAddressList.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFOBYWEID:
-                return bac004AssetService.getBaseInfoByWeId(toReqInput(inputArg, PageQuery.class));
-            }
+        FunctionHandler<InputArg, HttpResponseData<Object>> handler =
+            invokeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+        }
+        try {
+            return handler.execute(inputArg);
         } catch (WeIdBaseException e) {
 			logger.error("[invokeFunction]: invoke {} failed, input argument {}",
 				functionName,
@@ -95,45 +142,33 @@ public class WalletAgentBAC004ServiceImpl
     @Override
     protected HttpResponseData<String> doEncodeTransaction(InputArg inputArg) {
         String functionName = inputArg.getFunctionName();
-        switch(functionName) {
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-            return bac004AssetService.issueEncoder(toReqInput(inputArg, BAC004Info.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-            return bac004AssetService.constructEncoder(toReqInput(inputArg, BAC004Info.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-            return bac004AssetService.sendEncoder(toReqInput(inputArg, BAC004SendInfo.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-            return bac004AssetService.batchSendEncoder(toReqInput(inputArg, BAC004BatchSendInfo.class));
-        default:
+        FunctionHandler<InputArg, HttpResponseData<String>> handler =
+            encodeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
         }
+        return handler.execute(inputArg);
     }
 
     @Override
     protected HttpResponseData<Object> doSendTransaction(
-        InputArg inputArg, 
+        InputArg inputArg,
         TransactionReceipt receipt
     ) {
-        String functionName =  inputArg.getFunctionName();
-        switch(functionName) {
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-            return bac004AssetService.issueDeCoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-            return bac004AssetService.constructDeCoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-            return bac004AssetService.sendDecoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-            return bac004AssetService.batchSendDecoder(receipt);
-        default:
+        String functionName = inputArg.getFunctionName();
+        FunctionHandler<TransactionReceipt, HttpResponseData<Object>> handler =
+            decodeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
         }
+        return handler.execute(receipt);
     }
 
     @Override
-    protected String doGetTo(ReqInput<String> req) {
-        BaseAsset asset = DataToolUtils.deserialize(req.getFunctionArg(), BaseAsset.class);
+    protected String doGetTo(InputArg inputArg) {
+        BaseAsset asset = toReqInput(inputArg, BaseAsset.class).getFunctionArg();
         return asset.getAssetAddress();
     }
 }
@@ -5,14 +5,15 @@ import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WalletAgentFunctionNames;
 import com.webank.weid.http.protocol.request.InputArg;
-import com.webank.weid.http.protocol.request.ReqInput;
 import com.webank.weid.http.protocol.request.payment.*;
 import com.webank.weid.http.protocol.response.HttpResponseData;
 import com.webank.weid.http.service.InvokerBAC005AssetService;
 import com.webank.weid.http.service.WalletAgentBAC005Service;
 import com.webank.weid.http.util.TransactionEncoderUtilV2;
-import com.webank.weid.util.DataToolUtils;
 
+import com.webank.weid.http.service.dispatch.FunctionHandler;
+import com.webank.weid.http.service.dispatch.FunctionRegistry;
+import com.webank.weid.http.service.dispatch.FunctionType;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,87 @@ public class WalletAgentBAC005ServiceImpl
     @Autowired
     private InvokerBAC005AssetService bac005AssetService;
 
+    private final FunctionRegistry<InputArg, HttpResponseData<Object>> invokeRegistry =
+        new FunctionRegistry<InputArg, HttpResponseData<Object>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.construct(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.issue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDISSUE,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.constructAndIssue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE,
+            BAC005BatchInfo.class, FunctionType.WRITE,
+            bind(BAC005BatchInfo.class, req -> bac005AssetService.batchIssue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDBATCHISSUE,
+            BAC005BatchInfo.class, FunctionType.WRITE,
+            bind(BAC005BatchInfo.class, req -> bac005AssetService.constructAndBatchIssue(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETOWNER,
+            BAC005Info.class, FunctionType.READ,
+            bind(BAC005Info.class, req -> bac005AssetService.queryAssetOwner(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETNUM,
+            BaseAsset.class, FunctionType.READ,
+            bind(BaseAsset.class, req -> bac005AssetService.queryAssetNum(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETLIST,
+            PageQuery.class, FunctionType.READ,
+            bind(PageQuery.class, req -> bac005AssetService.queryAssetList(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYOWNEDASSETNUM,
+            BaseQuery.class, FunctionType.READ,
+            bind(BaseQuery.class, req -> bac005AssetService.queryOwnedAssetNum(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYOWNEDASSETLIST,
+            PageQuery.class, FunctionType.READ,
+            bind(PageQuery.class, req -> bac005AssetService.queryOwnedAssetList(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.send(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            BAC005BatchInfo.class, FunctionType.WRITE,
+            bind(BAC005BatchInfo.class, req -> bac005AssetService.batchSend(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFO,
+            AssetAddressList.class, FunctionType.READ,
+            bind(AssetAddressList.class, req -> bac005AssetService.queryBaseInfo(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFOBYWEID,
+            PageQuery.class, FunctionType.READ,
+            bind(PageQuery.class, req -> bac005AssetService.queryBaseInfoByWeId(req)));
+
+    private final FunctionRegistry<InputArg, HttpResponseData<String>> encodeRegistry =
+        new FunctionRegistry<InputArg, HttpResponseData<String>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.constructEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.issueEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE,
+            BAC005BatchInfo.class, FunctionType.WRITE,
+            bind(BAC005BatchInfo.class, req -> bac005AssetService.batchIssueEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            BAC005Info.class, FunctionType.WRITE,
+            bind(BAC005Info.class, req -> bac005AssetService.sendEncoder(req)))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            BAC005BatchInfo.class, FunctionType.WRITE,
+            bind(BAC005BatchInfo.class, req -> bac005AssetService.batchSendEncoder(req)));
+
+    private final FunctionRegistry<TransactionReceipt, HttpResponseData<Object>> decodeRegistry =
+        new FunctionRegistry<TransactionReceipt, HttpResponseData<Object>>()
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac005AssetService.constructDeCoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac005AssetService.issueDeCoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac005AssetService.batchIssueDeCoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac005AssetService.sendDecoder(receipt))
+        .register(WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND,
+            TransactionReceipt.class, FunctionType.WRITE,
+            receipt -> bac005AssetService.batchSendDecoder(receipt));
+
     @Override
     public HttpResponseData<Object> invokeFunction(String invokeFunctionJsonArgs) {
         logger.info("inputArg:{}", invokeFunctionJsonArgs);
@@ -41,45 +123,20 @@ public class WalletAgentBAC005ServiceImpl
             return new HttpResponseData<>(null, resp.getErrorCode(), resp.getErrorMessage());
         }
         HttpResponseData<Object> responseData = this.invoke(inputArg);
-        responseData.setLoopback(getLoopBack(inputArg.getTransactionArg()));
+        responseData.setLoopback(getLoopBack(inputArg));
         return responseData;
     }
 
     private HttpResponseData<Object> invoke(InputArg inputArg) {
         String functionName = inputArg.getFunctionName();
-        try {
-            switch(functionName) {
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-                return bac005AssetService.construct(toReqInput(inputArg, BAC005Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-                return bac005AssetService.issue(toReqInput(inputArg, BAC005Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDISSUE:
-                return bac005AssetService.constructAndIssue(toReqInput(inputArg, BAC005Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE:
-                return bac005AssetService.batchIssue(toReqInput(inputArg, BAC005BatchInfo.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCTANDBATCHISSUE:
-                return bac005AssetService.constructAndBatchIssue(toReqInput(inputArg, BAC005BatchInfo.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETOWNER:
-                return bac005AssetService.queryAssetOwner(toReqInput(inputArg, BAC005Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETNUM:
-                return bac005AssetService.queryAssetNum(toReqInput(inputArg, BaseAsset.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYASSETLIST:
-                return bac005AssetService.queryAssetList(toReqInput(inputArg, PageQuery.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYOWNEDASSETNUM:
-                return bac005AssetService.queryOwnedAssetNum(toReqInput(inputArg, BaseQuery.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_QUERYOWNEDASSETLIST:
-                return bac005AssetService.queryOwnedAssetList(toReqInput(inputArg, PageQuery.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-                return bac005AssetService.send(toReqInput(inputArg, BAC005Info.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-                return bac005AssetService.batchSend(toReqInput(inputArg, BAC005BatchInfo.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFO:
-                return bac005AssetService.queryBaseInfo(toReqInput(inputArg, AssetAddressList.class));
-            case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_GETBASEINFOBYWEID:
-                return bac005AssetService.queryBaseInfoByWeId(toReqInput(inputArg, PageQuery.class));
-            }
+        FunctionHandler<InputArg, HttpResponseData<Object>> handler =
+            invokeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+        }
+        try {
+            return handler.execute(inputArg);
         } catch (WeIdBaseException e) {
             logger.error("[invokeFunction]: invoke {} failed, input argument {}",
                     functionName,
@@ -98,46 +155,33 @@ public class WalletAgentBAC005ServiceImpl
     @Override
     protected HttpResponseData<String> doEncodeTransaction(InputArg inputArg) {
         String functionName = inputArg.getFunctionName();
-        switch(functionName) {
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-            return bac005AssetService.constructEncoder(toReqInput(inputArg, BAC005Info.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-            return bac005AssetService.issueEncoder(toReqInput(inputArg, BAC005Info.class)); 
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE:
-            return bac005AssetService.batchIssueEncoder(toReqInput(inputArg, BAC005BatchInfo.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-            return bac005AssetService.sendEncoder(toReqInput(inputArg, BAC005Info.class));
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-            return bac005AssetService.batchSendEncoder(toReqInput(inputArg, BAC005BatchInfo.class));
-        default:
+        FunctionHandler<InputArg, HttpResponseData<String>> handler =
+            encodeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
         }
+        return handler.execute(inputArg);
     }
 
     @Override
-    protected HttpResponseData<Object> doSendTransaction(InputArg inputArg, TransactionReceipt receipt) {
-        String functionName =  inputArg.getFunctionName();
-        switch(functionName) {
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_CONSTRUCT:
-            return bac005AssetService.constructDeCoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_ISSUE:
-            return bac005AssetService.issueDeCoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHISSUE:
-            return bac005AssetService.batchIssueDeCoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_SEND:
-            return bac005AssetService.sendDecoder(receipt);
-        case WalletAgentFunctionNames.FUNCNAME_WALLETAGENT_BATCHSEND:
-            return bac005AssetService.batchSendDecoder(receipt);
-        default:
+    protected HttpResponseData<Object> doSendTransaction(
+        InputArg inputArg,
+        TransactionReceipt receipt
+    ) {
+        String functionName = inputArg.getFunctionName();
+        FunctionHandler<TransactionReceipt, HttpResponseData<Object>> handler =
+            decodeRegistry.get(functionName);
+        if (handler == null) {
             logger.error("Function name undefined: {}.", functionName);
             return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
         }
+        return handler.execute(receipt);
     }
 
     @Override
-    protected String doGetTo(ReqInput<String> req) {
-        BaseAsset asset = DataToolUtils.deserialize(req.getFunctionArg(), BaseAsset.class);
+    protected String doGetTo(InputArg inputArg) {
+        BaseAsset asset = toReqInput(inputArg, BaseAsset.class).getFunctionArg();
         return asset.getAssetAddress();
     }
 }
@@ -0,0 +1,358 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.util.DataToolUtils;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.abi.TypeReference;
+import org.fisco.bcos.web3j.abi.Utils;
+import org.fisco.bcos.web3j.abi.datatypes.Address;
+import org.fisco.bcos.web3j.abi.datatypes.DynamicBytes;
+import org.fisco.bcos.web3j.abi.datatypes.Function;
+import org.fisco.bcos.web3j.abi.datatypes.Type;
+import org.fisco.bcos.web3j.abi.datatypes.generated.Bytes32;
+import org.fisco.bcos.web3j.abi.datatypes.generated.Int256;
+import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray128;
+import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray16;
+import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray8;
+import org.fisco.bcos.web3j.abi.datatypes.generated.Uint8;
+import org.fisco.bcos.web3j.crypto.Hash;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.fisco.bcos.web3j.utils.Numeric;
+
+/**
+ * ABI encoding templates for the client-signed contract functions (createWeId,
+ * addAuthorityIssuer and registerCpt). The method selectors are computed once per method, the
+ * constant words are written as is, and only the words taken from the request are converted;
+ * the call data hex is written into one buffer of the exact size. Each call can still build
+ * the equivalent web3j Function, which is what the templates are tested against.
+ */
+public final class AbiFunctionTemplates {
+
+    private static final int WORD = 32;
+    private static final int WORD_CHARS = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static final String CREATE_WEID_PARAMS = "(address,bytes,bytes,int256)";
+    public static final String AUTHORITY_ISSUER_PARAMS =
+        "(address,bytes32[16],int256[16],bytes)";
+    public static final String REGISTER_CPT_PARAMS =
+        "(address,int256[8],bytes32[8],bytes32[128],uint8,bytes32,bytes32)";
+
+    /**
+     * Method selectors in hex (without 0x), by method signature.
+     */
+    private static final Map<String, String> SELECTORS = new ConcurrentHashMap<>();
+
+    private AbiFunctionTemplates() {
+    }
+
+    /**
+     * Get the method selector of a contract function.
+     *
+     * @param methodName the contract method name
+     * @param params the parameter types, such as CREATE_WEID_PARAMS
+     * @return the first 4 bytes of the signature hash, in hex without 0x
+     */
+    public static String selector(String methodName, String params) {
+        return SELECTORS.computeIfAbsent(methodName + params, signature ->
+            Numeric.toHexStringNoPrefix(Hash.sha3(signature.getBytes(StandardCharsets.UTF_8)))
+                .substring(0, 8));
+    }
+
+    /**
+     * createWeId(address, bytes auth, bytes created, int256 updated).
+     */
+    public static final class CreateWeIdCall {
+
+        private final String address;
+        private final byte[] auth;
+        private final byte[] created;
+        private final BigInteger updated;
+
+        public CreateWeIdCall(String address, byte[] auth, byte[] created, BigInteger updated) {
+            this.address = address;
+            this.auth = auth;
+            this.created = created;
+            this.updated = updated;
+        }
+
+        public Function toFunction(String methodName) {
+            return new Function(
+                methodName,
+                Arrays.<Type>asList(
+                    new Address(address),
+                    new DynamicBytes(auth),
+                    new DynamicBytes(created),
+                    new Int256(updated)
+                ),
+                Collections.<TypeReference<?>>emptyList());
+        }
+
+        public String encode(String methodName) {
+            if (!fitsInt256(updated)) {
+                return FunctionEncoder.encode(toFunction(methodName));
+            }
+            int headWords = 4;
+            int authWords = 1 + paddedWords(auth.length);
+            AbiWriter writer = new AbiWriter(
+                selector(methodName, CREATE_WEID_PARAMS),
+                headWords + authWords + 1 + paddedWords(created.length));
+            writer.number(Numeric.toBigInt(address));
+            writer.number(headWords * WORD);
+            writer.number((headWords + authWords) * WORD);
+            writer.number(updated);
+            writer.dynamicBytes(auth);
+            writer.dynamicBytes(created);
+            return writer.toString();
+        }
+    }
+
+    /**
+     * addAuthorityIssuer(address, bytes32[16] attributes, int256[16] attributes, bytes acc),
+     * with the name as the only string attribute and the create date as the only long one.
+     */
+    public static final class AuthorityIssuerCall {
+
+        private final String address;
+        private final byte[] name;
+        private final long createDate;
+        private final byte[] accValue;
+
+        public AuthorityIssuerCall(String address, byte[] name, long createDate, byte[] accValue) {
+            this.address = address;
+            this.name = name;
+            this.createDate = createDate;
+            this.accValue = accValue;
+        }
+
+        public Function toFunction(String methodName) {
+            return new Function(
+                methodName,
+                Arrays.<Type>asList(
+                    new Address(address),
+                    new StaticArray16<Bytes32>(
+                        Utils.typeMap(
+                            DataToolUtils.bytesArrayListToBytes32ArrayList(
+                                Collections.singletonList(name),
+                                WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
+                            ), Bytes32.class)),
+                    new StaticArray16<Int256>(
+                        Utils.typeMap(
+                            DataToolUtils.listToListBigInteger(
+                                Collections.singletonList(createDate),
+                                WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
+                            ), Int256.class)),
+                    new DynamicBytes(accValue)
+                ),
+                Collections.<TypeReference<?>>emptyList());
+        }
+
+        public String encode(String methodName) {
+            int arrayLength = WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH;
+            if (name.length > WORD) {
+                return FunctionEncoder.encode(toFunction(methodName));
+            }
+            int headWords = 2 + 2 * arrayLength;
+            AbiWriter writer = new AbiWriter(
+                selector(methodName, AUTHORITY_ISSUER_PARAMS),
+                headWords + 1 + paddedWords(accValue.length));
+            writer.number(Numeric.toBigInt(address));
+            writer.bytesWord(name, 0, name.length);
+            writer.zeroWords(arrayLength - 1);
+            writer.number(createDate);
+            writer.zeroWords(arrayLength - 1);
+            writer.number(headWords * WORD);
+            writer.dynamicBytes(accValue);
+            return writer.toString();
+        }
+    }
+
+    /**
+     * registerCpt(address, int256[8] longs, bytes32[8] strings, bytes32[128] schema, uint8 v,
+     * bytes32 r, bytes32 s), with no string attributes.
+     */
+    public static final class RegisterCptCall {
+
+        private final String address;
+        private final List<BigInteger> longAttributes;
+        private final String cptJsonSchema;
+        private final SignatureData signatureData;
+
+        public RegisterCptCall(
+            String address,
+            List<BigInteger> longAttributes,
+            String cptJsonSchema,
+            SignatureData signatureData
+        ) {
+            this.address = address;
+            this.longAttributes = longAttributes;
+            this.cptJsonSchema = cptJsonSchema;
+            this.signatureData = signatureData;
+        }
+
+        public Function toFunction(String methodName) {
+            return new Function(
+                methodName,
+                Arrays.<Type>asList(
+                    new Address(address),
+                    new StaticArray8<Int256>(Utils.typeMap(longAttributes, Int256.class)),
+                    new StaticArray8<Bytes32>(
+                        Utils.typeMap(
+                            DataToolUtils.bytesArrayListToBytes32ArrayList(
+                                Collections.<byte[]>emptyList(),
+                                WeIdConstant.CPT_STRING_ARRAY_LENGTH
+                            ), Bytes32.class)),
+                    new StaticArray128<Bytes32>(
+                        Utils.typeMap(
+                            DataToolUtils.stringToByte32ArrayList(
+                                cptJsonSchema,
+                                WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH
+                            ), Bytes32.class)),
+                    new Uint8((long) Integer.valueOf(signatureData.getV())),
+                    new Bytes32(signatureData.getR()),
+                    new Bytes32(signatureData.getS())
+                ),
+                Collections.<TypeReference<?>>emptyList());
+        }
+
+        public String encode(String methodName) {
+            byte[] schema = cptJsonSchema.getBytes(StandardCharsets.UTF_8);
+            int schemaWords = WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH;
+            // anything unusual is left to web3j, so it fails or encodes exactly as before
+            if (schema.length > schemaWords * WORD
+                || longAttributes.size() != WeIdConstant.CPT_LONG_ARRAY_LENGTH
+                || !longAttributes.stream().allMatch(AbiFunctionTemplates::fitsInt256)
+                || signatureData.getV() < 0
+                || signatureData.getR().length != WORD
+                || signatureData.getS().length != WORD) {
+                return FunctionEncoder.encode(toFunction(methodName));
+            }
+            AbiWriter writer = new AbiWriter(
+                selector(methodName, REGISTER_CPT_PARAMS),
+                1 + longAttributes.size() + WeIdConstant.CPT_STRING_ARRAY_LENGTH
+                    + schemaWords + 3);
+            writer.number(Numeric.toBigInt(address));
+            for (BigInteger value : longAttributes) {
+                writer.number(value);
+            }
+            writer.zeroWords(WeIdConstant.CPT_STRING_ARRAY_LENGTH);
+            for (int offset = 0; offset < schemaWords * WORD; offset += WORD) {
+                int length = Math.max(0, Math.min(WORD, schema.length - offset));
+                writer.bytesWord(schema, offset, length);
+            }
+            writer.number(signatureData.getV());
+            writer.bytesWord(signatureData.getR(), 0, WORD);
+            writer.bytesWord(signatureData.getS(), 0, WORD);
+            return writer.toString();
+        }
+    }
+
+    private static int paddedWords(int length) {
+        return (length + WORD - 1) / WORD;
+    }
+
+    /**
+     * Whether a value is within int256; web3j rejects anything wider, which is left to it.
+     */
+    private static boolean fitsInt256(BigInteger value) {
+        return value != null && value.bitLength() <= 255;
+    }
+
+    /**
+     * Writes the call data hex, word by word, into a buffer sized for the selector and the
+     * given number of words.
+     */
+    private static final class AbiWriter {
+
+        private final char[] buffer;
+        private int position;
+
+        private AbiWriter(String selector, int words) {
+            buffer = new char[2 + selector.length() + words * WORD_CHARS];
+            buffer[0] = '0';
+            buffer[1] = 'x';
+            selector.getChars(0, selector.length(), buffer, 2);
+            position = 2 + selector.length();
+        }
+
+        private void number(long value) {
+            number(BigInteger.valueOf(value));
+        }
+
+        /**
+         * A signed number, in two's complement like web3j's Int256.
+         */
+        private void number(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            char padding = value.signum() < 0 ? 'f' : '0';
+            int length = Math.min(bytes.length, WORD);
+            int start = bytes.length - length;
+            int end = position + WORD_CHARS;
+            int digits = position + (WORD - length) * 2;
+            while (position < digits) {
+                buffer[position++] = padding;
+            }
+            for (int i = start; i < bytes.length; i++) {
+                buffer[position++] = HEX[(bytes[i] >> 4) & 0xf];
+                buffer[position++] = HEX[bytes[i] & 0xf];
+            }
+            position = end;
+        }
+
+        /**
+         * A word holding length bytes of value from offset, left aligned and zero padded.
+         */
+        private void bytesWord(byte[] value, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                buffer[position++] = HEX[(value[i] >> 4) & 0xf];
+                buffer[position++] = HEX[value[i] & 0xf];
+            }
+            for (int i = length * 2; i < WORD_CHARS; i++) {
+                buffer[position++] = '0';
+            }
+        }
+
+        private void zeroWords(int words) {
+            Arrays.fill(buffer, position, position + words * WORD_CHARS, '0');
+            position += words * WORD_CHARS;
+        }
+
+        private void dynamicBytes(byte[] value) {
+            number(value.length);
+            for (int offset = 0; offset < value.length; offset += WORD) {
+                bytesWord(value, offset, Math.min(WORD, value.length - offset));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer);
+        }
+    }
+}
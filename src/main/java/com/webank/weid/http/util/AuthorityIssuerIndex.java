@@ -0,0 +1,205 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.AuthorityIssuer;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keeps what was read of authority issuers: the weId of an issuer name, the issuer info of a
+ * weId, and whether a weId is in a whitelist. Names and issuers are only kept once found, and
+ * the writes of this service update or drop the entries they change. Writes made elsewhere are
+ * seen once an entry is older than authority.issuer.cache.ttl.seconds.
+ */
+public class AuthorityIssuerIndex {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("authority.issuer.cache.enabled", "true"));
+
+    private static final int MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("authority.issuer.cache.max.size", "10000"));
+
+    private static final long TTL_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("authority.issuer.cache.ttl.seconds", "60"))) * 1000L;
+
+    private static volatile AuthorityIssuerIndex instance;
+
+    private final BoundedCache<String, String> weIdByName;
+    private final BoundedCache<String, AuthorityIssuer> issuerByWeId;
+    private final BoundedCache<String, Boolean> whitelisted;
+
+    AuthorityIssuerIndex(
+        BoundedCache<String, String> weIdByName,
+        BoundedCache<String, AuthorityIssuer> issuerByWeId,
+        BoundedCache<String, Boolean> whitelisted
+    ) {
+        this.weIdByName = weIdByName;
+        this.issuerByWeId = issuerByWeId;
+        this.whitelisted = whitelisted;
+    }
+
+    /**
+     * Get the shared index, or null if it is disabled.
+     *
+     * @return the index
+     */
+    public static AuthorityIssuerIndex getInstance() {
+        if (ENABLED && instance == null) {
+            synchronized (AuthorityIssuerIndex.class) {
+                if (instance == null) {
+                    AuthorityIssuerIndex index = new AuthorityIssuerIndex(
+                        new BoundedCache<>(MAX_SIZE, TTL_MILLIS),
+                        new BoundedCache<>(MAX_SIZE, TTL_MILLIS),
+                        new BoundedCache<>(MAX_SIZE, TTL_MILLIS));
+                    MetricsRegistry.register("authorityIssuerIndex", index::getMetrics);
+                    instance = index;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the weId of an issuer name.
+     *
+     * @param name the issuer name
+     * @param loader reads the weId from chain
+     * @return the weId response
+     */
+    public ResponseData<String> getWeIdByName(
+        String name,
+        Function<String, ResponseData<String>> loader
+    ) {
+        String weId = weIdByName.get(name);
+        if (weId != null) {
+            return new ResponseData<>(weId, ErrorCode.SUCCESS);
+        }
+        ResponseData<String> response = loader.apply(name);
+        if (isSuccess(response) && !response.getResult().isEmpty()) {
+            weIdByName.put(name, response.getResult());
+        }
+        return response;
+    }
+
+    /**
+     * Get the issuer info of a weId.
+     *
+     * @param weId the weId
+     * @param loader reads the issuer from chain
+     * @return the issuer response
+     */
+    public ResponseData<AuthorityIssuer> queryAuthorityIssuerInfo(
+        String weId,
+        Function<String, ResponseData<AuthorityIssuer>> loader
+    ) {
+        AuthorityIssuer issuer = issuerByWeId.get(weId);
+        if (issuer != null) {
+            return new ResponseData<>(issuer, ErrorCode.SUCCESS);
+        }
+        ResponseData<AuthorityIssuer> response = loader.apply(weId);
+        if (isSuccess(response)) {
+            issuerByWeId.put(weId, response.getResult());
+        }
+        return response;
+    }
+
+    /**
+     * Check whether a weId is in a whitelist.
+     *
+     * @param whitelistName the whitelist
+     * @param weId the weId
+     * @param loader asks the chain
+     * @return the membership response
+     */
+    public ResponseData<Boolean> isSpecificTypeIssuer(
+        String whitelistName,
+        String weId,
+        BiFunction<String, String, ResponseData<Boolean>> loader
+    ) {
+        String key = whitelistKey(whitelistName, weId);
+        Boolean member = whitelisted.get(key);
+        if (member != null) {
+            return new ResponseData<>(member, ErrorCode.SUCCESS);
+        }
+        ResponseData<Boolean> response = loader.apply(whitelistName, weId);
+        if (isSuccess(response)) {
+            whitelisted.put(key, response.getResult());
+        }
+        return response;
+    }
+
+    /**
+     * Record an issuer registered by this service.
+     *
+     * @param name the issuer name
+     * @param weId the weId
+     */
+    public void onRegistered(String name, String weId) {
+        weIdByName.put(name, weId);
+        issuerByWeId.invalidate(weId);
+    }
+
+    /**
+     * Drop the issuer info of a weId recognized or de-recognized by this service.
+     *
+     * @param weId the weId
+     */
+    public void onRecognitionChanged(String weId) {
+        issuerByWeId.invalidate(weId);
+    }
+
+    /**
+     * Record a weId added to a whitelist by this service.
+     *
+     * @param whitelistName the whitelist
+     * @param weId the weId
+     */
+    public void onAddedToWhitelist(String whitelistName, String weId) {
+        whitelisted.put(whitelistKey(whitelistName, weId), Boolean.TRUE);
+    }
+
+    /**
+     * Get the metrics of the index.
+     *
+     * @return the metrics of each of its caches
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("names", weIdByName.getMetrics());
+        metrics.put("issuers", issuerByWeId.getMetrics());
+        metrics.put("whitelists", whitelisted.getMetrics());
+        return metrics;
+    }
+
+    private static boolean isSuccess(ResponseData<?> response) {
+        return response.getResult() != null && response.getErrorCode() != null
+            && response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode();
+    }
+
+    private static String whitelistKey(String whitelistName, String weId) {
+        // a weId never contains a newline
+        return whitelistName + '\n' + weId;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.math.BigInteger;
+
+/**
+ * An immutable snapshot of the chain settings the encode and transact paths need: chainId,
+ * groupId, the chain version and the WeIdentity contract addresses.
+ */
+public final class ChainMetadata {
+
+    private final BigInteger chainId;
+    private final String groupId;
+    private final String version;
+    private final String weIdAddress;
+    private final String issuerAddress;
+    private final String cptAddress;
+    private final String evidenceAddress;
+    private final String specificIssuerAddress;
+    private final long loadedAt;
+
+    ChainMetadata(
+        BigInteger chainId,
+        String groupId,
+        String version,
+        String weIdAddress,
+        String issuerAddress,
+        String cptAddress,
+        String evidenceAddress,
+        String specificIssuerAddress,
+        long loadedAt
+    ) {
+        this.chainId = chainId;
+        this.groupId = groupId;
+        this.version = version;
+        this.weIdAddress = weIdAddress;
+        this.issuerAddress = issuerAddress;
+        this.cptAddress = cptAddress;
+        this.evidenceAddress = evidenceAddress;
+        this.specificIssuerAddress = specificIssuerAddress;
+        this.loadedAt = loadedAt;
+    }
+
+    public BigInteger getChainId() {
+        return chainId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getWeIdAddress() {
+        return weIdAddress;
+    }
+
+    public String getIssuerAddress() {
+        return issuerAddress;
+    }
+
+    public String getCptAddress() {
+        return cptAddress;
+    }
+
+    public String getEvidenceAddress() {
+        return evidenceAddress;
+    }
+
+    public String getSpecificIssuerAddress() {
+        return specificIssuerAddress;
+    }
+
+    /**
+     * When this snapshot was loaded, in epoch milliseconds.
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Whether the chain is a FISCO-BCOS 1.x one.
+     */
+    public boolean isFiscoBcosV1() {
+        return version != null && version.startsWith("1");
+    }
+}
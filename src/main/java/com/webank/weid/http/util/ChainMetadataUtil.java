@@ -0,0 +1,133 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.methods.response.NodeVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.config.FiscoConfig;
+import com.webank.weid.service.BaseService;
+
+/**
+ * Holds the current {@link ChainMetadata}. It is loaded once, on first use, and then refreshed
+ * by a background thread, so callers never read the config file or call the node themselves.
+ */
+public class ChainMetadataUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChainMetadataUtil.class);
+
+    /**
+     * How often the snapshot is reloaded, in seconds.
+     */
+    private static final long REFRESH_SECONDS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("chain.metadata.refresh.seconds", "300")));
+
+    /**
+     * The chainId used when the node cannot be reached on the very first load.
+     */
+    private static final BigInteger DEFAULT_CHAIN_ID = BigInteger.ONE;
+
+    private static volatile ChainMetadata current;
+
+    private static ScheduledExecutorService refresher;
+
+    /**
+     * Get the current snapshot, loading it on first use.
+     *
+     * @return the chain metadata
+     */
+    public static ChainMetadata get() {
+        ChainMetadata metadata = current;
+        if (metadata == null) {
+            metadata = init();
+        }
+        return metadata;
+    }
+
+    /**
+     * Reload the snapshot now. The previous snapshot is kept if loading fails.
+     *
+     * @return the snapshot in use after the reload
+     */
+    public static ChainMetadata refresh() {
+        try {
+            current = load(loadChainId());
+        } catch (Exception e) {
+            logger.error("[refresh] failed to reload the chain metadata, keeping the old one.", e);
+        }
+        return current;
+    }
+
+    private static synchronized ChainMetadata init() {
+        if (current == null) {
+            BigInteger chainId;
+            try {
+                chainId = loadChainId();
+            } catch (Exception e) {
+                // only the first load falls back, a later refresh keeps the loaded chainId
+                logger.error("[init] FAILED to get the chainId from the node, using the default 1 "
+                    + "until the next refresh. Transactions encoded meanwhile may be rejected.", e);
+                chainId = DEFAULT_CHAIN_ID;
+            }
+            current = load(chainId);
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chain-metadata-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(ChainMetadataUtil::refresh,
+                REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+        }
+        return current;
+    }
+
+    private static ChainMetadata load(BigInteger chainId) {
+        FiscoConfig fiscoConfig = new FiscoConfig();
+        fiscoConfig.load();
+        ChainMetadata metadata = new ChainMetadata(
+            chainId,
+            fiscoConfig.getGroupId(),
+            fiscoConfig.getVersion(),
+            fiscoConfig.getWeIdAddress(),
+            fiscoConfig.getIssuerAddress(),
+            fiscoConfig.getCptAddress(),
+            fiscoConfig.getEvidenceAddress(),
+            fiscoConfig.getSpecificIssuerAddress(),
+            System.currentTimeMillis()
+        );
+        logger.info("[load] chain metadata loaded, chainId: {}, groupId: {}",
+            metadata.getChainId(), metadata.getGroupId());
+        return metadata;
+    }
+
+    private static BigInteger loadChainId() throws IOException {
+        NodeVersion.Version nodeVersion = ((Web3j) BaseService.getWeb3j())
+            .getNodeVersion().send().getNodeVersion();
+        return new BigInteger(nodeVersion.getChainID());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.TransactionUtils;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.crypto.Hash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps registered CPTs by cptId, and CPT json schemas already complemented and validated by
+ * the hash of the schema as sent. A CPT is only cached once it was read successfully and is kept
+ * for cpt.cache.ttl.seconds at most, in case it is updated by another client. A schema always
+ * complements to the same result, so invalid schemas are remembered as well.
+ */
+public class CptCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CptCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("cpt.cache.enabled", "true"));
+
+    private static final int CPT_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("cpt.cache.max.size", "10000"));
+
+    private static final long CPT_TTL_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("cpt.cache.ttl.seconds", "3600"))) * 1000L;
+
+    private static final int SCHEMA_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("cpt.schema.cache.max.size", "1000"));
+
+    /**
+     * Marks a schema found invalid, since the cache cannot hold null.
+     */
+    private static final String INVALID = "";
+
+    private static volatile CptCache instance;
+
+    private final BoundedCache<Integer, Cpt> cpts;
+    private final BoundedCache<String, String> schemas;
+    private final Function<String, String> complement;
+
+    CptCache(
+        BoundedCache<Integer, Cpt> cpts,
+        BoundedCache<String, String> schemas,
+        Function<String, String> complement
+    ) {
+        this.cpts = cpts;
+        this.schemas = schemas;
+        this.complement = complement;
+    }
+
+    /**
+     * Get the shared cache, or null if it is disabled.
+     *
+     * @return the cache
+     */
+    public static CptCache getInstance() {
+        if (ENABLED && instance == null) {
+            synchronized (CptCache.class) {
+                if (instance == null) {
+                    CptCache cache = new CptCache(
+                        new BoundedCache<>(CPT_MAX_SIZE, CPT_TTL_MILLIS),
+                        new BoundedCache<>(SCHEMA_MAX_SIZE, Long.MAX_VALUE),
+                        CptCache::complementAndValidate);
+                    MetricsRegistry.register("cptCache", cache.cpts::getMetrics);
+                    MetricsRegistry.register("cptSchemaCache", cache.schemas::getMetrics);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Query a CPT, from the cache if it was read before.
+     *
+     * @param cptId the cptId
+     * @param loader reads the CPT from chain
+     * @return the CPT response
+     */
+    public ResponseData<Cpt> queryCpt(Integer cptId, Function<Integer, ResponseData<Cpt>> loader) {
+        Cpt cpt = cpts.get(cptId);
+        if (cpt != null) {
+            return new ResponseData<>(cpt, ErrorCode.SUCCESS);
+        }
+        ResponseData<Cpt> response = loader.apply(cptId);
+        if (response.getResult() != null && response.getErrorCode() != null
+            && response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()) {
+            cpts.put(cptId, response.getResult());
+        }
+        return response;
+    }
+
+    /**
+     * Complement a CPT json schema and check that it is valid.
+     *
+     * @param cptJsonSchema the schema as sent
+     * @return the complemented schema, or null if it is invalid
+     */
+    public String complementCptJsonSchema(String cptJsonSchema) {
+        String key = Hash.sha3String(cptJsonSchema);
+        String complemented = schemas.get(key);
+        if (complemented == null) {
+            complemented = complement.apply(cptJsonSchema);
+            schemas.put(key, complemented == null ? INVALID : complemented);
+        }
+        return INVALID.equals(complemented) ? null : complemented;
+    }
+
+    /**
+     * Complement a CPT json schema and check that it is valid, without the cache.
+     *
+     * @param cptJsonSchema the schema as sent
+     * @return the complemented schema, or null if it is invalid
+     */
+    public static String complementAndValidate(String cptJsonSchema) {
+        String cptJsonSchemaNew = TransactionUtils.complementCptJsonSchema(cptJsonSchema);
+        try {
+            if (StringUtils.isEmpty(cptJsonSchemaNew)
+                || !DataToolUtils.isCptJsonSchemaValid(cptJsonSchemaNew)) {
+                logger.error("Input cpt json schema : {} is invalid.", cptJsonSchemaNew);
+                return null;
+            }
+        } catch (Exception e) {
+            logger.error("Input cpt json schema : {} is invalid.", cptJsonSchemaNew);
+            return null;
+        }
+        return cptJsonSchemaNew;
+    }
+}
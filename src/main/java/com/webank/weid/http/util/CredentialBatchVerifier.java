@@ -0,0 +1,183 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.base.PublicKeyProperty;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.base.WeIdPublicKey;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies a batch of credentials. The document of each issuer is read once for all of its
+ * credentials, and each credential is then checked against the public keys of that document,
+ * so the SDK does not read the document again for every credential. The work runs on a pool of
+ * credential.verify.threads, by default one per core.
+ */
+public class CredentialBatchVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialBatchVerifier.class);
+
+    private static final int VERIFY_THREADS = verifyThreads(
+        PropertiesUtil.getProperty("credential.verify.threads"));
+
+    private static volatile ExecutorService sharedPool;
+
+    private final ExecutorService pool;
+    private final Function<String, ResponseData<WeIdDocument>> documentLoader;
+    private final BiFunction<WeIdPublicKey, CredentialPojo, ResponseData<Boolean>> verifier;
+
+    /**
+     * Create a verifier on the shared pool.
+     *
+     * @param documentLoader reads the document of an issuer
+     * @param verifier verifies a credential with a public key of its issuer
+     */
+    public CredentialBatchVerifier(
+        Function<String, ResponseData<WeIdDocument>> documentLoader,
+        BiFunction<WeIdPublicKey, CredentialPojo, ResponseData<Boolean>> verifier
+    ) {
+        this(getSharedPool(), documentLoader, verifier);
+    }
+
+    CredentialBatchVerifier(
+        ExecutorService pool,
+        Function<String, ResponseData<WeIdDocument>> documentLoader,
+        BiFunction<WeIdPublicKey, CredentialPojo, ResponseData<Boolean>> verifier
+    ) {
+        this.pool = pool;
+        this.documentLoader = documentLoader;
+        this.verifier = verifier;
+    }
+
+    private static int verifyThreads(String configured) {
+        if (StringUtils.isBlank(configured)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(configured.trim()));
+    }
+
+    private static ExecutorService getSharedPool() {
+        if (sharedPool == null) {
+            synchronized (CredentialBatchVerifier.class) {
+                if (sharedPool == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    sharedPool = Executors.newFixedThreadPool(VERIFY_THREADS, runnable -> {
+                        Thread thread = new Thread(runnable,
+                            "credential-verify-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return sharedPool;
+    }
+
+    /**
+     * Verify each credential.
+     *
+     * @param credentials the credentials, null for one that could not be read
+     * @return the result of each credential, in the order of the credentials
+     */
+    public List<HttpResponseData<Boolean>> verify(List<CredentialPojo> credentials) {
+        Map<String, CompletableFuture<ResponseData<WeIdDocument>>> documents = new HashMap<>();
+        List<CompletableFuture<HttpResponseData<Boolean>>> futures =
+            new ArrayList<>(credentials.size());
+        for (CredentialPojo credential : credentials) {
+            if (credential == null || StringUtils.isEmpty(credential.getIssuer())) {
+                futures.add(CompletableFuture.completedFuture(
+                    new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL)));
+                continue;
+            }
+            futures.add(documents
+                .computeIfAbsent(credential.getIssuer(), issuer ->
+                    CompletableFuture.supplyAsync(() -> loadDocument(issuer), pool))
+                .thenApplyAsync(document -> verify(credential, document), pool));
+        }
+        List<HttpResponseData<Boolean>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<HttpResponseData<Boolean>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private ResponseData<WeIdDocument> loadDocument(String issuer) {
+        try {
+            return documentLoader.apply(issuer);
+        } catch (Exception e) {
+            logger.error("[verifyBatch]: failed to get the document of issuer {}.", issuer, e);
+            return null;
+        }
+    }
+
+    private HttpResponseData<Boolean> verify(
+        CredentialPojo credential,
+        ResponseData<WeIdDocument> document
+    ) {
+        if (document == null) {
+            return new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR);
+        }
+        if (document.getResult() == null) {
+            return new HttpResponseData<>(false, document.getErrorCode(),
+                document.getErrorMessage());
+        }
+        List<PublicKeyProperty> publicKeys = document.getResult().getPublicKey();
+        if (publicKeys == null || publicKeys.isEmpty()) {
+            return new HttpResponseData<>(false, ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCode(),
+                ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCodeDesc());
+        }
+        try {
+            // like the SDK, any one of the keys of the issuer may have signed the credential
+            ResponseData<Boolean> response = null;
+            for (PublicKeyProperty publicKeyProperty : publicKeys) {
+                WeIdPublicKey publicKey = new WeIdPublicKey();
+                publicKey.setPublicKey(publicKeyProperty.getPublicKey());
+                response = verifier.apply(publicKey, credential);
+                if (response.getErrorCode() == null || response.getErrorCode().intValue()
+                    != ErrorCode.CREDENTIAL_SIGNATURE_BROKEN.getCode()) {
+                    break;
+                }
+            }
+            return new HttpResponseData<>(response.getResult(), response.getErrorCode(),
+                response.getErrorMessage());
+        } catch (Exception e) {
+            logger.error("[verifyBatch]: failed to verify credential {}.", credential.getId(), e);
+            return new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR.getCode(),
+                HttpReturnCode.WEID_SDK_ERROR.getCodeDesc().concat(String.valueOf(e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import static com.webank.weid.service.impl.CredentialPojoServiceImpl.generateSalt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.webank.weid.constant.CredentialConstant;
+import com.webank.weid.constant.CredentialConstant.CredentialProofType;
+import com.webank.weid.constant.ParamKeyConstant;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.util.CredentialPojoUtils;
+import com.webank.weid.util.CredentialUtils;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.DateUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the unsigned credential that encodeCredential returns for client side signing. The
+ * claim is converted once from the request tree, the salt map is a structural copy of it rather
+ * than a serialized clone, and the thumbprint is computed once by the SDK, so that it stays
+ * exactly what the SDK verifies.
+ */
+public final class CredentialPojoBuilder {
+
+    private CredentialPojoBuilder() {
+    }
+
+    /**
+     * Convert the claim of a request to the map a credential holds, with the same value types
+     * a round trip through a json String would give.
+     *
+     * @param claimNode the claim tree
+     * @return the claim
+     */
+    @SuppressWarnings("unchecked")
+    public static HashMap<String, Object> toClaim(JsonNode claimNode) {
+        return JsonUtil.treeToValue(claimNode, HashMap.class);
+    }
+
+    /**
+     * Build a credential whose signature holds the raw data to sign, base64 encoded.
+     *
+     * @param cptId the cptId
+     * @param issuer the issuer WeID
+     * @param expirationDate the expiration date, without milliseconds
+     * @param claim the claim, not modified
+     * @return the credential, with its salt
+     */
+    public static CredentialPojo build(
+        Integer cptId,
+        String issuer,
+        Long expirationDate,
+        HashMap<String, Object> claim
+    ) {
+        CredentialPojo result = new CredentialPojo();
+        result.setContext(CredentialUtils.getDefaultCredentialContext());
+        result.setId(UUID.randomUUID().toString());
+        result.setCptId(cptId);
+        result.setIssuanceDate(DateUtils.getNoMillisecondTimeStamp());
+        result.setIssuer(issuer);
+        result.setExpirationDate(expirationDate);
+        result.addType(CredentialConstant.DEFAULT_CREDENTIAL_TYPE);
+        result.addType(CredentialConstant.SELECTIVE_CREDENTIAL_TYPE);
+        result.setClaim(claim);
+
+        // generateSalt replaces every leaf, so only the maps and lists need copying
+        @SuppressWarnings("unchecked")
+        Map<String, Object> saltMap = (Map<String, Object>) copyStructure(claim);
+        generateSalt(saltMap, null);
+        String rawData = CredentialPojoUtils
+            .getCredentialThumbprintWithoutSig(result, saltMap, null);
+
+        result.putProofValue(ParamKeyConstant.PROOF_CREATED, result.getIssuanceDate());
+        result.putProofValue(ParamKeyConstant.PROOF_CREATOR, issuer + "#keys-0");
+        result.putProofValue(ParamKeyConstant.PROOF_TYPE, CredentialProofType.ECDSA.getTypeName());
+        result.putProofValue(ParamKeyConstant.PROOF_SIGNATURE,
+            new String(DataToolUtils.base64Encode(rawData.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8));
+        result.setSalt(saltMap);
+        return result;
+    }
+
+    /**
+     * Copy the maps and lists of a claim, keeping their concrete types, and share its leaves.
+     *
+     * @param value the claim or one of its values
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    static Object copyStructure(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> source = (Map<String, Object>) value;
+            Map<String, Object> copy = value instanceof LinkedHashMap
+                ? new LinkedHashMap<>(source.size() * 4 / 3 + 1)
+                : new HashMap<>(source.size() * 4 / 3 + 1);
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                copy.put(entry.getKey(), copyStructure(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> source = (List<Object>) value;
+            List<Object> copy = new ArrayList<>(source.size());
+            for (Object item : source) {
+                copy.add(copyStructure(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Shared executor for CPU bound batch work (encoding, hashing, signing), sized to the cores
+ * so that a large batch request is spread over them without starving the web threads.
+ * Blocking calls such as chain requests do not belong here.
+ */
+public final class ExecutorUtil {
+
+    private static final int COMPUTE_THREADS = computeThreads(
+        PropertiesUtil.getProperty("batch.compute.threads"));
+
+    private static volatile ExecutorService computePool;
+
+    private ExecutorUtil() {
+    }
+
+    private static int computeThreads(String configured) {
+        if (StringUtils.isBlank(configured)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(configured.trim()));
+    }
+
+    /**
+     * Get the shared compute pool, created on first use.
+     *
+     * @return the compute pool
+     */
+    public static ExecutorService getComputePool() {
+        if (computePool == null) {
+            synchronized (ExecutorUtil.class) {
+                if (computePool == null) {
+                    AtomicInteger index = new AtomicInteger();
+                    computePool = Executors.newFixedThreadPool(COMPUTE_THREADS, runnable -> {
+                        Thread thread = new Thread(runnable,
+                            "batch-compute-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return computePool;
+    }
+
+    /**
+     * Map a list on the compute pool, one contiguous slice per thread, keeping the order. The
+     * mapper must not block or call this method again, and should turn per item failures
+     * into results; an exception thrown by it fails the whole call.
+     *
+     * @param items the items
+     * @param mapper the per item mapping
+     * @return the results, in the order of the items
+     */
+    public static <T, R> List<R> mapInParallel(List<T> items, Function<T, R> mapper) {
+        int size = items.size();
+        int slices = Math.min(COMPUTE_THREADS, size);
+        if (slices <= 1) {
+            List<R> results = new ArrayList<>(size);
+            for (T item : items) {
+                results.add(mapper.apply(item));
+            }
+            return results;
+        }
+        Object[] results = new Object[size];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[slices];
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) size * slice / slices);
+            int to = (int) ((long) size * (slice + 1) / slices);
+            futures[slice] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = mapper.apply(items.get(i));
+                }
+            }, getComputePool());
+        }
+        CompletableFuture.allOf(futures).join();
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+}
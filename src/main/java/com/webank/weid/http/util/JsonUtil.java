@@ -21,6 +21,7 @@ package com.webank.weid.http.util;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -34,9 +35,13 @@ import com.webank.weid.constant.ParamKeyConstant;
 import com.webank.weid.exception.DataTypeCastException;
 import com.webank.weid.util.DateUtils;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -49,9 +54,49 @@ public class JsonUtil {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    /**
+     * A mapper with plain Jackson defaults (getter based, unsorted), for the places whose output
+     * used to come from a local new ObjectMapper() and must stay byte-identical.
+     */
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
     private static final ObjectWriter OBJECT_WRITER;
     private static final ObjectReader OBJECT_READER;
 
+    /**
+     * The writer registry, one immutable writer per feature set.
+     */
+    private static final Map<WriterProfile, ObjectWriter> WRITERS =
+        new EnumMap<>(WriterProfile.class);
+
+    /**
+     * The reader registry, one immutable (lenient) reader per target type, created on first use.
+     */
+    private static final ConcurrentMap<Class<?>, ObjectReader> READERS =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The writer feature sets available from the registry.
+     */
+    public enum WriterProfile {
+        /**
+         * sorted keys, field based, compact output.
+         */
+        SORTED,
+        /**
+         * sorted keys, field based, pretty printed output.
+         */
+        SORTED_PRETTY,
+        /**
+         * Jackson defaults, compact output.
+         */
+        DEFAULT,
+        /**
+         * Jackson defaults, pretty printed output.
+         */
+        DEFAULT_PRETTY
+    }
+
     static {
         // sort by letter
         OBJECT_MAPPER.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
@@ -65,6 +110,33 @@ public class JsonUtil {
         OBJECT_MAPPER.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
         OBJECT_WRITER = OBJECT_MAPPER.writer().withDefaultPrettyPrinter();
         OBJECT_READER = OBJECT_MAPPER.reader();
+
+        WRITERS.put(WriterProfile.SORTED, OBJECT_MAPPER.writer());
+        WRITERS.put(WriterProfile.SORTED_PRETTY, OBJECT_WRITER);
+        WRITERS.put(WriterProfile.DEFAULT, DEFAULT_OBJECT_MAPPER.writer());
+        WRITERS.put(WriterProfile.DEFAULT_PRETTY,
+            DEFAULT_OBJECT_MAPPER.writerWithDefaultPrettyPrinter());
+    }
+
+    /**
+     * Get the shared writer of a feature set. ObjectWriter is immutable and thread-safe, and
+     * reusing it keeps the serializer caches warm instead of rebuilding them per request.
+     *
+     * @param profile the feature set
+     * @return the writer
+     */
+    public static ObjectWriter writer(WriterProfile profile) {
+        return WRITERS.get(profile);
+    }
+
+    /**
+     * Get the shared lenient (unknown properties ignored) reader of a target type.
+     *
+     * @param clazz the target type
+     * @return the reader
+     */
+    public static ObjectReader reader(Class<?> clazz) {
+        return READERS.computeIfAbsent(clazz, OBJECT_MAPPER::readerFor);
     }
 
     /**
@@ -77,9 +149,70 @@ public class JsonUtil {
     public static Object jsonStrToObj(Object obj, String jsonStr) {
 
         try {
-            return OBJECT_READER.readValue(
-                OBJECT_MAPPER.getFactory().createParser(jsonStr),
-                obj.getClass());
+            return reader(obj.getClass()).readValue(jsonStr);
+        } catch (IOException e) {
+            throw new DataTypeCastException(e);
+        }
+    }
+
+    /**
+     * Parse a Json String into a tree.
+     *
+     * @param jsonStr Json String
+     * @return the JsonNode tree
+     * @throws IOException the input is not a valid Json
+     */
+    public static JsonNode readTree(String jsonStr) throws IOException {
+        return OBJECT_READER.readTree(jsonStr);
+    }
+
+    /**
+     * Convert an object into a tree with the sorted (field based) mapper, without going through
+     * a json String.
+     *
+     * @param obj the object
+     * @return the tree
+     */
+    public static JsonNode valueToTree(Object obj) {
+        return OBJECT_MAPPER.valueToTree(obj);
+    }
+
+    /**
+     * Convert an object into a tree with the mapper of a writer profile.
+     *
+     * @param obj the object
+     * @param profile SORTED(_PRETTY) for the field based mapper, DEFAULT(_PRETTY) for defaults
+     * @return the tree
+     */
+    public static JsonNode valueToTree(Object obj, WriterProfile profile) {
+        ObjectMapper mapper =
+            profile == WriterProfile.DEFAULT || profile == WriterProfile.DEFAULT_PRETTY
+                ? DEFAULT_OBJECT_MAPPER : OBJECT_MAPPER;
+        return mapper.valueToTree(obj);
+    }
+
+    /**
+     * Create a streaming parser over an input stream, able to read sub-trees as JsonNode.
+     *
+     * @param inputStream the input stream
+     * @return the parser
+     * @throws IOException if the stream cannot be read
+     */
+    public static JsonParser createParser(InputStream inputStream) throws IOException {
+        return OBJECT_MAPPER.getFactory().createParser(inputStream);
+    }
+
+    /**
+     * Bind an already parsed tree to the given type, without going back through a String.
+     *
+     * @param jsonNode the tree
+     * @param clazz the target type
+     * @param <T> the target type
+     * @return the bound object
+     */
+    public static <T> T treeToValue(JsonNode jsonNode, Class<T> clazz) {
+        try {
+            return reader(clazz).readValue(jsonNode);
         } catch (IOException e) {
             throw new DataTypeCastException(e);
         }
@@ -107,8 +240,7 @@ public class JsonUtil {
      * @return JsonString
      */
     public static String mapToCompactJson(Map<String, Object> map) throws Exception {
-        ObjectWriter objectWriter = OBJECT_MAPPER.writer();
-        return objectWriter.writeValueAsString(map);
+        return writer(WriterProfile.SORTED).writeValueAsString(map);
     }
 
     /**
@@ -118,8 +250,7 @@ public class JsonUtil {
      * @return Map
      */
     public static Map<String, Object> objToMap(Object object) throws Exception {
-        JsonNode jsonNode = OBJECT_MAPPER.readTree(objToJsonStr(object));
-        return (HashMap<String, Object>) OBJECT_MAPPER.convertValue(jsonNode, HashMap.class);
+        return (HashMap<String, Object>) OBJECT_MAPPER.convertValue(object, HashMap.class);
     }
 
     /**
@@ -141,9 +272,8 @@ public class JsonUtil {
      */
     public static Map<String, Object> convertJsonToSortedMap(String looseJson) {
         try {
-            Map<String, Object> map = (Map<String, Object>) jsonStrToObj(
-                new HashMap<String, Object>(), looseJson);
-            return new TreeMap<>(map);
+            // bind into the TreeMap directly, rather than into a HashMap to be copied
+            return reader(TreeMap.class).readValue(looseJson);
         } catch (Exception e) {
             return null;
         }
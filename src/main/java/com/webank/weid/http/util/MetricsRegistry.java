@@ -0,0 +1,61 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the components which expose runtime metrics, so that they can be read all together
+ * without the reader knowing each of them.
+ */
+public final class MetricsRegistry {
+
+    private static final Map<String, Supplier<Map<String, Object>>> SOURCES =
+        new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Register a metrics source, replacing any registered under the same name.
+     *
+     * @param name the name the metrics are listed under
+     * @param metrics takes a snapshot of the metrics
+     */
+    public static void register(String name, Supplier<Map<String, Object>> metrics) {
+        SOURCES.put(name, metrics);
+    }
+
+    /**
+     * Take a snapshot of all registered metrics.
+     *
+     * @return the metrics of each source, by name
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Map<String, Object>>> source : SOURCES.entrySet()) {
+            snapshot.put(source.getKey(), source.getValue().get());
+        }
+        return snapshot;
+    }
+}
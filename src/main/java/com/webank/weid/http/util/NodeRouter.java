@@ -0,0 +1,404 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.Response;
+import org.fisco.bcos.web3j.protocol.http.HttpService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.service.BaseService;
+
+/**
+ * Picks the node the service's own chain calls (sending signed transactions, fetching
+ * receipts, the block height and WeID change checks of the caches) go to, out of the nodes
+ * listed in node.rpc.urls. Each node is probed for its block height in the background, and
+ * every probe and routed call updates its moving average latency and error rate; a call
+ * answered with a JSON-RPC error counts as failed, like one which did not get an answer.
+ * Calls go to the fastest node which is healthy and in sync; a node which keeps failing or
+ * falls behind the highest block is ejected for a while, and taken back once it is healthy
+ * and in sync again.
+ *
+ * <p>Without node.rpc.urls, calls go through the SDK's channel connection as before. The reads
+ * made by the SDK services (WeID documents, CPTs, issuers, evidence) are not routed: the SDK
+ * binds its contracts to its own connection when it loads them.
+ */
+public class NodeRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeRouter.class);
+
+    /**
+     * Comma separated JSON-RPC urls of the nodes, e.g. http://127.0.0.1:8545.
+     */
+    private static final String RPC_URLS =
+        PropertiesUtil.getProperty("node.rpc.urls", StringUtils.EMPTY);
+
+    private static final long PROBE_MILLIS = Math.max(10L, Long.parseLong(
+        PropertiesUtil.getProperty("node.router.probe.millis", "1000")));
+
+    /**
+     * The weight of a new sample in the moving averages.
+     */
+    private static final double EWMA_ALPHA = Double.parseDouble(
+        PropertiesUtil.getProperty("node.router.ewma.alpha", "0.3"));
+
+    /**
+     * The error rate, and the blocks behind the highest node, at which a node is ejected.
+     */
+    private static final double MAX_ERROR_RATE = Double.parseDouble(
+        PropertiesUtil.getProperty("node.router.max.error.rate", "0.5"));
+    private static final long MAX_BLOCK_LAG = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("node.router.max.block.lag", "5")));
+
+    private static final long EJECT_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("node.router.eject.seconds", "30"))) * 1000L;
+
+    private static volatile NodeRouter instance;
+    private static volatile boolean initialized;
+
+    /**
+     * A JSON-RPC call which may fail with an IOException.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+
+        T apply(Web3j web3j) throws IOException;
+    }
+
+    private final List<Node> nodes;
+    private final double alpha;
+    private final double maxErrorRate;
+    private final long maxBlockLag;
+    private final long ejectMillis;
+    private final LongSupplier clock;
+    private ScheduledExecutorService prober;
+
+    NodeRouter(
+        Map<String, Web3j> nodes,
+        double alpha,
+        double maxErrorRate,
+        long maxBlockLag,
+        long ejectMillis,
+        LongSupplier clock
+    ) {
+        List<Node> list = new ArrayList<>();
+        for (Map.Entry<String, Web3j> node : nodes.entrySet()) {
+            list.add(new Node(node.getKey(), node.getValue()));
+        }
+        this.nodes = Collections.unmodifiableList(list);
+        this.alpha = alpha;
+        this.maxErrorRate = maxErrorRate;
+        this.maxBlockLag = maxBlockLag;
+        this.ejectMillis = ejectMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the shared router, starting its probes on first use.
+     *
+     * @return the router, or null if no node urls are configured
+     */
+    public static NodeRouter getInstance() {
+        if (!initialized) {
+            synchronized (NodeRouter.class) {
+                if (!initialized) {
+                    instance = create();
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static NodeRouter create() {
+        String[] urls = StringUtils.split(RPC_URLS, ',');
+        if (urls == null || urls.length == 0) {
+            return null;
+        }
+        int groupId = Integer.parseInt(ChainMetadataUtil.get().getGroupId());
+        Map<String, Web3j> nodes = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (StringUtils.isNotBlank(url)) {
+                nodes.put(url.trim(), Web3j.build(new HttpService(url.trim()), groupId));
+            }
+        }
+        NodeRouter router = new NodeRouter(nodes, EWMA_ALPHA, MAX_ERROR_RATE, MAX_BLOCK_LAG,
+            EJECT_MILLIS, System::currentTimeMillis);
+        router.start(PROBE_MILLIS);
+        MetricsRegistry.register("nodeRouter", router::getMetrics);
+        logger.info("[NodeRouter] routing chain calls across {} nodes.", nodes.size());
+        return router;
+    }
+
+    /**
+     * Run a call on the routed node, or on the SDK's connection if no nodes are configured.
+     *
+     * @param call the call
+     * @return its result
+     * @throws IOException if the call fails
+     */
+    public static <T> T route(Call<T> call) throws IOException {
+        NodeRouter router = getInstance();
+        return router == null ? call.apply((Web3j) BaseService.getWeb3j()) : router.call(call);
+    }
+
+    /**
+     * Run an async call on the routed node, or on the SDK's connection if no nodes are
+     * configured.
+     *
+     * @param call the call
+     * @return its future result
+     */
+    public static <T> CompletableFuture<T> routeAsync(
+        Function<Web3j, CompletableFuture<T>> call
+    ) {
+        NodeRouter router = getInstance();
+        return router == null
+            ? call.apply((Web3j) BaseService.getWeb3j())
+            : router.callAsync(call);
+    }
+
+    /**
+     * Run a call on the best node, recording its latency and outcome.
+     *
+     * @param call the call
+     * @return its result
+     * @throws IOException if the call fails
+     */
+    public <T> T call(Call<T> call) throws IOException {
+        Node node = select();
+        long startTime = System.nanoTime();
+        try {
+            T result = call.apply(node.web3j);
+            record(node, System.nanoTime() - startTime, !isError(result));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            record(node, System.nanoTime() - startTime, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Run an async call on the best node, recording its latency and outcome.
+     *
+     * @param call the call
+     * @return its future result
+     */
+    public <T> CompletableFuture<T> callAsync(Function<Web3j, CompletableFuture<T>> call) {
+        Node node = select();
+        long startTime = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = call.apply(node.web3j);
+        } catch (RuntimeException e) {
+            record(node, System.nanoTime() - startTime, false);
+            throw e;
+        }
+        return result.whenComplete((value, error) ->
+            record(node, System.nanoTime() - startTime, error == null && !isError(value)));
+    }
+
+    /**
+     * Whether a result is a JSON-RPC response carrying an error: the node answered, but did
+     * not serve the call.
+     */
+    private static boolean isError(Object result) {
+        return result instanceof Response && ((Response<?>) result).hasError();
+    }
+
+    /**
+     * Pick the node with the lowest average latency among the healthy, in-sync ones; if none
+     * is, the one with the lowest error rate.
+     *
+     * @return the node
+     */
+    Node select() {
+        long now = clock.getAsLong();
+        BigInteger highest = highestBlock();
+        Node best = null;
+        for (Node node : nodes) {
+            if (isEligible(node, highest, now)
+                && (best == null || node.latencyMillis < best.latencyMillis)) {
+                best = node;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        for (Node node : nodes) {
+            if (best == null || node.errorRate < best.errorRate) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Probe the block height of every node, ejecting those which fail too often or fall
+     * behind. A node whose previous probe is still pending counts as failed for this round.
+     *
+     * @return completes once every probe of this round has finished
+     */
+    CompletableFuture<Void> probe() {
+        List<CompletableFuture<?>> probes = new ArrayList<>();
+        for (Node node : nodes) {
+            if (!node.probing.compareAndSet(false, true)) {
+                record(node, System.nanoTime() - node.probeStartTime, false);
+                continue;
+            }
+            node.probeStartTime = System.nanoTime();
+            CompletableFuture<?> probe;
+            try {
+                probe = node.web3j.getBlockNumber().sendAsync()
+                    .whenComplete((response, error) -> {
+                        boolean success = error == null && response != null
+                            && !isError(response);
+                        if (success) {
+                            node.blockNumber = response.getBlockNumber();
+                        }
+                        record(node, System.nanoTime() - node.probeStartTime, success);
+                        node.probing.set(false);
+                    });
+            } catch (RuntimeException e) {
+                record(node, System.nanoTime() - node.probeStartTime, false);
+                node.probing.set(false);
+                continue;
+            }
+            probes.add(probe.handle((response, error) -> null));
+        }
+        return CompletableFuture.allOf(probes.toArray(new CompletableFuture[0]))
+            .thenRun(this::ejectUnhealthy);
+    }
+
+    /**
+     * Get a snapshot of each node: its moving average latency and error rate, block height,
+     * and whether it is ejected.
+     *
+     * @return the metrics, by node url
+     */
+    public Map<String, Object> getMetrics() {
+        long now = clock.getAsLong();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Node node : nodes) {
+            Map<String, Object> nodeMetrics = new LinkedHashMap<>();
+            nodeMetrics.put("latencyMillis", node.latencyMillis);
+            nodeMetrics.put("errorRate", node.errorRate);
+            nodeMetrics.put("blockNumber", node.blockNumber);
+            nodeMetrics.put("ejected", now < node.ejectedUntil);
+            metrics.put(node.url, nodeMetrics);
+        }
+        return metrics;
+    }
+
+    private void start(long probeMillis) {
+        prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "node-router-prober");
+            thread.setDaemon(true);
+            return thread;
+        });
+        prober.scheduleWithFixedDelay(() -> {
+            try {
+                probe();
+            } catch (Exception e) {
+                logger.error("[probe] failed to probe the nodes.", e);
+            }
+        }, 0L, probeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void ejectUnhealthy() {
+        long now = clock.getAsLong();
+        BigInteger highest = highestBlock();
+        for (Node node : nodes) {
+            if (now >= node.ejectedUntil && !isHealthy(node, highest)) {
+                node.ejectedUntil = now + ejectMillis;
+                logger.warn("[probe] ejecting node {}: error rate {}, block {} of {}.",
+                    node.url, node.errorRate, node.blockNumber, highest);
+            }
+        }
+    }
+
+    private boolean isEligible(Node node, BigInteger highest, long now) {
+        return now >= node.ejectedUntil && isHealthy(node, highest);
+    }
+
+    private boolean isHealthy(Node node, BigInteger highest) {
+        if (node.errorRate >= maxErrorRate) {
+            return false;
+        }
+        BigInteger block = node.blockNumber;
+        return highest == null || (block != null
+            && highest.subtract(block).compareTo(BigInteger.valueOf(maxBlockLag)) <= 0);
+    }
+
+    private BigInteger highestBlock() {
+        BigInteger highest = null;
+        for (Node node : nodes) {
+            BigInteger block = node.blockNumber;
+            if (block != null && (highest == null || block.compareTo(highest) > 0)) {
+                highest = block;
+            }
+        }
+        return highest;
+    }
+
+    private void record(Node node, long elapsedNanos, boolean success) {
+        double millis = elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        synchronized (node) {
+            node.latencyMillis = node.samples == 0
+                ? millis : alpha * millis + (1 - alpha) * node.latencyMillis;
+            node.errorRate = alpha * (success ? 0D : 1D) + (1 - alpha) * node.errorRate;
+            node.samples++;
+        }
+    }
+
+    static final class Node {
+
+        final String url;
+        final Web3j web3j;
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private volatile long probeStartTime;
+        private volatile double latencyMillis;
+        private volatile double errorRate;
+        private volatile BigInteger blockNumber;
+        private volatile long ejectedUntil;
+        private long samples;
+
+        private Node(String url, Web3j web3j) {
+            this.url = url;
+            this.web3j = web3j;
+        }
+    }
+}
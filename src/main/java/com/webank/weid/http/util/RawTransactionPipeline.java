@@ -0,0 +1,159 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Submits signed transactions to the node without waiting for each one in turn: a transaction
+ * is sent as soon as a slot of the in-flight window is free, and its slot is given back once
+ * its receipt is found (or the wait for it fails). The window is shared by all batch requests,
+ * so that together they never have more transactions pending than the node is meant to take.
+ */
+public class RawTransactionPipeline {
+
+    /**
+     * The most transactions sent and not yet on chain at a time.
+     */
+    private static final int WINDOW = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("transaction.pipeline.window", "64")));
+
+    /**
+     * How long a transaction waits for a free slot before it fails.
+     */
+    private static final long ACQUIRE_TIMEOUT_MILLIS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("transaction.pipeline.acquire.timeout.seconds", "60")))
+        * 1000L;
+
+    private static volatile RawTransactionPipeline instance;
+
+    private final Semaphore window;
+    private final long acquireTimeoutMillis;
+    private final Function<String, CompletableFuture<String>> sender;
+    private final Function<String, CompletableFuture<TransactionReceipt>> receipts;
+
+    RawTransactionPipeline(
+        int window,
+        long acquireTimeoutMillis,
+        Function<String, CompletableFuture<String>> sender,
+        Function<String, CompletableFuture<TransactionReceipt>> receipts
+    ) {
+        this.window = new Semaphore(window);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.sender = sender;
+        this.receipts = receipts;
+    }
+
+    /**
+     * Get the shared pipeline, which sends through the SDK's web3j channel and waits for the
+     * receipts on the shared receipt tracker.
+     *
+     * @return the pipeline
+     */
+    public static RawTransactionPipeline getInstance() {
+        if (instance == null) {
+            synchronized (RawTransactionPipeline.class) {
+                if (instance == null) {
+                    instance = new RawTransactionPipeline(
+                        WINDOW,
+                        ACQUIRE_TIMEOUT_MILLIS,
+                        TransactionEncoderUtilV2::sendRawTransactionAsync,
+                        TransactionEncoderUtilV2::getTransactionReceiptAsync);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Submit a signed transaction, waiting for a free slot of the window first.
+     *
+     * @param txnHex the signed transaction hex
+     * @return the future receipt; it fails if no slot frees up in time, if the node rejects
+     * the transaction, or if its receipt is not found in time
+     */
+    public CompletableFuture<TransactionReceipt> submit(String txnHex) {
+        CompletableFuture<TransactionReceipt> result = new CompletableFuture<>();
+        try {
+            if (!window.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                result.completeExceptionally(
+                    new TimeoutException("No free slot to send the transaction."));
+                return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        CompletableFuture<TransactionReceipt> receipt;
+        try {
+            receipt = sender.apply(txnHex).thenCompose(receipts);
+        } catch (RuntimeException e) {
+            window.release();
+            result.completeExceptionally(e);
+            return result;
+        }
+        receipt.whenComplete((value, error) -> {
+            window.release();
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Convert the failure of a submitted transaction into the response of its batch entry.
+     *
+     * @param error the failure of the future returned by submit
+     * @return the error response
+     */
+    public static HttpResponseData<Object> toErrorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return new HttpResponseData<>(null, HttpReturnCode.TRANSACTION_NOT_FOUND.getCode(),
+                HttpReturnCode.TRANSACTION_NOT_FOUND.getCodeDesc().concat(cause.getMessage()));
+        }
+        String message = StringUtils.isBlank(cause.getMessage()) ? "" : cause.getMessage();
+        return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
+            HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(message));
+    }
+
+    /**
+     * Get the number of free slots of the window.
+     *
+     * @return the free slots
+     */
+    public int getAvailableSlots() {
+        return window.availablePermits();
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rejects signed transactions that were already sent, before they go to the chain. A
+ * transaction is keyed by its hash, which covers its nonce, data and signature, so only an
+ * exact resend of the same signed transaction is caught.
+ *
+ * <p>Keys are kept in two generations of a time window: the current one, and the one before
+ * it, which is dropped as a whole when the window rolls over. Each generation has a Bloom
+ * filter and an exact set of 64-bit key fingerprints: a Bloom miss is a definite miss, and a
+ * Bloom hit is confirmed against the exact set, so a new transaction is never taken for a
+ * resend. A generation holds a fixed number of keys at most; once it is full it rolls over
+ * early, so memory stays bounded whatever the load, at the cost of a shorter window.
+ */
+public class ReplayGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayGuard.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("replay.guard.enabled", "true"));
+
+    /**
+     * How long a generation takes keys; a key is remembered between one and two windows.
+     */
+    private static final long WINDOW_MILLIS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("replay.guard.window.seconds", "600"))) * 1000L;
+
+    /**
+     * The keys a window is sized for, and the false positive rate of its Bloom filter at
+     * that many keys (or at the most keys of a window, if fewer).
+     */
+    private static final int EXPECTED_ENTRIES = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("replay.guard.expected.entries", "1000000")));
+    private static final double FALSE_POSITIVE_RATE = Double.parseDouble(
+        PropertiesUtil.getProperty("replay.guard.false.positive.rate", "0.000001"));
+
+    /**
+     * The most keys of a window; a window which fills up rolls over early.
+     */
+    private static final int EXACT_MAX_ENTRIES = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("replay.guard.exact.max.entries", "200000")));
+
+    private static volatile ReplayGuard instance;
+
+    private final long windowMillis;
+    private final int bloomBits;
+    private final int bloomHashes;
+    private final int exactMaxEntries;
+    private final LongSupplier clock;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+    private final LongAdder earlyRollOvers = new LongAdder();
+
+    ReplayGuard(
+        long windowMillis,
+        int expectedEntries,
+        double falsePositiveRate,
+        int exactMaxEntries,
+        LongSupplier clock
+    ) {
+        this.exactMaxEntries = Math.max(1, exactMaxEntries);
+        // a generation never holds more keys than its exact set
+        int sizedFor = Math.max(1, Math.min(expectedEntries, this.exactMaxEntries));
+        double bits = -sizedFor * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        // whole words, and a bit count that fits into an int index
+        this.bloomBits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, (long) bits + 63L))
+            & ~63;
+        this.bloomHashes = Math.max(1,
+            (int) Math.round((double) bloomBits / sizedFor * Math.log(2)));
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        this.current = new Generation(clock.getAsLong());
+    }
+
+    /**
+     * Get the shared guard, or null if it is disabled.
+     *
+     * @return the guard
+     */
+    public static ReplayGuard getInstance() {
+        if (!ENABLED) {
+            return null;
+        }
+        if (instance == null) {
+            synchronized (ReplayGuard.class) {
+                if (instance == null) {
+                    ReplayGuard guard = new ReplayGuard(WINDOW_MILLIS, EXPECTED_ENTRIES,
+                        FALSE_POSITIVE_RATE, EXACT_MAX_ENTRIES, System::currentTimeMillis);
+                    MetricsRegistry.register("replayGuard", guard::getMetrics);
+                    instance = guard;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Claim a signed transaction on the shared guard before it is sent.
+     *
+     * @param txnHex the signed transaction hex
+     * @return false if the same transaction was already sent in the last window
+     */
+    public static boolean acquireTransaction(String txnHex) {
+        ReplayGuard guard = getInstance();
+        return guard == null
+            || guard.tryAcquire(TransactionEncoderUtilV2.getTransactionHash(txnHex));
+    }
+
+    /**
+     * Give back the claim on a signed transaction which did not reach the chain.
+     *
+     * @param txnHex the signed transaction hex
+     */
+    public static void releaseTransaction(String txnHex) {
+        ReplayGuard guard = getInstance();
+        if (guard != null) {
+            guard.release(TransactionEncoderUtilV2.getTransactionHash(txnHex));
+        }
+    }
+
+    /**
+     * Claim a transaction before it is sent.
+     *
+     * @param transactionHash the hex hash of the signed transaction
+     * @return true if it was not seen in the last window, false if it is a resend
+     */
+    public boolean tryAcquire(String transactionHash) {
+        long[] key = toKey(transactionHash);
+        while (true) {
+            Generation generation = rollOver();
+            Generation older = previous;
+            if (older != null && older.contains(key)) {
+                hits.increment();
+                return false;
+            }
+            Boolean added = generation.add(key);
+            if (added == null) {
+                rollOverFull(generation);
+                continue;
+            }
+            if (added) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Give back the claim on a transaction which did not reach the chain, so that it can be
+     * sent again.
+     *
+     * @param transactionHash the hex hash of the signed transaction
+     */
+    public void release(String transactionHash) {
+        long[] key = toKey(transactionHash);
+        Generation older = previous;
+        if (current.exact.remove(key[2]) || (older != null && older.exact.remove(key[2]))) {
+            releases.increment();
+        }
+    }
+
+    /**
+     * Get a snapshot of the guard: the rejected resends (hits) and accepted transactions
+     * (misses), the Bloom hits cleared by the exact set, the windows rolled over early for
+     * being full, and the fill of the current window.
+     *
+     * @return the metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Generation generation = current;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("releases", releases.sum());
+        metrics.put("bloomFalsePositives", bloomFalsePositives.sum());
+        metrics.put("earlyRollOvers", earlyRollOvers.sum());
+        metrics.put("windowEntries", generation.entries.get());
+        metrics.put("bloomBytes", bloomBits / 8L);
+        return metrics;
+    }
+
+    private Generation rollOver() {
+        Generation generation = current;
+        long now = clock.getAsLong();
+        if (now - generation.startedAt < windowMillis) {
+            return generation;
+        }
+        synchronized (this) {
+            generation = current;
+            if (now - generation.startedAt >= windowMillis) {
+                previous = now - generation.startedAt < 2 * windowMillis ? generation : null;
+                generation = new Generation(now);
+                current = generation;
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Start a new window in place of a full one, keeping the full one as the previous window.
+     */
+    private synchronized void rollOverFull(Generation full) {
+        if (current != full) {
+            return;
+        }
+        earlyRollOvers.increment();
+        logger.warn("[ReplayGuard] more than {} transactions in a window, rolling it over early.",
+            exactMaxEntries);
+        previous = full;
+        current = new Generation(clock.getAsLong());
+    }
+
+    /**
+     * Split a transaction hash into two Bloom hash seeds and an exact-set fingerprint; a hash
+     * is already uniform, so its bits are used as they are.
+     */
+    private static long[] toKey(String transactionHash) {
+        String hex = StringUtils.removeStart(StringUtils.lowerCase(transactionHash), "0x");
+        if (hex == null || hex.length() < 48) {
+            hex = StringUtils.removeStart(TransactionEncoderUtilV2.getTransactionHash(
+                StringUtils.defaultString(transactionHash)), "0x");
+        }
+        return new long[]{
+            Long.parseUnsignedLong(hex.substring(0, 16), 16),
+            Long.parseUnsignedLong(hex.substring(16, 32), 16),
+            Long.parseUnsignedLong(hex.substring(32, 48), 16)
+        };
+    }
+
+    private final class Generation {
+
+        private final long startedAt;
+        private final AtomicLongArray bloom = new AtomicLongArray(bloomBits >>> 6);
+        private final Set<Long> exact = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger entries = new AtomicInteger();
+
+        private Generation(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private boolean contains(long[] key) {
+            if (!mightContain(key)) {
+                return false;
+            }
+            if (exact.contains(key[2])) {
+                return true;
+            }
+            bloomFalsePositives.increment();
+            return false;
+        }
+
+        /**
+         * Add a key to this generation.
+         *
+         * @return false if it is already there, null if the generation is full
+         */
+        private Boolean add(long[] key) {
+            boolean seen = mightContain(key);
+            if (seen && exact.contains(key[2])) {
+                return Boolean.FALSE;
+            }
+            if (exact.size() >= exactMaxEntries) {
+                return null;
+            }
+            if (!exact.add(key[2])) {
+                return Boolean.FALSE;
+            }
+            if (seen) {
+                bloomFalsePositives.increment();
+            }
+            put(key);
+            return Boolean.TRUE;
+        }
+
+        private boolean mightContain(long[] key) {
+            for (int i = 0; i < bloomHashes; i++) {
+                int bit = index(key, i);
+                if ((bloom.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long[] key) {
+            entries.incrementAndGet();
+            for (int i = 0; i < bloomHashes; i++) {
+                int bit = index(key, i);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = bloom.get(bit >>> 6);
+                } while ((word & mask) == 0 && !bloom.compareAndSet(bit >>> 6, word, word | mask));
+            }
+        }
+
+        private int index(long[] key, int i) {
+            return (int) Long.remainderUnsigned(key[0] + i * key[1], bloomBits);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.math.BigInteger;
+
+import org.fisco.bcos.web3j.crypto.EncryptType;
+import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
+import org.fisco.bcos.web3j.crypto.Sign;
+import org.fisco.bcos.web3j.utils.Numeric;
+
+/**
+ * RLP encoder for FISCO-BCOS v2 transactions. It produces the same bytes as encoding the
+ * RlpString list of TransactionEncoderUtilV2.asRlpValues with web3j's RlpEncoder, but the
+ * fields are only referenced (leading zeros are skipped by offset, not copied), the total
+ * length is computed first, and the output is written into one array of the exact size.
+ */
+public final class RlpTransactionEncoder {
+
+    private static final int OFFSET_SHORT_STRING = 0x80;
+    private static final int OFFSET_LONG_STRING = 0xb7;
+    private static final int OFFSET_SHORT_LIST = 0xc0;
+    private static final int OFFSET_LONG_LIST = 0xf7;
+
+    /**
+     * At most 10 transaction fields and 3 signature fields.
+     */
+    private static final int MAX_FIELDS = 13;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final byte[][] values = new byte[MAX_FIELDS][];
+    private final int[] starts = new int[MAX_FIELDS];
+    private int size;
+
+    private RlpTransactionEncoder() {
+    }
+
+    /**
+     * Encode an unsigned transaction.
+     *
+     * @param rawTransaction the transaction
+     * @return the RLP encoded bytes
+     */
+    public static byte[] encode(ExtendedRawTransaction rawTransaction) {
+        return encode(rawTransaction, null);
+    }
+
+    /**
+     * Encode a transaction, with the signature fields of the current EncryptType if signed.
+     *
+     * @param rawTransaction the transaction
+     * @param signatureData the signature, or null for the unsigned transaction
+     * @return the RLP encoded bytes
+     */
+    public static byte[] encode(
+        ExtendedRawTransaction rawTransaction,
+        Sign.SignatureData signatureData
+    ) {
+        return encode(rawTransaction, signatureData, EncryptType.encryptType);
+    }
+
+    static byte[] encode(
+        ExtendedRawTransaction rawTransaction,
+        Sign.SignatureData signatureData,
+        int encryptType
+    ) {
+        RlpTransactionEncoder encoder = new RlpTransactionEncoder();
+        encoder.addNumber(rawTransaction.getRandomid());
+        encoder.addNumber(rawTransaction.getGasPrice());
+        encoder.addNumber(rawTransaction.getGasLimit());
+        encoder.addNumber(rawTransaction.getBlockLimit());
+        // an empty to address (contract creation) is an empty string, and an address is kept
+        // with its leading zeros
+        encoder.addHex(rawTransaction.getTo());
+        encoder.addNumber(rawTransaction.getValue());
+        encoder.addHex(rawTransaction.getData());
+        encoder.addNumber(rawTransaction.getFiscoChainId());
+        encoder.addNumber(rawTransaction.getGroupId());
+        encoder.addHex(rawTransaction.getExtraData());
+        if (signatureData != null) {
+            if (encryptType == 1) {
+                encoder.addTrimmed(signatureData.getPub());
+            } else {
+                encoder.add(new byte[]{signatureData.getV()}, 0);
+            }
+            encoder.addTrimmed(signatureData.getR());
+            encoder.addTrimmed(signatureData.getS());
+        }
+        return encoder.toByteArray();
+    }
+
+    private void add(byte[] value, int start) {
+        values[size] = value;
+        starts[size] = start;
+        size++;
+    }
+
+    /**
+     * A non-positive number is an empty string; the sign byte of BigInteger is skipped.
+     */
+    private void addNumber(BigInteger value) {
+        if (value == null || value.signum() < 1) {
+            add(EMPTY, 0);
+            return;
+        }
+        byte[] bytes = value.toByteArray();
+        add(bytes, bytes[0] == 0 ? 1 : 0);
+    }
+
+    private void addHex(String value) {
+        if (value == null || value.isEmpty()) {
+            add(EMPTY, 0);
+        } else {
+            add(Numeric.hexStringToByteArray(value), 0);
+        }
+    }
+
+    private void addTrimmed(byte[] value) {
+        int start = 0;
+        while (start < value.length - 1 && value[start] == 0) {
+            start++;
+        }
+        add(value, start);
+    }
+
+    private byte[] toByteArray() {
+        int payloadLength = 0;
+        for (int i = 0; i < size; i++) {
+            payloadLength += stringLength(values[i], starts[i]);
+        }
+        byte[] out = new byte[prefixLength(payloadLength) + payloadLength];
+        int position = writePrefix(out, 0, payloadLength, OFFSET_SHORT_LIST, OFFSET_LONG_LIST);
+        for (int i = 0; i < size; i++) {
+            position = writeString(out, position, values[i], starts[i]);
+        }
+        return out;
+    }
+
+    private static boolean isSingleByte(byte[] value, int start) {
+        return value.length - start == 1 && (value[start] & 0xff) < OFFSET_SHORT_STRING;
+    }
+
+    private static int stringLength(byte[] value, int start) {
+        int length = value.length - start;
+        return isSingleByte(value, start) ? 1 : prefixLength(length) + length;
+    }
+
+    private static int prefixLength(int length) {
+        return length <= 55 ? 1 : 1 + bytesOfLength(length);
+    }
+
+    private static int bytesOfLength(int length) {
+        int bytes = 0;
+        while (length != 0) {
+            bytes++;
+            length >>>= 8;
+        }
+        return bytes;
+    }
+
+    private static int writeString(byte[] out, int position, byte[] value, int start) {
+        int length = value.length - start;
+        if (isSingleByte(value, start)) {
+            out[position] = value[start];
+            return position + 1;
+        }
+        position = writePrefix(out, position, length, OFFSET_SHORT_STRING, OFFSET_LONG_STRING);
+        System.arraycopy(value, start, out, position, length);
+        return position + length;
+    }
+
+    private static int writePrefix(byte[] out, int position, int length, int shortOffset,
+        int longOffset) {
+        if (length <= 55) {
+            out[position] = (byte) (shortOffset + length);
+            return position + 1;
+        }
+        int bytes = bytesOfLength(length);
+        out[position++] = (byte) (longOffset + bytes);
+        for (int i = bytes - 1; i >= 0; i--) {
+            out[position++] = (byte) (length >>> (8 * i));
+        }
+        return position;
+    }
+}
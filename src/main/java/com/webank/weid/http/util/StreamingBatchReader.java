@@ -0,0 +1,189 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.http.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
+import com.webank.weid.http.protocol.request.InputArg;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a batch request from the request body stream, without holding the whole body in memory.
+ * The request has the usual layout; everything but functionArg.list is read as small trees into
+ * the InputArg, while the list entries are handed out one by one by items(), so the caller can
+ * process them in fixed-size chunks.
+ *
+ * <p>Since the body is read in one pass, functionName, v and transactionArg must come before
+ * functionArg, and list must be the last key of functionArg.
+ */
+public final class StreamingBatchReader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingBatchReader.class);
+
+    private final JsonParser parser;
+
+    private final InputArg inputArg = new InputArg();
+
+    private final ObjectNode functionArgNode = JsonNodeFactory.instance.objectNode();
+
+    private JsonNode txnArgNode;
+
+    private boolean listReached;
+
+    private boolean listExhausted;
+
+    public StreamingBatchReader(InputStream inputStream) throws IOException {
+        this.parser = JsonUtil.createParser(inputStream);
+    }
+
+    /**
+     * Read the request up to the first entry of functionArg.list.
+     *
+     * @return the input argument (functionArg without the list), or the error code
+     * @throws IOException if the body is not well-formed JSON
+     */
+    public HttpResponseData<InputArg> readHeader() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return new HttpResponseData<>(null, HttpReturnCode.INPUT_ILLEGAL);
+        }
+        while (!listReached && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (WeIdentityParamKeyConstant.FUNCTION_ARG.equals(fieldName)
+                && token == JsonToken.START_OBJECT) {
+                readFunctionArg();
+            } else if (WeIdentityParamKeyConstant.TRANSACTION_ARG.equals(fieldName)) {
+                txnArgNode = readValue();
+            } else if (WeIdentityParamKeyConstant.FUNCTION_NAME.equals(fieldName)) {
+                inputArg.setFunctionName(readValue().textValue());
+            } else if (WeIdentityParamKeyConstant.API_VERSION.equals(fieldName)) {
+                inputArg.setV(readValue().textValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (StringUtils.isEmpty(inputArg.getFunctionName())) {
+            logger.error("[readHeader] functionName missing, or not ahead of functionArg.");
+            return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
+        }
+        if (StringUtils.isEmpty(inputArg.getV())) {
+            logger.error("[readHeader] v missing, or not ahead of functionArg.");
+            return new HttpResponseData<>(null, HttpReturnCode.VER_ILLEGAL);
+        }
+        if (txnArgNode == null) {
+            logger.error("[readHeader] transactionArg missing, or not ahead of functionArg.");
+            return new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL);
+        }
+        if (!listReached) {
+            logger.error("[readHeader] functionArg.list missing or not an array.");
+            return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
+        }
+        inputArg.setFunctionArgNode(functionArgNode);
+        inputArg.setTransactionArgNode(txnArgNode);
+        return new HttpResponseData<>(inputArg, HttpReturnCode.SUCCESS);
+    }
+
+    public InputArg getInputArg() {
+        return inputArg;
+    }
+
+    /**
+     * Get the list entries, read lazily from the stream. Only valid after a successful
+     * readHeader(); malformed JSON within the list surfaces as UncheckedIOException.
+     *
+     * @return the entry iterator
+     */
+    public Iterator<JsonNode> items() {
+        return new Iterator<JsonNode>() {
+
+            private JsonNode next;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (!listReached || listExhausted) {
+                    return false;
+                }
+                try {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        listExhausted = true;
+                        return false;
+                    }
+                    next = readValue();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }
+
+            @Override
+            public JsonNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                JsonNode current = next;
+                next = null;
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Read the functionArg keys until the list starts; the parser is left on its START_ARRAY.
+     */
+    private void readFunctionArg() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (WeIdentityParamKeyConstant.LIST.equals(fieldName)
+                && token == JsonToken.START_ARRAY) {
+                listReached = true;
+                return;
+            }
+            functionArgNode.set(fieldName, readValue());
+        }
+    }
+
+    private JsonNode readValue() throws IOException {
+        JsonNode value = parser.readValueAsTree();
+        return value == null ? NullNode.getInstance() : value;
+    }
+}
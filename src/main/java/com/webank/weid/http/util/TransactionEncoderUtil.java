@@ -20,8 +20,6 @@
 package com.webank.weid.http.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.webank.weid.config.FiscoConfig;
 import com.webank.weid.http.constant.HttpReturnCode;
 import com.webank.weid.http.constant.WeIdentityFunctionNames;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
@@ -36,6 +34,7 @@ import com.webank.weid.util.TransactionUtils;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
@@ -57,12 +56,7 @@ public class TransactionEncoderUtil {
     private static Logger logger = LoggerFactory.getLogger(TransactionEncoderUtil.class);
 
     public static boolean isFiscoBcosV1() {
-        FiscoConfig fiscoConfig = new FiscoConfig();
-        fiscoConfig.load();
-        if (fiscoConfig.getVersion().startsWith("1")) {
-            return true;
-        }
-        return false;
+        return ChainMetadataUtil.get().isFiscoBcosV1();
     }
     
     /**
@@ -102,8 +96,7 @@ public class TransactionEncoderUtil {
      */
     public static HttpResponseData<InputArg> buildInputArg(String inputJson) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(inputJson);
+            JsonNode jsonNode = JsonUtil.readTree(inputJson);
             if (jsonNode == null) {
                 logger.error("Null input within: {}", inputJson);
                 return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
@@ -111,30 +104,29 @@ public class TransactionEncoderUtil {
             JsonNode functionNameNode = jsonNode.get(WeIdentityParamKeyConstant.FUNCTION_NAME);
             JsonNode versionNode = jsonNode.get(WeIdentityParamKeyConstant.API_VERSION);
             if (functionNameNode == null || StringUtils.isEmpty(functionNameNode.textValue())) {
-                logger.error("Null input within: {}", jsonNode.toString());
+                logger.error("Null input within: {}", inputJson);
                 return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
             }
             if (versionNode == null || StringUtils.isEmpty(versionNode.textValue())) {
-                logger.error("Null input within: {}", jsonNode.toString());
+                logger.error("Null input within: {}", inputJson);
                 return new HttpResponseData<>(null, HttpReturnCode.VER_ILLEGAL);
             }
-            // Need to use toString() for pure Objects and textValue() for pure String
+            // The arg trees are kept as-is; serializing them only to test for emptiness would
+            // walk the whole (possibly huge) subtree, and toString() is never empty anyway
             JsonNode functionArgNode = jsonNode.get(WeIdentityParamKeyConstant.FUNCTION_ARG);
-            if (functionArgNode == null || StringUtils.isEmpty(functionArgNode.toString())) {
-                logger.error("Null input within: {}", jsonNode.toString());
+            if (functionArgNode == null) {
+                logger.error("Null input within: {}", inputJson);
                 return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
             }
             JsonNode txnArgNode = jsonNode.get(WeIdentityParamKeyConstant.TRANSACTION_ARG);
-            if (txnArgNode == null || StringUtils.isEmpty(txnArgNode.toString())) {
-                logger.error("Null input within: {}", jsonNode.toString());
+            if (txnArgNode == null) {
+                logger.error("Null input within: {}", inputJson);
                 return new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL);
             }
 
-            String functionArg = functionArgNode.toString();
-            String txnArg = txnArgNode.toString();
             InputArg inputArg = new InputArg();
-            inputArg.setFunctionArg(functionArg);
-            inputArg.setTransactionArg(txnArg);
+            inputArg.setFunctionArgNode(functionArgNode);
+            inputArg.setTransactionArgNode(txnArgNode);
             inputArg.setFunctionName(functionNameNode.textValue());
             inputArg.setV(versionNode.textValue());
             return new HttpResponseData<>(inputArg, HttpReturnCode.SUCCESS);
@@ -145,6 +137,49 @@ public class TransactionEncoderUtil {
         }
     }
 
+    /**
+     * Split a batch input argument into one input argument per entry of functionArg.list. Each
+     * entry holds the functionArg and transactionArg of a single call, and shares the
+     * functionName and version of the batch; a missing one is left null for the caller to
+     * report on that entry.
+     *
+     * @param inputArg the batch input argument
+     * @param maxSize the largest batch allowed
+     * @return the entries, or a null body with the error code
+     */
+    public static HttpResponseData<List<InputArg>> splitBatchInputArg(
+        InputArg inputArg,
+        int maxSize
+    ) {
+        JsonNode functionArgNode;
+        try {
+            functionArgNode = inputArg.getFunctionArgNode();
+        } catch (IOException e) {
+            logger.error("Batch input with an illegal functionArg: {}", inputArg.getFunctionName());
+            return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
+        }
+        JsonNode listNode = functionArgNode == null
+            ? null : functionArgNode.get(WeIdentityParamKeyConstant.LIST);
+        if (listNode == null || !listNode.isArray()) {
+            logger.error("Batch input without a list: {}", inputArg.getFunctionName());
+            return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
+        }
+        if (listNode.size() == 0 || listNode.size() > maxSize) {
+            logger.error("Batch size {} is out of (0, {}]", listNode.size(), maxSize);
+            return new HttpResponseData<>(null, HttpReturnCode.BATCH_SIZE_ILLEGAL);
+        }
+        List<InputArg> entries = new ArrayList<>(listNode.size());
+        for (JsonNode entryNode : listNode) {
+            InputArg entry = new InputArg();
+            entry.setFunctionName(inputArg.getFunctionName());
+            entry.setV(inputArg.getV());
+            entry.setFunctionArgNode(entryNode.get(WeIdentityParamKeyConstant.FUNCTION_ARG));
+            entry.setTransactionArgNode(entryNode.get(WeIdentityParamKeyConstant.TRANSACTION_ARG));
+            entries.add(entry);
+        }
+        return new HttpResponseData<>(entries, HttpReturnCode.SUCCESS);
+    }
+
     /**
      * Get a default blocklimit for a transaction.
      *
@@ -1,12 +1,6 @@
 package com.webank.weid.http.util;
 
-import static com.webank.weid.service.impl.CredentialPojoServiceImpl.generateSalt;
-
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.webank.weid.config.FiscoConfig;
-import com.webank.weid.constant.CredentialConstant;
-import com.webank.weid.constant.CredentialConstant.CredentialProofType;
 import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.constant.ParamKeyConstant;
 import com.webank.weid.constant.WeIdConstant;
@@ -15,15 +9,18 @@ import com.webank.weid.http.constant.SignType;
 import com.webank.weid.http.constant.WeIdentityFunctionNames;
 import com.webank.weid.http.constant.WeIdentityParamKeyConstant;
 import com.webank.weid.http.protocol.request.InputArg;
+import com.webank.weid.http.protocol.response.FunctionTemplate;
 import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.http.service.dispatch.FunctionHandler;
+import com.webank.weid.http.service.dispatch.FunctionRegistry;
+import com.webank.weid.http.service.dispatch.FunctionType;
+import com.webank.weid.http.util.AbiFunctionTemplates.AuthorityIssuerCall;
+import com.webank.weid.http.util.AbiFunctionTemplates.CreateWeIdCall;
+import com.webank.weid.http.util.AbiFunctionTemplates.RegisterCptCall;
 import com.webank.weid.protocol.base.CredentialPojo;
-import com.webank.weid.protocol.request.CreateCredentialPojoArgs;
 import com.webank.weid.service.BaseService;
-import com.webank.weid.util.CredentialPojoUtils;
-import com.webank.weid.util.CredentialUtils;
 import com.webank.weid.util.DataToolUtils;
 import com.webank.weid.util.DateUtils;
-import com.webank.weid.util.TransactionUtils;
 import com.webank.weid.util.WeIdUtils;
 import java.io.IOException;
 import java.math.BigInteger;
@@ -31,32 +28,25 @@ import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.abi.FunctionEncoder;
-import org.fisco.bcos.web3j.abi.TypeReference;
-import org.fisco.bcos.web3j.abi.datatypes.Address;
-import org.fisco.bcos.web3j.abi.datatypes.DynamicBytes;
 import org.fisco.bcos.web3j.abi.datatypes.Function;
-import org.fisco.bcos.web3j.abi.datatypes.generated.Bytes32;
-import org.fisco.bcos.web3j.abi.datatypes.generated.Int256;
-import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray128;
-import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray16;
-import org.fisco.bcos.web3j.abi.datatypes.generated.StaticArray8;
-import org.fisco.bcos.web3j.abi.datatypes.generated.Uint8;
+import org.fisco.bcos.web3j.crypto.EncryptType;
 import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
+import org.fisco.bcos.web3j.crypto.Hash;
 import org.fisco.bcos.web3j.crypto.Sign;
 import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
-import org.fisco.bcos.web3j.protocol.Web3j;
-import org.fisco.bcos.web3j.protocol.core.methods.response.NodeVersion;
+import org.fisco.bcos.web3j.crypto.gm.sm3.SM3Digest;
+import org.fisco.bcos.web3j.protocol.core.methods.response.SendTransaction;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.fisco.bcos.web3j.rlp.RlpType;
 import org.fisco.bcos.web3j.utils.Numeric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,46 +55,192 @@ public class TransactionEncoderUtilV2 {
 
     private static Logger logger = LoggerFactory.getLogger(TransactionEncoderUtilV2.class);
 
+    /**
+     * The client-signed contract functions, by name: how to encode the contract call data.
+     */
+    private static final FunctionRegistry<EncodeArg, String> ENCODERS =
+        new FunctionRegistry<EncodeArg, String>()
+            .register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID, JsonNode.class,
+                FunctionType.WRITE, arg -> buildCreateWeIdData(
+                    arg.functionArg, WeIdentityFunctionNames.FUNCNAME_CREATE_WEID))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER, JsonNode.class,
+                FunctionType.WRITE, arg -> buildRegisterAuthorityIssuerData(
+                    arg.functionArg, WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER))
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, JsonNode.class,
+                FunctionType.WRITE, arg -> buildRegisterCptData(
+                    arg.functionArg, WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, arg.signType));
+
+    /**
+     * The client-signed contract functions, by name: which contract the call goes to.
+     */
+    private static final FunctionRegistry<ChainMetadata, String> CONTRACT_ADDRESSES =
+        new FunctionRegistry<ChainMetadata, String>()
+            .register(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID, ChainMetadata.class,
+                FunctionType.READ, ChainMetadata::getWeIdAddress)
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER,
+                ChainMetadata.class, FunctionType.READ, ChainMetadata::getIssuerAddress)
+            .register(WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT, ChainMetadata.class,
+                FunctionType.READ, ChainMetadata::getCptAddress);
+
+    /**
+     * The input of an encoder.
+     */
+    private static final class EncodeArg {
+
+        private final JsonNode functionArg;
+        private final SignType signType;
+
+        private EncodeArg(JsonNode functionArg, SignType signType) {
+            this.functionArg = functionArg;
+            this.signType = signType;
+        }
+    }
+
+    /**
+     * Get the address of the contract a client-signed function is sent to.
+     *
+     * @param functionName the function name, case insensitive
+     * @return the contract address, or null if the function is not a client-signed one
+     */
+    public static String getContractAddress(String functionName) {
+        FunctionHandler<ChainMetadata, String> handler = CONTRACT_ADDRESSES.get(functionName);
+        return handler == null ? null : handler.execute(ChainMetadataUtil.get());
+    }
+
+    /**
+     * Get the ABI layouts of the client-signed contract functions, so that clients can encode
+     * the call data without the encode round trip.
+     *
+     * @param chainMetadata the chain snapshot to take the contract addresses from
+     * @return the function templates
+     */
+    public static List<FunctionTemplate> getFunctionTemplates(ChainMetadata chainMetadata) {
+        List<FunctionTemplate> templates = new ArrayList<>();
+        templates.add(functionTemplate(chainMetadata,
+            WeIdentityFunctionNames.FUNCNAME_CREATE_WEID,
+            AbiFunctionTemplates.CREATE_WEID_PARAMS,
+            "address: the WeID address",
+            "bytes: the public key, \"" + WeIdConstant.SEPARATOR + "\" and the WeID address",
+            "bytes: the creation time in seconds, as a decimal string",
+            "int256: the creation time in seconds"));
+        templates.add(functionTemplate(chainMetadata,
+            WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER,
+            AbiFunctionTemplates.AUTHORITY_ISSUER_PARAMS,
+            "address: the issuer WeID address",
+            "bytes32[16]: the issuer name, left aligned, in the first element",
+            "int256[16]: the creation time in seconds, in the first element",
+            "bytes: \"1\""));
+        templates.add(functionTemplate(chainMetadata,
+            WeIdentityFunctionNames.FUNCNAME_REGISTER_CPT,
+            AbiFunctionTemplates.REGISTER_CPT_PARAMS,
+            "address: the publisher WeID address",
+            "int256[8]: the CPT long attributes (creation time)",
+            "bytes32[8]: all zero",
+            "bytes32[128]: the complemented json schema in UTF-8, 32 bytes per element",
+            "uint8: v of the CPT signature",
+            "bytes32: r of the CPT signature",
+            "bytes32: s of the CPT signature"));
+        return templates;
+    }
+
+    private static FunctionTemplate functionTemplate(
+        ChainMetadata chainMetadata,
+        String functionName,
+        String params,
+        String... inputs
+    ) {
+        String methodName = WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName);
+        FunctionTemplate template = new FunctionTemplate();
+        template.setFunctionName(functionName);
+        template.setSignature(methodName + params);
+        template.setSelector(Numeric.prependHexPrefix(
+            AbiFunctionTemplates.selector(methodName, params)));
+        template.setInputs(Arrays.asList(inputs));
+        template.setContractAddress(CONTRACT_ADDRESSES.get(functionName).execute(chainMetadata));
+        return template;
+    }
+
+    /**
+     * Whether a function is a client-signed one that createEncoder can encode.
+     *
+     * @param functionName the function name, case insensitive
+     * @return true if createEncoder supports it
+     */
+    public static boolean hasEncoder(String functionName) {
+        return ENCODERS.get(functionName) != null;
+    }
+
     public static HttpResponseData<String> createEncoder(
-        FiscoConfig fiscoConfig,
-        String inputParam,
+        JsonNode inputParam,
         String nonce,
         String functionName,
         SignType signType
     ) {
-        Function function;
-        String to;
-        if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_CREATE_WEID)) {
-            to = fiscoConfig.getWeIdAddress();
-            function = buildCreateWeIdFunction(inputParam, functionName);
-        } else if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCNAME_REGISTER_AUTHORITY_ISSUER)) {
-            to = fiscoConfig.getIssuerAddress();
-            function = buildRegisterAuthorityIssuerFunction(inputParam, functionName);
-        } else if (functionName.equalsIgnoreCase(WeIdentityFunctionNames.FUNCCALL_REGISTER_CPT)) {
-            to = fiscoConfig.getCptAddress();
-            function = buildRegisterCptFunction(inputParam, functionName, signType);
-        } else {
+        return createEncoder(inputParam, nonce, functionName, signType,
+            ChainMetadataUtil.get(), getBlocklimitV2());
+    }
+
+    /**
+     * Create the encoded transaction against a given chain snapshot and blockLimit, so that
+     * the transactions of a batch share them.
+     */
+    public static HttpResponseData<String> createEncoder(
+        JsonNode inputParam,
+        String nonce,
+        String functionName,
+        SignType signType,
+        ChainMetadata chainMetadata,
+        BigInteger blockLimit
+    ) {
+        FunctionHandler<EncodeArg, String> encoder = ENCODERS.get(functionName);
+        if (encoder == null) {
             logger.error("Unknown function name: {}", functionName);
             return new HttpResponseData<>(StringUtils.EMPTY, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
         }
-        if (function == null) {
+        FunctionHandler<ChainMetadata, String> address = CONTRACT_ADDRESSES.get(functionName);
+        String to = address == null ? null : address.execute(chainMetadata);
+        String data = encoder.execute(new EncodeArg(inputParam, signType));
+        if (data == null) {
             logger.error("Error occurred when building input param with: {} on function name: {}",
                 inputParam, functionName);
             return new HttpResponseData<>(StringUtils.EMPTY, HttpReturnCode.INPUT_ILLEGAL);
         }
-        String encodeResult = createClientEncodeResult(function, nonce, to, fiscoConfig.getGroupId());
+        String encodeResult = createClientEncodeResult(data, nonce, to, chainMetadata.getGroupId(),
+            chainMetadata.getChainId(), blockLimit);
         return new HttpResponseData<>(encodeResult, HttpReturnCode.SUCCESS);
     }
 
     public static Function buildCreateWeIdFunction(String inputParam, String functionName) {
-        ObjectMapper objectMapper = new ObjectMapper();
         JsonNode inputParamNode;
         try {
-            inputParamNode = objectMapper.readTree(inputParam);
+            inputParamNode = JsonUtil.readTree(inputParam);
         } catch (Exception e) {
             logger.error("Failed to decode JsonInput");
             return null;
         }
+        return buildCreateWeIdFunction(inputParamNode, functionName);
+    }
+
+    public static Function buildCreateWeIdFunction(JsonNode inputParamNode, String functionName) {
+        CreateWeIdCall call = parseCreateWeId(inputParamNode);
+        return call == null ? null
+            : call.toFunction(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    /**
+     * Encode the createWeId call data through its template, same as FunctionEncoder would
+     * encode buildCreateWeIdFunction.
+     */
+    public static String buildCreateWeIdData(JsonNode inputParamNode, String functionName) {
+        CreateWeIdCall call = parseCreateWeId(inputParamNode);
+        return call == null ? null
+            : call.encode(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    private static CreateWeIdCall parseCreateWeId(JsonNode inputParamNode) {
+        if (inputParamNode == null) {
+            return null;
+        }
         JsonNode publicKeyNode = inputParamNode.get(ParamKeyConstant.PUBLIC_KEY);
         if (publicKeyNode == null) {
             return null;
@@ -125,26 +261,50 @@ public class TransactionEncoderUtilV2 {
             .append(WeIdConstant.SEPARATOR)
             .append(addr)
             .toString();
-        return new Function(
-            WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName),
-            Arrays.<org.fisco.bcos.web3j.abi.datatypes.Type>asList(
-                new Address(addr),
-                new DynamicBytes(DataToolUtils.stringToByteArray(auth)),
-                new DynamicBytes(DataToolUtils.stringToByteArray(DateUtils.getNoMillisecondTimeStampString())),
-                new Int256(BigInteger.valueOf(DateUtils.getNoMillisecondTimeStamp()))
-            ),
-            Collections.<TypeReference<?>>emptyList());
+        return new CreateWeIdCall(
+            addr,
+            DataToolUtils.stringToByteArray(auth),
+            DataToolUtils.stringToByteArray(DateUtils.getNoMillisecondTimeStampString()),
+            BigInteger.valueOf(DateUtils.getNoMillisecondTimeStamp()));
     }
 
     public static Function buildRegisterAuthorityIssuerFunction(String inputParam, String functionName) {
-        ObjectMapper objectMapper = new ObjectMapper();
         JsonNode inputParamNode;
         try {
-            inputParamNode = objectMapper.readTree(inputParam);
+            inputParamNode = JsonUtil.readTree(inputParam);
         } catch (Exception e) {
             logger.error("Failed to decode JsonInput");
             return null;
         }
+        return buildRegisterAuthorityIssuerFunction(inputParamNode, functionName);
+    }
+
+    public static Function buildRegisterAuthorityIssuerFunction(
+        JsonNode inputParamNode,
+        String functionName
+    ) {
+        AuthorityIssuerCall call = parseRegisterAuthorityIssuer(inputParamNode);
+        return call == null ? null
+            : call.toFunction(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    /**
+     * Encode the addAuthorityIssuer call data through its template, same as FunctionEncoder
+     * would encode buildRegisterAuthorityIssuerFunction.
+     */
+    public static String buildRegisterAuthorityIssuerData(
+        JsonNode inputParamNode,
+        String functionName
+    ) {
+        AuthorityIssuerCall call = parseRegisterAuthorityIssuer(inputParamNode);
+        return call == null ? null
+            : call.encode(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    private static AuthorityIssuerCall parseRegisterAuthorityIssuer(JsonNode inputParamNode) {
+        if (inputParamNode == null) {
+            return null;
+        }
         JsonNode weIdNode = inputParamNode.get(ParamKeyConstant.WEID);
         JsonNode nameNode = inputParamNode.get(ParamKeyConstant.AUTHORITY_ISSUER_NAME);
         if (weIdNode == null || nameNode == null) {
@@ -161,32 +321,12 @@ public class TransactionEncoderUtilV2 {
             return null;
         }
         String weAddress = WeIdUtils.convertWeIdToAddress(weId);
-        List<byte[]> stringAttributes = new ArrayList<byte[]>();
-        stringAttributes.add(name.getBytes());
-        List<BigInteger> longAttributes = new ArrayList<>();
-        Long createDate = DateUtils.getNoMillisecondTimeStamp();
-        longAttributes.add(BigInteger.valueOf(createDate));
         String accValue = "1";
-        return new Function(
-            WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName),
-            Arrays.<org.fisco.bcos.web3j.abi.datatypes.Type>asList(
-                new Address(weAddress),
-                new StaticArray16<Bytes32>(
-                    org.fisco.bcos.web3j.abi.Utils.typeMap(
-                        DataToolUtils.bytesArrayListToBytes32ArrayList(
-                            stringAttributes,
-                            WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
-                        ), Bytes32.class)),
-                new StaticArray16<Int256>(
-                    org.fisco.bcos.web3j.abi.Utils.typeMap(
-                        DataToolUtils.listToListBigInteger(
-                            longAttributes,
-                            WeIdConstant.AUTHORITY_ISSUER_ARRAY_LEGNTH
-                        ),
-                        Int256.class)),
-                new DynamicBytes(accValue.getBytes(StandardCharsets.UTF_8))
-            ),
-            Collections.<TypeReference<?>>emptyList());
+        return new AuthorityIssuerCall(
+            weAddress,
+            name.getBytes(),
+            DateUtils.getNoMillisecondTimeStamp(),
+            accValue.getBytes(StandardCharsets.UTF_8));
     }
 
     public static Function buildRegisterCptFunction(
@@ -194,14 +334,44 @@ public class TransactionEncoderUtilV2 {
         String functionName, 
         SignType signType
     ) {
-        ObjectMapper objectMapper = new ObjectMapper();
         JsonNode inputParamNode;
         try {
-            inputParamNode = objectMapper.readTree(inputParam);
+            inputParamNode = JsonUtil.readTree(inputParam);
         } catch (Exception e) {
             logger.error("Failed to decode JsonInput");
             return null;
         }
+        return buildRegisterCptFunction(inputParamNode, functionName, signType);
+    }
+
+    public static Function buildRegisterCptFunction(
+        JsonNode inputParamNode,
+        String functionName,
+        SignType signType
+    ) {
+        RegisterCptCall call = parseRegisterCpt(inputParamNode, signType);
+        return call == null ? null
+            : call.toFunction(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    /**
+     * Encode the registerCpt call data through its template, same as FunctionEncoder would
+     * encode buildRegisterCptFunction.
+     */
+    public static String buildRegisterCptData(
+        JsonNode inputParamNode,
+        String functionName,
+        SignType signType
+    ) {
+        RegisterCptCall call = parseRegisterCpt(inputParamNode, signType);
+        return call == null ? null
+            : call.encode(WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName));
+    }
+
+    private static RegisterCptCall parseRegisterCpt(JsonNode inputParamNode, SignType signType) {
+        if (inputParamNode == null) {
+            return null;
+        }
         JsonNode weIdNode = inputParamNode.get(ParamKeyConstant.WEID);
         JsonNode cptJsonSchemaNode = inputParamNode.get(ParamKeyConstant.CPT_JSON_SCHEMA);
         JsonNode cptSignatureNode = inputParamNode.get(ParamKeyConstant.CPT_SIGNATURE);
@@ -216,15 +386,11 @@ public class TransactionEncoderUtilV2 {
         }
 
         String cptJsonSchema = cptJsonSchemaNode.toString();
-        String cptJsonSchemaNew = TransactionUtils.complementCptJsonSchema(cptJsonSchema);
-        try {
-            if (StringUtils.isEmpty(cptJsonSchemaNew)
-                || !DataToolUtils.isCptJsonSchemaValid(cptJsonSchemaNew)) {
-                logger.error("Input cpt json schema : {} is invalid.", cptJsonSchemaNew);
-                return null;
-            }
-        } catch (Exception e) {
-            logger.error("Input cpt json schema : {} is invalid.", cptJsonSchemaNew);
+        CptCache cptCache = CptCache.getInstance();
+        String cptJsonSchemaNew = cptCache == null
+            ? CptCache.complementAndValidate(cptJsonSchema)
+            : cptCache.complementCptJsonSchema(cptJsonSchema);
+        if (cptJsonSchemaNew == null) {
             return null;
         }
         String cptSignature = cptSignatureNode.textValue();
@@ -241,34 +407,14 @@ public class TransactionEncoderUtilV2 {
             return null;
         }
         String weAddress = WeIdUtils.convertWeIdToAddress(weId);
-        List<byte[]> byteArray = new ArrayList<>();
-        return new Function(
-            WeIdentityFunctionNames.FUNCNAME_CALL_MAP_V2.get(functionName),
-            Arrays.<org.fisco.bcos.web3j.abi.datatypes.Type>asList(
-                new Address(weAddress),
-                new StaticArray8<Int256>(
-                    org.fisco.bcos.web3j.abi.Utils.typeMap(
-                        DataToolUtils.listToListBigInteger(
-                            DataToolUtils.getParamCreatedList(WeIdConstant.CPT_LONG_ARRAY_LENGTH),
-                            WeIdConstant.CPT_LONG_ARRAY_LENGTH
-                        ), Int256.class)),
-                new StaticArray8<Bytes32>(
-                    org.fisco.bcos.web3j.abi.Utils.typeMap(
-                        DataToolUtils.bytesArrayListToBytes32ArrayList(
-                            byteArray,
-                            WeIdConstant.CPT_STRING_ARRAY_LENGTH
-                        ), Bytes32.class)),
-                new StaticArray128<Bytes32>(
-                    org.fisco.bcos.web3j.abi.Utils.typeMap(
-                        DataToolUtils.stringToByte32ArrayList(
-                            cptJsonSchemaNew,
-                            WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH
-                        ), Bytes32.class)),
-                new Uint8((long) Integer.valueOf(signatureData.getV())),
-                new Bytes32(signatureData.getR()),
-                new Bytes32(signatureData.getS())
+        return new RegisterCptCall(
+            weAddress,
+            DataToolUtils.listToListBigInteger(
+                DataToolUtils.getParamCreatedList(WeIdConstant.CPT_LONG_ARRAY_LENGTH),
+                WeIdConstant.CPT_LONG_ARRAY_LENGTH
             ),
-            Collections.<TypeReference<?>>emptyList());
+            cptJsonSchemaNew,
+            signatureData);
     }
 
     public static String createTxnHex(
@@ -281,10 +427,8 @@ public class TransactionEncoderUtilV2 {
     ) {
         SignatureData sigData = TransactionEncoderUtilV2
             .simpleSignatureDeserialization(DataToolUtils.base64Decode(encodedSig.getBytes()), signType);
-        FiscoConfig fiscoConfig = new FiscoConfig();
-        fiscoConfig.load();
         ExtendedRawTransaction rawTransaction = TransactionEncoderUtilV2.buildRawTransaction(nonce,
-            fiscoConfig.getGroupId(), data, to, new BigInteger(blockLimit));
+            ChainMetadataUtil.get().getGroupId(), data, to, new BigInteger(blockLimit));
         byte[] encodedSignedTxn = TransactionEncoderUtilV2.encode(rawTransaction, sigData);
         return Numeric.toHexString(encodedSignedTxn);
     }
@@ -296,10 +440,21 @@ public class TransactionEncoderUtilV2 {
     }
     
     public static String createClientEncodeResult(String functionEncode, String nonce, String to, String groupId) {
-        BigInteger blockLimit = getBlocklimitV2();
+        return createClientEncodeResult(functionEncode, nonce, to, groupId, getChainIdV2(),
+            getBlocklimitV2());
+    }
+
+    public static String createClientEncodeResult(
+        String functionEncode,
+        String nonce,
+        String to,
+        String groupId,
+        BigInteger chainId,
+        BigInteger blockLimit
+    ) {
         // 2. server generate encodedTransaction
         ExtendedRawTransaction rawTransaction = TransactionEncoderUtilV2.buildRawTransaction(nonce,
-            groupId, functionEncode, to, blockLimit);
+            groupId, functionEncode, to, blockLimit, chainId);
         byte[] encodedTransaction = TransactionEncoderUtilV2.encode(rawTransaction);
         // 3. server sends encodeTransaction (in base64) and data back to client
         return TransactionEncoderUtil.getEncodeOutput(encodedTransaction, functionEncode, blockLimit);
@@ -317,11 +472,13 @@ public class TransactionEncoderUtilV2 {
 
     public static byte[] encode(
         ExtendedRawTransaction rawTransaction, Sign.SignatureData signatureData) {
-        List<RlpType> values = asRlpValues(rawTransaction, signatureData);
-        org.fisco.bcos.web3j.rlp.RlpList rlpList = new org.fisco.bcos.web3j.rlp.RlpList(values);
-        return org.fisco.bcos.web3j.rlp.RlpEncoder.encode(rlpList);
+        return RlpTransactionEncoder.encode(rawTransaction, signatureData);
     }
 
+    /**
+     * The RLP fields of a transaction as web3j RlpStrings. No longer used for encoding (see
+     * RlpTransactionEncoder), kept as the reference the encoder is tested against.
+     */
     static List<org.fisco.bcos.web3j.rlp.RlpType> asRlpValues(
         ExtendedRawTransaction rawTransaction, Sign.SignatureData signatureData) {
         List<org.fisco.bcos.web3j.rlp.RlpType> result = new ArrayList<>();
@@ -373,6 +530,17 @@ public class TransactionEncoderUtilV2 {
     }
 
     public static ExtendedRawTransaction buildRawTransaction(String nonce, String groupId, String data, String to, BigInteger blockLimit) {
+        return buildRawTransaction(nonce, groupId, data, to, blockLimit, getChainIdV2());
+    }
+
+    public static ExtendedRawTransaction buildRawTransaction(
+        String nonce,
+        String groupId,
+        String data,
+        String to,
+        BigInteger blockLimit,
+        BigInteger chainId
+    ) {
         ExtendedRawTransaction rawTransaction =
             ExtendedRawTransaction.createTransaction(
                 new BigInteger(nonce),
@@ -382,7 +550,7 @@ public class TransactionEncoderUtilV2 {
                 to, // to address
                 BigInteger.ZERO, // value to transfer
                 data,
-                getChainIdV2(), // chainId
+                chainId, // chainId
                 new BigInteger(groupId), // groupId
                 null);
         return rawTransaction;
@@ -445,19 +613,13 @@ public class TransactionEncoderUtilV2 {
     }
 
     /**
-     * Get the chainId for FISCO-BCOS v2.x chainId. Consumed by Restful API service.
+     * Get the chainId for FISCO-BCOS v2.x chainId. Consumed by Restful API service. This is
+     * served from the chain metadata snapshot, not fetched from the node on each call.
      *
      * @return chainId in BigInt.
      */
     public static BigInteger getChainIdV2() {
-        try {
-            NodeVersion.Version nodeVersion = ((org.fisco.bcos.web3j.protocol.Web3j) BaseService
-                .getWeb3j()).getNodeVersion().send().getNodeVersion();
-            String chainId = nodeVersion.getChainID();
-            return new BigInteger(chainId);
-        } catch (Exception e) {
-            return BigInteger.ONE;
-        }
+        return ChainMetadataUtil.get().getChainId();
     }
 
     /**
@@ -474,22 +636,87 @@ public class TransactionEncoderUtilV2 {
         }
     }
 
+    /**
+     * Get the hash of a signed transaction, the same one the chain reports for it: SM3 on a
+     * guomi chain, keccak256 otherwise.
+     *
+     * @param txnHex the signed transaction hex
+     * @return the transaction hash
+     */
+    public static String getTransactionHash(String txnHex) {
+        return Numeric.toHexString(hash(Numeric.hexStringToByteArray(txnHex)));
+    }
+
+    /**
+     * Hash with the chain's hash function: SM3 on a guomi chain, keccak256 otherwise.
+     *
+     * @param input the bytes to hash
+     * @return the hash
+     */
+    public static byte[] hash(byte[] input) {
+        return EncryptType.encryptType == 1 ? new SM3Digest().hash(input) : Hash.sha3(input);
+    }
+
+    /**
+     * Send a signed transaction to the chain, without waiting for its receipt.
+     *
+     * @param txnHex the signed transaction hex
+     * @return the transaction hash
+     * @throws IOException if the node cannot be reached or rejects the transaction
+     */
+    public static String sendRawTransaction(String txnHex) throws IOException {
+        SendTransaction response =
+            NodeRouter.route(web3j -> web3j.sendRawTransaction(txnHex).send());
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        return response.getTransactionHash();
+    }
+
+    /**
+     * Send a signed transaction to the chain without blocking on the node's reply.
+     *
+     * @param txnHex the signed transaction hex
+     * @return the future transaction hash, failing with an IOException if the node rejects it
+     */
+    public static CompletableFuture<String> sendRawTransactionAsync(String txnHex) {
+        return NodeRouter.routeAsync(web3j -> web3j.sendRawTransaction(txnHex).sendAsync())
+            .thenApply(response -> {
+                if (response.hasError()) {
+                    throw new CompletionException(
+                        new IOException(response.getError().getMessage()));
+                }
+                return response.getTransactionHash();
+            });
+    }
+
+    /**
+     * Get the receipt of a sent transaction, without blocking: the shared receipt tracker
+     * completes the future once the transaction is on chain.
+     *
+     * @param transactionHash the transaction hash
+     * @return the future receipt, which fails with a TimeoutException if none is found in time
+     */
+    public static CompletableFuture<TransactionReceipt> getTransactionReceiptAsync(
+        String transactionHash) {
+        return TransactionReceiptTracker.getInstance().track(transactionHash);
+    }
+
+    /**
+     * Get the receipt of a sent transaction, waiting for it on the shared receipt tracker.
+     *
+     * @param transactionHash the transaction hash
+     * @return the receipt, or empty if it is not found in time
+     */
     public static Optional<TransactionReceipt> getTransactionReceiptRequest(String transactionHash) {
-        Optional<TransactionReceipt> receiptOptional = Optional.empty();
-        Web3j web3j = (Web3j) BaseService.getWeb3j();
         try {
-            for (int i = 0; i < 5; i++) {
-                receiptOptional = web3j.getTransactionReceipt(transactionHash).send().getTransactionReceipt();
-                if (!receiptOptional.isPresent()) {
-                    Thread.sleep(1000);
-                } else {
-                    return receiptOptional;
-                }
-            }
-        } catch (IOException | InterruptedException e) {
-            System.out.println();
+            return Optional.of(getTransactionReceiptAsync(transactionHash).get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Failed to get the receipt of {}.", transactionHash, e.getCause());
         }
-        return receiptOptional;
+        return Optional.empty();
     }
 
     /**
@@ -506,8 +733,7 @@ public class TransactionEncoderUtilV2 {
             JsonNode claimNode;
             // build createCredentialPojoArgs
             try {
-                JsonNode functionArgNode = new ObjectMapper()
-                    .readTree(createCredentialPojoFuncArgs.getFunctionArg());
+                JsonNode functionArgNode = createCredentialPojoFuncArgs.getFunctionArgNode();
                 cptIdNode = functionArgNode.get(ParamKeyConstant.CPT_ID);
                 issuerNode = functionArgNode.get(ParamKeyConstant.ISSUER);
                 expirationDateNode = functionArgNode.get(ParamKeyConstant.EXPIRATION_DATE);
@@ -537,70 +763,22 @@ public class TransactionEncoderUtilV2 {
                     ErrorCode.CREDENTIAL_EXPIRE_DATE_ILLEGAL.getCode(),
                     ErrorCode.CREDENTIAL_EXPIRE_DATE_ILLEGAL.getCodeDesc());
             }
-            CreateCredentialPojoArgs args = new CreateCredentialPojoArgs();
-            args.setExpirationDate(expirationDate);
-            args.setCptId(cptId);
-            args.setIssuer(issuerNode.textValue());
-            Map<String, Object> claimMap;
+            HashMap<String, Object> claim;
             try {
-                claimMap = (HashMap<String, Object>) JsonUtil
-                    .jsonStrToObj(new HashMap<String, Object>(), claimNode.toString());
+                claim = CredentialPojoBuilder.toClaim(claimNode);
             } catch (Exception e) {
                 return new HttpResponseData<>(null,
                     ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL.getCode(),
                     ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL.getCodeDesc());
             }
-            args.setClaim(claimMap);
-
-            // Create CredentialPojo
-            CredentialPojo result = new CredentialPojo();
-            String context = CredentialUtils.getDefaultCredentialContext();
-            result.setContext(context);
-            if (StringUtils.isBlank(args.getId())) {
-                result.setId(UUID.randomUUID().toString());
-            } else {
-                result.setId(args.getId());
-            }
-            result.setCptId(args.getCptId());
-            result.setIssuanceDate(DateUtils.getNoMillisecondTimeStamp());
-            result.setIssuer(args.getIssuer());
-            Long newExpirationDate =
-                DateUtils.convertToNoMillisecondTimeStamp(args.getExpirationDate());
+            Long newExpirationDate = DateUtils.convertToNoMillisecondTimeStamp(expirationDate);
             if (newExpirationDate == null) {
                 logger.error("Create Credential Args illegal.");
                 return new HttpResponseData<>(null, ErrorCode.CREDENTIAL_EXPIRE_DATE_ILLEGAL.getCode(),
                     ErrorCode.CREDENTIAL_EXPIRE_DATE_ILLEGAL.getCodeDesc());
-            } else {
-                result.setExpirationDate(newExpirationDate);
-            }
-            result.addType(CredentialConstant.DEFAULT_CREDENTIAL_TYPE);
-            result.addType(CredentialConstant.SELECTIVE_CREDENTIAL_TYPE);
-            Object claimObject = args.getClaim();
-            String claimStr;
-            if (!(claimObject instanceof String)) {
-                claimStr = DataToolUtils.serialize(claimObject);
-            } else {
-                claimStr = (String) claimObject;
             }
-
-            HashMap<String, Object> claimMapNew = DataToolUtils.deserialize(claimStr, HashMap.class);
-            result.setClaim(claimMapNew);
-
-            Map<String, Object> saltMap = DataToolUtils.clone(claimMapNew);
-            generateSalt(saltMap, null);
-            String rawData = CredentialPojoUtils
-                .getCredentialThumbprintWithoutSig(result, saltMap, null);
-            System.out.println(rawData);
-            result.putProofValue(ParamKeyConstant.PROOF_CREATED, result.getIssuanceDate());
-
-            String weIdPublicKeyId = issuerNode.textValue() + "#keys-0";
-            result.putProofValue(ParamKeyConstant.PROOF_CREATOR, weIdPublicKeyId);
-
-            String proofType = CredentialProofType.ECDSA.getTypeName();
-            result.putProofValue(ParamKeyConstant.PROOF_TYPE, proofType);
-            result.putProofValue(ParamKeyConstant.PROOF_SIGNATURE,
-                new String(DataToolUtils.base64Encode(rawData.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
-            result.setSalt(saltMap);
+            CredentialPojo result = CredentialPojoBuilder.build(
+                cptId, issuerNode.textValue(), newExpirationDate, claim);
             Map<String, Object> credMap = JsonUtil.objToMap(result);
             return new HttpResponseData<>(credMap, HttpReturnCode.SUCCESS);
         } catch (Exception e) {
@@ -617,47 +795,6 @@ public class TransactionEncoderUtilV2 {
      * @return An InputArg instance
      */
     public static HttpResponseData<InputArg> buildInputArg(String inputJson) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(inputJson);
-            if (jsonNode == null) {
-                logger.error("Null input within: {}", inputJson);
-                return new HttpResponseData<>(null, HttpReturnCode.INPUT_NULL);
-            }
-            JsonNode functionNameNode = jsonNode.get(WeIdentityParamKeyConstant.FUNCTION_NAME);
-            JsonNode versionNode = jsonNode.get(WeIdentityParamKeyConstant.API_VERSION);
-            if (functionNameNode == null || StringUtils.isEmpty(functionNameNode.textValue())) {
-                logger.error("Null input within: {}", jsonNode.toString());
-                return new HttpResponseData<>(null, HttpReturnCode.FUNCTION_NAME_ILLEGAL);
-            }
-            if (versionNode == null || StringUtils.isEmpty(versionNode.textValue())) {
-                logger.error("Null input within: {}", jsonNode.toString());
-                return new HttpResponseData<>(null, HttpReturnCode.VER_ILLEGAL);
-            }
-            // Need to use toString() for pure Objects and textValue() for pure String
-            JsonNode functionArgNode = jsonNode.get(WeIdentityParamKeyConstant.FUNCTION_ARG);
-            if (functionArgNode == null || StringUtils.isEmpty(functionArgNode.toString())) {
-                logger.error("Null input within: {}", jsonNode.toString());
-                return new HttpResponseData<>(null, HttpReturnCode.FUNCARG_ILLEGAL);
-            }
-            JsonNode txnArgNode = jsonNode.get(WeIdentityParamKeyConstant.TRANSACTION_ARG);
-            if (txnArgNode == null || StringUtils.isEmpty(txnArgNode.toString())) {
-                logger.error("Null input within: {}", jsonNode.toString());
-                return new HttpResponseData<>(null, HttpReturnCode.TXNARG_ILLEGAL);
-            }
-
-            String functionArg = functionArgNode.toString();
-            String txnArg = txnArgNode.toString();
-            InputArg inputArg = new InputArg();
-            inputArg.setFunctionArg(functionArg);
-            inputArg.setTransactionArg(txnArg);
-            inputArg.setFunctionName(functionNameNode.textValue());
-            inputArg.setV(versionNode.textValue());
-            return new HttpResponseData<>(inputArg, HttpReturnCode.SUCCESS);
-        } catch (Exception e) {
-            logger.error("Json Extraction error within: {}", inputJson);
-            return new HttpResponseData<>(null, HttpReturnCode.UNKNOWN_ERROR.getCode(),
-                HttpReturnCode.UNKNOWN_ERROR.getCodeDesc().concat(e.getMessage()));
-        }
+        return TransactionEncoderUtil.buildInputArg(inputJson);
     }
 }
@@ -0,0 +1,336 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.service.BaseService;
+
+/**
+ * Tracks the receipts of sent transactions. All pending transaction hashes share one timer
+ * thread: each time the chain reaches a new block, the transaction hashes of the new blocks are
+ * read, one call per block, and only the receipts of the pending hashes found in them are
+ * fetched (asynchronously), so the calls per block do not grow with the pending hashes. The
+ * hashes of the last blocks read are kept, and a newly tracked hash is checked on the next
+ * tick, against those and with one receipt fetch, without waiting for the next block. If more
+ * blocks passed than are read in one round, the receipts of all pending hashes are fetched.
+ */
+public class TransactionReceiptTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionReceiptTracker.class);
+
+    /**
+     * How often the block number is checked, in milliseconds.
+     */
+    private static final long TICK_MILLIS = Math.max(10L, Long.parseLong(
+        PropertiesUtil.getProperty("receipt.tracker.tick.millis", "100")));
+
+    /**
+     * How long a transaction is tracked before its future times out, in milliseconds.
+     */
+    private static final long TIMEOUT_MILLIS = Math.max(1L, Long.parseLong(
+        PropertiesUtil.getProperty("receipt.tracker.timeout.seconds", "30"))) * 1000L;
+
+    /**
+     * The most new blocks read in one round, and the blocks whose hashes are kept.
+     */
+    private static final int SCAN_BLOCKS = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("receipt.tracker.scan.blocks", "16")));
+
+    private static volatile TransactionReceiptTracker instance;
+
+    private final Supplier<BigInteger> blockNumber;
+    private final Function<BigInteger, List<String>> blockTransactions;
+    private final Function<String, CompletableFuture<Optional<TransactionReceipt>>> fetcher;
+    private final long timeoutMillis;
+    private final int scanBlocks;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<BigInteger, Set<String>> recentBlocks = new LinkedHashMap<>();
+    private BigInteger lastBlock;
+    private ScheduledExecutorService timer;
+
+    TransactionReceiptTracker(
+        Supplier<BigInteger> blockNumber,
+        Function<BigInteger, List<String>> blockTransactions,
+        Function<String, CompletableFuture<Optional<TransactionReceipt>>> fetcher,
+        long timeoutMillis,
+        int scanBlocks
+    ) {
+        this.blockNumber = blockNumber;
+        this.blockTransactions = blockTransactions;
+        this.fetcher = fetcher;
+        this.timeoutMillis = timeoutMillis;
+        this.scanBlocks = scanBlocks;
+    }
+
+    /**
+     * Get the shared tracker, backed by the SDK web3j, starting it on first use.
+     *
+     * @return the tracker
+     */
+    public static TransactionReceiptTracker getInstance() {
+        TransactionReceiptTracker tracker = instance;
+        if (tracker == null) {
+            synchronized (TransactionReceiptTracker.class) {
+                tracker = instance;
+                if (tracker == null) {
+                    tracker = new TransactionReceiptTracker(
+                        TransactionReceiptTracker::currentBlock,
+                        TransactionReceiptTracker::readBlockTransactions,
+                        TransactionReceiptTracker::fetchReceipt,
+                        TIMEOUT_MILLIS,
+                        SCAN_BLOCKS);
+                    tracker.start(TICK_MILLIS);
+                    instance = tracker;
+                }
+            }
+        }
+        return tracker;
+    }
+
+    /**
+     * Track a transaction. The future completes with the receipt once the transaction is on
+     * chain, or exceptionally with a TimeoutException if it is not found in time.
+     *
+     * @param transactionHash the transaction hash
+     * @return the future receipt
+     */
+    public CompletableFuture<TransactionReceipt> track(String transactionHash) {
+        Pending entry = pending.computeIfAbsent(transactionHash,
+            hash -> new Pending(System.currentTimeMillis() + timeoutMillis));
+        return entry.future;
+    }
+
+    /**
+     * The number of transactions waiting for a receipt.
+     *
+     * @return the count
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    synchronized void start(long tickMillis) {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "receipt-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                logger.error("[tick] failed to check the pending receipts.", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One round: expire the timed out transactions, read the blocks the chain moved on by, then
+     * fetch the receipts of the newly tracked transactions and of those found in a block.
+     */
+    void tick() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Pending> entry = iterator.next();
+            Pending value = entry.getValue();
+            if (value.future.isDone()) {
+                iterator.remove();
+            } else if (now > value.deadline) {
+                iterator.remove();
+                value.future.completeExceptionally(new TimeoutException(
+                    "No receipt found for transaction: " + entry.getKey()));
+            }
+        }
+        // the deadlines are checked first, so that they still apply while the node is down
+        boolean fetchAll = false;
+        try {
+            BigInteger block = blockNumber.get();
+            if (block != null) {
+                fetchAll = scan(block);
+            }
+        } catch (RuntimeException e) {
+            logger.error("[tick] failed to get the block number, treated as no new block.", e);
+        }
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            Pending value = entry.getValue();
+            boolean due = fetchAll || !value.checked || isInRecentBlock(entry.getKey());
+            if (due && value.inFlight.compareAndSet(false, true)) {
+                value.checked = true;
+                fetch(entry.getKey(), value);
+            }
+        }
+    }
+
+    /**
+     * Read the transaction hashes of the blocks after the last one read, up to the given one.
+     * A block which cannot be read is tried again on the next round.
+     *
+     * @param block the current block number
+     * @return true if the blocks cannot be read (the first block seen, or too many new ones),
+     *     so that all pending receipts have to be fetched
+     */
+    private boolean scan(BigInteger block) {
+        if (lastBlock == null || block.subtract(lastBlock).compareTo(
+            BigInteger.valueOf(scanBlocks)) > 0) {
+            lastBlock = block;
+            recentBlocks.clear();
+            return true;
+        }
+        while (lastBlock.compareTo(block) < 0) {
+            BigInteger next = lastBlock.add(BigInteger.ONE);
+            List<String> hashes;
+            try {
+                hashes = blockTransactions.apply(next);
+            } catch (RuntimeException e) {
+                logger.error("[scan] failed to read block {}, retrying on the next round.",
+                    next, e);
+                break;
+            }
+            Set<String> included = new HashSet<>();
+            for (String hash : hashes) {
+                included.add(hash.toLowerCase(Locale.ROOT));
+            }
+            recentBlocks.put(next, included);
+            if (recentBlocks.size() > scanBlocks) {
+                Iterator<BigInteger> oldest = recentBlocks.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            lastBlock = next;
+        }
+        return false;
+    }
+
+    private boolean isInRecentBlock(String transactionHash) {
+        String hash = transactionHash.toLowerCase(Locale.ROOT);
+        for (Set<String> included : recentBlocks.values()) {
+            if (included.contains(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void fetch(String transactionHash, Pending value) {
+        CompletableFuture<Optional<TransactionReceipt>> receipt;
+        try {
+            receipt = fetcher.apply(transactionHash);
+        } catch (Exception e) {
+            logger.error("[fetch] failed to request the receipt of {}.", transactionHash, e);
+            value.inFlight.set(false);
+            return;
+        }
+        receipt.whenComplete((result, e) -> {
+            value.inFlight.set(false);
+            if (e != null) {
+                logger.error("[fetch] failed to get the receipt of {}.", transactionHash, e);
+            } else if (result != null && result.isPresent()) {
+                pending.remove(transactionHash, value);
+                value.future.complete(result.get());
+            }
+        });
+    }
+
+    private static BigInteger currentBlock() {
+        Web3j web3j = (Web3j) BaseService.getWeb3j();
+        // updated by the node's block notifications, so this is normally not a remote call
+        BigInteger block = web3j.getBlockNumberCache();
+        if (block != null) {
+            return block;
+        }
+        try {
+            return web3j.getBlockNumber().send().getBlockNumber();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> readBlockTransactions(BigInteger number) {
+        BcosBlock response;
+        try {
+            response = NodeRouter.route(web3j ->
+                web3j.getBlockByNumber(DefaultBlockParameter.valueOf(number), false).send());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (response.hasError() || response.getBlock() == null) {
+            throw new IllegalStateException(response.hasError()
+                ? response.getError().getMessage() : "block not found: " + number);
+        }
+        List<String> hashes = new ArrayList<>();
+        // without full transactions, each result is the transaction hash
+        for (BcosBlock.TransactionResult transaction : response.getBlock().getTransactions()) {
+            hashes.add(String.valueOf(transaction.get()));
+        }
+        return hashes;
+    }
+
+    private static CompletableFuture<Optional<TransactionReceipt>> fetchReceipt(String hash) {
+        return NodeRouter.routeAsync(web3j -> web3j.getTransactionReceipt(hash).sendAsync())
+            .thenApply(response -> response.getTransactionReceipt());
+    }
+
+    private static final class Pending {
+
+        private final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        private final long deadline;
+        private volatile boolean checked;
+
+        private Pending(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
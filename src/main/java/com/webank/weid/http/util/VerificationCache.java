@@ -0,0 +1,238 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.rpc.CptService;
+import com.webank.weid.service.impl.CptServiceImpl;
+import com.webank.weid.util.DataToolUtils;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.fisco.bcos.web3j.crypto.Hash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the credentials found valid, by the hash of the whole credential (proof
+ * included), so that a credential presented again is not verified again. Only successful
+ * verifications are kept, and an entry is dropped:
+ * <ul>
+ * <li>once the credential expires, or after credential.verify.cache.ttl.seconds;</li>
+ * <li>once the document of the issuer changed on chain, checked as the WeID document cache
+ * does: not at all while the chain has not moved, then by reading the block in which the
+ * issuer last changed;</li>
+ * <li>once the version of the CPT changed, read from the chain (not through the CPT cache,
+ * whose entries may outlive these) whenever the chain has moved.</li>
+ * </ul>
+ * It is off by default: a credential revoked by other means than these stays valid here until
+ * its entry expires.
+ */
+public class VerificationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("credential.verify.cache.enabled", "false"));
+
+    private static final int MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("credential.verify.cache.max.size", "100000"));
+
+    private static final long TTL_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("credential.verify.cache.ttl.seconds", "600"))) * 1000L;
+
+    private static volatile VerificationCache instance;
+
+    private final BoundedCache<String, Entry> results;
+    private final Supplier<BigInteger> currentBlock;
+    private final Function<String, BigInteger> relatedBlock;
+    private final Function<Integer, Integer> cptVersion;
+    private final LongSupplier clock;
+
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    VerificationCache(
+        BoundedCache<String, Entry> results,
+        Supplier<BigInteger> currentBlock,
+        Function<String, BigInteger> relatedBlock,
+        Function<Integer, Integer> cptVersion,
+        LongSupplier clock
+    ) {
+        this.results = results;
+        this.currentBlock = currentBlock;
+        this.relatedBlock = relatedBlock;
+        this.cptVersion = cptVersion;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the shared cache.
+     *
+     * @return the cache, or null if it is disabled
+     */
+    public static VerificationCache getInstance() {
+        if (!ENABLED) {
+            return null;
+        }
+        if (instance == null) {
+            synchronized (VerificationCache.class) {
+                if (instance == null) {
+                    CptService cptService = new CptServiceImpl();
+                    VerificationCache cache = new VerificationCache(
+                        new BoundedCache<>(MAX_SIZE, TTL_MILLIS),
+                        WeIdDocumentCache::getBlockNumber,
+                        WeIdDocumentCache::getLatestRelatedBlock,
+                        cptVersionReader(cptService::queryCpt),
+                        System::currentTimeMillis);
+                    MetricsRegistry.register("credentialVerifyCache", cache::getMetrics);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Verify a credential, or return the result of an earlier verification still current.
+     *
+     * @param credential the credential
+     * @param verifier verifies the credential against the chain
+     * @return the verification result
+     */
+    public ResponseData<Boolean> verify(
+        CredentialPojo credential,
+        Function<CredentialPojo, ResponseData<Boolean>> verifier
+    ) {
+        String key = Hash.sha3String(DataToolUtils.serialize(credential));
+        Entry entry = results.get(key);
+        if (entry != null) {
+            if (isCurrent(entry, credential)) {
+                return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS);
+            }
+            invalidations.increment();
+            results.invalidate(key);
+        }
+
+        // read the versions first: a change made while verifying is caught on the next check
+        BigInteger block = orNull(currentBlock, null, "the block number");
+        BigInteger related = orNull(relatedBlock, credential.getIssuer(), "the issuer change");
+        Integer version = orNull(cptVersion, credential.getCptId(), "the cpt version");
+        ResponseData<Boolean> response = verifier.apply(credential);
+        if (Boolean.TRUE.equals(response.getResult())
+            && block != null && related != null && version != null) {
+            results.put(key, new Entry(related, block, version, expiresAt(credential)));
+        }
+        return response;
+    }
+
+    /**
+     * Get a snapshot of the cache: the result cache metrics, plus the entries found current
+     * after the chain moved on (revalidations) and those dropped as stale (invalidations).
+     *
+     * @return the metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = results.getMetrics();
+        metrics.put("revalidations", revalidations.sum());
+        metrics.put("invalidations", invalidations.sum());
+        return metrics;
+    }
+
+    private boolean isCurrent(Entry entry, CredentialPojo credential) {
+        if (clock.getAsLong() >= entry.expiresAt) {
+            return false;
+        }
+        BigInteger block = orNull(currentBlock, null, "the block number");
+        if (block == null) {
+            return false;
+        }
+        if (block.compareTo(entry.checkedBlock) <= 0) {
+            return true;
+        }
+        // a CPT update, like an issuer change, is a transaction: it cannot happen in place
+        Integer version = orNull(cptVersion, credential.getCptId(), "the cpt version");
+        if (version == null || !version.equals(entry.cptVersion)) {
+            return false;
+        }
+        BigInteger related = orNull(relatedBlock, credential.getIssuer(), "the issuer change");
+        if (related == null || !related.equals(entry.relatedBlock)) {
+            return false;
+        }
+        revalidations.increment();
+        entry.checkedBlock = block;
+        return true;
+    }
+
+    private long expiresAt(CredentialPojo credential) {
+        // the expiration date of a credential is in seconds
+        Long expirationDate = credential.getExpirationDate();
+        return expirationDate == null
+            ? Long.MAX_VALUE : TimeUnit.SECONDS.toMillis(expirationDate);
+    }
+
+    private static <T, R> R orNull(Function<T, R> reader, T key, String what) {
+        try {
+            return reader.apply(key);
+        } catch (RuntimeException e) {
+            logger.error("[VerificationCache] failed to read {} of {}.", what, key, e);
+            return null;
+        }
+    }
+
+    private static <R> R orNull(Supplier<R> reader, Object key, String what) {
+        return orNull(ignored -> reader.get(), key, what);
+    }
+
+    /**
+     * Read the version of a CPT with the given query; a CPT that cannot be read has no version,
+     * which fails the lookup.
+     */
+    static Function<Integer, Integer> cptVersionReader(
+        Function<Integer, ResponseData<Cpt>> queryCpt
+    ) {
+        return cptId -> {
+            Cpt cpt = queryCpt.apply(cptId).getResult();
+            return cpt == null ? null : cpt.getCptVersion();
+        };
+    }
+
+    static final class Entry {
+
+        private final BigInteger relatedBlock;
+        private final Integer cptVersion;
+        private final long expiresAt;
+        private volatile BigInteger checkedBlock;
+
+        Entry(BigInteger relatedBlock, BigInteger checkedBlock, Integer cptVersion, long expiresAt) {
+            this.relatedBlock = relatedBlock;
+            this.checkedBlock = checkedBlock;
+            this.cptVersion = cptVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.util.WeIdUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameterName;
+import org.fisco.bcos.web3j.protocol.core.methods.request.Transaction;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BlockNumber;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Call;
+import org.fisco.bcos.web3j.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.service.BaseService;
+
+/**
+ * Caches resolved WeID documents in their final json form (public keys re-encoded, @context
+ * added), so that a document asked for again is neither read from chain nor rebuilt.
+ *
+ * <p>The WeID contract records, for each WeID, the last block its attributes changed in. A
+ * document is cached with that block, and with the chain height at the time it was read.
+ * While the chain has not moved past that height the document is served as is; once it has,
+ * the recorded block is read again (one contract call, far cheaper than resolving the
+ * document) and the document is reloaded only if it changed. Entries also expire after
+ * weid.document.cache.ttl.seconds, and the least recently used ones are evicted beyond
+ * weid.document.cache.max.size.
+ */
+public class WeIdDocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdDocumentCache.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("weid.document.cache.enabled", "true"));
+
+    private static final int MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("weid.document.cache.max.size", "10000"));
+
+    private static final long TTL_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("weid.document.cache.ttl.seconds", "300"))) * 1000L;
+
+    private static volatile WeIdDocumentCache instance;
+
+    private final BoundedCache<String, Entry> documents;
+    private final Supplier<BigInteger> currentBlock;
+    private final Function<String, BigInteger> relatedBlock;
+
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    WeIdDocumentCache(
+        BoundedCache<String, Entry> documents,
+        Supplier<BigInteger> currentBlock,
+        Function<String, BigInteger> relatedBlock
+    ) {
+        this.documents = documents;
+        this.currentBlock = currentBlock;
+        this.relatedBlock = relatedBlock;
+    }
+
+    /**
+     * Get the shared cache.
+     *
+     * @return the cache, or null if it is disabled
+     */
+    public static WeIdDocumentCache getInstance() {
+        if (!ENABLED) {
+            return null;
+        }
+        if (instance == null) {
+            synchronized (WeIdDocumentCache.class) {
+                if (instance == null) {
+                    WeIdDocumentCache cache = new WeIdDocumentCache(
+                        new BoundedCache<>(MAX_SIZE, TTL_MILLIS),
+                        WeIdDocumentCache::getBlockNumber,
+                        WeIdDocumentCache::getLatestRelatedBlock);
+                    MetricsRegistry.register("weIdDocumentCache", cache::getMetrics);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the json document of a WeID, from the cache if it is still current.
+     *
+     * @param weId the WeID
+     * @param loader resolves the document from chain; its errors are returned and not cached
+     * @return the document
+     */
+    public HttpResponseData<ObjectNode> get(
+        String weId,
+        Function<String, HttpResponseData<ObjectNode>> loader
+    ) {
+        // read the height first: a change in any later block is caught on the next check
+        BigInteger block = currentBlockOrNull();
+        Entry entry = documents.get(weId);
+        BigInteger related = null;
+        if (entry != null) {
+            if (block != null && block.compareTo(entry.checkedBlock) <= 0) {
+                return new HttpResponseData<>(entry.document, HttpReturnCode.SUCCESS);
+            }
+            related = relatedBlockOrNull(weId);
+            if (related != null && related.equals(entry.relatedBlock)) {
+                revalidations.increment();
+                if (block != null) {
+                    entry.checkedBlock = block;
+                }
+                return new HttpResponseData<>(entry.document, HttpReturnCode.SUCCESS);
+            }
+            invalidations.increment();
+            documents.invalidate(weId);
+        } else {
+            related = relatedBlockOrNull(weId);
+        }
+        HttpResponseData<ObjectNode> response = loader.apply(weId);
+        if (response.getRespBody() != null && related != null && block != null) {
+            documents.put(weId, new Entry(response.getRespBody(), related, block));
+        }
+        return response;
+    }
+
+    /**
+     * Get a snapshot of the cache: the document cache metrics, plus the documents found
+     * unchanged after the chain moved on (revalidations) and those found changed
+     * (invalidations).
+     *
+     * @return the metrics
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = documents.getMetrics();
+        metrics.put("revalidations", revalidations.sum());
+        metrics.put("invalidations", invalidations.sum());
+        return metrics;
+    }
+
+    private BigInteger currentBlockOrNull() {
+        try {
+            return currentBlock.get();
+        } catch (RuntimeException e) {
+            logger.error("[WeIdDocumentCache] failed to get the block number.", e);
+            return null;
+        }
+    }
+
+    private BigInteger relatedBlockOrNull(String weId) {
+        try {
+            return relatedBlock.apply(weId);
+        } catch (RuntimeException e) {
+            logger.error("[WeIdDocumentCache] failed to get the last change of {}.", weId, e);
+            return null;
+        }
+    }
+
+    static BigInteger getBlockNumber() {
+        Web3j web3j = (Web3j) BaseService.getWeb3j();
+        BigInteger block = web3j.getBlockNumberCache();
+        if (block != null) {
+            return block;
+        }
+        BlockNumber blockNumber;
+        try {
+            blockNumber = NodeRouter.route(routed -> routed.getBlockNumber().send());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (blockNumber.hasError()) {
+            throw new IllegalStateException(blockNumber.getError().getMessage());
+        }
+        return blockNumber.getBlockNumber();
+    }
+
+    /**
+     * Read the block in which the attributes of a WeID last changed, from the WeID contract's
+     * getLatestRelatedBlock(address).
+     */
+    static BigInteger getLatestRelatedBlock(String weId) {
+        String address = WeIdUtils.convertWeIdToAddress(weId);
+        String data = "0x" + AbiFunctionTemplates.selector("getLatestRelatedBlock", "(address)")
+            + StringUtils.leftPad(Numeric.cleanHexPrefix(address), 64, '0');
+        Transaction transaction = Transaction.createEthCallTransaction(
+            address, ChainMetadataUtil.get().getWeIdAddress(), data);
+        Call call;
+        try {
+            call = NodeRouter.route(web3j ->
+                web3j.call(transaction, DefaultBlockParameterName.LATEST).send());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (call.hasError() || call.getValue() == null) {
+            throw new IllegalStateException(call.hasError()
+                ? call.getError().getMessage() : "empty call output");
+        }
+        return Numeric.toBigInt(call.getValue().getOutput());
+    }
+
+    static final class Entry {
+
+        private final ObjectNode document;
+        private final BigInteger relatedBlock;
+        private volatile BigInteger checkedBlock;
+
+        Entry(ObjectNode document, BigInteger relatedBlock, BigInteger checkedBlock) {
+            this.document = document;
+            this.relatedBlock = relatedBlock;
+            this.checkedBlock = checkedBlock;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Checks whether WeIDs exist on chain. A WeID is never deleted, so once one is found it is
+ * remembered and not asked for again; WeIDs not found are always asked again. A list of WeIDs
+ * is checked on a shared pool, at most weid.exist.check.threads lookups at a time across all
+ * requests, so that checking a batch takes about as long as its slowest lookup rather than
+ * the sum of all of them.
+ */
+public class WeIdExistenceChecker {
+
+    private static final boolean CACHE_ENABLED = Boolean.parseBoolean(
+        PropertiesUtil.getProperty("weid.exist.cache.enabled", "true"));
+
+    private static final int CACHE_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("weid.exist.cache.max.size", "100000"));
+
+    private static final long CACHE_TTL_MILLIS = Math.max(0L, Long.parseLong(
+        PropertiesUtil.getProperty("weid.exist.cache.ttl.seconds", "86400"))) * 1000L;
+
+    private static final int CHECK_THREADS = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("weid.exist.check.threads", "16")));
+
+    private static volatile WeIdExistenceChecker instance;
+
+    private final BoundedCache<String, Boolean> existing;
+    private final ExecutorService pool;
+
+    WeIdExistenceChecker(BoundedCache<String, Boolean> existing, ExecutorService pool) {
+        this.existing = existing;
+        this.pool = pool;
+    }
+
+    /**
+     * Get the shared checker.
+     *
+     * @return the checker
+     */
+    public static WeIdExistenceChecker getInstance() {
+        if (instance == null) {
+            synchronized (WeIdExistenceChecker.class) {
+                if (instance == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    WeIdExistenceChecker checker = new WeIdExistenceChecker(
+                        CACHE_ENABLED ? new BoundedCache<>(CACHE_MAX_SIZE, CACHE_TTL_MILLIS) : null,
+                        Executors.newFixedThreadPool(CHECK_THREADS, runnable -> {
+                            Thread thread = new Thread(runnable,
+                                "weid-exist-check-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+                    if (checker.existing != null) {
+                        MetricsRegistry.register("weIdExistCache", checker.existing::getMetrics);
+                    }
+                    instance = checker;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether a WeID exists.
+     *
+     * @param weId the WeID
+     * @param lookup asks the chain
+     * @return the lookup result, or a cached true
+     */
+    public ResponseData<Boolean> isWeIdExist(
+        String weId,
+        Function<String, ResponseData<Boolean>> lookup
+    ) {
+        if (existing != null && existing.get(weId) != null) {
+            return new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS);
+        }
+        return lookup(weId, lookup);
+    }
+
+    /**
+     * Check whether each of a list of WeIDs exists, looking up the unknown ones in parallel.
+     *
+     * @param weIds the WeIDs, possibly repeated
+     * @param lookup asks the chain
+     * @return the result of each distinct WeID, in the order of the list
+     */
+    public Map<String, ResponseData<Boolean>> isWeIdExist(
+        List<String> weIds,
+        Function<String, ResponseData<Boolean>> lookup
+    ) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(weIds));
+        List<CompletableFuture<ResponseData<Boolean>>> futures = new ArrayList<>(distinct.size());
+        for (String weId : distinct) {
+            if (existing != null && existing.get(weId) != null) {
+                futures.add(CompletableFuture.completedFuture(
+                    new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> lookup(weId, lookup), pool));
+            }
+        }
+        Map<String, ResponseData<Boolean>> results = new LinkedHashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            results.put(distinct.get(i), futures.get(i).join());
+        }
+        return results;
+    }
+
+    private ResponseData<Boolean> lookup(
+        String weId,
+        Function<String, ResponseData<Boolean>> lookup
+    ) {
+        ResponseData<Boolean> response = lookup.apply(weId);
+        if (existing != null && Boolean.TRUE.equals(response.getResult())) {
+            existing.put(weId, Boolean.TRUE);
+        }
+        return response;
+    }
+}
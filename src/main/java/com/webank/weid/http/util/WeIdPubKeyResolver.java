@@ -0,0 +1,226 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.WeIdListRsp;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.WeIdUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the weIds of a list of public keys. Each key is converted to its weId, which is
+ * remembered since the conversion never changes, and the weId is then looked up on chain. The
+ * keys are handled on a dedicated pool, at most weid.pubkey.lookup.threads at a time, and the
+ * results keep the order of the keys. A request waits at most weid.pubkey.lookup.timeout.millis:
+ * the keys not done by then get WEID_LOOKUP_TIMEOUT and the others keep their results.
+ */
+public class WeIdPubKeyResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdPubKeyResolver.class);
+
+    private static final int MEMO_MAX_SIZE = Integer.parseInt(
+        PropertiesUtil.getProperty("weid.pubkey.memo.max.size", "100000"));
+
+    private static final int LOOKUP_THREADS = Math.max(1, Integer.parseInt(
+        PropertiesUtil.getProperty("weid.pubkey.lookup.threads", "16")));
+
+    private static final long LOOKUP_TIMEOUT_MILLIS = Long.parseLong(
+        PropertiesUtil.getProperty("weid.pubkey.lookup.timeout.millis", "10000"));
+
+    private static volatile WeIdPubKeyResolver instance;
+
+    private final BoundedCache<String, String> derived;
+    private final Function<String, String> derive;
+    private final ExecutorService pool;
+    private final long timeoutMillis;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    WeIdPubKeyResolver(
+        BoundedCache<String, String> derived,
+        Function<String, String> derive,
+        ExecutorService pool,
+        long timeoutMillis
+    ) {
+        this.derived = derived;
+        this.derive = derive;
+        this.pool = pool;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Get the shared resolver.
+     *
+     * @return the resolver
+     */
+    public static WeIdPubKeyResolver getInstance() {
+        if (instance == null) {
+            synchronized (WeIdPubKeyResolver.class) {
+                if (instance == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    WeIdPubKeyResolver resolver = new WeIdPubKeyResolver(
+                        new BoundedCache<>(MEMO_MAX_SIZE, Long.MAX_VALUE),
+                        WeIdUtils::convertPublicKeyToWeId,
+                        Executors.newFixedThreadPool(LOOKUP_THREADS, runnable -> {
+                            Thread thread = new Thread(runnable,
+                                "weid-pubkey-lookup-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }),
+                        LOOKUP_TIMEOUT_MILLIS);
+                    MetricsRegistry.register("weIdPubKeyLookup", resolver::getMetrics);
+                    instance = resolver;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Find the weId of each public key.
+     *
+     * @param publicKeys the public keys in decimal
+     * @param exists asks whether a weId exists on chain
+     * @return the weId, or null, and the error code of each key, in the order of the keys
+     */
+    public WeIdListRsp resolve(
+        List<String> publicKeys,
+        Function<String, ResponseData<Boolean>> exists
+    ) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>(publicKeys.size());
+        for (String publicKey : publicKeys) {
+            futures.add(CompletableFuture.supplyAsync(
+                () -> resolve(publicKey, exists, deadline), pool));
+        }
+
+        WeIdListRsp weIdListRsp = new WeIdListRsp();
+        weIdListRsp.setWeIdList(new ArrayList<>(publicKeys.size()));
+        weIdListRsp.setErrorCodeList(new ArrayList<>(publicKeys.size()));
+        int timedOut = 0;
+        for (CompletableFuture<Outcome> future : futures) {
+            Outcome outcome = await(future, deadline);
+            if (outcome == Outcome.TIMED_OUT) {
+                timedOut++;
+            }
+            weIdListRsp.getWeIdList().add(outcome.weId);
+            weIdListRsp.getErrorCodeList().add(outcome.errorCode);
+        }
+        // keys still queued are dropped rather than looked up for nobody
+        futures.forEach(future -> future.cancel(false));
+
+        lookups.addAndGet(publicKeys.size());
+        if (timedOut > 0) {
+            timeouts.addAndGet(timedOut);
+            logger.warn("[resolve] {} of {} public keys timed out after {} ms.",
+                timedOut, publicKeys.size(), timeoutMillis);
+        }
+        return weIdListRsp;
+    }
+
+    private Outcome resolve(
+        String publicKey,
+        Function<String, ResponseData<Boolean>> exists,
+        long deadline
+    ) {
+        if (System.nanoTime() - deadline >= 0) {
+            return Outcome.TIMED_OUT;
+        }
+        String weId = derived.get(publicKey);
+        if (weId == null) {
+            weId = derive.apply(publicKey);
+            if (StringUtils.isBlank(weId)) {
+                return new Outcome(null, HttpReturnCode.CONVERT_PUBKEY_TO_WEID_ERROR.getCode());
+            }
+            derived.put(publicKey, weId);
+        }
+        ResponseData<Boolean> response = exists.apply(weId);
+        if (Boolean.TRUE.equals(response.getResult())) {
+            return new Outcome(weId, ErrorCode.SUCCESS.getCode());
+        }
+        if (response.getErrorCode() != null
+            && response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new Outcome(null, response.getErrorCode());
+        }
+        return new Outcome(null, ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCode());
+    }
+
+    private static Outcome await(CompletableFuture<Outcome> future, long deadline) {
+        try {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return future.getNow(Outcome.TIMED_OUT);
+            }
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return Outcome.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.TIMED_OUT;
+        } catch (ExecutionException e) {
+            logger.error("[resolve] looking up a public key failed.", e.getCause());
+            return new Outcome(null, HttpReturnCode.WEID_SDK_ERROR.getCode());
+        }
+    }
+
+    /**
+     * Get the lookup metrics.
+     *
+     * @return the memo metrics, public keys looked up and those timed out
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(derived.getMetrics());
+        metrics.put("lookups", lookups.get());
+        metrics.put("timeouts", timeouts.get());
+        return metrics;
+    }
+
+    private static final class Outcome {
+
+        private static final Outcome TIMED_OUT =
+            new Outcome(null, HttpReturnCode.WEID_LOOKUP_TIMEOUT.getCode());
+
+        private final String weId;
+        private final Integer errorCode;
+
+        private Outcome(String weId, Integer errorCode) {
+            this.weId = weId;
+            this.errorCode = errorCode;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.util;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.fisco.bcos.web3j.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes the receipts of the client-signed WeIdentity transactions into the same results the
+ * SDK's raw transaction service returns when it sends them: "true" for createWeId and
+ * registerAuthorityIssuer, and the cptId and cptVersion json for registerCpt. The async send
+ * gets its receipt from the receipt tracker, so it cannot let the SDK send and decode.
+ */
+public final class WeIdReceiptDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdReceiptDecoder.class);
+
+    private static final String WEID_ATTRIBUTE_CHANGED =
+        "WeIdAttributeChanged(address,bytes32,bytes,uint256,int256)";
+
+    private static final String AUTHORITY_ISSUER_RET_LOG =
+        "AuthorityIssuerRetLog(uint256,uint256,address)";
+
+    private static final String REGISTER_CPT_RET_LOG =
+        "RegisterCptRetLog(uint256,uint256,int256)";
+
+    /**
+     * The operation code of AuthorityIssuerRetLog for adding an issuer.
+     */
+    private static final int ADD_AUTHORITY_ISSUER_OPCODE = 0;
+
+    private static final int WORD_CHARS = 64;
+
+    private WeIdReceiptDecoder() {
+    }
+
+    /**
+     * Decode a createWeId receipt: the WeID contract logs its attributes when it is created.
+     *
+     * @param receipt the receipt
+     * @param contractAddress the WeID contract address
+     * @return "true", or the error
+     */
+    public static HttpResponseData<String> createWeId(
+        TransactionReceipt receipt,
+        String contractAddress
+    ) {
+        if (!receipt.isStatusOK()) {
+            return failed(receipt.getStatus());
+        }
+        if (findLog(receipt, contractAddress, WEID_ATTRIBUTE_CHANGED) == null) {
+            logger.error("[createWeId] no attribute event in transaction {}",
+                receipt.getTransactionHash());
+            return new HttpResponseData<>(StringUtils.EMPTY,
+                HttpReturnCode.TRANSACTION_EXECUTE_FAILED);
+        }
+        return new HttpResponseData<>(Boolean.TRUE.toString(), HttpReturnCode.SUCCESS);
+    }
+
+    /**
+     * Decode a registerAuthorityIssuer receipt from its AuthorityIssuerRetLog(operation,
+     * retCode, addr).
+     *
+     * @param receipt the receipt
+     * @param contractAddress the authority issuer contract address
+     * @return "true", or "false" with the contract's return code
+     */
+    public static HttpResponseData<String> registerAuthorityIssuer(
+        TransactionReceipt receipt,
+        String contractAddress
+    ) {
+        if (!receipt.isStatusOK()) {
+            return failed(receipt.getStatus());
+        }
+        Log log = findLog(receipt, contractAddress, AUTHORITY_ISSUER_RET_LOG);
+        if (log == null) {
+            logger.error("[registerAuthorityIssuer] no event in transaction {}",
+                receipt.getTransactionHash());
+            return new HttpResponseData<>(Boolean.FALSE.toString(),
+                HttpReturnCode.TRANSACTION_EXECUTE_FAILED);
+        }
+        int operation = word(log.getData(), 0).intValue();
+        int retCode = word(log.getData(), 1).intValue();
+        if (operation != ADD_AUTHORITY_ISSUER_OPCODE || retCode != 0) {
+            return new HttpResponseData<>(Boolean.FALSE.toString(), retCode,
+                HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCodeDesc() + "retCode: " + retCode);
+        }
+        return new HttpResponseData<>(Boolean.TRUE.toString(), HttpReturnCode.SUCCESS);
+    }
+
+    /**
+     * Decode a registerCpt receipt from its RegisterCptRetLog(retCode, cptId, cptVersion).
+     *
+     * @param receipt the receipt
+     * @param contractAddress the CPT contract address
+     * @return the cptId and cptVersion json, or the contract's return code
+     */
+    public static HttpResponseData<String> registerCpt(
+        TransactionReceipt receipt,
+        String contractAddress
+    ) {
+        if (!receipt.isStatusOK()) {
+            return failed(receipt.getStatus());
+        }
+        Log log = findLog(receipt, contractAddress, REGISTER_CPT_RET_LOG);
+        if (log == null) {
+            logger.error("[registerCpt] no event in transaction {}", receipt.getTransactionHash());
+            return new HttpResponseData<>(StringUtils.EMPTY,
+                HttpReturnCode.TRANSACTION_EXECUTE_FAILED);
+        }
+        int retCode = word(log.getData(), 0).intValue();
+        if (retCode != 0) {
+            return new HttpResponseData<>(StringUtils.EMPTY, retCode,
+                HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCodeDesc() + "retCode: " + retCode);
+        }
+        Map<String, Object> cptBaseInfo = new TreeMap<>();
+        cptBaseInfo.put("cptId", word(log.getData(), 1).intValue());
+        // int256, so signed
+        cptBaseInfo.put("cptVersion",
+            new BigInteger(Numeric.hexStringToByteArray(wordHex(log.getData(), 2))).intValue());
+        try {
+            return new HttpResponseData<>(JsonUtil.mapToCompactJson(cptBaseInfo),
+                HttpReturnCode.SUCCESS);
+        } catch (Exception e) {
+            return new HttpResponseData<>(StringUtils.EMPTY, HttpReturnCode.UNKNOWN_ERROR);
+        }
+    }
+
+    private static HttpResponseData<String> failed(String status) {
+        return new HttpResponseData<>(StringUtils.EMPTY,
+            HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCode(),
+            HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCodeDesc() + "status: " + status);
+    }
+
+    private static Log findLog(TransactionReceipt receipt, String contractAddress, String event) {
+        List<Log> logs = receipt.getLogs();
+        if (logs == null) {
+            return null;
+        }
+        String topic = Numeric.toHexString(
+            TransactionEncoderUtilV2.hash(event.getBytes(StandardCharsets.UTF_8)));
+        for (Log log : logs) {
+            if (StringUtils.equalsIgnoreCase(log.getAddress(), contractAddress)
+                && log.getTopics() != null && !log.getTopics().isEmpty()
+                && StringUtils.equalsIgnoreCase(log.getTopics().get(0), topic)) {
+                return log;
+            }
+        }
+        return null;
+    }
+
+    private static String wordHex(String data, int index) {
+        String hex = Numeric.cleanHexPrefix(data);
+        int start = index * WORD_CHARS;
+        if (hex.length() < start + WORD_CHARS) {
+            throw new IllegalArgumentException("Event data too short: " + data);
+        }
+        return hex.substring(start, start + WORD_CHARS);
+    }
+
+    /**
+     * An unsigned word of the event data.
+     */
+    private static BigInteger word(String data, int index) {
+        return new BigInteger(wordHex(data, index), 16);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.benchmark;
+
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.http.util.AbiFunctionTemplates.RegisterCptCall;
+import com.webank.weid.util.DataToolUtils;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares building and encoding the web3j Function of a registerCpt call against the ABI
+ * template. Run main() (or JMH with -prof gc) and compare the time and the
+ * gc.alloc.rate.norm column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AbiTemplateBenchmark {
+
+    private RegisterCptCall call;
+
+    /**
+     * Build a registerCpt call with a typical schema once.
+     */
+    @Setup
+    public void setup() {
+        StringBuilder schema = new StringBuilder("{\"title\":\"cpt\",\"properties\":{");
+        for (int i = 0; i < 20; i++) {
+            schema.append("\"field").append(i).append("\":{\"type\":\"string\"},");
+        }
+        schema.append("\"name\":{\"type\":\"string\"}}}");
+        byte[] r = new byte[32];
+        byte[] s = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            r[i] = (byte) (i + 1);
+            s[i] = (byte) (i + 2);
+        }
+        call = new RegisterCptCall(
+            "0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3",
+            DataToolUtils.listToListBigInteger(
+                DataToolUtils.getParamCreatedList(WeIdConstant.CPT_LONG_ARRAY_LENGTH),
+                WeIdConstant.CPT_LONG_ARRAY_LENGTH),
+            schema.toString(),
+            new SignatureData((byte) 27, r, s, new byte[64]));
+    }
+
+    @Benchmark
+    public String encodeWithFunction() {
+        return FunctionEncoder.encode(call.toFunction("registerCpt"));
+    }
+
+    @Benchmark
+    public String encodeWithTemplate() {
+        return call.encode("registerCpt");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(AbiTemplateBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
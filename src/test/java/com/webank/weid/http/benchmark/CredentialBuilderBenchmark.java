@@ -0,0 +1,144 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.benchmark;
+
+import static com.webank.weid.service.impl.CredentialPojoServiceImpl.generateSalt;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.webank.weid.constant.CredentialConstant;
+import com.webank.weid.constant.CredentialConstant.CredentialProofType;
+import com.webank.weid.constant.ParamKeyConstant;
+import com.webank.weid.http.util.CredentialPojoBuilder;
+import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.util.CredentialPojoUtils;
+import com.webank.weid.util.CredentialUtils;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.DateUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the former encodeCredential steps (claim String round trips, serialized clone of
+ * the claim for the salt) against CredentialPojoBuilder, for claims of 10 to 10,000 fields.
+ * Both end with the same thumbprint and response map. Run main() (or JMH with -prof gc) and
+ * compare the time and the gc.alloc.rate.norm column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CredentialBuilderBenchmark {
+
+    private static final String ISSUER = "did:weid:1:0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3";
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fields;
+
+    private ObjectNode claimNode;
+    private Long expirationDate;
+
+    /**
+     * Build a claim of strings and numbers, with a nested object every tenth field.
+     */
+    @Setup
+    public void setup() {
+        claimNode = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < fields; i++) {
+            if (i % 10 == 9) {
+                ObjectNode nested = claimNode.putObject("field" + i);
+                nested.put("name", "value" + i);
+                nested.put("age", i);
+            } else if (i % 2 == 0) {
+                claimNode.put("field" + i, "value" + i);
+            } else {
+                claimNode.put("field" + i, i * 1.5d);
+            }
+        }
+        expirationDate = DateUtils.getNoMillisecondTimeStamp() + 86400L;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> formerSteps() throws Exception {
+        Map<String, Object> claimMap = (HashMap<String, Object>) JsonUtil
+            .jsonStrToObj(new HashMap<String, Object>(), claimNode.toString());
+        CredentialPojo result = new CredentialPojo();
+        result.setContext(CredentialUtils.getDefaultCredentialContext());
+        result.setId(UUID.randomUUID().toString());
+        result.setCptId(1000);
+        result.setIssuanceDate(DateUtils.getNoMillisecondTimeStamp());
+        result.setIssuer(ISSUER);
+        result.setExpirationDate(expirationDate);
+        result.addType(CredentialConstant.DEFAULT_CREDENTIAL_TYPE);
+        result.addType(CredentialConstant.SELECTIVE_CREDENTIAL_TYPE);
+        String claimStr = DataToolUtils.serialize(claimMap);
+        HashMap<String, Object> claimMapNew = DataToolUtils.deserialize(claimStr, HashMap.class);
+        result.setClaim(claimMapNew);
+        Map<String, Object> saltMap = DataToolUtils.clone(claimMapNew);
+        generateSalt(saltMap, null);
+        String rawData = CredentialPojoUtils
+            .getCredentialThumbprintWithoutSig(result, saltMap, null);
+        result.putProofValue(ParamKeyConstant.PROOF_CREATED, result.getIssuanceDate());
+        result.putProofValue(ParamKeyConstant.PROOF_CREATOR, ISSUER + "#keys-0");
+        result.putProofValue(ParamKeyConstant.PROOF_TYPE, CredentialProofType.ECDSA.getTypeName());
+        result.putProofValue(ParamKeyConstant.PROOF_SIGNATURE,
+            new String(DataToolUtils.base64Encode(rawData.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8));
+        result.setSalt(saltMap);
+        return JsonUtil.objToMap(result);
+    }
+
+    @Benchmark
+    public Map<String, Object> builder() throws Exception {
+        CredentialPojo result = CredentialPojoBuilder.build(
+            1000, ISSUER, expirationDate, CredentialPojoBuilder.toClaim(claimNode));
+        return JsonUtil.objToMap(result);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(CredentialBuilderBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
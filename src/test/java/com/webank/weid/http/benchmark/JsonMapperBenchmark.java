@@ -0,0 +1,107 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.weid.http.protocol.request.TransactionArg;
+import com.webank.weid.http.util.JsonUtil;
+import com.webank.weid.http.util.JsonUtil.WriterProfile;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the per-request Json handling of a throwaway ObjectMapper against the shared
+ * reader/writer registry in JsonUtil. Run main() (or JMH with -prof gc) and compare the
+ * gc.alloc.rate.norm column, which is the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMapperBenchmark {
+
+    private static final String REQUEST_BODY = "{\"functionName\":\"registerCpt\",\"v\":\"1.0.0\","
+        + "\"functionArg\":{\"weId\":\"did:weid:1:0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3\","
+        + "\"cptJsonSchema\":{\"title\":\"cpt\",\"description\":\"this is cpt\","
+        + "\"properties\":{\"name\":{\"type\":\"string\"},\"gender\":{\"type\":\"string\"}},"
+        + "\"required\":[\"name\",\"gender\"]},\"cptSignature\":\"HJPbDmoi39xgZBGi/aj1zB6VQL5QLy\"},"
+        + "\"transactionArg\":{\"nonce\":\"1474800601011307365506121304576347479508653499989424346"
+        + "408145855355\",\"signType\":\"1\",\"loopback\":{\"requestId\":\"0001\"}}}";
+
+    private JsonNode requestNode;
+
+    /**
+     * Prepare the parsed request once, so that the write benchmarks only measure writing.
+     *
+     * @throws Exception parse error
+     */
+    @Setup
+    public void setup() throws Exception {
+        requestNode = JsonUtil.readTree(REQUEST_BODY);
+    }
+
+    @Benchmark
+    public Object readWithNewMapper() throws Exception {
+        JsonNode jsonNode = new ObjectMapper().readTree(REQUEST_BODY);
+        return new ObjectMapper().treeToValue(
+            jsonNode.get("transactionArg"), TransactionArg.class);
+    }
+
+    @Benchmark
+    public Object readWithRegistry() throws Exception {
+        JsonNode jsonNode = JsonUtil.readTree(REQUEST_BODY);
+        return JsonUtil.treeToValue(jsonNode.get("transactionArg"), TransactionArg.class);
+    }
+
+    @Benchmark
+    public String writeWithNewMapper() throws Exception {
+        return new ObjectMapper().writerWithDefaultPrettyPrinter()
+            .writeValueAsString(requestNode);
+    }
+
+    @Benchmark
+    public String writeWithRegistry() throws Exception {
+        return JsonUtil.writer(WriterProfile.DEFAULT_PRETTY).writeValueAsString(requestNode);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(JsonMapperBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *       Copyright© (2019) WeBank Co., Ltd.
+ *
+ *       This file is part of weid-http-service.
+ *
+ *       weid-http-service is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weid-http-service is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weid-http-service.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.http.benchmark;
+
+import com.webank.weid.http.util.RlpTransactionEncoder;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
+import org.fisco.bcos.web3j.crypto.ExtendedTransactionEncoder;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares web3j's RlpString list encoding of a signed transaction against the one-pass
+ * RlpTransactionEncoder. Run main() (or JMH with -prof gc) and compare the time and the
+ * gc.alloc.rate.norm column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RlpEncoderBenchmark {
+
+    private ExtendedRawTransaction transaction;
+    private SignatureData signatureData;
+
+    /**
+     * Build a registerCpt sized transaction and a signature once.
+     */
+    @Setup
+    public void setup() {
+        StringBuilder data = new StringBuilder("0x5a6a4e75");
+        for (int i = 0; i < 40; i++) {
+            data.append("00000000000000000000000000000000000000000000000000000000000000a1");
+        }
+        transaction = ExtendedRawTransaction.createTransaction(
+            new BigInteger("1474800601011307365506121304576347479508653499989424346408145855355"),
+            new BigInteger("99999999999"),
+            new BigInteger("99999999999"),
+            BigInteger.valueOf(1600L),
+            "0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3",
+            BigInteger.ZERO,
+            data.toString(),
+            BigInteger.ONE,
+            BigInteger.ONE,
+            null);
+        byte[] r = new byte[32];
+        byte[] s = new byte[32];
+        byte[] pub = new byte[64];
+        for (int i = 0; i < 32; i++) {
+            r[i] = (byte) (i + 1);
+            s[i] = (byte) (i + 2);
+        }
+        signatureData = new SignatureData((byte) 27, r, s, pub);
+    }
+
+    @Benchmark
+    public byte[] encodeWithWeb3j() {
+        return ExtendedTransactionEncoder.encode(transaction, signatureData);
+    }
+
+    @Benchmark
+    public byte[] encodeOnePass() {
+        return RlpTransactionEncoder.encode(transaction, signatureData);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(RlpEncoderBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
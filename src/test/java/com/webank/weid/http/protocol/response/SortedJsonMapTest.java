@@ -0,0 +1,122 @@
+package com.webank.weid.http.protocol.response;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.webank.weid.http.constant.HttpReturnCode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedJsonMapTest {
+
+    // what spring writes the response envelope with
+    private final ObjectMapper responseMapper = new ObjectMapper();
+
+    /**
+     * A frozen copy of the conversion response bodies went through before SortedJsonMap: written
+     * pretty-printed by the sorting field mapper, read back into a HashMap and copied into a
+     * TreeMap. JsonUtil has changed since, so it must not be used as the reference.
+     */
+    private static final class Baseline {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        static {
+            MAPPER.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+            MAPPER.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+            MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            MAPPER.setVisibility(PropertyAccessor.SETTER, JsonAutoDetect.Visibility.NONE);
+            MAPPER.setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.NONE);
+            MAPPER.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        }
+
+        static String objToJsonStr(Object obj) throws Exception {
+            return MAPPER.writer().withDefaultPrettyPrinter().writeValueAsString(obj);
+        }
+
+        static Map<String, Object> objToMap(Object obj) throws Exception {
+            return MAPPER.convertValue(MAPPER.readTree(objToJsonStr(obj)), HashMap.class);
+        }
+
+        static String mapToCompactJson(Map<String, Object> map) throws Exception {
+            return MAPPER.writer().writeValueAsString(map);
+        }
+
+        static Map<String, Object> convertJsonToSortedMap(String json) throws Exception {
+            Map<String, Object> map = MAPPER.readValue(json, HashMap.class);
+            return new TreeMap<>(map);
+        }
+    }
+
+    private static class Body {
+        private String zeta = "z";
+        private Long created = 1587000000L;
+        private Double score = 1.0;
+        private Map<String, Object> claim = new LinkedHashMap<>();
+        private List<String> list = Arrays.asList("b", "a");
+        private String empty;
+
+        Body() {
+            claim.put("name", "n");
+            claim.put("acc", 10001);
+        }
+    }
+
+    private String write(Object respBody) throws Exception {
+        return responseMapper.writeValueAsString(
+            new HttpResponseData<>(respBody, "loop", HttpReturnCode.SUCCESS));
+    }
+
+    @Test
+    public void testSameOutputAsSortedMap() throws Exception {
+        Body body = new Body();
+        String expected = write(
+            Baseline.convertJsonToSortedMap(Baseline.objToJsonStr(body)));
+        Assert.assertEquals(expected, write(SortedJsonMap.of(body)));
+    }
+
+    @Test
+    public void testGoldenOutput() throws Exception {
+        Assert.assertEquals("{\"claim\":{\"acc\":10001,\"name\":\"n\"},\"created\":1587000000,"
+                + "\"empty\":null,\"list\":[\"b\",\"a\"],\"score\":1.0,\"zeta\":\"z\"}",
+            responseMapper.writeValueAsString(SortedJsonMap.of(new Body())));
+    }
+
+    @Test
+    public void testWithEntry() throws Exception {
+        Body body = new Body();
+        Map<String, Object> map = Baseline.objToMap(body);
+        map.put("claimHash", "0x01");
+        String expected = write(
+            Baseline.convertJsonToSortedMap(Baseline.mapToCompactJson(map)));
+        Assert.assertEquals(expected, write(SortedJsonMap.of(body).with("claimHash", "0x01")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMapView() throws Exception {
+        Body body = new Body();
+        SortedJsonMap sorted = SortedJsonMap.of(body);
+        Assert.assertEquals("z", sorted.get("zeta"));
+        Assert.assertEquals("n", ((Map<String, Object>) sorted.get("claim")).get("name"));
+        // once turned into a map, the map is written out, with the same output
+        String expected = write(
+            Baseline.convertJsonToSortedMap(Baseline.objToJsonStr(body)));
+        Assert.assertEquals(expected, write(sorted));
+    }
+
+    @Test
+    public void testNotAnObject() {
+        Assert.assertNull(SortedJsonMap.of((Object) null));
+        Assert.assertNull(SortedJsonMap.of(Arrays.asList("a")));
+    }
+}
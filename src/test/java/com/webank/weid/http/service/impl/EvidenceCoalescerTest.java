@@ -0,0 +1,69 @@
+package com.webank.weid.http.service.impl;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EvidenceCoalescerTest {
+
+    private final List<List<EvidenceCoalescer.Entry>> batches = new CopyOnWriteArrayList<>();
+
+    private static EvidenceCoalescer.Entry entry(String hash) {
+        return new EvidenceCoalescer.Entry(hash, "sign", "", 0L);
+    }
+
+    private HttpResponseData<List<Boolean>> write(Integer groupId,
+        List<EvidenceCoalescer.Entry> batch) {
+        batches.add(batch);
+        List<Boolean> results = new ArrayList<>();
+        for (EvidenceCoalescer.Entry entry : batch) {
+            results.add(!entry.hash.startsWith("bad"));
+        }
+        return new HttpResponseData<>(results, HttpReturnCode.SUCCESS);
+    }
+
+    @Test
+    public void testFlushWhenFull() throws Exception {
+        EvidenceCoalescer coalescer = new EvidenceCoalescer(this::write, 60000L, 3, 1);
+        List<CompletableFuture<HttpResponseData<Object>>> results = new ArrayList<>();
+        results.add(coalescer.submit(1, entry("0x1")));
+        results.add(coalescer.submit(1, entry("bad")));
+        results.add(coalescer.submit(1, entry("0x3")));
+        Assert.assertEquals(Boolean.TRUE, results.get(0).get().getRespBody());
+        Assert.assertEquals(Boolean.FALSE, results.get(1).get().getRespBody());
+        Assert.assertEquals(HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCode(),
+            results.get(1).get().getErrorCode().intValue());
+        Assert.assertEquals(Boolean.TRUE, results.get(2).get().getRespBody());
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(3, batches.get(0).size());
+    }
+
+    @Test
+    public void testFlushAfterWindowPerGroup() throws Exception {
+        EvidenceCoalescer coalescer = new EvidenceCoalescer(this::write, 20L, 100, 2);
+        CompletableFuture<HttpResponseData<Object>> first = coalescer.submit(1, entry("0x1"));
+        CompletableFuture<HttpResponseData<Object>> second = coalescer.submit(1, entry("0x2"));
+        CompletableFuture<HttpResponseData<Object>> other = coalescer.submit(2, entry("0x3"));
+        Assert.assertEquals(Boolean.TRUE, first.get().getRespBody());
+        Assert.assertEquals(Boolean.TRUE, second.get().getRespBody());
+        Assert.assertEquals(Boolean.TRUE, other.get().getRespBody());
+        Assert.assertEquals(2, batches.size());
+    }
+
+    @Test
+    public void testFailedBatch() throws Exception {
+        EvidenceCoalescer coalescer = new EvidenceCoalescer((groupId, batch) ->
+            new HttpResponseData<>(Collections.emptyList(), HttpReturnCode.CONTRACT_ERROR),
+            10L, 100, 1);
+        HttpResponseData<Object> resp = coalescer.submit(1, entry("0x1")).get();
+        Assert.assertEquals(Boolean.FALSE, resp.getRespBody());
+        Assert.assertEquals(HttpReturnCode.CONTRACT_ERROR.getCode(),
+            resp.getErrorCode().intValue());
+    }
+}
@@ -0,0 +1,31 @@
+package com.webank.weid.http.service.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EvidenceServiceRegistryTest {
+
+    @Test
+    public void testParseGroupIds() {
+        Assert.assertEquals(Arrays.asList(2, 3, 1),
+            EvidenceServiceRegistry.parseGroupIds(" 2,3 ,x,2,0,1", 1));
+    }
+
+    @Test
+    public void testParseBlankGroupIdsUsesMaster() {
+        Assert.assertEquals(Collections.singletonList(1),
+            EvidenceServiceRegistry.parseGroupIds("", 1));
+        Assert.assertEquals(Collections.singletonList(1),
+            EvidenceServiceRegistry.parseGroupIds(null, 1));
+        Assert.assertEquals(Collections.emptyList(),
+            EvidenceServiceRegistry.parseGroupIds("x", 1));
+    }
+
+    @Test
+    public void testIllegalGroupId() {
+        Assert.assertNull(EvidenceServiceRegistry.getEvidenceService(0));
+        Assert.assertNull(EvidenceServiceRegistry.getEvidenceServiceEngine(null));
+    }
+}
@@ -0,0 +1,145 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.http.protocol.response.FunctionTemplate;
+import com.webank.weid.http.util.AbiFunctionTemplates.AuthorityIssuerCall;
+import com.webank.weid.http.util.AbiFunctionTemplates.CreateWeIdCall;
+import com.webank.weid.http.util.AbiFunctionTemplates.RegisterCptCall;
+import com.webank.weid.util.DataToolUtils;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AbiFunctionTemplatesTest {
+
+    private static final String ADDRESS = "0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3";
+
+    private final Random random = new Random(20201018L);
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testCreateWeIdMatchesFunctionEncoder() {
+        for (int authLength : new int[]{0, 1, 31, 32, 33, 64, 171}) {
+            CreateWeIdCall call = new CreateWeIdCall(
+                ADDRESS,
+                randomBytes(authLength),
+                "1602979200".getBytes(StandardCharsets.UTF_8),
+                BigInteger.valueOf(1602979200L));
+            Assert.assertEquals(
+                FunctionEncoder.encode(call.toFunction("createWeId")),
+                call.encode("createWeId"));
+        }
+    }
+
+    @Test
+    public void testCreateWeIdNegativeNumber() {
+        CreateWeIdCall call = new CreateWeIdCall(
+            ADDRESS, randomBytes(10), randomBytes(3), BigInteger.valueOf(-2L));
+        Assert.assertEquals(
+            FunctionEncoder.encode(call.toFunction("createWeId")),
+            call.encode("createWeId"));
+    }
+
+    @Test
+    public void testCreateWeIdTooWideNumber() {
+        CreateWeIdCall call = new CreateWeIdCall(
+            ADDRESS, randomBytes(10), randomBytes(3), BigInteger.ONE.shiftLeft(300));
+        try {
+            call.encode("createWeId");
+            Assert.fail();
+        } catch (RuntimeException e) {
+            // rejected by web3j, as before, rather than cut to 256 bits
+        }
+    }
+
+    @Test
+    public void testAuthorityIssuerNegativeCreateDate() {
+        AuthorityIssuerCall call = new AuthorityIssuerCall(
+            ADDRESS,
+            "issuer-name".getBytes(StandardCharsets.UTF_8),
+            -1602979200L,
+            "1".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(
+            FunctionEncoder.encode(call.toFunction("addAuthorityIssuer")),
+            call.encode("addAuthorityIssuer"));
+    }
+
+    @Test
+    public void testAuthorityIssuerMatchesFunctionEncoder() {
+        for (String name : Arrays.asList("a", "issuer-name", "exactly-thirty-two-bytes-long!!!")) {
+            AuthorityIssuerCall call = new AuthorityIssuerCall(
+                ADDRESS,
+                name.getBytes(StandardCharsets.UTF_8),
+                1602979200L,
+                "1".getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals(
+                FunctionEncoder.encode(call.toFunction("addAuthorityIssuer")),
+                call.encode("addAuthorityIssuer"));
+        }
+    }
+
+    @Test
+    public void testRegisterCptMatchesFunctionEncoder() {
+        List<BigInteger> longAttributes = DataToolUtils.listToListBigInteger(
+            DataToolUtils.getParamCreatedList(WeIdConstant.CPT_LONG_ARRAY_LENGTH),
+            WeIdConstant.CPT_LONG_ARRAY_LENGTH);
+        StringBuilder schema = new StringBuilder("{\"title\":\"cpt\",\"properties\":{");
+        for (int i = 0; i < 3; i++) {
+            String json = schema + "\"name\":{\"type\":\"string\",\"description\":\"名字\"}}}";
+            RegisterCptCall call = new RegisterCptCall(
+                ADDRESS,
+                longAttributes,
+                json,
+                new SignatureData((byte) 28, randomBytes(32), randomBytes(32), null));
+            Assert.assertEquals(
+                FunctionEncoder.encode(call.toFunction("registerCpt")),
+                call.encode("registerCpt"));
+            schema.append("\"field").append(i).append("\":{\"type\":\"number\"},");
+        }
+    }
+
+    @Test
+    public void testSelectorIsPerMethodName() {
+        CreateWeIdCall call = new CreateWeIdCall(
+            ADDRESS, randomBytes(8), randomBytes(8), BigInteger.ONE);
+        Assert.assertEquals(
+            FunctionEncoder.encode(call.toFunction("createWeIdOther")),
+            call.encode("createWeIdOther"));
+        Assert.assertNotEquals(
+            call.encode("createWeId").substring(0, 10),
+            call.encode("createWeIdOther").substring(0, 10));
+    }
+
+    @Test
+    public void testFunctionTemplatesMatchEncodedCalls() {
+        ChainMetadata chainMetadata = new ChainMetadata(BigInteger.ONE, "1", "2.0.0",
+            "0x01", "0x02", "0x03", "0x04", "0x05", System.currentTimeMillis());
+        List<FunctionTemplate> templates =
+            TransactionEncoderUtilV2.getFunctionTemplates(chainMetadata);
+        Assert.assertEquals(3, templates.size());
+
+        FunctionTemplate createWeId = templates.get(0);
+        Assert.assertEquals("createWeId(address,bytes,bytes,int256)", createWeId.getSignature());
+        Assert.assertEquals(4, createWeId.getInputs().size());
+        Assert.assertEquals("0x01", createWeId.getContractAddress());
+        CreateWeIdCall call = new CreateWeIdCall(
+            ADDRESS, randomBytes(8), randomBytes(8), BigInteger.ONE);
+        Assert.assertEquals(createWeId.getSelector(),
+            FunctionEncoder.encode(call.toFunction("createWeId")).substring(0, 10));
+
+        Assert.assertEquals("0x02", templates.get(1).getContractAddress());
+        Assert.assertEquals(7, templates.get(2).getInputs().size());
+        Assert.assertEquals("0x03", templates.get(2).getContractAddress());
+    }
+}
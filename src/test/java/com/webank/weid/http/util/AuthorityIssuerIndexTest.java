@@ -0,0 +1,88 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.AuthorityIssuer;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthorityIssuerIndexTest {
+
+    private static final String WEID = "did:weid:1:0x0000000000000000000000000000000000000001";
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private final AuthorityIssuerIndex index = new AuthorityIssuerIndex(
+        new BoundedCache<>(100, 60000L, now::get),
+        new BoundedCache<>(100, 60000L, now::get),
+        new BoundedCache<>(100, 60000L, now::get));
+
+    private final Function<String, ResponseData<String>> weIdLoader = name -> {
+        reads.incrementAndGet();
+        return "org".equals(name)
+            ? new ResponseData<>(WEID, ErrorCode.SUCCESS)
+            : new ResponseData<>("", ErrorCode.BASE_ERROR);
+    };
+
+    private final Function<String, ResponseData<AuthorityIssuer>> issuerLoader = weId -> {
+        reads.incrementAndGet();
+        AuthorityIssuer issuer = new AuthorityIssuer();
+        issuer.setWeId(weId);
+        return new ResponseData<>(issuer, ErrorCode.SUCCESS);
+    };
+
+    private final BiFunction<String, String, ResponseData<Boolean>> whitelistLoader =
+        (whitelistName, weId) -> {
+            reads.incrementAndGet();
+            return new ResponseData<>(Boolean.FALSE, ErrorCode.SUCCESS);
+        };
+
+    @Test
+    public void testNameResolvedOnceUntilExpired() {
+        Assert.assertEquals(WEID, index.getWeIdByName("org", weIdLoader).getResult());
+        Assert.assertEquals(WEID, index.getWeIdByName("org", weIdLoader).getResult());
+        Assert.assertEquals(1, reads.get());
+
+        now.addAndGet(60000L);
+        Assert.assertEquals(WEID, index.getWeIdByName("org", weIdLoader).getResult());
+        Assert.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testUnknownNameNotCached() {
+        index.getWeIdByName("unknown", weIdLoader);
+        index.getWeIdByName("unknown", weIdLoader);
+        Assert.assertEquals(2, reads.get());
+
+        index.onRegistered("unknown", WEID);
+        Assert.assertEquals(WEID, index.getWeIdByName("unknown", weIdLoader).getResult());
+        Assert.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testIssuerReloadedAfterRecognitionChanged() {
+        AuthorityIssuer issuer = index.queryAuthorityIssuerInfo(WEID, issuerLoader).getResult();
+        Assert.assertSame(issuer, index.queryAuthorityIssuerInfo(WEID, issuerLoader).getResult());
+        Assert.assertEquals(1, reads.get());
+
+        index.onRecognitionChanged(WEID);
+        Assert.assertNotSame(issuer, index.queryAuthorityIssuerInfo(WEID, issuerLoader).getResult());
+        Assert.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testWhitelistUpdatedOnAdd() {
+        Assert.assertFalse(index.isSpecificTypeIssuer("college", WEID, whitelistLoader).getResult());
+        Assert.assertFalse(index.isSpecificTypeIssuer("college", WEID, whitelistLoader).getResult());
+        Assert.assertEquals(1, reads.get());
+
+        index.onAddedToWhitelist("college", WEID);
+        Assert.assertTrue(index.isSpecificTypeIssuer("college", WEID, whitelistLoader).getResult());
+        Assert.assertEquals(1, reads.get());
+    }
+}
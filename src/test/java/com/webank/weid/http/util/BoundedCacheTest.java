@@ -0,0 +1,53 @@
+package com.webank.weid.http.util;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2, 1000L, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("c", 3);
+
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+        Assert.assertEquals(1L, cache.getMetrics().get("evictions"));
+    }
+
+    @Test
+    public void testExpire() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2, 1000L, now::get);
+        cache.put("a", 1);
+        now.addAndGet(999L);
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        now.addAndGet(1L);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMetrics() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10, 1000L, now::get);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.invalidate("a");
+        cache.get("a");
+
+        Map<String, Object> metrics = cache.getMetrics();
+        Assert.assertEquals(3L, metrics.get("hits"));
+        Assert.assertEquals(2L, metrics.get("misses"));
+        Assert.assertEquals(0.6D, (Double) metrics.get("hitRatio"), 1e-9);
+    }
+}
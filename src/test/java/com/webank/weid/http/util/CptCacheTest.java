@@ -0,0 +1,53 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CptCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger complements = new AtomicInteger();
+
+    private final CptCache cache = new CptCache(
+        new BoundedCache<>(100, 60000L),
+        new BoundedCache<>(100, 60000L),
+        schema -> {
+            complements.incrementAndGet();
+            return schema.contains("invalid") ? null : schema + "-complemented";
+        });
+
+    private final Function<Integer, ResponseData<Cpt>> loader = cptId -> {
+        loads.incrementAndGet();
+        return cptId > 1000
+            ? new ResponseData<>(null, ErrorCode.BASE_ERROR)
+            : new ResponseData<>(new Cpt(), ErrorCode.SUCCESS);
+    };
+
+    @Test
+    public void testQueryCptOnce() {
+        Cpt cpt = cache.queryCpt(10, loader).getResult();
+        Assert.assertSame(cpt, cache.queryCpt(10, loader).getResult());
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testMissingCptNotCached() {
+        Assert.assertNull(cache.queryCpt(2000, loader).getResult());
+        Assert.assertNull(cache.queryCpt(2000, loader).getResult());
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testComplementSchemaOnce() {
+        Assert.assertEquals("{}-complemented", cache.complementCptJsonSchema("{}"));
+        Assert.assertEquals("{}-complemented", cache.complementCptJsonSchema("{}"));
+        Assert.assertNull(cache.complementCptJsonSchema("invalid"));
+        Assert.assertNull(cache.complementCptJsonSchema("invalid"));
+        Assert.assertEquals(2, complements.get());
+    }
+}
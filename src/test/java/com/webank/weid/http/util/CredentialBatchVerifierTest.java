@@ -0,0 +1,96 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.base.PublicKeyProperty;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CredentialBatchVerifierTest {
+
+    private static final String ISSUER_A = "did:weid:1:0x000000000000000000000000000000000000000a";
+    private static final String ISSUER_B = "did:weid:1:0x000000000000000000000000000000000000000b";
+    private static final String UNKNOWN = "did:weid:1:0x000000000000000000000000000000000000000c";
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    private final Map<String, AtomicInteger> documentReads = new ConcurrentHashMap<>();
+
+    private final CredentialBatchVerifier verifier = new CredentialBatchVerifier(
+        pool,
+        issuer -> {
+            documentReads.computeIfAbsent(issuer, key -> new AtomicInteger()).incrementAndGet();
+            if (UNKNOWN.equals(issuer)) {
+                return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+            }
+            // the credentials are signed by the second key of their issuer
+            WeIdDocument document = new WeIdDocument();
+            document.setPublicKey(new ArrayList<>(
+                Arrays.asList(publicKey("old-" + issuer), publicKey(issuer))));
+            return new ResponseData<>(document, ErrorCode.SUCCESS);
+        },
+        (publicKey, credential) -> publicKey.getPublicKey().equals(credential.getIssuer())
+            ? new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS)
+            : new ResponseData<>(Boolean.FALSE, ErrorCode.CREDENTIAL_SIGNATURE_BROKEN));
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static PublicKeyProperty publicKey(String value) {
+        PublicKeyProperty publicKey = new PublicKeyProperty();
+        publicKey.setPublicKey(value);
+        return publicKey;
+    }
+
+    private static CredentialPojo credential(String issuer) {
+        CredentialPojo credential = new CredentialPojo();
+        credential.setIssuer(issuer);
+        return credential;
+    }
+
+    @Test
+    public void testReadEachIssuerOnce() {
+        List<CredentialPojo> credentials = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            credentials.add(credential(i % 2 == 0 ? ISSUER_A : ISSUER_B));
+        }
+        List<HttpResponseData<Boolean>> results = verifier.verify(credentials);
+
+        Assert.assertEquals(20, results.size());
+        for (HttpResponseData<Boolean> result : results) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), result.getErrorCode().intValue());
+            Assert.assertTrue(result.getRespBody());
+        }
+        Assert.assertEquals(2, documentReads.size());
+        Assert.assertEquals(1, documentReads.get(ISSUER_A).get());
+        Assert.assertEquals(1, documentReads.get(ISSUER_B).get());
+    }
+
+    @Test
+    public void testResultPerCredentialInOrder() {
+        List<HttpResponseData<Boolean>> results = verifier.verify(Arrays.asList(
+            credential(ISSUER_A), null, credential(UNKNOWN), credential(ISSUER_B)));
+
+        Assert.assertTrue(results.get(0).getRespBody());
+        Assert.assertEquals(HttpReturnCode.INPUT_ILLEGAL.getCode(),
+            results.get(1).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_DOES_NOT_EXIST.getCode(),
+            results.get(2).getErrorCode().intValue());
+        Assert.assertTrue(results.get(3).getRespBody());
+    }
+}
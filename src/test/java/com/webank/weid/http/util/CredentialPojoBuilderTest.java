@@ -0,0 +1,57 @@
+package com.webank.weid.http.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.DateUtils;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CredentialPojoBuilderTest {
+
+    private static final String ISSUER = "did:weid:1:0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3";
+
+    private static final String CLAIM = "{\"name\":\"zhang san\",\"age\":18,\"height\":1.80,"
+        + "\"id\":123456789012345678901234567890,\"married\":false,\"note\":null,"
+        + "\"address\":{\"city\":\"shenzhen\",\"zip\":518000},"
+        + "\"tags\":[\"a\",{\"b\":1},[2,3]]}";
+
+    private static final String SIMPLE_CLAIM = "{\"name\":\"zhang san\",\"age\":18,"
+        + "\"height\":1.80,\"address\":{\"city\":\"shenzhen\",\"zip\":518000}}";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClaimSameAsStringRoundTrip() throws Exception {
+        Map<String, Object> claimMap = (HashMap<String, Object>) JsonUtil
+            .jsonStrToObj(new HashMap<String, Object>(), CLAIM);
+        HashMap<String, Object> expected =
+            DataToolUtils.deserialize(DataToolUtils.serialize(claimMap), HashMap.class);
+
+        HashMap<String, Object> claim = CredentialPojoBuilder.toClaim(JsonUtil.readTree(CLAIM));
+
+        Assert.assertEquals(expected, claim);
+        Assert.assertEquals(expected.get("address").getClass(), claim.get("address").getClass());
+        Assert.assertEquals(expected.get("height").getClass(), claim.get("height").getClass());
+        Assert.assertEquals(expected.get("id").getClass(), claim.get("id").getClass());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSaltDoesNotTouchClaim() throws Exception {
+        JsonNode claimNode = JsonUtil.readTree(SIMPLE_CLAIM);
+        HashMap<String, Object> claim = CredentialPojoBuilder.toClaim(claimNode);
+        Long expirationDate = DateUtils.getNoMillisecondTimeStamp() + 86400L;
+
+        CredentialPojo credential = CredentialPojoBuilder.build(1000, ISSUER, expirationDate, claim);
+
+        Assert.assertSame(claim, credential.getClaim());
+        Assert.assertEquals(CredentialPojoBuilder.toClaim(claimNode), claim);
+        Map<String, Object> salt = credential.getSalt();
+        Assert.assertEquals(claim.keySet(), salt.keySet());
+        Assert.assertEquals(((Map<String, Object>) claim.get("address")).keySet(),
+            ((Map<String, Object>) salt.get("address")).keySet());
+        Assert.assertNotNull(credential.getSignature());
+    }
+}
@@ -0,0 +1,45 @@
+package com.webank.weid.http.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExecutorUtilTest {
+
+    @Test
+    public void testMapInParallelKeepsOrder() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1003; i++) {
+            items.add(i);
+        }
+        List<String> results = ExecutorUtil.mapInParallel(items, i -> "item-" + i);
+        Assert.assertEquals(items.size(), results.size());
+        for (int i = 0; i < items.size(); i++) {
+            Assert.assertEquals("item-" + i, results.get(i));
+        }
+    }
+
+    @Test
+    public void testMapInParallelSmallLists() {
+        Assert.assertTrue(ExecutorUtil.mapInParallel(
+            Collections.<Integer>emptyList(), i -> i + 1).isEmpty());
+        Assert.assertEquals(Collections.singletonList(2),
+            ExecutorUtil.mapInParallel(Collections.singletonList(1), i -> i + 1));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMapInParallelPropagatesFailure() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        ExecutorUtil.mapInParallel(items, i -> {
+            if (i == 57) {
+                throw new IllegalStateException("boom");
+            }
+            return i;
+        });
+    }
+}
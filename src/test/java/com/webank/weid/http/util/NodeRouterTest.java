@@ -0,0 +1,206 @@
+package com.webank.weid.http.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.http.HttpService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NodeRouterTest {
+
+    private static final long EJECT_MILLIS = 30000L;
+
+    private final List<StandInNode> standIns = new ArrayList<>();
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    /**
+     * A local JSON-RPC stand-in of a node, answering every call with its block height.
+     */
+    private static final class StandInNode {
+
+        private final HttpServer server;
+        private volatile long blockNumber;
+        private volatile long delayMillis;
+        private volatile boolean failing;
+        private volatile boolean rpcError;
+
+        private StandInNode(long blockNumber, long delayMillis) throws IOException {
+            this.blockNumber = blockNumber;
+            this.delayMillis = delayMillis;
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+        }
+
+        private String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (InputStream in = exchange.getRequestBody()) {
+                while (in.read() != -1) {
+                    // drain the request
+                }
+            }
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            String response = rpcError
+                ? "{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32000,\"message\":\"busy\"}}"
+                : "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x"
+                    + Long.toHexString(blockNumber) + "\"}";
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private StandInNode standIn(long blockNumber, long delayMillis) throws IOException {
+        StandInNode node = new StandInNode(blockNumber, delayMillis);
+        standIns.add(node);
+        return node;
+    }
+
+    private NodeRouter router(StandInNode... standInNodes) {
+        Map<String, Web3j> nodes = new LinkedHashMap<>();
+        for (StandInNode node : standInNodes) {
+            nodes.put(node.url(), Web3j.build(new HttpService(node.url()), 1));
+        }
+        return new NodeRouter(nodes, 0.3, 0.5, 5, EJECT_MILLIS, now::get);
+    }
+
+    private static void probe(NodeRouter router, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            router.probe().join();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isEjected(NodeRouter router, StandInNode node) {
+        return (Boolean) ((Map<String, Object>) router.getMetrics().get(node.url()))
+            .get("ejected");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double errorRate(NodeRouter router, StandInNode node) {
+        return (Double) ((Map<String, Object>) router.getMetrics().get(node.url()))
+            .get("errorRate");
+    }
+
+    @After
+    public void tearDown() {
+        for (StandInNode node : standIns) {
+            node.server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRoutesToFastestNode() throws IOException {
+        StandInNode slow = standIn(100, 150);
+        StandInNode fast = standIn(100, 0);
+        NodeRouter router = router(slow, fast);
+        probe(router, 3);
+
+        Assert.assertEquals(fast.url(), router.select().url);
+        Assert.assertEquals(BigInteger.valueOf(100),
+            router.call(web3j -> web3j.getBlockNumber().send().getBlockNumber()));
+        Assert.assertFalse(isEjected(router, slow));
+    }
+
+    @Test
+    public void testEjectsFailingNode() throws IOException {
+        StandInNode failing = standIn(100, 0);
+        failing.failing = true;
+        StandInNode healthy = standIn(100, 50);
+        NodeRouter router = router(failing, healthy);
+        probe(router, 3);
+
+        Assert.assertTrue(isEjected(router, failing));
+        Assert.assertEquals(healthy.url(), router.select().url);
+    }
+
+    @Test
+    public void testEjectsLaggingNodeUntilCaughtUp() throws IOException {
+        StandInNode lagging = standIn(90, 0);
+        StandInNode inSync = standIn(100, 50);
+        NodeRouter router = router(lagging, inSync);
+        probe(router, 2);
+
+        Assert.assertTrue(isEjected(router, lagging));
+        Assert.assertEquals(inSync.url(), router.select().url);
+
+        lagging.blockNumber = 100;
+        probe(router, 2);
+        // caught up, but still within its ejection
+        Assert.assertEquals(inSync.url(), router.select().url);
+
+        now.addAndGet(EJECT_MILLIS);
+        probe(router, 2);
+        Assert.assertFalse(isEjected(router, lagging));
+        Assert.assertEquals(lagging.url(), router.select().url);
+    }
+
+    @Test
+    public void testFallsBackWhenNoNodeIsHealthy() throws IOException {
+        StandInNode failing = standIn(100, 0);
+        failing.failing = true;
+        NodeRouter router = router(failing);
+        probe(router, 3);
+
+        Assert.assertEquals(failing.url(), router.select().url);
+        try {
+            router.call(web3j -> web3j.getBlockNumber().send());
+            Assert.fail();
+        } catch (IOException e) {
+            // the failure is still reported to the caller
+        }
+    }
+
+    @Test
+    public void testRpcErrorCountsAsFailure() throws IOException {
+        StandInNode erroring = standIn(100, 0);
+        erroring.rpcError = true;
+        NodeRouter router = router(erroring);
+
+        for (int i = 0; i < 3; i++) {
+            // answered with a 200, so the caller sees no exception
+            Assert.assertTrue(router.call(web3j -> web3j.getBlockNumber().send()).hasError());
+        }
+        router.callAsync(web3j -> web3j.getBlockNumber().sendAsync()).join();
+        Assert.assertTrue(errorRate(router, erroring) >= 0.5);
+
+        erroring.rpcError = false;
+        router.call(web3j -> web3j.getBlockNumber().send());
+        Assert.assertTrue(errorRate(router, erroring) < 0.75);
+    }
+}
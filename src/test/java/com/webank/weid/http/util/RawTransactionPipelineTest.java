@@ -0,0 +1,89 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RawTransactionPipelineTest {
+
+    private final Map<String, CompletableFuture<TransactionReceipt>> receipts =
+        new ConcurrentHashMap<>();
+
+    private RawTransactionPipeline pipeline(int window, long acquireTimeoutMillis) {
+        return new RawTransactionPipeline(window, acquireTimeoutMillis,
+            txnHex -> {
+                if (txnHex.startsWith("bad")) {
+                    CompletableFuture<String> rejected = new CompletableFuture<>();
+                    rejected.completeExceptionally(new IOException("rejected"));
+                    return rejected;
+                }
+                return CompletableFuture.completedFuture("hash-" + txnHex);
+            },
+            hash -> receipts.computeIfAbsent(hash, key -> new CompletableFuture<>()));
+    }
+
+    private static TransactionReceipt receipt(String hash) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(hash);
+        return receipt;
+    }
+
+    @Test
+    public void testWindowIsReleasedOnReceipt() throws Exception {
+        RawTransactionPipeline pipeline = pipeline(2, 50L);
+        CompletableFuture<TransactionReceipt> first = pipeline.submit("0x1");
+        CompletableFuture<TransactionReceipt> second = pipeline.submit("0x2");
+        Assert.assertEquals(0, pipeline.getAvailableSlots());
+
+        // the window is full: the third one times out waiting for a slot
+        CompletableFuture<TransactionReceipt> third = pipeline.submit("0x3");
+        try {
+            third.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        receipts.get("hash-0x1").complete(receipt("hash-0x1"));
+        Assert.assertEquals("hash-0x1", first.get().getTransactionHash());
+        Assert.assertEquals(1, pipeline.getAvailableSlots());
+        Assert.assertFalse(second.isDone());
+
+        CompletableFuture<TransactionReceipt> fourth = pipeline.submit("0x4");
+        Assert.assertEquals(0, pipeline.getAvailableSlots());
+        receipts.get("hash-0x2").completeExceptionally(new TimeoutException("no receipt"));
+        receipts.get("hash-0x4").complete(receipt("hash-0x4"));
+        Assert.assertTrue(second.isCompletedExceptionally());
+        Assert.assertEquals("hash-0x4", fourth.get().getTransactionHash());
+        Assert.assertEquals(2, pipeline.getAvailableSlots());
+    }
+
+    @Test
+    public void testRejectedTransactionReleasesSlot() {
+        RawTransactionPipeline pipeline = pipeline(1, 50L);
+        CompletableFuture<TransactionReceipt> rejected = pipeline.submit("bad");
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+        Assert.assertEquals(1, pipeline.getAvailableSlots());
+    }
+
+    @Test
+    public void testErrorResponse() {
+        HttpResponseData<Object> timeout = RawTransactionPipeline.toErrorResponse(
+            new CompletionException(new TimeoutException("no receipt")));
+        Assert.assertEquals(HttpReturnCode.TRANSACTION_NOT_FOUND.getCode(),
+            timeout.getErrorCode().intValue());
+        HttpResponseData<Object> rejected = RawTransactionPipeline.toErrorResponse(
+            new CompletionException(new IOException("rejected")));
+        Assert.assertEquals(HttpReturnCode.UNKNOWN_ERROR.getCode(),
+            rejected.getErrorCode().intValue());
+    }
+}
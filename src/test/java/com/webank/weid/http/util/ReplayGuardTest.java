@@ -0,0 +1,87 @@
+package com.webank.weid.http.util;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.web3j.crypto.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReplayGuardTest {
+
+    private static final long WINDOW_MILLIS = 1000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private ReplayGuard guard(int exactMaxEntries) {
+        return new ReplayGuard(WINDOW_MILLIS, 1000, 0.0001, exactMaxEntries, now::get);
+    }
+
+    private static String hash(int i) {
+        return Hash.sha3String("transaction-" + i);
+    }
+
+    @Test
+    public void testRejectResend() {
+        ReplayGuard guard = guard(100);
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        Assert.assertTrue(guard.tryAcquire(hash(2)));
+        Assert.assertFalse(guard.tryAcquire(hash(1)));
+        Assert.assertFalse(guard.tryAcquire(hash(1).toUpperCase().replace("0X", "0x")));
+
+        Map<String, Object> metrics = guard.getMetrics();
+        Assert.assertEquals(2L, metrics.get("hits"));
+        Assert.assertEquals(2L, metrics.get("misses"));
+        Assert.assertEquals(2, metrics.get("windowEntries"));
+    }
+
+    @Test
+    public void testReleaseAllowsResend() {
+        ReplayGuard guard = guard(100);
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        guard.release(hash(1));
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        Assert.assertFalse(guard.tryAcquire(hash(1)));
+        Assert.assertEquals(1L, guard.getMetrics().get("releases"));
+    }
+
+    @Test
+    public void testKeysExpireAfterTwoWindows() {
+        ReplayGuard guard = guard(100);
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        now.addAndGet(WINDOW_MILLIS);
+        // still in the previous window
+        Assert.assertFalse(guard.tryAcquire(hash(1)));
+        Assert.assertTrue(guard.tryAcquire(hash(2)));
+        now.addAndGet(WINDOW_MILLIS);
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        Assert.assertFalse(guard.tryAcquire(hash(2)));
+        now.addAndGet(2 * WINDOW_MILLIS);
+        Assert.assertTrue(guard.tryAcquire(hash(1)));
+        Assert.assertTrue(guard.tryAcquire(hash(2)));
+    }
+
+    @Test
+    public void testFullWindowRollsOverEarly() {
+        ReplayGuard guard = guard(2);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(guard.tryAcquire(hash(i)));
+        }
+        // the last two windows are still remembered exactly
+        for (int i = 6; i < 10; i++) {
+            Assert.assertFalse(guard.tryAcquire(hash(i)));
+        }
+        Map<String, Object> metrics = guard.getMetrics();
+        Assert.assertEquals(4L, metrics.get("earlyRollOvers"));
+        Assert.assertEquals(2, metrics.get("windowEntries"));
+    }
+
+    @Test
+    public void testNoFalseRejectionUnderLoad() {
+        // a Bloom filter far too small for the load, which a full window used to trust alone
+        ReplayGuard guard = new ReplayGuard(WINDOW_MILLIS, 1, 0.5, 100, now::get);
+        for (int i = 0; i < 5000; i++) {
+            Assert.assertTrue(guard.tryAcquire(hash(i)));
+        }
+        Assert.assertEquals(5000L, guard.getMetrics().get("misses"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.webank.weid.http.util;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.fisco.bcos.web3j.crypto.EncryptType;
+import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.fisco.bcos.web3j.rlp.RlpEncoder;
+import org.fisco.bcos.web3j.rlp.RlpList;
+import org.fisco.bcos.web3j.utils.Numeric;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RlpTransactionEncoderTest {
+
+    private static final String GOLDEN_UNSIGNED = "0xf85284075bcd1585174876e7ff85174876e7ff"
+        + "8203e89400112233445566778899aabbccddeeff0011223380a4a9059cbb01010101010101010101"
+        + "01010101010101010101010101010101010101010101010180";
+
+    private static final String GOLDEN_ECDSA = "0xf89484075bcd1585174876e7ff85174876e7ff"
+        + "8203e89400112233445566778899aabbccddeeff0011223380a4a9059cbb01010101010101010101"
+        + "01010101010101010101010101010101010101010101010180"
+        + "1b9f11111111111111111111111111111111111111111111111111111111111111"
+        + "a02222222222222222222222222222222222222222222222222222222222222222";
+
+    private static final String GOLDEN_GUOMI = "0xf8d584075bcd1585174876e7ff85174876e7ff"
+        + "8203e89400112233445566778899aabbccddeeff0011223380a4a9059cbb01010101010101010101"
+        + "01010101010101010101010101010101010101010101010180"
+        + "b84033333333333333333333333333333333333333333333333333333333333333333333333333333"
+        + "333333333333333333333333333333333333333333333333333"
+        + "9f11111111111111111111111111111111111111111111111111111111111111"
+        + "a02222222222222222222222222222222222222222222222222222222222222222";
+
+    private static ExtendedRawTransaction goldenTransaction() {
+        return ExtendedRawTransaction.createTransaction(
+            BigInteger.valueOf(123456789L),
+            new BigInteger("99999999999"),
+            new BigInteger("99999999999"),
+            BigInteger.valueOf(1000L),
+            "0x00112233445566778899aabbccddeeff00112233",
+            BigInteger.ZERO,
+            "0xa9059cbb" + repeat("01", 32),
+            BigInteger.ONE,
+            BigInteger.ONE,
+            null);
+    }
+
+    private static SignatureData goldenSignature() {
+        byte[] r = new byte[32];
+        byte[] s = new byte[32];
+        byte[] pub = new byte[64];
+        for (int i = 0; i < 32; i++) {
+            r[i] = i == 0 ? 0 : (byte) 0x11;
+            s[i] = (byte) 0x22;
+        }
+        for (int i = 0; i < 64; i++) {
+            pub[i] = (byte) 0x33;
+        }
+        return new SignatureData((byte) 27, r, s, pub);
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    private static byte[] web3jEncode(ExtendedRawTransaction transaction,
+        SignatureData signatureData, int encryptType) {
+        int previous = EncryptType.encryptType;
+        EncryptType.encryptType = encryptType;
+        try {
+            return RlpEncoder.encode(new RlpList(
+                TransactionEncoderUtilV2.asRlpValues(transaction, signatureData)));
+        } finally {
+            EncryptType.encryptType = previous;
+        }
+    }
+
+    @Test
+    public void testGoldenVectors() {
+        ExtendedRawTransaction transaction = goldenTransaction();
+        SignatureData signatureData = goldenSignature();
+        Assert.assertEquals(GOLDEN_UNSIGNED,
+            Numeric.toHexString(RlpTransactionEncoder.encode(transaction, null, 0)));
+        Assert.assertEquals(GOLDEN_ECDSA,
+            Numeric.toHexString(RlpTransactionEncoder.encode(transaction, signatureData, 0)));
+        Assert.assertEquals(GOLDEN_GUOMI,
+            Numeric.toHexString(RlpTransactionEncoder.encode(transaction, signatureData, 1)));
+
+        Assert.assertEquals(GOLDEN_UNSIGNED,
+            Numeric.toHexString(web3jEncode(transaction, null, 0)));
+        Assert.assertEquals(GOLDEN_ECDSA,
+            Numeric.toHexString(web3jEncode(transaction, signatureData, 0)));
+        Assert.assertEquals(GOLDEN_GUOMI,
+            Numeric.toHexString(web3jEncode(transaction, signatureData, 1)));
+    }
+
+    @Test
+    public void testSameAsWeb3j() {
+        Random random = new Random(20201);
+        for (int round = 0; round < 500; round++) {
+            byte[] data = new byte[random.nextInt(700)];
+            random.nextBytes(data);
+            byte[] to = new byte[20];
+            random.nextBytes(to);
+            ExtendedRawTransaction transaction = ExtendedRawTransaction.createTransaction(
+                new BigInteger(random.nextInt(256), random),
+                new BigInteger(random.nextInt(64), random),
+                new BigInteger(random.nextInt(64), random),
+                BigInteger.valueOf(random.nextInt(1 << 20)),
+                random.nextInt(8) == 0 ? "" : Numeric.toHexString(to),
+                BigInteger.valueOf(random.nextInt(3)),
+                Numeric.toHexString(data),
+                BigInteger.valueOf(random.nextInt(300)),
+                BigInteger.valueOf(random.nextInt(300)),
+                random.nextBoolean() ? null : Numeric.toHexString(to));
+            byte[] r = new byte[32];
+            byte[] s = new byte[32];
+            byte[] pub = new byte[64];
+            random.nextBytes(r);
+            random.nextBytes(s);
+            random.nextBytes(pub);
+            if (random.nextBoolean()) {
+                r[0] = 0;
+                r[1] = 0;
+            }
+            SignatureData signatureData =
+                new SignatureData((byte) (random.nextInt(2) + 27), r, s, pub);
+            for (int encryptType = 0; encryptType < 2; encryptType++) {
+                Assert.assertArrayEquals(web3jEncode(transaction, null, encryptType),
+                    RlpTransactionEncoder.encode(transaction, null, encryptType));
+                Assert.assertArrayEquals(web3jEncode(transaction, signatureData, encryptType),
+                    RlpTransactionEncoder.encode(transaction, signatureData, encryptType));
+            }
+        }
+    }
+}
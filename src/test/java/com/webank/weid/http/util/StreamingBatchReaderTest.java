@@ -0,0 +1,69 @@
+package com.webank.weid.http.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.request.InputArg;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingBatchReaderTest {
+
+    private static StreamingBatchReader reader(String body) throws Exception {
+        return new StreamingBatchReader(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testReadHeaderAndEntries() throws Exception {
+        String body = "{\"functionName\":\"delegateCreateEvidenceB\",\"v\":\"1.0.0\","
+            + "\"transactionArg\":{\"groupId\":1,\"loopback\":\"x\"},"
+            + "\"functionArg\":{\"other\":\"o\",\"list\":[{\"hash\":\"h1\",\"sign\":\"s1\"},"
+            + "{\"hash\":\"h2\",\"sign\":\"s2\",\"log\":\"l2\"}]}}";
+        try (StreamingBatchReader reader = reader(body)) {
+            HttpResponseData<InputArg> resp = reader.readHeader();
+            InputArg inputArg = resp.getRespBody();
+            Assert.assertNotNull(inputArg);
+            Assert.assertEquals("delegateCreateEvidenceB", inputArg.getFunctionName());
+            Assert.assertEquals("1.0.0", inputArg.getV());
+            Assert.assertEquals(1, inputArg.getTransactionArgNode().get("groupId").intValue());
+            Assert.assertEquals("o", inputArg.getFunctionArgNode().get("other").textValue());
+            Assert.assertNull(inputArg.getFunctionArgNode().get("list"));
+
+            Iterator<JsonNode> entries = reader.items();
+            Assert.assertTrue(entries.hasNext());
+            Assert.assertEquals("h1", entries.next().get("hash").textValue());
+            Assert.assertEquals("l2", entries.next().get("log").textValue());
+            Assert.assertFalse(entries.hasNext());
+        }
+    }
+
+    @Test
+    public void testHeaderAfterList() throws Exception {
+        String body = "{\"functionArg\":{\"list\":[{\"hash\":\"h1\",\"sign\":\"s1\"}]},"
+            + "\"functionName\":\"delegateCreateEvidenceB\",\"v\":\"1.0.0\","
+            + "\"transactionArg\":{}}";
+        try (StreamingBatchReader reader = reader(body)) {
+            HttpResponseData<InputArg> resp = reader.readHeader();
+            Assert.assertNull(resp.getRespBody());
+            Assert.assertEquals(HttpReturnCode.FUNCTION_NAME_ILLEGAL.getCode(),
+                resp.getErrorCode().intValue());
+        }
+    }
+
+    @Test
+    public void testMissingList() throws Exception {
+        String body = "{\"functionName\":\"delegateCreateEvidenceB\",\"v\":\"1.0.0\","
+            + "\"transactionArg\":{},\"functionArg\":{\"other\":\"o\"}}";
+        try (StreamingBatchReader reader = reader(body)) {
+            HttpResponseData<InputArg> resp = reader.readHeader();
+            Assert.assertNull(resp.getRespBody());
+            Assert.assertEquals(HttpReturnCode.FUNCARG_ILLEGAL.getCode(),
+                resp.getErrorCode().intValue());
+            Assert.assertFalse(reader.items().hasNext());
+        }
+    }
+}
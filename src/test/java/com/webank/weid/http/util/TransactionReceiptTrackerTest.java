@@ -0,0 +1,165 @@
+package com.webank.weid.http.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionReceiptTrackerTest {
+
+    private final AtomicReference<BigInteger> block = new AtomicReference<>(BigInteger.ONE);
+    private final Map<String, TransactionReceipt> chain = new HashMap<>();
+    private final Map<BigInteger, List<String>> blocks = new HashMap<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicInteger blockReads = new AtomicInteger();
+
+    private TransactionReceiptTracker tracker(long timeoutMillis) {
+        return new TransactionReceiptTracker(block::get, number -> {
+            blockReads.incrementAndGet();
+            return blocks.getOrDefault(number, Collections.emptyList());
+        }, hash -> {
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(Optional.ofNullable(chain.get(hash)));
+        }, timeoutMillis, 4);
+    }
+
+    private void mine(long number, String... hashes) {
+        List<String> included = new ArrayList<>();
+        for (String hash : hashes) {
+            chain.put(hash, receipt(hash));
+            included.add(hash);
+        }
+        blocks.put(BigInteger.valueOf(number), included);
+    }
+
+    private static TransactionReceipt receipt(String hash) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(hash);
+        return receipt;
+    }
+
+    @Test
+    public void testCompletesOnNewBlock() throws Exception {
+        TransactionReceiptTracker tracker = tracker(60000L);
+        CompletableFuture<TransactionReceipt> first = tracker.track("0x1");
+        CompletableFuture<TransactionReceipt> second = tracker.track("0x2");
+        Assert.assertSame(first, tracker.track("0x1"));
+
+        tracker.tick();
+        Assert.assertEquals(2, fetches.get());
+        Assert.assertFalse(first.isDone());
+
+        // same block: nothing is fetched again
+        tracker.tick();
+        Assert.assertEquals(2, fetches.get());
+
+        // only the receipt of the transaction in the new block is fetched
+        mine(2, "0x1", "0x3");
+        block.set(BigInteger.valueOf(2));
+        tracker.tick();
+        Assert.assertEquals(3, fetches.get());
+        Assert.assertEquals(1, blockReads.get());
+        Assert.assertEquals("0x1", first.get().getTransactionHash());
+        Assert.assertFalse(second.isDone());
+        Assert.assertEquals(1, tracker.getPendingCount());
+    }
+
+    @Test
+    public void testCostPerBlockBounded() throws Exception {
+        TransactionReceiptTracker tracker = tracker(60000L);
+        List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(tracker.track("0x" + Integer.toHexString(i)));
+        }
+        tracker.tick();
+        Assert.assertEquals(100, fetches.get());
+
+        for (long number = 2; number <= 4; number++) {
+            block.set(BigInteger.valueOf(number));
+            tracker.tick();
+        }
+        Assert.assertEquals(100, fetches.get());
+        Assert.assertEquals(3, blockReads.get());
+
+        mine(5, "0xa");
+        block.set(BigInteger.valueOf(5));
+        tracker.tick();
+        Assert.assertEquals(101, fetches.get());
+        Assert.assertEquals("0xa", futures.get(10).get().getTransactionHash());
+    }
+
+    @Test
+    public void testNewlyTrackedFoundInReadBlock() throws Exception {
+        TransactionReceiptTracker tracker = tracker(60000L);
+        tracker.track("0x1");
+        tracker.tick();
+        // on chain before it is tracked, but its first fetch misses (a lagging node)
+        mine(2, "0x2");
+        block.set(BigInteger.valueOf(2));
+        tracker.tick();
+        chain.remove("0x2");
+        CompletableFuture<TransactionReceipt> late = tracker.track("0x2");
+        tracker.tick();
+        Assert.assertFalse(late.isDone());
+
+        chain.put("0x2", receipt("0x2"));
+        tracker.tick();
+        Assert.assertEquals("0x2", late.get().getTransactionHash());
+    }
+
+    @Test
+    public void testFetchesAllAfterTooManyBlocks() {
+        TransactionReceiptTracker tracker = tracker(60000L);
+        tracker.track("0x1");
+        tracker.track("0x2");
+        tracker.tick();
+        Assert.assertEquals(2, fetches.get());
+
+        block.set(BigInteger.valueOf(100));
+        tracker.tick();
+        Assert.assertEquals(0, blockReads.get());
+        Assert.assertEquals(4, fetches.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        TransactionReceiptTracker tracker = tracker(0L);
+        CompletableFuture<TransactionReceipt> future = tracker.track("0x1");
+        Thread.sleep(5L);
+        tracker.tick();
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertEquals(0, tracker.getPendingCount());
+        Assert.assertEquals(0, fetches.get());
+    }
+
+    @Test
+    public void testTimeoutWhileNodeIsDown() throws Exception {
+        TransactionReceiptTracker tracker = new TransactionReceiptTracker(() -> {
+            throw new UncheckedIOException(new IOException("node unreachable"));
+        }, number -> Collections.emptyList(),
+            hash -> CompletableFuture.completedFuture(Optional.empty()), 0L, 4);
+        CompletableFuture<TransactionReceipt> future = tracker.track("0x1");
+        Thread.sleep(5L);
+        tracker.tick();
+        Assert.assertTrue(future.isCompletedExceptionally());
+        Assert.assertEquals(0, tracker.getPendingCount());
+    }
+}
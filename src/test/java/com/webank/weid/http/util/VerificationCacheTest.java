@@ -0,0 +1,146 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.base.CredentialPojo;
+import com.webank.weid.protocol.response.ResponseData;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VerificationCacheTest {
+
+    private static final String ISSUER = "did:weid:1:0x0000000000000000000000000000000000000001";
+
+    private final AtomicLong now = new AtomicLong(1_600_000_000_000L);
+    private final AtomicLong block = new AtomicLong(100L);
+    private final AtomicLong relatedBlock = new AtomicLong(10L);
+    private final AtomicInteger cptVersion = new AtomicInteger(1);
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final VerificationCache cache = new VerificationCache(
+        new BoundedCache<>(100, 600000L, now::get),
+        () -> BigInteger.valueOf(block.get()),
+        weId -> BigInteger.valueOf(relatedBlock.get()),
+        cptId -> cptVersion.get(),
+        now::get);
+
+    private final Function<CredentialPojo, ResponseData<Boolean>> verifier = credential -> {
+        verifications.incrementAndGet();
+        return valid.get()
+            ? new ResponseData<>(Boolean.TRUE, ErrorCode.SUCCESS)
+            : new ResponseData<>(Boolean.FALSE, ErrorCode.CREDENTIAL_SIGNATURE_BROKEN);
+    };
+
+    private CredentialPojo credential(long expiresInSeconds) {
+        CredentialPojo credential = new CredentialPojo();
+        credential.setId("cred-" + expiresInSeconds);
+        credential.setIssuer(ISSUER);
+        credential.setCptId(1000);
+        credential.setExpirationDate(now.get() / 1000L + expiresInSeconds);
+        return credential;
+    }
+
+    @Test
+    public void testRepeatVerificationServedFromCache() {
+        CredentialPojo credential = credential(3600L);
+        Assert.assertTrue(cache.verify(credential, verifier).getResult());
+        Assert.assertTrue(cache.verify(credential, verifier).getResult());
+        Assert.assertEquals(1, verifications.get());
+
+        // the chain moved on but the issuer did not change
+        block.incrementAndGet();
+        Assert.assertTrue(cache.verify(credential, verifier).getResult());
+        Assert.assertEquals(1, verifications.get());
+    }
+
+    @Test
+    public void testDroppedWhenIssuerChanges() {
+        CredentialPojo credential = credential(3600L);
+        cache.verify(credential, verifier);
+        block.incrementAndGet();
+        relatedBlock.set(block.get());
+        valid.set(false);
+
+        Assert.assertFalse(cache.verify(credential, verifier).getResult());
+        Assert.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void testDroppedWhenCptChanges() {
+        CredentialPojo credential = credential(3600L);
+        cache.verify(credential, verifier);
+        block.incrementAndGet();
+        cptVersion.incrementAndGet();
+
+        cache.verify(credential, verifier);
+        Assert.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void testCptVersionReadFromChain() {
+        AtomicInteger chainVersion = new AtomicInteger(1);
+        VerificationCache chainCache = new VerificationCache(
+            new BoundedCache<>(100, 600000L, now::get),
+            () -> BigInteger.valueOf(block.get()),
+            weId -> BigInteger.valueOf(relatedBlock.get()),
+            VerificationCache.cptVersionReader(cptId -> {
+                Cpt cpt = new Cpt();
+                cpt.setCptVersion(chainVersion.get());
+                return new ResponseData<>(cpt, ErrorCode.SUCCESS);
+            }),
+            now::get);
+        CredentialPojo credential = credential(3600L);
+        chainCache.verify(credential, verifier);
+        block.incrementAndGet();
+        chainCache.verify(credential, verifier);
+        Assert.assertEquals(1, verifications.get());
+
+        // the CPT is updated in the next block
+        block.incrementAndGet();
+        chainVersion.incrementAndGet();
+        chainCache.verify(credential, verifier);
+        Assert.assertEquals(2, verifications.get());
+        Assert.assertEquals(1L, chainCache.getMetrics().get("invalidations"));
+    }
+
+    @Test
+    public void testUnreadableCptNotCached() {
+        VerificationCache chainCache = new VerificationCache(
+            new BoundedCache<>(100, 600000L, now::get),
+            () -> BigInteger.valueOf(block.get()),
+            weId -> BigInteger.valueOf(relatedBlock.get()),
+            VerificationCache.cptVersionReader(
+                cptId -> new ResponseData<>(null, ErrorCode.CPT_ID_ILLEGAL)),
+            now::get);
+        CredentialPojo credential = credential(3600L);
+        chainCache.verify(credential, verifier);
+        chainCache.verify(credential, verifier);
+        Assert.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void testDroppedWhenCredentialExpires() {
+        CredentialPojo credential = credential(10L);
+        cache.verify(credential, verifier);
+        now.addAndGet(10000L);
+        valid.set(false);
+
+        Assert.assertFalse(cache.verify(credential, verifier).getResult());
+        Assert.assertEquals(2, verifications.get());
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        valid.set(false);
+        CredentialPojo credential = credential(3600L);
+        cache.verify(credential, verifier);
+        cache.verify(credential, verifier);
+        Assert.assertEquals(2, verifications.get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.webank.weid.http.util;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WeIdDocumentCacheTest {
+
+    private static final String WEID = "did:weid:1:0x0000000000000000000000000000000000000001";
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicLong block = new AtomicLong(100L);
+    private final AtomicLong relatedBlock = new AtomicLong(10L);
+    private final AtomicInteger relatedBlockReads = new AtomicInteger();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final WeIdDocumentCache cache = new WeIdDocumentCache(
+        new BoundedCache<>(100, 60000L, now::get),
+        () -> BigInteger.valueOf(block.get()),
+        weId -> {
+            relatedBlockReads.incrementAndGet();
+            return BigInteger.valueOf(relatedBlock.get());
+        });
+
+    private final Function<String, HttpResponseData<ObjectNode>> loader = weId -> {
+        ObjectNode document = JsonNodeFactory.instance.objectNode();
+        document.put("id", weId);
+        document.put("version", loads.incrementAndGet());
+        return new HttpResponseData<>(document, HttpReturnCode.SUCCESS);
+    };
+
+    private int version() {
+        return cache.get(WEID, loader).getRespBody().get("version").intValue();
+    }
+
+    @Test
+    public void testServeFromCacheWithinBlock() {
+        Assert.assertEquals(1, version());
+        Assert.assertEquals(1, version());
+        Assert.assertEquals(1, version());
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, relatedBlockReads.get());
+    }
+
+    @Test
+    public void testRevalidateAfterNewBlock() {
+        Assert.assertEquals(1, version());
+        block.incrementAndGet();
+        Assert.assertEquals(1, version());
+        Assert.assertEquals(1, version());
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(2, relatedBlockReads.get());
+        Assert.assertEquals(1L, cache.getMetrics().get("revalidations"));
+    }
+
+    @Test
+    public void testReloadAfterChangeOnChain() {
+        Assert.assertEquals(1, version());
+        block.incrementAndGet();
+        relatedBlock.set(101L);
+        Assert.assertEquals(2, version());
+        Assert.assertEquals(2, version());
+        Assert.assertEquals(1L, cache.getMetrics().get("invalidations"));
+    }
+
+    @Test
+    public void testReloadAfterTtl() {
+        Assert.assertEquals(1, version());
+        now.addAndGet(60000L);
+        Assert.assertEquals(2, version());
+    }
+
+    @Test
+    public void testErrorsNotCached() {
+        HttpResponseData<ObjectNode> error = cache.get(WEID,
+            weId -> new HttpResponseData<>(null, HttpReturnCode.WEID_SDK_ERROR));
+        Assert.assertNull(error.getRespBody());
+        Assert.assertEquals(HttpReturnCode.WEID_SDK_ERROR.getCode(),
+            error.getErrorCode().intValue());
+        Assert.assertEquals(1, version());
+    }
+}
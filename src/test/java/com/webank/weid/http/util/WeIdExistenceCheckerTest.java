@@ -0,0 +1,75 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WeIdExistenceCheckerTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final WeIdExistenceChecker checker =
+        new WeIdExistenceChecker(new BoundedCache<>(100, 60000L), pool);
+
+    private final Function<String, ResponseData<Boolean>> lookup = weId -> {
+        lookups.incrementAndGet();
+        try {
+            Thread.sleep(100L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean exist = !weId.startsWith("missing");
+        return new ResponseData<>(exist, ErrorCode.SUCCESS);
+    };
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testRememberExistingOnly() {
+        Assert.assertTrue(checker.isWeIdExist("a", lookup).getResult());
+        Assert.assertTrue(checker.isWeIdExist("a", lookup).getResult());
+        Assert.assertFalse(checker.isWeIdExist("missing", lookup).getResult());
+        Assert.assertFalse(checker.isWeIdExist("missing", lookup).getResult());
+        Assert.assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void testBulkCheckInParallel() {
+        List<String> weIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            weIds.add("weid-" + i);
+        }
+        weIds.add("missing-1");
+        weIds.add("weid-0");
+
+        long startTime = System.currentTimeMillis();
+        Map<String, ResponseData<Boolean>> results = checker.isWeIdExist(weIds, lookup);
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        Assert.assertEquals(9, results.size());
+        Assert.assertEquals(9, lookups.get());
+        Assert.assertEquals(Arrays.asList("weid-0", "weid-1", "weid-2", "weid-3", "weid-4",
+            "weid-5", "weid-6", "weid-7", "missing-1"), new ArrayList<>(results.keySet()));
+        Assert.assertFalse(results.get("missing-1").getResult());
+        // 9 lookups of 100 ms on 8 threads
+        Assert.assertTrue("took " + elapsed + " ms", elapsed < 600L);
+
+        checker.isWeIdExist(weIds, lookup);
+        Assert.assertEquals(10, lookups.get());
+    }
+}
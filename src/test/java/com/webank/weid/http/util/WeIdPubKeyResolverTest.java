@@ -0,0 +1,79 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.WeIdListRsp;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WeIdPubKeyResolverTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    private final AtomicInteger derivations = new AtomicInteger();
+
+    private final Function<String, String> derive = publicKey -> {
+        derivations.incrementAndGet();
+        return publicKey.startsWith("bad") ? "" : "did:weid:1:" + publicKey;
+    };
+
+    private final Function<String, ResponseData<Boolean>> exists = weId -> {
+        if (weId.contains("slow")) {
+            try {
+                Thread.sleep(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return new ResponseData<>(!weId.contains("missing"), ErrorCode.SUCCESS);
+    };
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testResolveInOrderAndRememberConversions() {
+        WeIdPubKeyResolver resolver =
+            new WeIdPubKeyResolver(new BoundedCache<>(100, 60000L), derive, pool, 5000L);
+
+        WeIdListRsp rsp = resolver.resolve(Arrays.asList("k1", "missing", "bad", "k2"), exists);
+
+        Assert.assertEquals(
+            Arrays.asList("did:weid:1:k1", null, null, "did:weid:1:k2"), rsp.getWeIdList());
+        Assert.assertEquals(Arrays.asList(
+            ErrorCode.SUCCESS.getCode(),
+            ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCode(),
+            HttpReturnCode.CONVERT_PUBKEY_TO_WEID_ERROR.getCode(),
+            ErrorCode.SUCCESS.getCode()), rsp.getErrorCodeList());
+        Assert.assertEquals(4, derivations.get());
+
+        resolver.resolve(Arrays.asList("k1", "missing", "k2"), exists);
+        Assert.assertEquals(4, derivations.get());
+    }
+
+    @Test
+    public void testReturnPartialResultsAtDeadline() {
+        WeIdPubKeyResolver resolver =
+            new WeIdPubKeyResolver(new BoundedCache<>(100, 60000L), derive, pool, 300L);
+
+        long startTime = System.currentTimeMillis();
+        WeIdListRsp rsp = resolver.resolve(Arrays.asList("k1", "slow", "k2"), exists);
+        long elapsed = System.currentTimeMillis() - startTime;
+
+        Assert.assertTrue("took " + elapsed + " ms", elapsed < 900L);
+        Assert.assertEquals(Arrays.asList("did:weid:1:k1", null, "did:weid:1:k2"),
+            rsp.getWeIdList());
+        Assert.assertEquals(HttpReturnCode.WEID_LOOKUP_TIMEOUT.getCode(),
+            rsp.getErrorCodeList().get(1).intValue());
+        Assert.assertEquals(1L, resolver.getMetrics().get("timeouts"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.webank.weid.http.util;
+
+import com.webank.weid.http.constant.HttpReturnCode;
+import com.webank.weid.http.protocol.response.HttpResponseData;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.fisco.bcos.web3j.utils.Numeric;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WeIdReceiptDecoderTest {
+
+    public static final String CPT_ADDRESS = "0x1a2b3c4d5e6f708192a3b4c5d6e7f80910a1b2c3";
+
+    static String word(long value) {
+        return Numeric.toHexStringNoPrefixZeroPadded(BigInteger.valueOf(value), 64);
+    }
+
+    static TransactionReceipt receipt(String address, String event, String data) {
+        Log log = new Log();
+        log.setAddress(address);
+        log.setTopics(Collections.singletonList(Numeric.toHexString(
+            TransactionEncoderUtilV2.hash(event.getBytes(StandardCharsets.UTF_8)))));
+        log.setData("0x" + data);
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash("0x1");
+        receipt.setStatus("0x0");
+        receipt.setLogs(Collections.singletonList(log));
+        return receipt;
+    }
+
+    public static TransactionReceipt registerCptReceipt(long retCode, long cptId, long cptVersion) {
+        return receipt(CPT_ADDRESS, "RegisterCptRetLog(uint256,uint256,int256)",
+            word(retCode) + word(cptId) + word(cptVersion));
+    }
+
+    @Test
+    public void testRegisterCpt() {
+        HttpResponseData<String> resp =
+            WeIdReceiptDecoder.registerCpt(registerCptReceipt(0, 1000, 1), CPT_ADDRESS);
+        Assert.assertEquals(HttpReturnCode.SUCCESS.getCode(), resp.getErrorCode().intValue());
+        Assert.assertEquals("{\"cptId\":1000,\"cptVersion\":1}", resp.getRespBody());
+    }
+
+    @Test
+    public void testRegisterCptFailures() {
+        HttpResponseData<String> resp =
+            WeIdReceiptDecoder.registerCpt(registerCptReceipt(500302, 0, 0), CPT_ADDRESS);
+        Assert.assertEquals(500302, resp.getErrorCode().intValue());
+        // a log of another contract does not count
+        resp = WeIdReceiptDecoder.registerCpt(registerCptReceipt(0, 1000, 1), "0x01");
+        Assert.assertEquals(HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCode(),
+            resp.getErrorCode().intValue());
+        TransactionReceipt reverted = registerCptReceipt(0, 1000, 1);
+        reverted.setStatus("0x16");
+        resp = WeIdReceiptDecoder.registerCpt(reverted, CPT_ADDRESS);
+        Assert.assertEquals(HttpReturnCode.TRANSACTION_EXECUTE_FAILED.getCode(),
+            resp.getErrorCode().intValue());
+    }
+
+    @Test
+    public void testRegisterAuthorityIssuer() {
+        String address = word(0xabcdL);
+        HttpResponseData<String> resp = WeIdReceiptDecoder.registerAuthorityIssuer(
+            receipt(CPT_ADDRESS, "AuthorityIssuerRetLog(uint256,uint256,address)",
+                word(0) + word(0) + address), CPT_ADDRESS);
+        Assert.assertEquals("true", resp.getRespBody());
+        resp = WeIdReceiptDecoder.registerAuthorityIssuer(
+            receipt(CPT_ADDRESS, "AuthorityIssuerRetLog(uint256,uint256,address)",
+                word(0) + word(500201) + address), CPT_ADDRESS);
+        Assert.assertEquals("false", resp.getRespBody());
+        Assert.assertEquals(500201, resp.getErrorCode().intValue());
+    }
+
+    @Test
+    public void testCreateWeId() {
+        HttpResponseData<String> resp = WeIdReceiptDecoder.createWeId(
+            receipt(CPT_ADDRESS, "WeIdAttributeChanged(address,bytes32,bytes,uint256,int256)",
+                word(0)), CPT_ADDRESS);
+        Assert.assertEquals("true", resp.getRespBody());
+    }
+}